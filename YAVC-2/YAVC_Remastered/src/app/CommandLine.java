@@ -0,0 +1,596 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package app;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import decoder.Decoder;
+import encoder.Encoder;
+import encoder.EncoderPreset;
+import encoder.EncoderSettings;
+import encoder.ProcessSegmentRunner;
+import encoder.RateControlMode;
+import encoder.SegmentWorker;
+import encoder.SocketSegmentRunner;
+import interprediction.SearchStrategy;
+
+/**
+ * <p>The class {@code CommandLine} is the headless front end of
+ * the YAVC video compressor, so encodes and decodes can be
+ * scripted without any dialogs.</p>
+ * 
+ * <p>After an encode the throughput in frames per second and the
+ * bitrate of the output are reported, the bitrate is based on the
+ * frame rate of the Y4M header, {@code --fps} or 25 fps.</p>
+ * 
+ * <p>A {@code --bitrate} without {@code --rc} selects VBR.</p>
+ * 
+ * <p>A two-pass encoding runs the command twice, first with
+ * {@code --pass 1}, which only writes the statistics, then with
+ * {@code --pass 2} and the same input and stats file.</p>
+ * 
+ * <p>With {@code --worker-processes} every segment of a segment-parallel
+ * encoding runs in a JVM of its own. The workers get all options of the
+ * command except the ones, that only concern the whole encoding.</p>
+ * 
+ * <p>With {@code --coordinator} the segments are encoded by workers,
+ * that are started with the command {@code worker}, e.g. on other
+ * machines, and connect to the port of the coordinator. The input has
+ * to be readable by the workers under the same path. The coordinator
+ * listens on the loopback address, unless {@code --bind} is passed, and
+ * only accepts workers with its token, that is passed with {@code --token},
+ * taken from the environment variable {@value #TOKEN_VARIABLE} or
+ * generated and printed.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class CommandLine {
+	public static final int EXIT_SUCCESS = 0;
+	public static final int EXIT_FAILURE = 1;
+	public static final int EXIT_USAGE = 2;
+	
+	/**
+	 * Milliseconds, that a worker tries to reach the coordinator
+	 */
+	private static final long WORKER_CONNECT_TIMEOUT = 60000;
+	
+	/**
+	 * Environment variable with the token of the coordinator
+	 */
+	public static final String TOKEN_VARIABLE = "YAVC_TOKEN";
+	
+	/**
+	 * Options, that aren't passed to the worker processes
+	 */
+	private static final Set<String> SEGMENT_OPTIONS = Set.of("-o", "--output", "--frames", "--stats", "--parallel", "--segment-length", "--worker-processes", "--coordinator", "--bind", "--token", "--job-timeout", "-q", "--quiet");
+	
+	/**
+	 * <p>Runs the command and returns the exit code.</p>
+	 * 
+	 * @return {@link #EXIT_SUCCESS}, {@link #EXIT_FAILURE} or {@link #EXIT_USAGE}
+	 * 
+	 * @param args	Arguments of the program
+	 */
+	public static int run(String[] args) {
+		if (args.length == 0) {
+			printUsage(System.err);
+			return EXIT_USAGE;
+		}
+		
+		try {
+			switch (args[0]) {
+				case "encode":
+					return encode(args);
+				case "decode":
+					return decode(args);
+				case "worker":
+					return worker(args);
+				case "presets":
+					printPresets(System.out);
+					return EXIT_SUCCESS;
+				case "-h":
+				case "--help":
+				case "help":
+					printUsage(System.out);
+					return EXIT_SUCCESS;
+				default:
+					throw new IllegalArgumentException("Unknown command \"" + args[0] + "\"");
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println("Error: " + e.getMessage());
+			System.err.println("Run \"help\" for the usage");
+			return EXIT_USAGE;
+		}
+	}
+	
+	private static int encode(String[] args) {
+		EncoderSettings settings = new EncoderSettings();
+		File input = null;
+		RateControlMode rateControl = null;
+		boolean workerProcesses = false;
+		int coordinatorPort = -1;
+		InetAddress coordinatorAddress = null;
+		String token = System.getenv(TOKEN_VARIABLE);
+		int jobTimeout = SocketSegmentRunner.DEFAULT_JOB_TIMEOUT;
+		boolean coordinatorOptions = false;
+		ArrayList<String> workerOptions = new ArrayList<String>();
+		
+		//The preset is applied first, so single options can overwrite it regardless of the order
+		for (int i = 1; i < args.length - 1; i++) {
+			if (args[i].equals("--preset")) {
+				settings.applyPreset(EncoderPreset.fromName(args[i + 1]));
+			}
+		}
+		
+		for (int i = 1; i < args.length; i++) {
+			String arg = args[i];
+			int start = i;
+			
+			switch (arg) {
+				case "--preset":
+					getValue(args, i++);
+					break;
+				case "-o":
+				case "--output":
+					settings.setOutputFile(new File(getValue(args, i++)));
+					break;
+				case "--gop":
+					settings.setGOPLength(parseInt(arg, getValue(args, i++)));
+					break;
+				case "--scene-cut":
+					settings.setSceneCutThreshold(parseDouble(arg, getValue(args, i++)));
+					break;
+				case "--scene-change":
+					settings.setSceneChangeThreshold(parseDouble(arg, getValue(args, i++)));
+					break;
+				case "--size":
+					settings.setRawInputDimension(parseDimension(getValue(args, i++)));
+					break;
+				case "--limited-range":
+					settings.setLimitedRangeInput(true);
+					break;
+				case "--fps":
+					settings.setFrameRate(parseFrameRate(getValue(args, i++)));
+					break;
+				case "--qp":
+					settings.setQuantizer(parseInt(arg, getValue(args, i++)));
+					break;
+				case "--rc":
+					rateControl = parseRateControl(getValue(args, i++));
+					break;
+				case "--bitrate":
+					settings.setTargetBitrate(parseInt(arg, getValue(args, i++)));
+					break;
+				case "--maxrate":
+					settings.setMaxBitrate(parseInt(arg, getValue(args, i++)));
+					break;
+				case "--bufsize":
+					settings.setBufferSize(parseInt(arg, getValue(args, i++)));
+					break;
+				case "--pass":
+					settings.setPass(parseInt(arg, getValue(args, i++)));
+					break;
+				case "--stats":
+					settings.setStatsFile(new File(getValue(args, i++)));
+					break;
+				case "--frames":
+					int[] range = parseFrameRange(getValue(args, i++));
+					settings.setFrameRange(range[0], range[1]);
+					break;
+				case "--parallel":
+					settings.setSegmentWorkers(parseInt(arg, getValue(args, i++)));
+					break;
+				case "--segment-length":
+					settings.setSegmentLength(parseInt(arg, getValue(args, i++)));
+					break;
+				case "--worker-processes":
+					workerProcesses = true;
+					break;
+				case "--coordinator":
+					coordinatorPort = parseInt(arg, getValue(args, i++));
+					break;
+				case "--bind":
+					coordinatorAddress = parseAddress(getValue(args, i++));
+					coordinatorOptions = true;
+					break;
+				case "--token":
+					token = getValue(args, i++);
+					coordinatorOptions = true;
+					break;
+				case "--job-timeout":
+					jobTimeout = parseInt(arg, getValue(args, i++));
+					coordinatorOptions = true;
+					break;
+				case "--tiles":
+					int[] tiles = parseTiles(getValue(args, i++));
+					settings.setTiles(tiles[0], tiles[1]);
+					break;
+				case "--search":
+					settings.setSearchStrategy(SearchStrategy.valueOf(getValue(args, i++).toUpperCase(Locale.ROOT)));
+					break;
+				case "--search-window":
+					settings.setSearchWindow(parseInt(arg, getValue(args, i++)));
+					break;
+				case "--refinement":
+					settings.setRefinementWindow(parseInt(arg, getValue(args, i++)));
+					break;
+				case "--refs":
+					settings.setSearchReferences(parseInt(arg, getValue(args, i++)));
+					break;
+				case "--quadtree-threshold":
+					settings.setQuadtreeThreshold(parseInt(arg, getValue(args, i++)));
+					break;
+				case "--prefetch":
+					settings.setInputPrefetch(parseInt(arg, getValue(args, i++)));
+					break;
+				case "--adaptive-search":
+					settings.setAdaptiveSearch(true);
+					break;
+				case "--flexible-gop":
+					settings.setFlexibleGOP(true);
+					break;
+				case "--analysis-depth":
+					settings.setAnalysisDepth(parseInt(arg, getValue(args, i++)));
+					break;
+				case "--output-queue":
+					settings.setOutputQueueDepth(parseInt(arg, getValue(args, i++)));
+					break;
+				case "-q":
+				case "--quiet":
+					settings.setVerbose(false);
+					break;
+				default:
+					if (arg.startsWith("-") && !arg.equals("-")) {
+						throw new IllegalArgumentException("Unknown option \"" + arg + "\"");
+					} else if (input != null) {
+						throw new IllegalArgumentException("Only one input is allowed, got \"" + input.getPath() + "\" and \"" + arg + "\"");
+					}
+					
+					input = new File(arg);
+			}
+			
+			if (arg.startsWith("-") && !arg.equals("-") && !SEGMENT_OPTIONS.contains(arg)) {
+				workerOptions.addAll(Arrays.asList(args).subList(start, i + 1));
+			}
+		}
+		
+		if (input == null) {
+			throw new IllegalArgumentException("No input provided");
+		} else if (workerProcesses && settings.getSegmentWorkers() < 2) {
+			throw new IllegalArgumentException("--worker-processes requires --parallel with at least 2 workers");
+		} else if (coordinatorPort >= 0 && settings.getSegmentWorkers() < 2) {
+			throw new IllegalArgumentException("--coordinator requires --parallel with at least 2 workers");
+		} else if (coordinatorOptions && coordinatorPort < 0) {
+			throw new IllegalArgumentException("--bind, --token and --job-timeout require --coordinator");
+		} else if (workerProcesses && coordinatorPort >= 0) {
+			throw new IllegalArgumentException("--worker-processes and --coordinator can't be combined");
+		} else if (rateControl == null) {
+			rateControl = settings.getTargetBitrate() > 0 ? RateControlMode.VBR : RateControlMode.CONSTANT_QP;
+		} else if (rateControl != RateControlMode.CONSTANT_QP && settings.getTargetBitrate() <= 0) {
+			throw new IllegalArgumentException("--rc " + rateControl.name().toLowerCase(Locale.ROOT) + " requires --bitrate");
+		}
+		
+		settings.setRateControlMode(rateControl);
+		
+		Encoder encoder = new Encoder(Main.DCT_ENGINE, settings);
+		
+		if (workerProcesses) {
+			List<String> command = ProcessSegmentRunner.getJavaCommand();
+			command.add("encode");
+			command.addAll(workerOptions);
+			encoder.setSegmentRunner(new ProcessSegmentRunner(command));
+		}
+		
+		if (coordinatorPort >= 0) {
+			try (SocketSegmentRunner coordinator = new SocketSegmentRunner(coordinatorAddress, coordinatorPort, token, jobTimeout, workerOptions)) {
+				System.out.println("Coordinator listening on " + coordinator.getAddress().getHostAddress() + ":" + coordinator.getPort());
+				
+				if (token == null) {
+					System.out.println("Token: " + coordinator.getToken());
+				}
+				
+				encoder.setSegmentRunner(coordinator);
+				encoder.encode(input, null);
+			} catch (IOException e) {
+				System.err.println("Error: Can't open port " + coordinatorPort + ": " + e.getMessage());
+				return EXIT_FAILURE;
+			}
+		} else {
+			encoder.encode(input, null);
+		}
+		
+		if (settings.getPass() == 1) {
+			printFirstPassReport(encoder);
+		} else {
+			printReport(encoder, encoder.getFrameRate());
+		}
+		
+		return encoder.hasFailed() ? EXIT_FAILURE : EXIT_SUCCESS;
+	}
+	
+	private static int decode(String[] args) {
+		int startFrame = 0;
+		Rectangle region = null;
+		File input = null;
+		File output = null;
+		
+		for (int i = 1; i < args.length; i++) {
+			String arg = args[i];
+			
+			if (arg.equals("--start")) {
+				startFrame = parseInt(arg, getValue(args, i++));
+			} else if (arg.equals("--region")) {
+				region = parseRegion(getValue(args, i++));
+			} else if (arg.startsWith("-") && !arg.equals("-")) {
+				throw new IllegalArgumentException("Unknown option \"" + arg + "\"");
+			} else if (input == null) {
+				input = new File(arg);
+			} else if (output == null) {
+				output = new File(arg);
+			} else {
+				throw new IllegalArgumentException("Unexpected argument \"" + arg + "\"");
+			}
+		}
+		
+		if (input == null || output == null) {
+			throw new IllegalArgumentException("decode requires an input and an output");
+		}
+		
+		Decoder decoder = new Decoder();
+		decoder.setRegion(region);
+		decoder.decode(input, output, startFrame);
+		return decoder.hasFailed() ? EXIT_FAILURE : EXIT_SUCCESS;
+	}
+	
+	private static int worker(String[] args) {
+		String token = System.getenv(TOKEN_VARIABLE);
+		String address = null;
+		
+		for (int i = 1; i < args.length; i++) {
+			String arg = args[i];
+			
+			if (arg.equals("--token")) {
+				token = getValue(args, i++);
+			} else if (arg.startsWith("-")) {
+				throw new IllegalArgumentException("Unknown option \"" + arg + "\"");
+			} else if (address == null) {
+				address = arg;
+			} else {
+				throw new IllegalArgumentException("Unexpected argument \"" + arg + "\"");
+			}
+		}
+		
+		if (address == null) {
+			throw new IllegalArgumentException("worker requires the address of the coordinator");
+		} else if (token == null) {
+			throw new IllegalArgumentException("worker requires the token of the coordinator, pass --token or set " + TOKEN_VARIABLE);
+		}
+		
+		int separator = address.lastIndexOf(':');
+		
+		if (separator < 0) {
+			throw new IllegalArgumentException("Address \"" + address + "\" isn't in the format <host>:<port>");
+		}
+		
+		String host = separator == 0 ? "localhost" : address.substring(0, separator);
+		SegmentWorker worker = new SegmentWorker(host, parseInt("worker", address.substring(separator + 1)), token, CommandLine::run);
+		
+		try {
+			int segments = worker.run(WORKER_CONNECT_TIMEOUT);
+			System.out.println("Encoded " + segments + " segments");
+			return EXIT_SUCCESS;
+		} catch (IOException | InterruptedException e) {
+			System.err.println("Error: Worker stopped: " + e.getMessage());
+			return EXIT_FAILURE;
+		}
+	}
+	
+	/**
+	 * <p>Prints the throughput and the bitrate of the last encoding.</p>
+	 */
+	private static void printReport(Encoder encoder, double frameRate) {
+		int frames = encoder.getEncodedFrames();
+		double seconds = Math.max(encoder.getEncodingTime(), 1) / 1000.0;
+		File out = encoder.getOutputFile();
+		long bytes = out == null ? 0 : out.length();
+		double bitrate = frames == 0 ? 0 : bytes * 8.0 * frameRate / frames / 1000.0;
+		
+		System.out.println(String.format(Locale.ROOT, "Encoded %d frames in %.2fs (%.2f fps)", frames, seconds, frames / seconds));
+		System.out.println(String.format(Locale.ROOT, "Output: %s, %d bytes, %.1f kbit/s at %.3f fps", out == null ? "-" : out.getPath(), bytes, bitrate, frameRate));
+	}
+	
+	private static void printFirstPassReport(Encoder encoder) {
+		int frames = encoder.getEncodedFrames();
+		double seconds = Math.max(encoder.getEncodingTime(), 1) / 1000.0;
+		
+		System.out.println(String.format(Locale.ROOT, "Analyzed %d frames in %.2fs (%.2f fps)", frames, seconds, frames / seconds));
+		System.out.println("Stats: " + encoder.getOutputFile().getPath());
+	}
+	
+	private static void printPresets(PrintStream out) {
+		out.println(String.format(Locale.ROOT, "%-10s %-8s %6s %10s %4s %9s", "Preset", "Search", "Window", "Refinement", "Refs", "Threshold"));
+		
+		for (EncoderPreset preset : EncoderPreset.values()) {
+			out.println(String.format(Locale.ROOT, "%-10s %-8s %6d %10d %4d %9d", preset.name().toLowerCase(Locale.ROOT), preset.getSearchStrategy().name().toLowerCase(Locale.ROOT),
+					preset.getSearchWindow(), preset.getRefinementWindow(), preset.getSearchReferences(), preset.getQuadtreeThreshold()));
+		}
+	}
+	
+	private static void printUsage(PrintStream out) {
+		out.println("Usage:");
+		out.println("  encode [options] <input>           Encodes a BMP directory, .y4m, raw .yuv or \"-\" (Y4M on stdin)");
+		out.println("    -o, --output <file>              Output file, default YAVC.yavcv next to the input");
+		out.println("    --preset <name>                  ultrafast, superfast, veryfast, faster, fast, medium (default), slow");
+		out.println("    --gop <frames>                   Maximum frames between two keyframes");
+		out.println("    --flexible-gop                   Postpones the GOP keyframe to a scene change within the lookahead");
+		out.println("    --scene-cut <fraction>           Changed area that triggers a keyframe, 0 disables it");
+		out.println("    --scene-change <difference>      Luma difference of the source frames that triggers a keyframe, 0 disables it");
+		out.println("    --size <WxH>                     Dimension of raw YUV input");
+		out.println("    --limited-range                  Raw YUV input is in limited range");
+		out.println("    --fps <rate>                     Frame rate for the bitrate, e.g. 25 or 30000:1001");
+		out.println("    --qp <" + config.MIN_QP + "-" + config.MAX_QP + ">                      Quantizer of a constant QP and of the first inter frame, default " + config.DEFAULT_QP);
+		out.println("    --rc <cqp|cbr|vbr>               Rate control, default vbr with a bitrate and cqp without");
+		out.println("    --bitrate <kbit/s>               Target bitrate of CBR and VBR");
+		out.println("    --maxrate <kbit/s>               Rate, with which the buffer drains");
+		out.println("    --bufsize <kbit>                 Size of the rate control buffer (VBV)");
+		out.println("    --pass <1|2>                     Pass of a two-pass encoding, 1 only writes the stats");
+		out.println("    --stats <file>                   Stats of the first pass, default YAVC.stats next to the output");
+		out.println("    --frames <first>:<count>         Encodes only a range of the input, a count of 0 up to the end");
+		out.println("    --parallel <workers>             Encodes keyframe-started segments at once and merges them");
+		out.println("    --segment-length <frames>        Frames of a segment, default the GOP length");
+		out.println("    --worker-processes               Encodes every segment in a JVM of its own");
+		out.println("    --coordinator <port>             Hands the segments to workers, that connect to the port, 0 for any");
+		out.println("    --bind <address>                 Address of the coordinator, default the loopback address");
+		out.println("    --token <token>                  Token of the workers, default $" + TOKEN_VARIABLE + " or a random one");
+		out.println("    --job-timeout <seconds>          Time of a worker for a segment, default " + SocketSegmentRunner.DEFAULT_JOB_TIMEOUT);
+		out.println("    --tiles <CxR>                    Splits the frames into independently decodable tiles");
+		out.println("    --search <diamond|hexagon>       Pattern of the motion search");
+		out.println("    --search-window <pixels>         Maximum motion per reference");
+		out.println("    --refinement <pixels>            Exhaustive search after the pattern search, 0 disables it");
+		out.println("    --refs <count>                   Amount of references to search");
+		out.println("    --quadtree-threshold <value>     Deviation above which blocks are split");
+		out.println("    --prefetch <frames>              Input frames read ahead");
+		out.println("    --adaptive-search                Search window and refs adapt to the estimated motion");
+		out.println("    --analysis-depth <frames>        Frames analyzed ahead (lookahead)");
+		out.println("    --output-queue <frames>          Frames waiting for the writer");
+		out.println("    -q, --quiet                      No statistics per frame");
+		out.println("  decode [--start <frame>] [--region <x,y,w,h>] <input> <output>");
+		out.println("                                     Region only decodes the tiles, that intersect it");
+		out.println("                                     Output is a directory (PNG), .y4m, raw .yuv or \"-\" (Y4M on stdout)");
+		out.println("  worker [--token <token>] <host>:<port>");
+		out.println("                                     Encodes segments of a coordinator until it is done");
+		out.println("  presets                            Lists the presets");
+	}
+	
+	private static String getValue(String[] args, int index) {
+		if (index + 1 >= args.length) {
+			throw new IllegalArgumentException("Option " + args[index] + " requires a value");
+		}
+		
+		return args[index + 1];
+	}
+	
+	private static int parseInt(String option, String value) {
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Option " + option + " requires a number, got \"" + value + "\"");
+		}
+	}
+	
+	private static double parseDouble(String option, String value) {
+		try {
+			return Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Option " + option + " requires a number, got \"" + value + "\"");
+		}
+	}
+	
+	private static Dimension parseDimension(String value) {
+		String[] parts = value.toLowerCase(Locale.ROOT).split("x");
+		
+		if (parts.length != 2) {
+			throw new IllegalArgumentException("Size has to be WIDTHxHEIGHT, got \"" + value + "\"");
+		}
+		
+		return new Dimension(parseInt("--size", parts[0]), parseInt("--size", parts[1]));
+	}
+	
+	/**
+	 * <p>Parses a frame rate as decimal number or as fraction
+	 * like in the Y4M header, e.g. "30000:1001".</p>
+	 */
+	private static double parseFrameRate(String value) {
+		return EncoderSettings.parseFrameRate(value);
+	}
+	
+	private static InetAddress parseAddress(String value) {
+		try {
+			return InetAddress.getByName(value);
+		} catch (UnknownHostException e) {
+			throw new IllegalArgumentException("Unknown address \"" + value + "\"");
+		}
+	}
+	
+	private static int[] parseFrameRange(String value) {
+		String[] parts = value.split(":");
+		
+		if (parts.length != 2) {
+			throw new IllegalArgumentException("Frame range has to be FIRST:COUNT, got \"" + value + "\"");
+		}
+		
+		return new int[] {parseInt("--frames", parts[0]), parseInt("--frames", parts[1])};
+	}
+	
+	private static int[] parseTiles(String value) {
+		String[] parts = value.toLowerCase(Locale.ROOT).split("x");
+		
+		if (parts.length != 2) {
+			throw new IllegalArgumentException("Tiles have to be COLUMNSxROWS, got \"" + value + "\"");
+		}
+		
+		return new int[] {parseInt("--tiles", parts[0]), parseInt("--tiles", parts[1])};
+	}
+	
+	private static Rectangle parseRegion(String value) {
+		String[] parts = value.split(",");
+		
+		if (parts.length != 4) {
+			throw new IllegalArgumentException("Region has to be X,Y,WIDTH,HEIGHT, got \"" + value + "\"");
+		}
+		
+		Rectangle region = new Rectangle(parseInt("--region", parts[0]), parseInt("--region", parts[1]), parseInt("--region", parts[2]), parseInt("--region", parts[3]));
+		
+		if (region.isEmpty()) {
+			throw new IllegalArgumentException("Region can't be empty, got \"" + value + "\"");
+		}
+		
+		return region;
+	}
+	
+	private static RateControlMode parseRateControl(String value) {
+		switch (value.toLowerCase(Locale.ROOT)) {
+			case "cqp":
+				return RateControlMode.CONSTANT_QP;
+			case "cbr":
+				return RateControlMode.CBR;
+			case "vbr":
+				return RateControlMode.VBR;
+			default:
+				throw new IllegalArgumentException("Unknown rate control \"" + value + "\", expected cqp, cbr or vbr");
+		}
+	}
+}
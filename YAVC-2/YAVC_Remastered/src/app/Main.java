@@ -24,6 +24,7 @@ package app;
 import java.io.File;
 
 import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
 
 import decoder.Decoder;
 import encoder.DCTEngine;
@@ -31,10 +32,22 @@ import encoder.Encoder;
 
 public class Main {
 	public static DCTEngine DCT_ENGINE = new DCTEngine();
-	private static boolean encode = false;
 	
+	/**
+	 * <p>With arguments the {@link CommandLine} is used,
+	 * otherwise the files are selected with dialogs.</p>
+	 */
 	public static void main(String [] args) {
-		if (encode) {
+		if (args.length > 0) {
+			System.exit(CommandLine.run(args));
+		}
+		
+		String[] modes = {"Encode", "Decode"};
+		int mode = JOptionPane.showOptionDialog(null, "Encode or decode?", "YAVC", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, modes, modes[0]);
+		
+		if (mode < 0) {
+			return;
+		} else if (mode == 0) {
 			JFileChooser jfc = new JFileChooser();
 			jfc.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
 			jfc.showDialog(null, null);
@@ -31,7 +31,93 @@ package app;
 
 public class config {
 	public static final int MAX_REFERENCES = 4;
+	
+	/**
+	 * <p>Default amount of frames in a group of pictures (GOP).
+	 * Every GOP starts with a keyframe that does not refer to any
+	 * previous frame.</p>
+	 */
+	public static final int DEFAULT_GOP_LENGTH = 60;
+	
+	/**
+	 * <p>Default fraction of the frame area that has to change,
+	 * before a frame is treated as scene cut and coded as keyframe.</p>
+	 */
+	public static final double DEFAULT_SCENE_CUT_THRESHOLD = 0.7;
+	
+	/**
+	 * <p>Default mean absolute luma difference between two
+	 * downscaled source frames, above which the pre-analysis
+	 * detects a scene change.</p>
+	 */
+	public static final double DEFAULT_SCENE_CHANGE_THRESHOLD = 20;
+	
+	/**
+	 * <p>Default amount of encoded frames, that can wait for
+	 * the output writer, before the encoder gets blocked.</p>
+	 */
+	public static final int DEFAULT_OUTPUT_QUEUE_DEPTH = 8;
+	
+	/**
+	 * <p>Default amount of frames the decoder parses ahead
+	 * of the reconstruction.</p>
+	 */
+	public static final int DEFAULT_DECODER_READ_AHEAD = 4;
+	
+	/**
+	 * <p>Default amount of input frames the encoder reads
+	 * and converts ahead of the encoding.</p>
+	 */
+	public static final int DEFAULT_INPUT_PREFETCH = 4;
+	
+	/**
+	 * <p>Default amount of frames, whose quadtree is built
+	 * while the current frame is encoded. The frames also
+	 * form the lookahead of the current frame.</p>
+	 */
+	public static final int DEFAULT_ANALYSIS_DEPTH = 4;
+	
+	/**
+	 * <p>Frame rate for the rate control, if neither the input
+	 * nor the settings provide one.</p>
+	 */
+	public static final double DEFAULT_FRAME_RATE = 25;
+	
+	/**
+	 * <p>Default maximum distance in pixels between a block
+	 * and its match in the reference.</p>
+	 */
+	public static final int DEFAULT_SEARCH_WINDOW = 48;
+	
+	/**
+	 * <p>Default size of the exhaustive search, that refines
+	 * the result of the pattern search.</p>
+	 */
+	public static final int DEFAULT_REFINEMENT_WINDOW = 2;
+	
+	/**
+	 * <p>Default standard deviation of a block, above which
+	 * the quadtree splits the block.</p>
+	 */
+	public static final int DEFAULT_QUADTREE_THRESHOLD = 45;
 
+	/**
+	 * <p>Quantizer, at which the quantization matrices are
+	 * used as they are. Files without a quantizer per frame
+	 * are coded with it. Finer steps would exceed the 7 bits
+	 * and sign, that are stored per coefficient, so it is
+	 * also the lowest quantizer.</p>
+	 */
+	public static final int DEFAULT_QP = 0;
+	
+	/**
+	 * <p>Range of the quantizer, every {@link #QP_PER_DOUBLING}
+	 * steps the quantization step doubles.</p>
+	 */
+	public static final int MIN_QP = DEFAULT_QP;
+	public static final int MAX_QP = 30;
+	public static final int QP_PER_DOUBLING = 6;
+	
 	public static final int[][] QUANTIZATION_MATRIX_8x8_Luma = {
 		{16, 11, 10, 16, 24, 40, 51, 61},
 		{12, 12, 14, 19, 26, 58, 60, 55},
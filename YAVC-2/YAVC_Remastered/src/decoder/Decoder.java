@@ -1,56 +1,122 @@
 package decoder;
 
-import java.awt.image.BufferedImage;
+import java.awt.Rectangle;
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-
-import javax.imageio.ImageIO;
 
 import app.config;
 import utils.PixelRaster;
 
 public class Decoder {
+	private Rectangle region = null;
+	private boolean failed = false;
+	
 	public void decode(File input, File output) {
-		InputStream inputStream = new InputStream(input);
-		InputProcessor processor = new InputProcessor();
-		processor.proessMetadata(inputStream.getMetadata());
-		int lenOfIndexes = processor.initFrameReader(inputStream.getNumberOfIndexes());
-		processor.getIndexes(inputStream.getIndexes(lenOfIndexes));
-		
-		int lengthOfStartFrame = processor.getNextLength();
-		byte[] startFrame = inputStream.getChunk(lengthOfStartFrame);
-		BufferedImage startFrameImg = processor.constructStartFrame(startFrame);
-		
+		decode(input, output, 0);
+	}
+	
+	/**
+	 * Decodes only the tiles, that intersect the region. Frames
+	 * without tiles are decoded as a whole.
+	 * 
+	 * @param region	Area to decode, null for the whole frame
+	 * 
+	 * @see FrameSource#setRegion(Rectangle)
+	 */
+	public void setRegion(Rectangle region) {
+		this.region = region;
+	}
+	
+	/**
+	 * Decodes all frames from the desired frame on. The sink is chosen
+	 * by the output: a directory gets PNGs, a file ending with .y4m
+	 * a YUV4MPEG2 stream and every other file raw YUV 4:2:0.
+	 * 
+	 * @param input	File to decode
+	 * @param output	Directory or file to write the frames to
+	 * @param startFrame	First frame to write
+	 * 
+	 * @see #decode(File, FrameSink, int)
+	 */
+	public void decode(File input, File output, int startFrame) {
 		try {
-			ImageIO.write(startFrameImg, "png", new File(output.getAbsolutePath() + "/SF.png"));
-			ArrayList<PixelRaster> refs = new ArrayList<PixelRaster>();
-			refs.add(new PixelRaster(startFrameImg));
+			decode(input, createSink(output), startFrame);
+		} catch (IOException e) {
+			this.failed = true;
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Decodes all frames from the desired frame on and writes
+	 * them to the sink. The decoding starts at the last keyframe before
+	 * that frame, all frames in front of the desired frame are only
+	 * used as references.
+	 * 
+	 * <p>The decoder works as pipeline: while frame N gets reconstructed,
+	 * the following frames are already parsed by the {@link FrameSource}
+	 * and the previous frames are written by the {@link OutputStage}.</p>
+	 * 
+	 * @param input	File to decode
+	 * @param sink	Sink to write the frames to
+	 * @param startFrame	First frame to write
+	 * 
+	 * @see decoder.FrameSource
+	 */
+	public void decode(File input, FrameSink sink, int startFrame) {
+		this.failed = false;
+		
+		try (FrameSource source = new FrameSource(input)) {
+			int outputDepth = config.DEFAULT_DECODER_READ_AHEAD;
+			source.seek(startFrame);
+			source.setRegion(this.region);
+			//Frames waiting in the output stage and the one, that is written, must not be overwritten
+			source.setRetainedFrames(outputDepth + 1);
+			sink.begin(source.getDimension());
+			OutputStage outputStage = new OutputStage(sink, outputDepth);
 			
-			for (int i = 0; i < 100; i++) {
-				System.out.println("FRAME: " + i + " (" + refs.size() + ")");
-				int lengthOfData = processor.getNextLength();
-				byte[] frame = inputStream.getChunk(lengthOfData);
-				PixelRaster result = processor.processFrame(frame, refs);
+			try {
+				while (source.hasNext()) {
+					int i = source.getNextFrameNumber();
+					PixelRaster result = source.next();
+					outputStage.put(i, result);
+				}
 				
-				ImageIO.write(result.toBufferedImage(), "png", new File(output.getAbsolutePath() + "/R_" + i + ".png"));
-				refs.add(result);
-				manageReferences(refs);
+				outputStage.close();
+			} catch (Exception e) {
+				outputStage.abort();
+				throw e;
 			}
-		} catch (IOException e) {
+		} catch (Exception e) {
+			this.failed = true;
 			e.printStackTrace();
 		}
 	}
 	
-	private void manageReferences(ArrayList<?> references) {
-		if (references == null) {
-			return;
-		}
-		
-		if (references.size() <= config.MAX_REFERENCES) {
-			return;
+	/**
+	 * @return true if the last decoding was stopped by an error
+	 */
+	public boolean hasFailed() {
+		return this.failed;
+	}
+	
+	/**
+	 * Creates the sink, that fits to the output. "-" writes
+	 * a YUV4MPEG2 stream to the standard output.
+	 * 
+	 * @return Sink for the output
+	 * 
+	 * @param output	Directory or file to write to
+	 */
+	public static FrameSink createSink(File output) throws IOException {
+		if (output.getPath().equals("-")) {
+			return new Y4MSink(YUVSink.openStandardOutput());
+		} else if (output.isDirectory()) {
+			return new PNGSink(output);
+		} else if (output.getName().toLowerCase().endsWith(".y4m")) {
+			return new Y4MSink(output);
 		}
 		
-		references.remove(0);
+		return new YUVSink(output);
 	}
 }
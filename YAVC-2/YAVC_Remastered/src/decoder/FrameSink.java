@@ -0,0 +1,65 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package decoder;
+
+import java.awt.Dimension;
+import java.io.IOException;
+
+import utils.PixelRaster;
+
+/**
+ * <p>The interface {@code FrameSink} describes the destination
+ * of decoded frames. The frames are passed in order, a sink
+ * must not modify them.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ * 
+ * @see decoder.PNGSink
+ * @see decoder.ImageExportSink
+ * @see decoder.YUVSink
+ * @see decoder.Y4MSink
+ */
+
+public interface FrameSink {
+	/**
+	 * <p>Called once before the first frame is written.</p>
+	 * 
+	 * @param dim	Dimension of the frames
+	 */
+	public void begin(Dimension dim) throws IOException;
+	
+	/**
+	 * <p>Writes a single frame.</p>
+	 * 
+	 * @param frameNumber	Number of the frame in the stream
+	 * @param frame	Decoded frame
+	 */
+	public void write(int frameNumber, PixelRaster frame) throws IOException;
+	
+	/**
+	 * <p>Called once after the last frame, flushes and releases
+	 * the resources of the sink.</p>
+	 */
+	public void close() throws IOException;
+}
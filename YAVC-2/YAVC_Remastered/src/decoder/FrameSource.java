@@ -0,0 +1,359 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package decoder;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import app.config;
+import utils.PixelRaster;
+import utils.ReferenceBuffer;
+
+/**
+ * <p>The class {@code FrameSource} decodes a YAVC file lazily
+ * frame by frame. Every call of {@link #next()} decodes exactly
+ * one frame, nothing is written to the disk.</p>
+ * 
+ * <p>By default the returned PixelRaster is the reference frame
+ * the decoder itself works with. It must not be modified and is
+ * only guaranteed to be valid until the next call of {@link #next()},
+ * or as many further calls as set by {@link #setRetainedFrames(int)}.
+ * With {@link #setDetachedFrames(boolean)} every frame is copied
+ * before it is returned, so it can be kept and modified freely.</p>
+ * 
+ * <p>Decoding a frame is split into two stages. Parsing the bitstream
+ * and the IDCT of the differences don't depend on any other frame,
+ * so up to {@link #setReadAhead(int)} frames are parsed ahead on a
+ * separate pool. Only the motion compensation has to wait for the
+ * previous frame and runs when {@link #next()} is called.</p>
+ * 
+ * <p>Example:
+ * <pre>
+ * try (FrameSource source = new FrameSource(file)) {
+ *     source.seek(120);
+ *     while (source.hasNext()) {
+ *         PixelRaster frame = source.next();
+ *     }
+ * }
+ * </pre></p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class FrameSource implements Iterator<PixelRaster>, AutoCloseable {
+	private InputStream inputStream = null;
+	private InputProcessor processor = null;
+	
+	/**
+	 * References of the current GOP, created with the first frame
+	 */
+	private ReferenceBuffer refs = null;
+	private int retainedFrames = 0;
+	
+	/**
+	 * Number of the frame, that is decoded next
+	 */
+	private int frameNumber = 0;
+	
+	/**
+	 * Frames in front of this number are decoded, but not returned
+	 */
+	private int firstFrameToReturn = 0;
+	
+	private boolean detachedFrames = false;
+	
+	/**
+	 * Frames, that are parsed or waiting to be parsed, in order
+	 */
+	private ArrayDeque<Future<ParsedFrame>> pendingFrames = new ArrayDeque<Future<ParsedFrame>>();
+	private ExecutorService parser = null;
+	private int readAhead = config.DEFAULT_DECODER_READ_AHEAD;
+	private int parserThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+	
+	/**
+	 * Number of the frame, that is handed to the parser next
+	 */
+	private int frameToParse = 0;
+	
+	/**
+	 * <p>Opens the YAVC file and reads the indexes. If the file
+	 * was not finished by the encoder, the indexes are rebuilt
+	 * from the frames.</p>
+	 * 
+	 * @param input	YAVC file to decode
+	 */
+	public FrameSource(File input) {
+		this.inputStream = new InputStream(input);
+		this.processor = new InputProcessor();
+		this.processor.proessMetadata(this.inputStream.getMetadata());
+		
+		if (this.processor.hasTrailer()) {
+			this.processor.getIndexes(this.inputStream.getTrailer(this.processor.getTrailerOffset()));
+		} else {
+			System.err.println("Unfinished file, rebuilding the indexes");
+			this.processor.rebuildIndexes(this.inputStream);
+		}
+		
+		seek(0);
+	}
+	
+	/**
+	 * <p>Moves the source to the desired frame. The decoding starts
+	 * at the last keyframe before that frame, the frames in between
+	 * are decoded as references but not returned.</p>
+	 * 
+	 * @param frame	Number of the next frame to return
+	 * 
+	 * @throws IllegalArgumentException	when the frame is not within the file
+	 */
+	public void seek(int frame) {
+		if (frame < 0 || frame > this.processor.getNumberOfFrames()) {
+			throw new IllegalArgumentException("Frame " + frame + " is not within 0 and " + this.processor.getNumberOfFrames());
+		}
+		
+		long[] keyframe = this.processor.seekToFrame(frame);
+		this.inputStream.seek(keyframe[1]);
+		this.frameNumber = (int)keyframe[0];
+		this.frameToParse = this.frameNumber;
+		this.firstFrameToReturn = frame;
+		
+		if (this.refs != null) {
+			this.refs.clear();
+		}
+		
+		cancelPendingFrames();
+	}
+	
+	/**
+	 * <p>Sets how many frames are parsed ahead of the reconstruction.
+	 * With 0 every frame is parsed, when it is requested.</p>
+	 * 
+	 * @param frames	Amount of frames to parse ahead
+	 * 
+	 * @throws IllegalArgumentException	when the amount is negative
+	 */
+	public void setReadAhead(int frames) {
+		if (frames < 0) {
+			throw new IllegalArgumentException("Read ahead can't be negative, got " + frames);
+		}
+		
+		this.readAhead = frames;
+	}
+	
+	/**
+	 * <p>Sets the amount of threads, that parse frames ahead.
+	 * Has to be called before the first frame is decoded.</p>
+	 * 
+	 * @param threads	Amount of parser threads
+	 * 
+	 * @throws IllegalArgumentException	when the amount is lower than 1
+	 */
+	public void setParserThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one parser thread is required, got " + threads);
+		}
+		
+		this.parserThreads = threads;
+	}
+	
+	/**
+	 * <p>Sets for how many further calls of {@link #next()} a returned
+	 * frame stays valid, e.g. while it waits in an output queue.
+	 * Has to be called before the first frame is decoded.</p>
+	 * 
+	 * @param frames	Amount of further frames
+	 * 
+	 * @throws IllegalArgumentException	when the amount is negative
+	 * @throws IllegalStateException	when frames are already decoded
+	 */
+	public void setRetainedFrames(int frames) {
+		if (frames < 0) {
+			throw new IllegalArgumentException("Retained frames can't be negative, got " + frames);
+		} else if (this.refs != null) {
+			throw new IllegalStateException("Retained frames have to be set before the first frame is decoded");
+		}
+		
+		this.retainedFrames = frames;
+	}
+	
+	/**
+	 * <p>Restricts the decoding of tiled frames to the tiles, that
+	 * intersect the region. Has to be called before the first frame
+	 * is decoded.</p>
+	 * 
+	 * @param region	Area to decode, null for the whole frame
+	 * 
+	 * @throws IllegalStateException	when frames are already decoded
+	 * 
+	 * @see InputProcessor#setRegion(Rectangle)
+	 */
+	public void setRegion(Rectangle region) {
+		if (this.refs != null) {
+			throw new IllegalStateException("Region has to be set before the first frame is decoded");
+		}
+		
+		this.processor.setRegion(region);
+	}
+	
+	/**
+	 * <p>Sets whether the returned frames are copies, that belong
+	 * to the caller, or the internal reference frames.</p>
+	 * 
+	 * @param detached	true to return copies
+	 */
+	public void setDetachedFrames(boolean detached) {
+		this.detachedFrames = detached;
+	}
+	
+	@Override
+	public boolean hasNext() {
+		return getNextFrameNumber() < this.processor.getNumberOfFrames();
+	}
+	
+	/**
+	 * <p>Decodes the next frame.</p>
+	 * 
+	 * @return Decoded frame
+	 * 
+	 * @throws NoSuchElementException	when there are no frames left
+	 * @throws IllegalStateException	when the frame can't be parsed or
+	 * reconstructed, the frame doesn't become a reference then
+	 */
+	@Override
+	public PixelRaster next() {
+		PixelRaster result = null;
+		
+		do {
+			result = decodeNextFrame();
+		} while (this.frameNumber <= this.firstFrameToReturn);
+		
+		return this.detachedFrames ? result.copy() : result;
+	}
+	
+	/**
+	 * @return Number of the frame, that is returned by the next call of {@link #next()}
+	 */
+	public int getNextFrameNumber() {
+		return Math.max(this.frameNumber, this.firstFrameToReturn);
+	}
+	
+	public int getNumberOfFrames() {
+		return this.processor.getNumberOfFrames();
+	}
+	
+	public Dimension getDimension() {
+		return this.processor.getDimension();
+	}
+	
+	@Override
+	public void close() {
+		cancelPendingFrames();
+		
+		if (this.parser != null) {
+			this.parser.shutdownNow();
+		}
+		
+		this.refs = null;
+		this.processor.shutdown();
+		this.inputStream.close();
+	}
+	
+	private PixelRaster decodeNextFrame() {
+		if (this.frameNumber >= this.processor.getNumberOfFrames()) {
+			throw new NoSuchElementException("No frames left after frame " + this.frameNumber);
+		}
+		
+		if (this.refs == null) {
+			this.refs = new ReferenceBuffer(getDimension(), config.MAX_REFERENCES, this.retainedFrames);
+		}
+		
+		ParsedFrame frame = nextParsedFrame();
+		PixelRaster result = this.processor.reconstructFrame(frame, this.refs);
+		this.frameNumber++;
+		return result;
+	}
+	
+	/**
+	 * Get the parsed frame with the current frame number. Before that
+	 * the pipeline is refilled, so the parser can work ahead, while
+	 * the current frame gets reconstructed.
+	 */
+	private ParsedFrame nextParsedFrame() {
+		if (this.readAhead == 0) {
+			ByteBuffer content = nextFrameContent();
+			return this.processor.parseFrame(content);
+		}
+		
+		if (this.parser == null) {
+			this.parser = Executors.newFixedThreadPool(this.parserThreads, (runnable) -> {
+				Thread thread = new Thread(runnable, "YAVC_Frame_Parser");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		
+		while (this.pendingFrames.size() <= this.readAhead
+			&& this.frameToParse < this.processor.getNumberOfFrames()) {
+			ByteBuffer content = nextFrameContent();
+			this.pendingFrames.add(this.parser.submit(() -> this.processor.parseFrame(content)));
+		}
+		
+		try {
+			return this.pendingFrames.poll().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for frame " + this.frameNumber, e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Frame " + this.frameNumber + " can't be parsed", e.getCause());
+		}
+	}
+	
+	private ByteBuffer nextFrameContent() {
+		ByteBuffer content = this.inputStream.getNextFrame();
+		
+		if (content == null) {
+			throw new NoSuchElementException("Frame " + this.frameToParse + " is missing in the file");
+		}
+		
+		this.frameToParse++;
+		return content;
+	}
+	
+	private void cancelPendingFrames() {
+		for (Future<ParsedFrame> frame : this.pendingFrames) {
+			frame.cancel(true);
+		}
+		
+		this.pendingFrames.clear();
+	}
+}
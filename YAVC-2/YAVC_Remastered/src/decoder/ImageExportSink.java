@@ -0,0 +1,267 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package decoder;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+
+import javax.imageio.ImageIO;
+
+import utils.PNGWriter;
+import utils.PixelRaster;
+
+/**
+ * <p>The class {@code ImageExportSink} writes every frame as
+ * image named R_[frame number].[format] into a directory.</p>
+ * 
+ * <p>Only the conversion to RGB happens on the calling thread.
+ * The result is an immutable snapshot, the compression and
+ * the write run on a bounded pool of worker threads. If more than
+ * {@link #setMaxPendingFrames(int)} frames are waiting, the caller
+ * is blocked until the oldest one is written.</p>
+ * 
+ * <p>The frames are completed in order: {@link #getWrittenFrames()}
+ * only counts frames, whose predecessors are written as well,
+ * and the first failure is thrown by the next call to
+ * {@link #write(int, PixelRaster)} or {@link #close()}.</p>
+ * 
+ * <p>PNGs are written by the built-in {@link PNGWriter}, every
+ * other format by ImageIO.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class ImageExportSink implements FrameSink {
+	private File directory = null;
+	private String format = null;
+	private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+	private int maxPendingFrames = 0;
+	private int deflateLevel = Deflater.BEST_SPEED;
+	
+	private ExecutorService workers = null;
+	private ThreadLocal<PNGWriter> pngWriters = null;
+	private ArrayDeque<Future<?>> pendingFrames = new ArrayDeque<Future<?>>();
+	private Dimension dim = null;
+	private int writtenFrames = 0;
+	
+	/**
+	 * <p>Creates a sink for the directory.</p>
+	 * 
+	 * @param directory	Directory to write the images to
+	 * @param format	Image format, e.g. "png" or "bmp"
+	 * 
+	 * @throws NullPointerException	when the directory or format is null
+	 */
+	public ImageExportSink(File directory, String format) {
+		if (directory == null) {
+			throw new NullPointerException("No directory provided!");
+		} else if (format == null) {
+			throw new NullPointerException("No image format provided!");
+		}
+		
+		this.directory = directory;
+		this.format = format.toLowerCase();
+	}
+	
+	/**
+	 * <p>Sets the amount of worker threads.</p>
+	 * 
+	 * @param threads	Amount of threads
+	 * 
+	 * @throws IllegalArgumentException	when the amount is smaller than 1
+	 * @throws IllegalStateException	when the sink already started
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one thread is required!");
+		} else if (this.workers != null) {
+			throw new IllegalStateException("Can't change the threads after begin()");
+		}
+		
+		this.threads = threads;
+	}
+	
+	/**
+	 * <p>Sets the amount of frames, that can wait for the workers.
+	 * 0 uses twice the amount of threads.</p>
+	 * 
+	 * @param frames	Amount of frames
+	 * 
+	 * @throws IllegalArgumentException	when the amount is negative
+	 */
+	public void setMaxPendingFrames(int frames) {
+		if (frames < 0) {
+			throw new IllegalArgumentException("The amount of frames can't be negative!");
+		}
+		
+		this.maxPendingFrames = frames;
+	}
+	
+	/**
+	 * <p>Sets the deflate level of the PNGs. Has no effect
+	 * on other formats.</p>
+	 * 
+	 * @param level	Deflate level from 0 to 9 or -1 for the default
+	 * 
+	 * @throws IllegalArgumentException	when the level is out of range
+	 */
+	public void setDeflateLevel(int level) {
+		if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+			throw new IllegalArgumentException("Deflate level " + level + " is out of range (-1 to 9)");
+		}
+		
+		this.deflateLevel = level;
+	}
+	
+	/**
+	 * @return Amount of frames, that are written completely and in order
+	 */
+	public synchronized int getWrittenFrames() {
+		return this.writtenFrames;
+	}
+	
+	@Override
+	public void begin(Dimension dim) throws IOException {
+		if (!this.directory.isDirectory()) {
+			throw new IOException(this.directory.getAbsolutePath() + " is not a directory");
+		} else if (!this.format.equals("png") && !ImageIO.getImageWritersByFormatName(this.format).hasNext()) {
+			throw new IOException("No image writer for " + this.format + " available");
+		}
+		
+		this.dim = dim;
+		int level = this.deflateLevel;
+		this.pngWriters = ThreadLocal.withInitial(() -> new PNGWriter(level));
+		this.workers = Executors.newFixedThreadPool(this.threads, r -> {
+			Thread thread = new Thread(r, "YAVC_Image_Export");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	@Override
+	public void write(int frameNumber, PixelRaster frame) throws IOException {
+		int limit = this.maxPendingFrames == 0 ? this.threads * 2 : this.maxPendingFrames;
+		
+		while (this.pendingFrames.size() >= limit) {
+			awaitOldest();
+		}
+		
+		collectCompleted();
+		
+		int[] snapshot = frame.getRGB(null);
+		File file = new File(this.directory, "R_" + frameNumber + "." + this.format);
+		this.pendingFrames.add(this.workers.submit(() -> {
+			export(snapshot, file);
+			return null;
+		}));
+	}
+	
+	/**
+	 * <p>Compresses and writes a single snapshot.</p>
+	 * 
+	 * @param rgb	Colors of the frame row by row
+	 * @param file	File to write to
+	 */
+	private void export(int[] rgb, File file) throws IOException {
+		int width = this.dim.width;
+		int height = this.dim.height;
+		
+		if (this.format.equals("png")) {
+			this.pngWriters.get().write(rgb, width, height, file);
+			return;
+		}
+		
+		BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		img.setRGB(0, 0, width, height, rgb, 0, width);
+		
+		if (!ImageIO.write(img, this.format, file)) {
+			throw new IOException("No image writer for " + this.format + " available");
+		}
+	}
+	
+	/**
+	 * <p>Removes all frames from the front of the queue,
+	 * that are already written.</p>
+	 */
+	private void collectCompleted() throws IOException {
+		while (!this.pendingFrames.isEmpty() && this.pendingFrames.peekFirst().isDone()) {
+			awaitOldest();
+		}
+	}
+	
+	/**
+	 * <p>Waits for the oldest pending frame.</p>
+	 * 
+	 * @throws IOException	when the frame couldn't be written
+	 */
+	private void awaitOldest() throws IOException {
+		Future<?> oldest = this.pendingFrames.pollFirst();
+		
+		try {
+			oldest.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for the image export", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException)e.getCause();
+			}
+			
+			throw new IOException("Image export failed", e.getCause());
+		}
+		
+		synchronized (this) {
+			this.writtenFrames++;
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		if (this.workers == null) {
+			return;
+		}
+		
+		try {
+			while (!this.pendingFrames.isEmpty()) {
+				awaitOldest();
+			}
+		} finally {
+			for (Future<?> pending : this.pendingFrames) {
+				pending.cancel(true);
+			}
+			
+			this.pendingFrames.clear();
+			this.workers.shutdown();
+			this.workers = null;
+		}
+	}
+}
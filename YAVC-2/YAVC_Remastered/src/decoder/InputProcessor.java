@@ -2,140 +2,362 @@ package decoder;
 
 import java.awt.Dimension;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import app.config;
 import interprediction.Vector;
 import utils.PixelRaster;
 import utils.Protocol;
+import utils.ReferenceBuffer;
+import utils.TileLayout;
 
 public class InputProcessor {
 	private Dimension FRAME_DIM = null;
-	private ArrayList<Integer> lengthOfFrames = new ArrayList<Integer>();
+	private int numberOfFrames = 0;
+	private long trailerOffset = 0;
+	private ArrayList<Long> frameOffsets = new ArrayList<Long>();
+	private ArrayList<Integer> keyframeNumbers = new ArrayList<Integer>();
+	private ArrayList<Long> keyframeOffsets = new ArrayList<Long>();
+	private ReconstructionEngine RECONSTRUCTION_ENGINE = new ReconstructionEngine();
 	
-	public void proessMetadata(byte[] stream) {
-		if (stream.length < Protocol.META_DATA_LEN) {
-			throw new IllegalArgumentException("Metadata has to be " + 4 + " bytes long.");
+	/**
+	 * Parses the tiles of a frame at once, created with the first tiled frame
+	 */
+	private ExecutorService TILE_PARSER = null;
+	
+	/**
+	 * Area to decode, null for the whole frame
+	 */
+	private Rectangle region = null;
+	
+	public void proessMetadata(ByteBuffer stream) {
+		if (stream.remaining() < Protocol.META_DATA_LEN) {
+			throw new IllegalArgumentException("Metadata has to be " + Protocol.META_DATA_LEN + " bytes long.");
 		}
 		
-		byte[][] parts = Protocol.splitArrayEvenly(stream, Protocol.SIZE_OF_INT);
-		int width = Protocol.getIntFromBytes(parts[0]);
-		int height = Protocol.getIntFromBytes(parts[1]);
-		int frames = Protocol.getIntFromBytes(parts[2]);
+		int width = stream.getInt(0);
+		int height = stream.getInt(Protocol.SIZE_OF_INT);
+		int frames = stream.getInt(2 * Protocol.SIZE_OF_INT);
+		this.trailerOffset = stream.getLong(3 * Protocol.SIZE_OF_INT);
 
 		this.FRAME_DIM = new Dimension(width, height);
-		System.out.println("DIM: " + this.FRAME_DIM);
-		System.out.println("FRAMES: " + frames);
+		this.numberOfFrames = frames;
+	}
+	
+	/**
+	 * A trailer offset of 0 marks a file, which was not
+	 * finished by the encoder.
+	 */
+	public boolean hasTrailer() {
+		return this.trailerOffset > 0;
+	}
+	
+	public long getTrailerOffset() {
+		return this.trailerOffset;
+	}
+	
+	public void getIndexes(ByteBuffer trailer) {
+		int frames = trailer.getInt();
+		
+		for (int i = 0; i < frames; i++) {
+			this.frameOffsets.add(trailer.getLong());
+		}
+		
+		int numberOfKeyframes = trailer.getInt();
+		
+		for (int i = 0; i < numberOfKeyframes; i++) {
+			this.keyframeNumbers.add(trailer.getInt());
+			this.keyframeOffsets.add(trailer.getLong());
+		}
+		
+		this.numberOfFrames = frames;
 	}
 	
-	public int initFrameReader(byte[] stream) {
-		return Protocol.getIntFromBytes(stream);
+	/**
+	 * Rebuilds the indexes of an unfinished file by walking
+	 * along the length prefixes of the frames.
+	 * 
+	 * @param stream	Stream of the file
+	 */
+	public void rebuildIndexes(InputStream stream) {
+		long offset = Protocol.META_DATA_LEN;
+		stream.seek(offset);
+		ByteBuffer frame = null;
+		
+		while ((frame = stream.getNextFrame()) != null) {
+			if (isKeyframe(frame)) {
+				this.keyframeNumbers.add(this.frameOffsets.size());
+				this.keyframeOffsets.add(offset);
+			}
+			
+			this.frameOffsets.add(offset);
+			offset += Protocol.SIZE_OF_INT + frame.remaining();
+		}
+		
+		this.numberOfFrames = this.frameOffsets.size();
 	}
 	
-	public void getIndexes(byte[] stream) {
-		byte[][] data = Protocol.splitArrayEvenly(stream, Protocol.SIZE_OF_INT);
+	/**
+	 * Looks up the last keyframe at or before the desired frame.
+	 * 
+	 * @return Frame number and byte offset of the keyframe
+	 * 
+	 * @param frame	Frame to seek to
+	 */
+	public long[] seekToFrame(int frame) {
+		if (this.keyframeNumbers.size() == 0) {
+			throw new IllegalStateException("The stream contains no keyframe to start from");
+		}
+		
+		int keyframe = 0;
 		
-		for (byte[] byteNum : data) {
-			int length = Protocol.getIntFromBytes(byteNum);
-			this.lengthOfFrames.add(length);
+		for (int i = 0; i < this.keyframeNumbers.size(); i++) {
+			if (this.keyframeNumbers.get(i) > frame) {
+				break;
+			}
+			
+			keyframe = i;
 		}
+		
+		return new long[] {this.keyframeNumbers.get(keyframe), this.keyframeOffsets.get(keyframe)};
 	}
 	
-	public int getNextLength() {
-		return this.lengthOfFrames.remove(0);
+	public Dimension getDimension() {
+		return this.FRAME_DIM;
 	}
 	
-	public BufferedImage constructStartFrame(byte[] data) {
+	public int getNumberOfFrames() {
+		return this.numberOfFrames;
+	}
+	
+	/**
+	 * Only the tiles, that intersect the region, are decoded. The
+	 * other tiles stay black. Outside of the tiles, that are decoded,
+	 * the frames are undefined, a frame without tiles is decoded as
+	 * a whole.
+	 * 
+	 * @param region	Area to decode, null for the whole frame
+	 */
+	public void setRegion(Rectangle region) {
+		this.region = region == null ? null : new Rectangle(region);
+	}
+	
+	/**
+	 * A tiled frame is a keyframe, if its first tile is one.
+	 */
+	public boolean isKeyframe(ByteBuffer data) {
+		if (data.remaining() > Protocol.getTileHeaderLength(1) && data.get(0) == Protocol.TILED_FRAME_START) {
+			int offset = data.getInt(3);
+			return offset < data.remaining() && data.get(offset) == Protocol.KEYFRAME_START;
+		}
+		
+		return data.remaining() > 0 && data.get(0) == Protocol.KEYFRAME_START;
+	}
+	
+	public BufferedImage constructKeyframe(ByteBuffer data) {
 		BufferedImage render = new BufferedImage(this.FRAME_DIM.width, this.FRAME_DIM.height, BufferedImage.TYPE_INT_ARGB);
-
-		for (int x = 0, index = 0; x < this.FRAME_DIM.width; x++) {
-			for (int y = 0; y < this.FRAME_DIM.height; y++) {
-				byte r = data[index];
-				byte g = data[index + 1];
-				byte b = data[index + 2];
+		constructKeyframe(data, new Rectangle(this.FRAME_DIM), render);
+		return render;
+	}
+	
+	/**
+	 * Writes the colors of a keyframe or of a tile of a keyframe
+	 * into the area of the render.
+	 * 
+	 * @param data	Keyframe, that starts with the KEYFRAME_START byte
+	 * @param area	Area of the frame, that is stored in the data
+	 * @param render	Image to write to
+	 */
+	private void constructKeyframe(ByteBuffer data, Rectangle area, BufferedImage render) {
+		//Skip the KEYFRAME_START byte
+		for (int x = area.x, index = 1; x < area.x + area.width; x++) {
+			for (int y = area.y; y < area.y + area.height; y++) {
+				byte r = data.get(index);
+				byte g = data.get(index + 1);
+				byte b = data.get(index + 2);
 				int rgb = (0xFF000000 | ((r & 0xFF) << 16) | ((g & 0xFF) << 8) | (b & 0xFF));
 				render.setRGB(x, y, rgb);
 				index += 3;
 			}
 		}
+	}
+	
+	/**
+	 * Parses the frame and computes the IDCT of all differences.
+	 * The result doesn't depend on any reference, so frames can
+	 * be parsed in parallel and ahead of the reconstruction.
+	 * 
+	 * @return Parsed frame, that is ready for reconstruction
+	 * 
+	 * @param content	Frame from the file
+	 */
+	public ParsedFrame parseFrame(ByteBuffer content) {
+		if (content.get(0) == Protocol.TILED_FRAME_START) {
+			return parseTiles(content);
+		} else if (isKeyframe(content)) {
+			return new ParsedFrame(new PixelRaster(constructKeyframe(content)));
+		}
 		
-		return render;
+		return parseVectors(content);
 	}
 	
-	public PixelRaster processFrame(byte[] content, ArrayList<PixelRaster> refs) {
-		PixelRaster render = refs.get(refs.size() - 1).copy();
+	/**
+	 * Parses the vectors of a frame or of a tile of a frame.
+	 */
+	private ParsedFrame parseVectors(ByteBuffer content) {
+		int qp = config.DEFAULT_QP;
+		int start = 1;
 		
-		byte[][] split = splitFirst(content, Protocol.VECTOR_START);
-		ArrayList<Vector> vecs = split.length > 1 ? getVectors(split[1]) : null;
-
-		if (vecs != null) {
-			for (Vector v : vecs) {
-				Point pos = v.getPosition();
-				int EndX = pos.x + v.getSpanX();
-				int EndY = pos.y + v.getSpanY();
-				int reference = config.MAX_REFERENCES - v.getReference();
-				PixelRaster cache = refs.get(reference);
-				double[][][] block = cache.getPixelBlock(pos, v.getSize(), null);
-				double[][][] IDCT = v.getIDCTCoefficientsOfAbsoluteColorDifference(true);
-				double[][][] reconstructedColor = reconstructColors(IDCT, block, v.getSize());
-
-				for (int x = 0; x < v.getSize(); x++) {
-					if (EndX + x >= this.FRAME_DIM.width || EndX + x < 0) {
-						continue;
-					} else if (pos.x + x >= this.FRAME_DIM.width || pos.x + x < 0) {
-						continue;
-					}
-					
-					for (int y = 0; y < v.getSize(); y++) {
-						if (EndY + y >= this.FRAME_DIM.height || EndY + y < 0) {
-							continue;
-						} else if (pos.y + y >= this.FRAME_DIM.height || pos.y + y < 0) {
-							continue;
-						}
-						
-						int subSX = x / 2, subSY = y / 2;
-						double[] YUV = new double[] {reconstructedColor[0][x][y], reconstructedColor[1][subSX][subSY], reconstructedColor[2][subSX][subSY]};
-						render.setYUV(EndX + x, EndY + y, YUV);
-					}
-				}
-			}
+		//Frames with rate control store their quantizer after the start byte
+		if (content.get(0) == Protocol.VECTOR_QP_START) {
+			qp = content.get(1) & 0xFF;
+			start = Protocol.VECTOR_QP_HEADER_LENGTH;
 		}
-
-		return render;
+		
+		ArrayList<Vector> vecs = getVectors(content, start);
+		ArrayList<double[][][]> differences = new ArrayList<double[][][]>(vecs.size());
+		
+		for (Vector v : vecs) {
+			v.setQuantizer(qp);
+			differences.add(v.getIDCTCoefficientsOfAbsoluteColorDifference(true));
+		}
+		
+		return new ParsedFrame(vecs, differences);
 	}
 	
-	private double[][][] reconstructColors(double[][][] differenceOfColor, double[][][] referenceColor, int size) {
-		int halfSize = size / 2;
-		double[][][] reconstructedColor = new double[3][][];
-		reconstructedColor[0] = new double[size][size];
-		reconstructedColor[1] = new double[halfSize][halfSize];
-		reconstructedColor[2] = new double[halfSize][halfSize];
-		
-		//Reconstruct Y-Comp
-		for (int x = 0; x < size; x++) {
-			for (int y = 0; y < size; y++) {
-				reconstructedColor[0][x][y] = referenceColor[0][x][y] + differenceOfColor[0][x][y];
+	/**
+	 * Parses the tiles of the frame, that intersect the region, at
+	 * once. The tiles of a keyframe are written into one image, the
+	 * vectors of all tiles are joined in the order of the tiles.
+	 * 
+	 * @return Parsed frame, that is ready for reconstruction
+	 * 
+	 * @param content	Tiled frame from the file
+	 * 
+	 * @throws IllegalArgumentException	when the tiles don't fit to the frame
+	 */
+	private ParsedFrame parseTiles(ByteBuffer content) {
+		TileLayout tiles = new TileLayout(this.FRAME_DIM, content.get(1) & 0xFF, content.get(2) & 0xFF);
+		int count = tiles.getTileCount();
+		boolean keyframe = isKeyframe(content);
+		BufferedImage render = keyframe ? new BufferedImage(this.FRAME_DIM.width, this.FRAME_DIM.height, BufferedImage.TYPE_INT_ARGB) : null;
+		ArrayList<Future<ParsedFrame>> parsedTiles = new ArrayList<Future<ParsedFrame>>(count);
+		
+		if (this.TILE_PARSER == null) {
+			createTileParser();
+		}
+		
+		for (int i = 0; i < count; i++) {
+			Rectangle area = tiles.getTile(i);
+			
+			if (this.region != null && !this.region.intersects(area)) {
+				continue;
+			}
+			
+			int start = content.getInt(3 + i * Protocol.SIZE_OF_INT);
+			int end = i + 1 < count ? content.getInt(3 + (i + 1) * Protocol.SIZE_OF_INT) : content.remaining();
+			
+			if (start < Protocol.getTileHeaderLength(count) || end < start || end > content.remaining()) {
+				throw new IllegalArgumentException("Tile " + i + " is out of the frame, from " + start + " to " + end + " of " + content.remaining() + " bytes");
 			}
+			
+			ByteBuffer tile = content.duplicate().position(start).limit(end).slice();
+			
+			parsedTiles.add(this.TILE_PARSER.submit(() -> {
+				if (!keyframe) {
+					return parseVectors(tile);
+				}
+				
+				constructKeyframe(tile, area, render);
+				return null;
+			}));
 		}
 		
-		//Reconstruct U,V-Comp
-		for (int x = 0; x < halfSize; x++) {
-			for (int y = 0; y < halfSize; y++) {
-				reconstructedColor[1][x][y] = referenceColor[1][x][y] + differenceOfColor[1][x][y];
-				reconstructedColor[2][x][y] = referenceColor[2][x][y] + differenceOfColor[2][x][y];
+		ArrayList<Vector> vecs = new ArrayList<Vector>();
+		ArrayList<double[][][]> differences = new ArrayList<double[][][]>();
+		
+		for (Future<ParsedFrame> parsedTile : parsedTiles) {
+			try {
+				ParsedFrame frame = parsedTile.get();
+				
+				if (frame != null) {
+					vecs.addAll(frame.getVectors());
+					differences.addAll(frame.getDifferences());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while parsing the tiles", e);
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("A tile can't be parsed", e.getCause());
 			}
 		}
 		
-		return reconstructedColor;
+		return keyframe ? new ParsedFrame(new PixelRaster(render)) : new ParsedFrame(vecs, differences);
 	}
 	
-	private ArrayList<Vector> getVectors(byte[] vectorPart) {
+	private synchronized void createTileParser() {
+		if (this.TILE_PARSER != null) {
+			return;
+		}
+		
+		this.TILE_PARSER = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), (runnable) -> {
+			Thread thread = new Thread(runnable, "YAVC_Tile_Parser");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	/**
+	 * Reconstructs a parsed frame on top of the previous frame into
+	 * the next slot of the references. Afterwards the frame is the
+	 * newest reference, a keyframe drops all other references.
+	 * 
+	 * @return Reconstructed frame
+	 * 
+	 * @param frame	Parsed frame
+	 * @param refs	References of the current GOP
+	 */
+	public PixelRaster reconstructFrame(ParsedFrame frame, ReferenceBuffer refs) {
+		if (frame.isKeyframe()) {
+			return refs.addKeyframe(frame.getKeyframe());
+		}
+		
+		PixelRaster render = refs.beginFrame();
+		ArrayList<Vector> vecs = frame.getVectors();
+		
+		for (Vector v : vecs) {
+			Point pos = v.getPosition();
+			refs.markChanged(pos.x + v.getSpanX(), pos.y + v.getSpanY(), v.getSize(), v.getSize());
+		}
+		
+		if (vecs.size() > 0) {
+			this.RECONSTRUCTION_ENGINE.reconstruct(vecs, frame.getDifferences(), refs, render);
+		}
+
+		return refs.commitFrame();
+	}
+	
+	public void shutdown() {
+		this.RECONSTRUCTION_ENGINE.shutdown();
+		
+		if (this.TILE_PARSER != null) {
+			this.TILE_PARSER.shutdownNow();
+		}
+	}
+	
+	private ArrayList<Vector> getVectors(ByteBuffer vectorPart, int start) {
 		ArrayList<Vector> vecs = new ArrayList<Vector>();
 		
 		if (vectorPart == null) {
 			return vecs;
-		} else if (vectorPart.length <= 1) {
+		} else if (vectorPart.remaining() - start <= 1) {
 			return vecs;
 		}
 		
@@ -143,14 +365,14 @@ public class InputProcessor {
 		//  POSX ⊥ POSY ⊥ SPANX ⊥ SPANY ⊥ REFERENCE << 4 | SIZE ⊥ DIFFERENCE
 		// ^_____________________________________________________^
 		//                      = 7 Bytes offset
-		int i = 0;
+		int i = start;
 
-		while (i < vectorPart.length) {
-			int posX = Protocol.getPosition(vectorPart[i], vectorPart[i + 1]);
-			int posY = Protocol.getPosition(vectorPart[i + 2], vectorPart[i + 3]);
-			int spanX = Protocol.getVectorSpanInt(vectorPart[i + 4]);
-			int spanY = Protocol.getVectorSpanInt(vectorPart[i + 5]);
-			int[] refAndSize = Protocol.getReferenceAndSizeInt(vectorPart[i + 6]);
+		while (i < vectorPart.remaining()) {
+			int posX = Protocol.getPosition(vectorPart.get(i), vectorPart.get(i + 1));
+			int posY = Protocol.getPosition(vectorPart.get(i + 2), vectorPart.get(i + 3));
+			int spanX = Protocol.getVectorSpanInt(vectorPart.get(i + 4));
+			int spanY = Protocol.getVectorSpanInt(vectorPart.get(i + 5));
+			int[] refAndSize = Protocol.getReferenceAndSizeInt(vectorPart.get(i + 6));
 			int ref = refAndSize[0];
 			int size = refAndSize[1];
 
@@ -169,7 +391,7 @@ public class InputProcessor {
 		return vecs;
 	}
 	
-	private ArrayList<double[][][]> getVectorDifferences(byte[] vectorPart, int startPos, int size) {
+	private ArrayList<double[][][]> getVectorDifferences(ByteBuffer vectorPart, int startPos, int size) {
 		ArrayList<double[][][]> DCTCoeffGroups = new ArrayList<double[][][]>();
 		double[][] data = getDCTCoeffsOutOfFile(vectorPart, startPos, size);
 		int YLength = size * size;
@@ -223,7 +445,7 @@ public class InputProcessor {
 		return DCTCoeffGroups;
 	}
 	
-	private double[][] getDCTCoeffsOutOfFile(byte[] vectorPart, int startPos, int size) {
+	private double[][] getDCTCoeffsOutOfFile(ByteBuffer vectorPart, int startPos, int size) {
 		int halfSize = size / 2;
 		int YLength = size * size;
 		int UVLength = halfSize * halfSize;
@@ -233,41 +455,21 @@ public class InputProcessor {
 		double[] VBytes = new double[UVLength];
 		
 		for (int n = 0; n < YLength; n++) {
-			YBytes[n] = Protocol.getDCTCoeff(vectorPart[startPos + n]);
+			YBytes[n] = Protocol.getDCTCoeff(vectorPart.get(startPos + n));
 		}
 		
 		startPos += YLength;
 		
 		for (int n = 0; n < UVLength; n++) {
-			UBytes[n] = Protocol.getDCTCoeff(vectorPart[startPos + n]);
+			UBytes[n] = Protocol.getDCTCoeff(vectorPart.get(startPos + n));
 		}
 		
 		startPos += UVLength;
 		
 		for (int n = 0; n < UVLength; n++) {
-			VBytes[n] = Protocol.getDCTCoeff(vectorPart[startPos + n]);
+			VBytes[n] = Protocol.getDCTCoeff(vectorPart.get(startPos + n));
 		}
 
 		return new double[][] {YBytes, UBytes, VBytes};
 	}
-	
-	private byte[][] splitFirst(byte[] data, byte regex) {
-		byte[][] res = new byte[2][];
-		
-		for (int i = 0; i < data.length; i++) {
-			if (data[i] != regex) {
-				continue;
-			}
-			
-			byte[] head = new byte[i];
-			byte[] tail = new byte[data.length - (i + 1)];
-			System.arraycopy(data, 0, head, 0, i);
-			System.arraycopy(data, i + 1, tail, 0, data.length - (i + 1));
-			res[0] = head;
-			res[1] = tail;
-			break;
-		}
-		
-		return res;
-	}
 }
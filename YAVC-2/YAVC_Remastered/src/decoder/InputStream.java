@@ -1,57 +1,155 @@
 package decoder;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import utils.Protocol;
 
+/**
+ * <p>The class {@code InputStream} provides the content of a
+ * YAVC file as read-only slices of a memory-mapped file.</p>
+ * 
+ * <p>A single MappedByteBuffer can't exceed 2 GB, that's why the
+ * file is mapped in windows. A window always starts at the
+ * requested position, so every frame lies completely within one
+ * window and the slices can be parsed in place without copying.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
 public class InputStream {
-	private FileInputStream fis = null;
+	/**
+	 * Maximum size of a mapped window (1 GB)
+	 */
+	private static final long WINDOW_SIZE = 1L << 30;
+	
+	private FileChannel channel = null;
+	private long size = 0;
+	
+	/**
+	 * The currently mapped window and its start in the file
+	 */
+	private MappedByteBuffer window = null;
+	private long windowStart = 0;
+	
+	/**
+	 * Position of the next frame for sequential reading
+	 */
+	private long position = Protocol.META_DATA_LEN;
 	
 	public InputStream(File file) {
 		try {
-			this.fis = new FileInputStream(file);
-		} catch (FileNotFoundException e) {
+			this.channel = FileChannel.open(Path.of(file.getAbsolutePath()), StandardOpenOption.READ);
+			this.size = this.channel.size();
+		} catch (IOException e) {
 			e.printStackTrace();
 		}
 		
-		if (this.fis == null) {
+		if (this.channel == null) {
 			System.err.println("NO FILE_INPUT_STREAM_ AVAILABLE!");
 			System.exit(0);
 		}
 	}
 	
-	public byte[] getMetadata() {
-		byte[] data = new byte[Protocol.META_DATA_LEN];
-		readIn(data);
-		return data;
+	public ByteBuffer getMetadata() {
+		return slice(0, Protocol.META_DATA_LEN);
 	}
 	
-	public byte[] getNumberOfIndexes() {
-		byte[] data = new byte[Protocol.SIZE_OF_INT];
-		readIn(data);
-		return data;
+	/**
+	 * Get the trailer, that stretches from the offset
+	 * to the end of the file.
+	 */
+	public ByteBuffer getTrailer(long trailerOffset) {
+		return slice(trailerOffset, (int)(this.size - trailerOffset));
 	}
 	
-	public byte[] getIndexes(int length) {
-		byte[] data = new byte[length * Protocol.SIZE_OF_INT];
-		readIn(data);
-		return data;
+	public void seek(long offset) {
+		this.position = offset;
 	}
 	
-	public byte[] getChunk(int lengthOfData) {
-		byte[] data = new byte[lengthOfData];
-		readIn(data);
-		return data;
+	/**
+	 * Get the frame at the current position and move
+	 * on to the next frame.
+	 * 
+	 * @return The frame without its length prefix or null if the
+	 * end of the file is reached
+	 */
+	public ByteBuffer getNextFrame() {
+		ByteBuffer frame = getFrame(this.position);
+		
+		if (frame != null) {
+			this.position += Protocol.SIZE_OF_INT + frame.remaining();
+		}
+		
+		return frame;
 	}
 	
-	private void readIn(byte[] buffer) {
+	/**
+	 * Get the frame at the provided offset.
+	 * 
+	 * @return The frame without its length prefix or null if the
+	 * frame is not completely within the file
+	 * 
+	 * @param offset	Offset of the length prefix of the frame
+	 */
+	public ByteBuffer getFrame(long offset) {
+		if (offset + Protocol.SIZE_OF_INT > this.size) {
+			return null;
+		}
+		
+		int length = slice(offset, Protocol.SIZE_OF_INT).getInt(0);
+		
+		if (length < 0 || offset + Protocol.SIZE_OF_INT + length > this.size) {
+			return null;
+		}
+		
+		return slice(offset + Protocol.SIZE_OF_INT, length);
+	}
+	
+	public long size() {
+		return this.size;
+	}
+	
+	public void close() {
 		try {
-			this.fis.read(buffer);
+			this.window = null;
+			this.channel.close();
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
+	
+	/**
+	 * Get a read-only view on the file content. If the requested
+	 * range is not within the current window, a new window is mapped,
+	 * that starts at the requested offset.
+	 * 
+	 * @return View on the requested range with position 0
+	 * 
+	 * @param offset	Start of the range in the file
+	 * @param length	Length of the range
+	 */
+	private ByteBuffer slice(long offset, int length) {
+		if (this.window == null
+			|| offset < this.windowStart
+			|| offset + length > this.windowStart + this.window.capacity()) {
+			long windowSize = Math.min(Math.max(WINDOW_SIZE, length), this.size - offset);
+			
+			try {
+				this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, offset, windowSize);
+				this.windowStart = offset;
+			} catch (IOException e) {
+				throw new IllegalStateException("Can't map the range " + offset + " to " + (offset + length), e);
+			}
+		}
+		
+		return this.window.slice((int)(offset - this.windowStart), length);
+	}
 }
@@ -0,0 +1,157 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package decoder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import utils.PixelRaster;
+
+/**
+ * <p>The class {@code OutputStage} is the last stage of the
+ * decoder pipeline. The decoded frames are handed over to a
+ * separate thread, that writes them to the {@link FrameSink},
+ * while the decoder already works on the next frames.</p>
+ * 
+ * <p>The hand-off is bounded, if the output falls behind, the
+ * decoder waits until a place in the queue is free.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class OutputStage {
+	/**
+	 * Marks the end of the stream within the queue.
+	 */
+	private static final Object[] END_OF_STREAM = new Object[0];
+	
+	private FrameSink sink = null;
+	private BlockingQueue<Object[]> QUEUE = null;
+	private Thread writer = null;
+	private volatile RuntimeException failure = null;
+	private volatile boolean aborted = false;
+	
+	/**
+	 * <p>Starts the output thread.</p>
+	 * 
+	 * @param sink	Sink to write the frames to, {@link FrameSink#begin(java.awt.Dimension)}
+	 * has to be called already
+	 * @param depth	Amount of frames that can wait for the output
+	 */
+	public OutputStage(FrameSink sink, int depth) {
+		if (depth < 1) {
+			throw new IllegalArgumentException("Output depth has to be at least 1, got " + depth);
+		}
+		
+		this.sink = sink;
+		this.QUEUE = new ArrayBlockingQueue<Object[]>(depth);
+		this.writer = new Thread(() -> {
+			try {
+				Object[] obj = null;
+				
+				while ((obj = this.QUEUE.take()) != END_OF_STREAM) {
+					if (this.failure == null && !this.aborted) {
+						this.sink.write((Integer)obj[0], (PixelRaster)obj[1]);
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (IOException e) {
+				this.failure = new UncheckedIOException(e);
+				this.QUEUE.clear();
+			} catch (RuntimeException e) {
+				this.failure = e;
+				this.QUEUE.clear();
+			}
+		});
+		
+		this.writer.setName("YAVC_Frame_Output_Stage");
+		this.writer.start();
+	}
+	
+	/**
+	 * <p>Hands the frame over to the output thread. The frame must
+	 * not be modified afterwards.</p>
+	 * 
+	 * @param frameNumber	Number of the frame
+	 * @param frame	Decoded frame
+	 * 
+	 * @throws InterruptedException	when interrupted while waiting for a free place
+	 * @throws RuntimeException	when the output failed on a previous frame
+	 */
+	public void put(int frameNumber, PixelRaster frame) throws InterruptedException {
+		checkFailure();
+		this.QUEUE.put(new Object[] {frameNumber, frame});
+	}
+	
+	/**
+	 * <p>Waits until all frames are written, stops the output
+	 * thread and closes the sink.</p>
+	 * 
+	 * @throws RuntimeException	when the output of a frame failed
+	 * @throws IOException	when the sink can't be closed
+	 */
+	public void close() throws InterruptedException, IOException {
+		if (this.writer.isAlive()) {
+			this.QUEUE.put(END_OF_STREAM);
+			this.writer.join();
+		}
+		
+		this.sink.close();
+		checkFailure();
+	}
+	
+	/**
+	 * <p>Drops all frames, that are not yet written, and stops
+	 * the output thread.</p>
+	 */
+	public void abort() {
+		this.aborted = true;
+		this.QUEUE.clear();
+		
+		try {
+			if (this.writer.isAlive()) {
+				this.QUEUE.put(END_OF_STREAM);
+				this.writer.join();
+			}
+		} catch (InterruptedException e) {
+			this.writer.interrupt();
+			Thread.currentThread().interrupt();
+		}
+		
+		try {
+			this.sink.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	private void checkFailure() {
+		if (this.failure != null) {
+			throw this.failure;
+		}
+	}
+}
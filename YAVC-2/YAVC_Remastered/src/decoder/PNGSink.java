@@ -0,0 +1,43 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package decoder;
+
+import java.io.File;
+
+/**
+ * <p>The class {@code PNGSink} writes every frame as
+ * PNG named R_[frame number].png into a directory.</p>
+ * 
+ * <p>The PNGs are compressed asynchronously by the
+ * {@link ImageExportSink} with a fast deflate level, so
+ * the compression doesn't gate the decoder.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class PNGSink extends ImageExportSink {
+	public PNGSink(File directory) {
+		super(directory, "png");
+	}
+}
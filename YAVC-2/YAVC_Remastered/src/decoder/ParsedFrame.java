@@ -0,0 +1,51 @@
+package decoder;
+
+import java.util.ArrayList;
+
+import interprediction.Vector;
+import utils.PixelRaster;
+
+/**
+ * <p>The class {@code ParsedFrame} holds a frame, that is
+ * parsed from the bitstream, but not yet reconstructed.
+ * Either the keyframe is set or the vectors together with
+ * the IDCT of their differences.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class ParsedFrame {
+	private PixelRaster Keyframe = null;
+	private ArrayList<Vector> Vectors = null;
+	private ArrayList<double[][][]> Differences = null;
+	
+	public ParsedFrame(PixelRaster keyframe) {
+		this.Keyframe = keyframe;
+	}
+	
+	public ParsedFrame(ArrayList<Vector> vecs, ArrayList<double[][][]> differences) {
+		this.Vectors = vecs;
+		this.Differences = differences;
+	}
+	
+	public boolean isKeyframe() {
+		return this.Keyframe != null;
+	}
+	
+	public PixelRaster getKeyframe() {
+		return this.Keyframe;
+	}
+	
+	public ArrayList<Vector> getVectors() {
+		return this.Vectors;
+	}
+	
+	/**
+	 * @return IDCT of the color differences, in the same order as the vectors
+	 */
+	public ArrayList<double[][][]> getDifferences() {
+		return this.Differences;
+	}
+}
@@ -0,0 +1,203 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package decoder;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import app.config;
+import interprediction.Vector;
+import utils.PixelRaster;
+import utils.ReferenceBuffer;
+
+/**
+ * <p>The class {@code ReconstructionEngine} applies the movement
+ * vectors of a frame to the render in parallel.</p>
+ * 
+ * <p>Every vector writes to its own MacroBlock, so the destinations
+ * of the vectors never overlap. The vectors are partitioned by the
+ * 128x128 region their destination lies in and each region is
+ * reconstructed by one task (motion compensation, adding the
+ * difference and writing the block). The blocks are written with
+ * {@link utils.PixelRaster#setPixelBlock(Point, double[][][], int, int, int, int)}
+ * column by column instead of pixel by pixel.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class ReconstructionEngine {
+	/**
+	 * Size of the regions the vectors are partitioned in,
+	 * equal to the size of the quadtree roots
+	 */
+	private static final int REGION_SIZE = 128;
+	
+	private ExecutorService executor = null;
+	
+	public ReconstructionEngine() {
+		int threads = Runtime.getRuntime().availableProcessors();
+		this.executor = Executors.newFixedThreadPool(threads, (runnable) -> {
+			Thread thread = new Thread(runnable, "YAVC_Reconstruction");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	/**
+	 * <p>Reconstructs all vectors into the render.</p>
+	 * 
+	 * @param vecs	Vectors of the frame
+	 * @param differences	IDCT of the color differences of the vectors
+	 * @param refs	Reference frames the vectors refer to
+	 * @param render	Frame to write the reconstructed blocks to,
+	 * has to be initialized with the previous frame
+	 * 
+	 * @throws IllegalStateException	when a region can't be reconstructed,
+	 * the render is incomplete then; it is thrown after all regions are done
+	 */
+	public void reconstruct(final ArrayList<Vector> vecs, final ArrayList<double[][][]> differences, final ReferenceBuffer refs, final PixelRaster render) {
+		Dimension dim = render.getDimension();
+		int regionsX = (dim.width + REGION_SIZE - 1) / REGION_SIZE;
+		int regionsY = (dim.height + REGION_SIZE - 1) / REGION_SIZE;
+		ArrayList<ArrayList<Integer>> regions = new ArrayList<ArrayList<Integer>>(regionsX * regionsY);
+		
+		for (int i = 0; i < regionsX * regionsY; i++) {
+			regions.add(new ArrayList<Integer>());
+		}
+		
+		for (int i = 0; i < vecs.size(); i++) {
+			Vector v = vecs.get(i);
+			int destX = Math.min(Math.max(v.getPosition().x + v.getSpanX(), 0), dim.width - 1);
+			int destY = Math.min(Math.max(v.getPosition().y + v.getSpanY(), 0), dim.height - 1);
+			regions.get((destY / REGION_SIZE) * regionsX + destX / REGION_SIZE).add(i);
+		}
+		
+		ArrayList<Future<?>> tasks = new ArrayList<Future<?>>(regions.size());
+		
+		for (ArrayList<Integer> region : regions) {
+			if (region.size() == 0) {
+				continue;
+			}
+			
+			tasks.add(this.executor.submit(() -> {
+				for (int i : region) {
+					reconstructVector(vecs.get(i), differences.get(i), refs, render);
+				}
+			}));
+		}
+		
+		Throwable failure = null;
+		boolean interrupted = false;
+		
+		//All tasks are awaited, so none writes to the render after the failure is thrown
+		for (Future<?> task : tasks) {
+			while (true) {
+				try {
+					task.get();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					if (failure == null) {
+						failure = e.getCause();
+					}
+					
+					break;
+				}
+			}
+		}
+		
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		
+		if (failure != null) {
+			throw new IllegalStateException("The vectors of the frame can't be reconstructed", failure);
+		}
+	}
+	
+	/**
+	 * <p>Adds the difference of the vector to the referenced block and
+	 * writes the result to the destination. Pixels, that are outside the
+	 * frame either at the reference or the destination are skipped.</p>
+	 * 
+	 * @param v	Vector to reconstruct
+	 * @param IDCT	IDCT of the color difference of the vector
+	 * @param refs	Reference frames
+	 * @param render	Frame to write to
+	 */
+	private void reconstructVector(final Vector v, final double[][][] IDCT, final ReferenceBuffer refs, final PixelRaster render) {
+		Dimension dim = render.getDimension();
+		Point pos = v.getPosition();
+		Point dest = new Point(pos.x + v.getSpanX(), pos.y + v.getSpanY());
+		int size = v.getSize();
+		
+		int fromX = Math.max(0, Math.max(-pos.x, -dest.x));
+		int fromY = Math.max(0, Math.max(-pos.y, -dest.y));
+		int toX = Math.min(size, Math.min(dim.width - pos.x, dim.width - dest.x));
+		int toY = Math.min(size, Math.min(dim.height - pos.y, dim.height - dest.y));
+		
+		if (toX <= fromX || toY <= fromY) {
+			return;
+		}
+		
+		PixelRaster reference = refs.get(config.MAX_REFERENCES - v.getReference());
+		double[][][] block = reference.getPixelBlock(pos, size, null);
+		addDifference(block, IDCT, size);
+		render.setPixelBlock(dest, block, fromX, toX, fromY, toY);
+	}
+	
+	/**
+	 * <p>Adds the difference to the reference colors in place.</p>
+	 * 
+	 * @param referenceColor	Colors of the referenced block
+	 * @param differenceOfColor	Difference from the IDCT
+	 * @param size	Size of the block
+	 */
+	private void addDifference(double[][][] referenceColor, double[][][] differenceOfColor, int size) {
+		int halfSize = size / 2;
+		
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				referenceColor[0][x][y] += differenceOfColor[0][x][y];
+			}
+		}
+		
+		for (int x = 0; x < halfSize; x++) {
+			for (int y = 0; y < halfSize; y++) {
+				referenceColor[1][x][y] += differenceOfColor[1][x][y];
+				referenceColor[2][x][y] += differenceOfColor[2][x][y];
+			}
+		}
+	}
+	
+	public void shutdown() {
+		this.executor.shutdown();
+	}
+}
@@ -0,0 +1,93 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package decoder;
+
+import java.awt.Dimension;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import utils.PixelRaster;
+
+/**
+ * <p>The class {@code Y4MSink} writes the frames as YUV4MPEG2
+ * stream. Besides a short stream header and a FRAME marker in
+ * front of every frame, the layout equals the {@link YUVSink}.</p>
+ * 
+ * <p>YAVC uses full range samples with the chroma centered between
+ * the four luma samples, that's why the stream is marked as
+ * C420jpeg with full color range.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class Y4MSink extends YUVSink {
+	/**
+	 * Frame rate, if the caller doesn't provide one, since
+	 * the YAVC file doesn't store it.
+	 */
+	public static final int DEFAULT_FRAME_RATE = 30;
+	
+	private static final byte[] FRAME_MARKER = "FRAME\n".getBytes(StandardCharsets.US_ASCII);
+	
+	private int frameRate = DEFAULT_FRAME_RATE;
+	
+	public Y4MSink(WritableByteChannel channel) {
+		super(channel);
+	}
+	
+	public Y4MSink(File file) throws IOException {
+		super(file);
+	}
+	
+	/**
+	 * <p>Sets the frame rate, that is written to the stream header.</p>
+	 * 
+	 * @param frameRate	Frames per second
+	 * 
+	 * @throws IllegalArgumentException	when the frame rate is lower than 1
+	 */
+	public void setFrameRate(int frameRate) {
+		if (frameRate < 1) {
+			throw new IllegalArgumentException("Frame rate has to be at least 1, got " + frameRate);
+		}
+		
+		this.frameRate = frameRate;
+	}
+	
+	@Override
+	public void begin(Dimension dim) throws IOException {
+		super.begin(dim);
+		String header = "YUV4MPEG2 W" + dim.width + " H" + dim.height + " F" + this.frameRate + ":1 Ip A1:1 C420jpeg XCOLORRANGE=FULL\n";
+		writeFully(ByteBuffer.wrap(header.getBytes(StandardCharsets.US_ASCII)));
+	}
+	
+	@Override
+	public void write(int frameNumber, PixelRaster frame) throws IOException {
+		writeFully(ByteBuffer.wrap(FRAME_MARKER));
+		super.write(frameNumber, frame);
+	}
+}
@@ -0,0 +1,119 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package decoder;
+
+import java.awt.Dimension;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import utils.PixelRaster;
+
+/**
+ * <p>The class {@code YUVSink} writes the frames as raw planar
+ * YUV 4:2:0 (I420). Every frame consists of the full Y plane
+ * followed by the subsampled U and V planes, each in row order
+ * with 8 bits per sample.</p>
+ * 
+ * <p>The planes are taken directly from the PixelRaster, there is
+ * no conversion to RGB and no compression involved.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class YUVSink implements FrameSink {
+	private WritableByteChannel channel = null;
+	
+	/**
+	 * Buffer for one frame, reused for every frame.
+	 */
+	private byte[] frameBuffer = null;
+	
+	/**
+	 * <p>Writes the frames to the provided channel.</p>
+	 * 
+	 * @param channel	Channel to write to
+	 */
+	public YUVSink(WritableByteChannel channel) {
+		if (channel == null) {
+			throw new NullPointerException("YUVSink can't write to a NULL channel");
+		}
+		
+		this.channel = channel;
+	}
+	
+	/**
+	 * <p>Writes the frames to the provided file, an existing
+	 * file is overwritten.</p>
+	 * 
+	 * @param file	File to write to
+	 */
+	public YUVSink(File file) throws IOException {
+		this(openFile(file));
+	}
+	
+	/**
+	 * <p>Opens a channel on the standard output.</p>
+	 * 
+	 * @return Channel on the standard output
+	 */
+	public static WritableByteChannel openStandardOutput() {
+		return new FileOutputStream(FileDescriptor.out).getChannel();
+	}
+	
+	protected static WritableByteChannel openFile(File file) throws IOException {
+		return FileChannel.open(Path.of(file.getAbsolutePath()), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+	}
+	
+	@Override
+	public void begin(Dimension dim) throws IOException {
+		int lumaSize = dim.width * dim.height;
+		this.frameBuffer = new byte[lumaSize + 2 * (lumaSize / 4)];
+	}
+	
+	@Override
+	public void write(int frameNumber, PixelRaster frame) throws IOException {
+		int offset = frame.getPlane(0, this.frameBuffer, 0);
+		offset += frame.getPlane(1, this.frameBuffer, offset);
+		frame.getPlane(2, this.frameBuffer, offset);
+		writeFully(ByteBuffer.wrap(this.frameBuffer));
+	}
+	
+	protected void writeFully(ByteBuffer data) throws IOException {
+		while (data.hasRemaining()) {
+			this.channel.write(data);
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+}
@@ -0,0 +1,163 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import quadtree.QuadtreeEngine;
+import utils.MacroBlock;
+import utils.PixelRaster;
+
+/**
+ * <p>The class {@code AnalysisStage} overlaps the analysis of the
+ * next frames with the encoding of the current frame. The quadtree
+ * only depends on the source frame, so it is built on a separate
+ * thread, while the encoder runs the motion search, rendering and
+ * deblocking of the frame in front of it.</p>
+ * 
+ * <p>The frames within the analysis depth form the lookahead. Every
+ * frame gets a cheap {@link LowResAnalysis} on a separate thread,
+ * that compares it with the previous source frame. The quadtree of
+ * a frame, that starts a new scene, is skipped, since the frame is
+ * coded as keyframe anyway.</p>
+ * 
+ * <p>Everything, that depends on the reconstructed previous frame,
+ * like the difference detection, still has to run in order within
+ * the encoder.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class AnalysisStage implements AutoCloseable {
+	private FrameReader reader = null;
+	private QuadtreeEngine quadtreeEngine = null;
+	private LookaheadAnalyzer lookaheadAnalyzer = null;
+	private int depth = 0;
+	private int frameNumber = 0;
+	
+	private ExecutorService lookahead = null;
+	private ExecutorService analysis = null;
+	private ArrayDeque<AnalyzedFrame> pendingFrames = new ArrayDeque<AnalyzedFrame>();
+	
+	/**
+	 * @param reader	Reader to take the source frames from
+	 * @param quadtreeEngine	Engine to build the quadtrees with
+	 * @param lookaheadAnalyzer	Analyzer for the low resolution analysis
+	 * @param depth	Amount of frames to analyze ahead of the encoder
+	 */
+	public AnalysisStage(FrameReader reader, QuadtreeEngine quadtreeEngine, LookaheadAnalyzer lookaheadAnalyzer, int depth) {
+		if (reader == null) {
+			throw new NullPointerException("AnalysisStage requires a FrameReader");
+		} else if (quadtreeEngine == null) {
+			throw new NullPointerException("AnalysisStage requires a QuadtreeEngine");
+		} else if (lookaheadAnalyzer == null) {
+			throw new NullPointerException("AnalysisStage requires a LookaheadAnalyzer");
+		} else if (depth < 0) {
+			throw new IllegalArgumentException("Analysis depth can't be negative, got " + depth);
+		}
+		
+		this.reader = reader;
+		this.quadtreeEngine = quadtreeEngine;
+		this.lookaheadAnalyzer = lookaheadAnalyzer;
+		this.depth = depth;
+		this.lookahead = Executors.newSingleThreadExecutor((runnable) -> {
+			Thread thread = new Thread(runnable, "YAVC_Lookahead");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.analysis = Executors.newSingleThreadExecutor((runnable) -> {
+			Thread thread = new Thread(runnable, "YAVC_Frame_Analysis");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	public boolean hasNext() throws IOException {
+		return !this.pendingFrames.isEmpty() || this.reader.hasNext();
+	}
+	
+	/**
+	 * <p>Get the next frame and starts the analysis of the
+	 * following frames, which form the lookahead of the frame.</p>
+	 * 
+	 * @return The next frame, the frame within might be null if it
+	 * is missing in the input
+	 * 
+	 * @throws IOException	when a frame can't be read
+	 * @throws NoSuchElementException	when there are no frames left
+	 */
+	public AnalyzedFrame next() throws IOException {
+		fill(1);
+		
+		if (this.pendingFrames.isEmpty()) {
+			throw new NoSuchElementException("No frames left");
+		}
+		
+		AnalyzedFrame next = this.pendingFrames.pollFirst();
+		fill(this.depth);
+		next.setLookahead(new ArrayList<AnalyzedFrame>(this.pendingFrames));
+		return next;
+	}
+	
+	private void fill(int frames) throws IOException {
+		while (this.pendingFrames.size() < frames && this.reader.hasNext()) {
+			PixelRaster frame = this.reader.next();
+			Future<ArrayList<MacroBlock>> leaveNodes = null;
+			Future<LowResAnalysis> lowRes = null;
+			
+			if (frame != null) {
+				//The single thread runs the tasks in order, so the analyzer sees every frame after its predecessor
+				lowRes = this.lookahead.submit(() -> this.lookaheadAnalyzer.analyze(frame));
+				Future<LowResAnalysis> frameAnalysis = lowRes;
+				leaveNodes = this.analysis.submit(() -> {
+					if (frameAnalysis.get().isSceneChange()) {
+						return null;
+					}
+					
+					ArrayList<MacroBlock> roots = this.quadtreeEngine.constructQuadtree(frame);
+					return this.quadtreeEngine.getLeaveNodes(roots);
+				});
+			}
+			
+			this.pendingFrames.add(new AnalyzedFrame(this.frameNumber++, frame, leaveNodes, lowRes));
+		}
+	}
+	
+	@Override
+	public void close() {
+		for (AnalyzedFrame frame : this.pendingFrames) {
+			frame.discardAnalysis();
+		}
+		
+		this.pendingFrames.clear();
+		this.analysis.shutdownNow();
+		this.lookahead.shutdownNow();
+	}
+}
@@ -0,0 +1,152 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import utils.MacroBlock;
+import utils.PixelRaster;
+
+/**
+ * <p>The class {@code AnalyzedFrame} is a source frame together
+ * with the results of the analysis, that only depends on the
+ * source itself and can run ahead of the encoding.</p>
+ * 
+ * <p>When the frame is handed to the encoder, it also knows the
+ * frames in the lookahead behind it.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class AnalyzedFrame {
+	private int frameNumber = 0;
+	private PixelRaster frame = null;
+	private Future<ArrayList<MacroBlock>> leaveNodes = null;
+	private Future<LowResAnalysis> lowResAnalysis = null;
+	private List<AnalyzedFrame> lookahead = Collections.emptyList();
+	
+	public AnalyzedFrame(int frameNumber, PixelRaster frame, Future<ArrayList<MacroBlock>> leaveNodes) {
+		this(frameNumber, frame, leaveNodes, null);
+	}
+	
+	public AnalyzedFrame(int frameNumber, PixelRaster frame, Future<ArrayList<MacroBlock>> leaveNodes, Future<LowResAnalysis> lowResAnalysis) {
+		this.frameNumber = frameNumber;
+		this.frame = frame;
+		this.leaveNodes = leaveNodes;
+		this.lowResAnalysis = lowResAnalysis;
+	}
+	
+	public int getFrameNumber() {
+		return this.frameNumber;
+	}
+	
+	/**
+	 * @return Source frame or null if the frame is missing in the input
+	 */
+	public PixelRaster getFrame() {
+		return this.frame;
+	}
+	
+	/**
+	 * <p>Waits for the quadtree of the frame.</p>
+	 * 
+	 * @return Leave nodes of the quadtree or null if the
+	 * frame wasn't analyzed ahead
+	 * 
+	 * @throws IllegalStateException	when the quadtree failed
+	 */
+	public ArrayList<MacroBlock> getLeaveNodes() throws InterruptedException {
+		if (this.leaveNodes == null) {
+			return null;
+		}
+		
+		try {
+			return this.leaveNodes.get();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Quadtree of frame " + this.frameNumber + " failed", e.getCause());
+		}
+	}
+	
+	/**
+	 * @return true if the low resolution analysis ran ahead
+	 */
+	public boolean hasLowResAnalysis() {
+		return this.lowResAnalysis != null;
+	}
+	
+	/**
+	 * <p>Waits for the low resolution analysis of the frame.</p>
+	 * 
+	 * @return Analysis of the frame or null if it didn't run ahead
+	 * 
+	 * @throws IllegalStateException	when the analysis failed
+	 */
+	public LowResAnalysis getLowResAnalysis() throws InterruptedException {
+		if (this.lowResAnalysis == null) {
+			return null;
+		}
+		
+		try {
+			return this.lowResAnalysis.get();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Analysis of frame " + this.frameNumber + " failed", e.getCause());
+		}
+	}
+	
+	/**
+	 * @return true if the frame starts a new scene, false if it
+	 * doesn't or the analysis didn't run ahead
+	 */
+	public boolean isSceneChange() throws InterruptedException {
+		LowResAnalysis analysis = getLowResAnalysis();
+		return analysis != null && analysis.isSceneChange();
+	}
+	
+	/**
+	 * @return Frames, that follow this frame in the lookahead,
+	 * in order
+	 */
+	public List<AnalyzedFrame> getLookahead() {
+		return this.lookahead;
+	}
+	
+	void setLookahead(List<AnalyzedFrame> lookahead) {
+		this.lookahead = Collections.unmodifiableList(lookahead);
+	}
+	
+	/**
+	 * <p>Cancels the quadtree, e.g. when the frame is coded as keyframe.
+	 * The low resolution analysis still runs, since the next frame
+	 * is compared with this frame.</p>
+	 */
+	public void discardAnalysis() {
+		if (this.leaveNodes != null) {
+			this.leaveNodes.cancel(false);
+		}
+	}
+}
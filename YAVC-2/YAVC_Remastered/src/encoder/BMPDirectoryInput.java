@@ -0,0 +1,145 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import utils.BMPReader;
+import utils.PixelRaster;
+
+/**
+ * <p>The class {@code BMPDirectoryInput} reads the frames
+ * 0000.bmp, 0001.bmp, ... of a directory.</p>
+ * 
+ * <p>Uncompressed BMPs are read by the {@link BMPReader} directly
+ * into the PixelRaster and padded to a multiple of 4. All other
+ * images are read with ImageIO and rescaled by the PixelRaster.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class BMPDirectoryInput implements FrameInput {
+	private static final String FRAME_FORMAT = ".bmp";
+	
+	private File directory = null;
+	private int frames = 0;
+	
+	/**
+	 * @param directory	Directory with the frames
+	 * 
+	 * @throws NullPointerException	when the directory is null
+	 * @throws IllegalArgumentException	when the directory doesn't exist
+	 */
+	public BMPDirectoryInput(File directory) {
+		if (directory == null) {
+			throw new NullPointerException("No input directory provided");
+		} else if (!directory.isDirectory()) {
+			throw new IllegalArgumentException(directory.getAbsolutePath() + " is not a directory");
+		}
+		
+		this.directory = directory;
+		this.frames = directory.listFiles().length;
+	}
+	
+	/**
+	 * @return Amount of files in the directory
+	 */
+	@Override
+	public int getFrameCount() {
+		return this.frames;
+	}
+	
+	@Override
+	public boolean isRandomAccess() {
+		return true;
+	}
+	
+	/**
+	 * @return The frame or null if the file doesn't exist
+	 */
+	@Override
+	public PixelRaster read(int index, PixelRaster target) throws IOException {
+		File file = getFrameFile(this.directory, index);
+		
+		if (!file.exists()) {
+			return null;
+		}
+		
+		PixelRaster direct = BMPReader.read(file, target);
+		
+		if (direct != null) {
+			return direct;
+		}
+		
+		BufferedImage img = ImageIO.read(file);
+		
+		if (img == null) {
+			throw new IOException("No image reader for " + file.getAbsolutePath());
+		}
+		
+		if (target != null) {
+			try {
+				target.load(img);
+				return target;
+			} catch (IllegalArgumentException e) {
+				//Frame has a different size, so it can't be reused
+			}
+		}
+		
+		return new PixelRaster(img);
+	}
+	
+	@Override
+	public void close() {}
+	
+	/**
+	 * <p>Get the file of a frame, the name is the number of
+	 * the frame with at least 4 digits.</p>
+	 * 
+	 * @return File of the frame
+	 * 
+	 * @param directory	Directory with the frames
+	 * @param index	Number of the frame
+	 */
+	public static File getFrameFile(File directory, int index) {
+		StringBuilder name = new StringBuilder(32);
+		name.append(directory.getAbsolutePath() + "/");
+		
+		if (index < 10) {
+			name.append("000");
+		} else if (index < 100) {
+			name.append("00");
+		} else if (index < 1000) {
+			name.append("0");
+		}
+		
+		name.append(index);
+		name.append(FRAME_FORMAT);
+		return new File(name.toString());
+	}
+}
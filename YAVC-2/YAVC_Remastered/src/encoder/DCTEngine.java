@@ -22,9 +22,6 @@ along with this program.  If not, see <https://www.gnu.org/licenses/>.
 package encoder;
 
 import java.util.ArrayList;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 
 import app.config;
 
@@ -50,85 +47,69 @@ public class DCTEngine {
 	 * The order is like this: 8x8 at [0]; 4x4 at [1] and 2x2 at [2].
 	 * The rest stores the individual
 	 * coefficients.</p>
+	 * 
+	 * <p>The tables are calculated once, when the class is loaded,
+	 * and never written afterwards, so all engines and all encodings
+	 * of the JVM share them without any synchronization.</p>
+	 */
+	private static final double[][][][][] DCT_COEFFICIENTS = new double[3][][][][];
+	private static final double[][][][][] IDCT_COEFFICIENTS = new double[3][][][][];
+	
+	static {
+		//Sizes that are used for the DCT in YAVC
+		int[] sizes = {8, 4, 2};
+		
+		for (int i = 0; i < sizes.length; i++) {
+			calculateDCTCoeffs(sizes[i], i);
+		}
+	}
+	
+	/**
+	 * <p>Largest absolute quantized coefficient, that fits into
+	 * a byte of the bitstream.</p>
 	 */
-	public static double[][][][][] DCT_COEFFICIENTS = null;
-	public static double[][][][][] IDCT_COEFFICIENTS = null;
+	private static final int MAX_COEFFICIENT = 0x7F;
 	
 	/**
-	 * <p>The constructor pre-calculates all cosine values
-	 * to ensure a faster processing time in the next few steps
-	 * of the DCT-II as well as the IDCT.</p>
-	 * 
-	 * <p><strong>Performance Warning:</strong><br>
-	 * Even though there is
-	 * multithreading involved, the process takes up some time
-	 * especially for larger DCT matrices.</p>
+	 * <p>The cosine tables are shared by all instances, so
+	 * an engine is cheap to create.</p>
 	 */
 	public DCTEngine() {
-		int threads = Runtime.getRuntime().availableProcessors();
-		ExecutorService executor = Executors.newFixedThreadPool(threads);
-		
-		try {
-			//Sizes that are used for the DCT in YAVC
-			int[] sizes = {8, 4, 2};
-			DCT_COEFFICIENTS = new double[sizes.length][][][][];
-			IDCT_COEFFICIENTS = new double[sizes.length][][][][];
-			
-			for (int i = 0; i < sizes.length; i++) {
-				int index = i;
-				int m = sizes[index];
-				DCT_COEFFICIENTS[i] = new double[m][m][m][m];
-				IDCT_COEFFICIENTS[i] = new double[m][m][m][m];
-				
-				executor.submit(getDCTCoeffs(m, index));
-			}
-			
-			executor.shutdown();
-			while (!executor.awaitTermination(20, TimeUnit.MILLISECONDS));
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
 	}
 	
 	/**
-	 * <p>Creates a runnable that is then passed
-	 * to run in a thread. The runnable contains the functionality
-	 * to calculate all DCT coefficients for DCT-II as well as IDCT.</p>
+	 * <p>Calculates all DCT coefficients for DCT-II as well as IDCT.</p>
 	 * @see <a>https://en.wikipedia.org/wiki/JPEG#Discrete_cosine_transform</a> (Called at 29.05.2024)
 	 * 
-	 * @return Runnable with the calculations ready to be run
-	 * 
 	 * @param m	size of the matrix it should represent
 	 * @param index	Position in the array.
 	 * For 8x8 it is at position [0], 4x4 at [1] and 2x2 at [2].
 	 * 
 	 * @throws IllegalArgumentException	when m is not positive or is 0
 	 */
-	private Runnable getDCTCoeffs(int m, int index) {
+	private static void calculateDCTCoeffs(int m, int index) {
 		if (m <= 0) {
 			throw new IllegalArgumentException("Size m has to be greater than 0");
 		}
 		
 		int m2 = m * 2;
+		DCT_COEFFICIENTS[index] = new double[m][m][m][m];
+		IDCT_COEFFICIENTS[index] = new double[m][m][m][m];
 		
-		Runnable task = () -> {
-			for (int v = 0; v < m; v++) {
-				for (int u = 0; u < m; u++) {
-					for (int x = 0; x < m; x++) {
-						double cos1 = Math.cos(((double)(2 * x + 1) * (double)v * Math.PI) / m2);
-						
-						for (int y = 0; y < m; y++) {
-							double cos2 = Math.cos(((double)(2 * y + 1) * (double)u * Math.PI) / m2);
-							double cos = cos1 * cos2;
-							DCT_COEFFICIENTS[index][v][u][x][y] = cos;
-							IDCT_COEFFICIENTS[index][x][y][v][u] = cos;
-						}
+		for (int v = 0; v < m; v++) {
+			for (int u = 0; u < m; u++) {
+				for (int x = 0; x < m; x++) {
+					double cos1 = Math.cos(((double)(2 * x + 1) * (double)v * Math.PI) / m2);
+					
+					for (int y = 0; y < m; y++) {
+						double cos2 = Math.cos(((double)(2 * y + 1) * (double)u * Math.PI) / m2);
+						double cos = cos1 * cos2;
+						DCT_COEFFICIENTS[index][v][u][x][y] = cos;
+						IDCT_COEFFICIENTS[index][x][y][v][u] = cos;
 					}
 				}
 			}
-		};
-		
-		return task;
+		}
 	}
 	
 	/**
@@ -185,14 +166,31 @@ public class DCTEngine {
 	 * @param size	Size of the matrix to process
 	 */
 	public ArrayList<double[][][]> computeDCTOfVectorColorDifference(double[][][] diffs, int size) {
+		return computeDCTOfVectorColorDifference(diffs, size, config.DEFAULT_QP);
+	}
+	
+	/**
+	 * <p>Computes the DCT Coefficients of the absolute color difference
+	 * and quantifies them with the quantization tables scaled by the
+	 * provided quantizer.</p>
+	 * 
+	 * @return ArrayList containing all 8x8 or 4x4 matrices.
+	 * For the order see {@link #computeDCTOfVectorColorDifference(double[][][], int)}.
+	 * 
+	 * @param diffs	AbsoluteColorDifference from vector
+	 * @param size	Size of the matrix to process
+	 * @param qp	Quantizer of the frame
+	 */
+	public ArrayList<double[][][]> computeDCTOfVectorColorDifference(double[][][] diffs, int size, int qp) {
+		double scale = getQuantizerScale(qp);
 		int estimatedSize = (size / 8) * (size / 8);
 		ArrayList<double[][][]> coeffs = new ArrayList<double[][][]>(estimatedSize <= 0 ? 2 : estimatedSize);
 
 		if (size == 4) {
 			double[][][] chromaDCT = computeChromaDCTCoefficients(diffs[1], diffs[2], 2);
 			double[][] lumaDCT = computeLumaDCTCoefficients(diffs[0], 4);
-			quantizeChromaDCTCoefficients(chromaDCT, 2);
-			quantizeLumaDCTCoefficients(lumaDCT, 4);
+			quantizeChromaDCTCoefficients(chromaDCT, 2, scale);
+			quantizeLumaDCTCoefficients(lumaDCT, 4, scale);
 			
 			double[][][] cache = new double[3][][];
 			cache[0] = lumaDCT;
@@ -208,8 +206,8 @@ public class DCTEngine {
 				double[][][] subArr = getSubArray(diffs, 8, x, y);
 				double[][][] chromaDCT = computeChromaDCTCoefficients(subArr[1], subArr[2], 4);
 				double[][] lumaDCT = computeLumaDCTCoefficients(subArr[0], 8);
-				quantizeChromaDCTCoefficients(chromaDCT, 4);
-				quantizeLumaDCTCoefficients(lumaDCT, 8);
+				quantizeChromaDCTCoefficients(chromaDCT, 4, scale);
+				quantizeLumaDCTCoefficients(lumaDCT, 8, scale);
 				
 				double[][][] cache = new double[3][][];
 				cache[0] = lumaDCT;
@@ -234,6 +232,23 @@ public class DCTEngine {
 	 * @param size	Size of the original matrix
 	 */
 	public double[][][] computeIDCTOfVectorColorDifference(ArrayList<double[][][]> DCTCoeff, int size) {
+		return computeIDCTOfVectorColorDifference(DCTCoeff, size, config.DEFAULT_QP);
+	}
+	
+	/**
+	 * <p>Computes the IDCT Coefficients of DCT-II coefficients, that were
+	 * quantified with the provided quantizer.</p>
+	 * 
+	 * @return Reconstructed AbsoluteColorDifference array
+	 * 
+	 * @param DCTCoeff	Coefficients to reverse.
+	 * For order see {@code encoder.DCTEngine.computeDCTOfVectorColorDifference()}.
+	 * @param size	Size of the original matrix
+	 * @param qp	Quantizer of the frame
+	 */
+	public double[][][] computeIDCTOfVectorColorDifference(ArrayList<double[][][]> DCTCoeff, int size, int qp) {
+		double scale = getQuantizerScale(qp);
+		
 		if (DCTCoeff == null || DCTCoeff.size() == 0) {
 			System.err.println("No DCT-II Coefficients to apply IDCT-II on! > NULL");
 			return null;
@@ -245,8 +260,8 @@ public class DCTEngine {
 			double[][][] objToProcess = DCTCoeff.get(0);
 			double[][][] chromaIDCT = new double[][][] {objToProcess[1], objToProcess[2]};
 			double[][] lumaIDCT = objToProcess[0];
-			dequantizeChromaDCTCoefficients(chromaIDCT, 2);
-			dequantizeLumaDCTCoefficients(lumaIDCT, 4);
+			dequantizeChromaDCTCoefficients(chromaIDCT, 2, scale);
+			dequantizeLumaDCTCoefficients(lumaIDCT, 4, scale);
 			chromaIDCT = computeChromaIDCTCoefficients(chromaIDCT[0], chromaIDCT[1], 2);
 			lumaIDCT = computeLumaIDCTCoefficients(lumaIDCT, 4);
 			res[0] = lumaIDCT;
@@ -264,8 +279,8 @@ public class DCTEngine {
 				double[][][] CoeffGroup = DCTCoeff.get(index++);
 				double[][][] chromaIDCT = new double[][][] {CoeffGroup[1], CoeffGroup[2]};
 				double[][] lumaIDCT = CoeffGroup[0];
-				dequantizeChromaDCTCoefficients(chromaIDCT, 4);
-				dequantizeLumaDCTCoefficients(lumaIDCT, 8);
+				dequantizeChromaDCTCoefficients(chromaIDCT, 4, scale);
+				dequantizeLumaDCTCoefficients(lumaIDCT, 8, scale);
 				chromaIDCT = computeChromaIDCTCoefficients(chromaIDCT[0], chromaIDCT[1], 4);
 				lumaIDCT = computeLumaIDCTCoefficients(lumaIDCT, 8);
 				
@@ -524,12 +539,25 @@ public class DCTEngine {
 	 * @param size	size of the matrix
 	 */
 	public void quantizeChromaDCTCoefficients(double[][][] coefficients, int size) {
+		quantizeChromaDCTCoefficients(coefficients, size, 1.0);
+	}
+	
+	/**
+	 * <p>Quantifies all chroma DCT-II coefficients with the according
+	 * quantization table multiplied by the scale.</p>
+	 * 
+	 * @param coefficients	Coefficients to quantify
+	 * @param size	size of the matrix
+	 * @param scale	Factor for the quantization steps, see {@link #getQuantizerScale(int)}
+	 */
+	public void quantizeChromaDCTCoefficients(double[][][] coefficients, int size, double scale) {
 		int[][] chromaQuant = getChromaQuantizationTable(size);
 		
 		for (int x = 0; x < size; x++) {
 			for (int y = 0; y < size; y++) {
-				coefficients[0][x][y] = (int)Math.round(coefficients[0][x][y] / (double)chromaQuant[x][y]);
-				coefficients[1][x][y] = (int)Math.round(coefficients[1][x][y] / (double)chromaQuant[x][y]);
+				double step = chromaQuant[x][y] * scale;
+				coefficients[0][x][y] = clampCoefficient(Math.round(coefficients[0][x][y] / step));
+				coefficients[1][x][y] = clampCoefficient(Math.round(coefficients[1][x][y] / step));
 			}
 		}
 	}
@@ -544,11 +572,23 @@ public class DCTEngine {
 	 * @param size	size of the matrix
 	 */
 	public void quantizeLumaDCTCoefficients(double[][] coefficients, int size) {
+		quantizeLumaDCTCoefficients(coefficients, size, 1.0);
+	}
+	
+	/**
+	 * <p>Quantifies all luma DCT-II coefficients with the according
+	 * quantization table multiplied by the scale.</p>
+	 * 
+	 * @param coefficients	Coefficients to quantify
+	 * @param size	size of the matrix
+	 * @param scale	Factor for the quantization steps, see {@link #getQuantizerScale(int)}
+	 */
+	public void quantizeLumaDCTCoefficients(double[][] coefficients, int size, double scale) {
 		int[][] lumaQuant = getLumaQuantizationTable(size);
 		
 		for (int x = 0; x < size; x++) {
 			for (int y = 0; y < size; y++) {
-				coefficients[x][y] = (int)Math.round(coefficients[x][y] / (double)lumaQuant[x][y]);
+				coefficients[x][y] = clampCoefficient(Math.round(coefficients[x][y] / (lumaQuant[x][y] * scale)));
 			}
 		}
 	}
@@ -563,12 +603,24 @@ public class DCTEngine {
 	 * @param size	size of the matrix
 	 */
 	public void dequantizeChromaDCTCoefficients(double[][][] coefficients, int size) {
+		dequantizeChromaDCTCoefficients(coefficients, size, 1.0);
+	}
+	
+	/**
+	 * <p>Dequantizizes all chroma DCT-II coefficients with the according
+	 * quantization table multiplied by the scale.</p>
+	 * 
+	 * @param coefficients	Coefficients to dequantizize
+	 * @param size	size of the matrix
+	 * @param scale	Factor for the quantization steps, see {@link #getQuantizerScale(int)}
+	 */
+	public void dequantizeChromaDCTCoefficients(double[][][] coefficients, int size, double scale) {
 		int[][] chromaQuant = getChromaQuantizationTable(size);
 		
 		for (int x = 0; x < size; x++) {
 			for (int y = 0; y < size; y++) {
-				coefficients[0][x][y] *= chromaQuant[x][y];
-				coefficients[1][x][y] *= chromaQuant[x][y];
+				coefficients[0][x][y] *= chromaQuant[x][y] * scale;
+				coefficients[1][x][y] *= chromaQuant[x][y] * scale;
 			}
 		}
 	}
@@ -583,15 +635,58 @@ public class DCTEngine {
 	 * @param size	size of the matrix
 	 */
 	public void dequantizeLumaDCTCoefficients(double[][] coefficients, int size) {
+		dequantizeLumaDCTCoefficients(coefficients, size, 1.0);
+	}
+	
+	/**
+	 * <p>Dequantizizes all luma DCT-II coefficients with the according
+	 * quantization table multiplied by the scale.</p>
+	 * 
+	 * @param coefficients	Coefficients to dequantizize
+	 * @param size	size of the matrix
+	 * @param scale	Factor for the quantization steps, see {@link #getQuantizerScale(int)}
+	 */
+	public void dequantizeLumaDCTCoefficients(double[][] coefficients, int size, double scale) {
 		int[][] lumaQuant = getLumaQuantizationTable(size);
 		
 		for (int x = 0; x < size; x++) {
 			for (int y = 0; y < size; y++) {
-				coefficients[x][y] *= (double)lumaQuant[x][y];
+				coefficients[x][y] *= lumaQuant[x][y] * scale;
 			}
 		}
 	}
 	
+	/**
+	 * <p>Returns the factor for the quantization tables. At
+	 * {@link config#DEFAULT_QP} the tables are used as they are,
+	 * every {@link config#QP_PER_DOUBLING} the steps double.</p>
+	 * 
+	 * @return Factor for the quantization steps
+	 * 
+	 * @param qp	Quantizer
+	 * 
+	 * @throws IllegalArgumentException	when the quantizer is out of range
+	 */
+	public static double getQuantizerScale(int qp) {
+		if (qp < config.MIN_QP || qp > config.MAX_QP) {
+			throw new IllegalArgumentException("QP has to be between " + config.MIN_QP + " and " + config.MAX_QP + ", got " + qp);
+		}
+		
+		return Math.pow(2, (qp - config.DEFAULT_QP) / (double)config.QP_PER_DOUBLING);
+	}
+	
+	/**
+	 * <p>Limits a quantized coefficient to the 7 bits and sign,
+	 * that are stored per coefficient.</p>
+	 * 
+	 * @return Clamped coefficient
+	 * 
+	 * @param coefficient	Quantized coefficient
+	 */
+	private double clampCoefficient(long coefficient) {
+		return Math.max(-MAX_COEFFICIENT, Math.min(MAX_COEFFICIENT, coefficient));
+	}
+	
 	/**
 	 * <p>Returns the according luma quantization table.</p>
 	 *
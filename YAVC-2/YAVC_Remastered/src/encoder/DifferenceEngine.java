@@ -4,9 +4,11 @@ import java.awt.Dimension;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 
 import utils.ColorManager;
@@ -14,13 +16,42 @@ import utils.MacroBlock;
 import utils.PixelRaster;
 
 public class DifferenceEngine {
+	/**
+	 * <p>Executor of the tasks, null for a thread pool per call.</p>
+	 */
+	private Executor executor = null;
+	
+	/**
+	 * @param executor	Executor of the tasks, e.g. a client of a shared
+	 * {@link utils.WorkScheduler}, null for a thread pool per call
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+	
 	public ArrayList<MacroBlock> computeDifferences(PixelRaster prevFrame, ArrayList<MacroBlock> leaveNodes) {
+		return computeDifferences(prevFrame, leaveNodes, 1.0);
+	}
+	
+	/**
+	 * <p>Returns the blocks, whose mean squared error to the previous
+	 * frame exceeds the thresholds multiplied by the scale. All other
+	 * blocks are skipped and copied from the previous frame.</p>
+	 * 
+	 * @return Blocks, that have to be coded
+	 * 
+	 * @param prevFrame	Reconstructed previous frame
+	 * @param leaveNodes	Leaves of the quadtree
+	 * @param thresholdScale	Factor for the skip thresholds
+	 */
+	public ArrayList<MacroBlock> computeDifferences(PixelRaster prevFrame, ArrayList<MacroBlock> leaveNodes, double thresholdScale) {
 		ArrayList<MacroBlock> diffs = new ArrayList<MacroBlock>(leaveNodes.size() / 2);
 		ArrayList<Future<MacroBlock>> futureDiffs = new ArrayList<Future<MacroBlock>>(leaveNodes.size() / 2);
 
 		try {
 			int threads = Runtime.getRuntime().availableProcessors();
-			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			ExecutorService pool = this.executor == null ? Executors.newFixedThreadPool(threads) : null;
+			Executor executor = pool == null ? this.executor : pool;
 			
 			for (MacroBlock block : leaveNodes) {
 				Callable<MacroBlock> task = () -> {
@@ -50,14 +81,16 @@ public class DifferenceEngine {
 					sumU /= squaredSize;
 					sumV /= squaredSize;
 					
-					if (sumY > 1.55 || sumU > 3.6 || sumV > 3.6) {
+					if (sumY > 1.55 * thresholdScale || sumU > 3.6 * thresholdScale || sumV > 3.6 * thresholdScale) {
 						return block;
 					}
 					
 					return null;
 				};
 				
-				futureDiffs.add(executor.submit(task));
+				FutureTask<MacroBlock> future = new FutureTask<MacroBlock>(task);
+				executor.execute(future);
+				futureDiffs.add(future);
 			}
 			
 			for (Future<MacroBlock> diff : futureDiffs) {
@@ -72,8 +105,10 @@ public class DifferenceEngine {
 				}
 			}
 			
-			executor.shutdown();
-			while (!executor.awaitTermination(20, TimeUnit.NANOSECONDS));
+			if (pool != null) {
+				pool.shutdown();
+				while (!pool.awaitTermination(20, TimeUnit.NANOSECONDS));
+			}
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -0,0 +1,118 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * <p>The class {@code EncodeJob} is a single encoding of an
+ * {@link EncoderService}. The results of the encoding are provided
+ * by its {@link Encoder}, once the job is done.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class EncodeJob {
+	private File input = null;
+	private Encoder encoder = null;
+	private int priority = 0;
+	private volatile boolean started = false;
+	private CountDownLatch done = new CountDownLatch(1);
+	
+	EncodeJob(File input, Encoder encoder, int priority) {
+		this.input = input;
+		this.encoder = encoder;
+		this.priority = priority;
+	}
+	
+	/**
+	 * <p>Encodes the input, called by a thread of the service.</p>
+	 */
+	void run() {
+		try {
+			//A job, that was cancelled while it was queued, isn't started at all
+			if (!this.encoder.isCancelled()) {
+				this.started = true;
+				this.encoder.encode(this.input, null);
+			}
+		} finally {
+			this.done.countDown();
+		}
+	}
+	
+	/**
+	 * <p>Cancels the job. A queued job isn't started, a running
+	 * job stops before its next frame and fails.</p>
+	 * 
+	 * @see Encoder#cancel()
+	 */
+	public void cancel() {
+		this.encoder.cancel();
+	}
+	
+	/**
+	 * <p>Waits until the job is done.</p>
+	 * 
+	 * @return true if the encoding succeeded, false if it
+	 * failed or was cancelled
+	 * 
+	 * @throws InterruptedException	when the waiting thread is interrupted
+	 */
+	public boolean await() throws InterruptedException {
+		this.done.await();
+		return this.started && !this.encoder.hasFailed() && !this.encoder.isCancelled();
+	}
+	
+	public boolean isDone() {
+		return this.done.getCount() == 0;
+	}
+	
+	public boolean isCancelled() {
+		return this.encoder.isCancelled();
+	}
+	
+	/**
+	 * @return true if the job left the queue and began to encode
+	 */
+	public boolean isStarted() {
+		return this.started;
+	}
+	
+	public int getPriority() {
+		return this.priority;
+	}
+	
+	public File getInput() {
+		return this.input;
+	}
+	
+	/**
+	 * @return Encoder of the job, which provides the results
+	 * once the job is done
+	 */
+	public Encoder getEncoder() {
+		return this.encoder;
+	}
+}
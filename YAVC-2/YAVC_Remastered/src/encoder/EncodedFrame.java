@@ -0,0 +1,71 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+/**
+ * <p>The class {@code EncodedFrame} is a frame, that was coded
+ * by the {@link FrameEncoder}. The payload has the same format
+ * as a frame within a YAVC file, just without the length prefix.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class EncodedFrame {
+	private int frameNumber = 0;
+	private long timestamp = 0;
+	private boolean keyframe = false;
+	private byte[] payload = null;
+	
+	public EncodedFrame(int frameNumber, long timestamp, boolean keyframe, byte[] payload) {
+		this.frameNumber = frameNumber;
+		this.timestamp = timestamp;
+		this.keyframe = keyframe;
+		this.payload = payload;
+	}
+	
+	/**
+	 * @return Position of the frame within the stream, starting at 0
+	 */
+	public int getFrameNumber() {
+		return this.frameNumber;
+	}
+	
+	/**
+	 * @return Timestamp, that was passed together with the frame
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+	
+	/**
+	 * @return true if the frame doesn't depend on any previous frame
+	 */
+	public boolean isKeyframe() {
+		return this.keyframe;
+	}
+	
+	public byte[] getPayload() {
+		return this.payload;
+	}
+}
@@ -0,0 +1,42 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+/**
+ * <p>The interface {@code EncodedFrameListener} receives the
+ * frames of a {@link FrameEncoder}. The frames arrive in order
+ * on the thread of the encoder, so a slow listener slows down
+ * the encoder and finally blocks the source.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public interface EncodedFrameListener {
+	/**
+	 * <p>Called for every frame as soon as it is coded.</p>
+	 * 
+	 * @param frame	The coded frame
+	 */
+	public void frameEncoded(EncodedFrame frame);
+}
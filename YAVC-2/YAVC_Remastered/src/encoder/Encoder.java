@@ -1,108 +1,600 @@
 package encoder;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
-
-import javax.imageio.ImageIO;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import app.config;
 import interprediction.Vector;
 import interprediction.VectorEngine;
 import quadtree.QuadtreeEngine;
-import utils.Deblocker;
 import utils.MacroBlock;
 import utils.PixelRaster;
 import utils.QueueObject;
-import utils.RenderEngine;
 
 public class Encoder {
 	public DCTEngine DCT_ENGINE = null;
-	private static QuadtreeEngine QUADTREE_ENGINE = new QuadtreeEngine();
-	private static DifferenceEngine DIFFERENCE_ENGINE = new DifferenceEngine();
-	private static VectorEngine VECTOR_ENGINE = new VectorEngine();
+	private EncoderSettings settings = null;
+	private QuadtreeEngine QUADTREE_ENGINE = null;
+	private DifferenceEngine DIFFERENCE_ENGINE = new DifferenceEngine();
+	private VectorEngine VECTOR_ENGINE = null;
+	
+	/**
+	 * Executor of the engines, null for a thread pool per call
+	 */
+	private Executor executor = null;
+	
+	/**
+	 * Shared with the encoders of the segments, so they stop as well
+	 */
+	private AtomicBoolean cancelled = new AtomicBoolean();
+	
+	/*
+	 * Results of the last encoding
+	 */
+	private int encodedFrames = 0;
+	private long encodingTime = 0;
+	private boolean failed = false;
+	private File outputFile = null;
+	private String inputFrameRate = null;
+	private double totalMSE = 0;
+	private int totalMSEAdditionCount = 0;
+	
+	/**
+	 * Encodes the segments of a segment-parallel encoding,
+	 * by default with another Encoder in this process
+	 */
+	private SegmentRunner segmentRunner = (input, segment) -> {
+		Encoder worker = new Encoder(this.DCT_ENGINE, this.settings);
+		worker.executor = this.executor;
+		worker.cancelled = this.cancelled;
+		worker.encodeSegment(input, segment);
+		
+		if (worker.hasFailed()) {
+			throw new IOException(segment + " couldn't be encoded");
+		}
+	};
 	
 	public Encoder(DCTEngine dctEngine) {
+		this(dctEngine, new EncoderSettings());
+	}
+	
+	public Encoder(DCTEngine dctEngine, EncoderSettings settings) {
+		if (settings == null) {
+			throw new NullPointerException("Encoder can't run without settings");
+		}
+		
 		this.DCT_ENGINE = dctEngine;
+		this.settings = settings;
 	}
 	
+	/**
+	 * Encodes all frames of the input. The input is either a directory
+	 * with BMPs, a .y4m file, a raw YUV 4:2:0 file or "-" for a YUV4MPEG2
+	 * stream on the standard input. The result is written to the output
+	 * file of the settings or to YAVC.yavcv next to the input.
+	 * 
+	 * <p>In the first pass of a two-pass encoding the input is only
+	 * analyzed and the {@link FirstPassStats} are written to the stats
+	 * file of the settings or to YAVC.stats next to the output. The
+	 * second pass reads them from there.</p>
+	 * 
+	 * <p>With more than one segment worker the input is split into
+	 * segments, that are encoded at once by the {@link SegmentRunner}
+	 * and merged by the {@link SegmentMerger} afterwards.</p>
+	 * 
+	 * @param input	Input to encode
+	 * @param output	Directory for debug output
+	 * 
+	 * @see #createInput(File, EncoderSettings)
+	 */
 	public void encode(File input, File output) {
-		OutputStream outStream = new OutputStream(new File(input.getParent()));
-		Deblocker deblocker = new Deblocker();
+		if (this.settings.getPass() == 1) {
+			analyze(input);
+			return;
+		} else if (this.settings.getSegmentWorkers() > 1) {
+			encodeSegments(input);
+			return;
+		}
+		
+		File outputFile = this.settings.getOutputFile() == null ? input.getAbsoluteFile().getParentFile() : this.settings.getOutputFile();
+		encode(input, outputFile, this.settings.getFirstFrame(), this.settings.getFrameCount(), getStatsFile(input), this.settings.isVerbose());
+	}
+	
+	/**
+	 * <p>Encodes a single segment of a segment-parallel encoding
+	 * without any statistics per frame. The output file and the
+	 * stats file of the segment replace the ones of the settings.</p>
+	 * 
+	 * @param input	Input of the whole encoding
+	 * @param segment	Segment to encode
+	 */
+	public void encodeSegment(File input, Segment segment) {
+		encode(input, segment.getOutputFile(), segment.getFirstFrame(), segment.getFrameCount(), segment.getStatsFile(), false);
+	}
+	
+	/**
+	 * @param runner	Runner for the segments of a segment-parallel
+	 * encoding, by default the segments are encoded within this process
+	 * 
+	 * @throws NullPointerException	when no runner is passed
+	 */
+	public void setSegmentRunner(SegmentRunner runner) {
+		if (runner == null) {
+			throw new NullPointerException("Encoder requires a SegmentRunner");
+		}
 		
-		ArrayList<PixelRaster> references = new ArrayList<PixelRaster>(config.MAX_REFERENCES);
-		PixelRaster futFrame = null;
-		PixelRaster curFrame = null;
-		PixelRaster prevFrame = null;
+		this.segmentRunner = runner;
+	}
+	
+	/**
+	 * @param executor	Executor of the quadtree, difference and vector
+	 * engines, e.g. a client of a {@link utils.WorkScheduler}, that is
+	 * shared with other encodings, null for a thread pool per call
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+	
+	/**
+	 * <p>Stops the running encoding before the next frame. The
+	 * encoding fails and the output is aborted like on any other
+	 * failure. An encoder, which was cancelled, can't encode again.</p>
+	 */
+	public void cancel() {
+		this.cancelled.set(true);
+	}
+	
+	/**
+	 * @return true if the encoding was cancelled
+	 */
+	public boolean isCancelled() {
+		return this.cancelled.get();
+	}
+	
+	/**
+	 * @param firstFrame	Index of the first frame to encode
+	 * @param frameCount	Amount of frames to encode, 0 up to the end of the input
+	 * @param statsFile	Statistics of the first pass, only read for the second pass
+	 */
+	private void encode(File input, File outputFile, int firstFrame, int frameCount, File statsFile, boolean verbose) {
+		OutputStream outStream = new OutputStream(outputFile, this.settings.getOutputQueueDepth());
+		this.QUADTREE_ENGINE = new QuadtreeEngine(this.settings.getQuadtreeThreshold());
+		this.VECTOR_ENGINE = new VectorEngine(this.settings.getSearchStrategy(), this.settings.getSearchWindow(), this.settings.getRefinementWindow(), this.settings.getSearchReferences());
+		this.QUADTREE_ENGINE.setExecutor(this.executor);
+		this.DIFFERENCE_ENGINE.setExecutor(this.executor);
+		this.VECTOR_ENGINE.setExecutor(this.executor);
+		SequenceEncoder sequence = null;
+		FrameReader reader = null;
+		AnalysisStage analysis = null;
 		
-		int files = input.listFiles().length;
 		long sumOfMilliSeconds = 0;
 		long startOfTime = System.currentTimeMillis();
+		this.encodedFrames = 0;
+		this.failed = false;
+		this.outputFile = outStream.getOutputFile();
+		this.inputFrameRate = null;
+		this.totalMSE = 0;
+		this.totalMSEAdditionCount = 0;
 		
 		try {
+			FrameInput frameInput = createInput(input, this.settings);
+			
+			if (frameInput instanceof Y4MInput) {
+				this.inputFrameRate = ((Y4MInput)frameInput).getFrameRate();
+			}
+			
+			if (firstFrame > 0 || frameCount > 0) {
+				frameInput = new FrameRangeInput(frameInput, firstFrame, frameCount > 0 ? frameCount : Integer.MAX_VALUE);
+			}
+			
+			RateController rateController = RateController.create(this.settings, getFrameRate());
+			sequence = new SequenceEncoder(this.settings, this.QUADTREE_ENGINE, this.DIFFERENCE_ENGINE, this.VECTOR_ENGINE, rateController);
+			
+			reader = new FrameReader(frameInput, this.settings.getInputPrefetch());
+			analysis = new AnalysisStage(reader, this.QUADTREE_ENGINE, SequenceEncoder.createLookaheadAnalyzer(this.settings), this.settings.getAnalysisDepth());
+			int files = reader.getFrameCount();
+			FirstPassStats stats = null;
+			
+			if (this.settings.getPass() == 2) {
+				stats = FirstPassStats.read(statsFile);
+				
+				if (firstFrame > 0 || frameCount > 0) {
+					stats = stats.getRange(firstFrame, frameCount > 0 ? frameCount : Integer.MAX_VALUE);
+				}
+				
+				if (files >= 0 && stats.size() > files) {
+					throw new IllegalStateException("The first pass analyzed " + stats.size() + " frames, the input has " + files);
+				}
+				
+				sequence.setFirstPassStats(stats);
+			}
+			
 			outStream.activate();
 			
-			for (int i = 0; i < files; i++) {
+			while (analysis.hasNext()) {
+				checkCancelled();
 				long start = System.currentTimeMillis();
-				File frameFile = getAwaitedFile(input, i, ".bmp");
+				AnalyzedFrame analyzed = analysis.next();
+				int i = analyzed.getFrameNumber();
+				PixelRaster curFrame = analyzed.getFrame();
 				
-				if (!frameFile.exists()) {
-					System.out.println("Skip: " + i);
+				if (curFrame == null) {
+					if (verbose) {
+						System.out.println("Skip: " + i);
+					}
+					
 					continue;
 				}
 				
-				if (prevFrame == null) {
-					prevFrame = new PixelRaster(ImageIO.read(frameFile));
-//					futureFrame = new PixelRaster(ImageIO.read(getAwaitedFile(input, i + 1, ".bmp")));
-					outStream.writeMetadata(prevFrame.getDimension(), files - 1);
-					outStream.writeStartFrame(prevFrame);
-					references.add(prevFrame);
+				if (sequence.getDimension() == null) {
+					if (stats != null && !stats.getDimension().equals(curFrame.getDimension())) {
+						throw new IllegalStateException("The first pass analyzed frames of " + stats.getDimension() + ", the input has " + curFrame.getDimension());
+					}
+					
+					//Streams have an unknown length, the trailer contains the real amount
+					outStream.writeMetadata(curFrame.getDimension(), Math.max(files - 1, 0));
+				}
+				
+				//The quadtree was built, while the previous frame was encoded
+				QueueObject result = sequence.encode(analyzed);
+				outStream.addObjectToOutputQueue(result);
+				this.encodedFrames++;
+				
+				long time = System.currentTimeMillis() - start;
+				
+				if (result.isKeyframe()) {
+					//The output thread still has to write the keyframe, so it isn't released
+					if (verbose && i > 0) {
+						printKeyframeStatistics(time, i, sequence.getKeyframeReason());
+					}
+					
 					continue;
 				}
 				
-				curFrame = new PixelRaster(ImageIO.read(frameFile));
-//				futureFrame = new PixelRaster(ImageIO.read(getAwaitedFile(input, i + 1, ".bmp")));
+				sumOfMilliSeconds += time;
 				
-				ArrayList<MacroBlock> quadtreeRoots = QUADTREE_ENGINE.constructQuadtree(curFrame);
-				ArrayList<MacroBlock> leaveNodes = QUADTREE_ENGINE.getLeaveNodes(quadtreeRoots);
+				if (verbose) {
+					printStatistics(time, sumOfMilliSeconds, i, result.getVectors(), result.getDifferences());
+					printRateControlStatistics(sequence);
+				}
 				
-//				BufferedImage[] part = RenderEngine.renderQuadtree(leaveNodes, curFrame.getDimension());
-				leaveNodes = DIFFERENCE_ENGINE.computeDifferences(prevFrame, leaveNodes);
-				ArrayList<Vector> movementVectors = VECTOR_ENGINE.computeMovementVectors(leaveNodes, references);
+				reader.release(curFrame);
+			}
+			
+			outStream.close();
+			this.encodingTime = System.currentTimeMillis() - startOfTime;
+			
+			if (verbose) {
+				System.out.println("Time used: " + this.encodingTime + "ms");
+			}
+		} catch (Exception e) {
+			outStream.abort();
+			this.encodingTime = System.currentTimeMillis() - startOfTime;
+			this.failed = true;
+			
+			if (!isCancelled()) {
+				e.printStackTrace();
+			}
+		} finally {
+			if (analysis != null) {
+				analysis.close();
+			}
+			
+			if (reader != null) {
+				reader.close();
+			}
+		}
+	}
+	
+	/**
+	 * <p>Splits the input into segments of the segment length and
+	 * encodes them with up to the amount of segment workers at once.
+	 * The segments are written to a temporary directory next to the
+	 * output, which is removed after they are merged.</p>
+	 * 
+	 * @param input	Input to encode
+	 */
+	private void encodeSegments(File input) {
+		File target = OutputStream.resolve(this.settings.getOutputFile() == null ? input.getAbsoluteFile().getParentFile() : this.settings.getOutputFile());
+		ArrayList<Segment> segments = new ArrayList<Segment>();
+		ExecutorService workers = null;
+		File directory = null;
+		
+		long startOfTime = System.currentTimeMillis();
+		this.encodedFrames = 0;
+		this.failed = false;
+		this.outputFile = target;
+		this.inputFrameRate = null;
+		
+		try {
+			int frames = countFrames(input);
+			int end = this.settings.getFrameCount() > 0 ? Math.min(this.settings.getFirstFrame() + this.settings.getFrameCount(), frames) : frames;
+			int length = this.settings.getSegmentLength() > 0 ? this.settings.getSegmentLength() : this.settings.getGOPLength();
+			File stats = this.settings.getPass() == 2 ? getStatsFile(input) : null;
+			
+			if (end <= this.settings.getFirstFrame()) {
+				throw new IllegalStateException("No frames to encode in " + input.getPath());
+			}
+			
+			directory = Files.createTempDirectory(target.getAbsoluteFile().getParentFile().toPath(), "YAVC_segments").toFile();
+			
+			for (int first = this.settings.getFirstFrame(); first < end; first += length) {
+				File file = new File(directory, "segment_" + segments.size() + ".yavcv");
+				segments.add(new Segment(segments.size(), first, Math.min(length, end - first), file, stats));
+			}
+			
+			workers = Executors.newFixedThreadPool(Math.min(this.settings.getSegmentWorkers(), segments.size()), (runnable) -> {
+				Thread thread = new Thread(runnable, "YAVC_Segment_Worker");
+				thread.setDaemon(true);
+				return thread;
+			});
+			
+			ArrayList<Future<?>> results = new ArrayList<Future<?>>(segments.size());
+			SegmentRunner runner = this.segmentRunner;
+			
+			for (Segment segment : segments) {
+				results.add(workers.submit(() -> {
+					runner.encode(input, segment);
+					return null;
+				}));
+			}
+			
+			for (Future<?> result : results) {
+				result.get();
+			}
+			
+			checkCancelled();
+			
+			ArrayList<File> files = new ArrayList<File>(segments.size());
+			
+			for (Segment segment : segments) {
+				files.add(segment.getOutputFile());
+			}
+			
+			this.encodedFrames = SegmentMerger.merge(files, target);
+			this.encodingTime = System.currentTimeMillis() - startOfTime;
+			
+			if (this.settings.isVerbose()) {
+				System.out.println("Encoded " + segments.size() + " segments with " + Math.min(this.settings.getSegmentWorkers(), segments.size()) + " workers in " + this.encodingTime + "ms");
+			}
+		} catch (Exception e) {
+			this.encodingTime = System.currentTimeMillis() - startOfTime;
+			this.failed = true;
+			
+			if (!isCancelled()) {
+				e.printStackTrace();
+			}
+		} finally {
+			if (workers != null) {
+				workers.shutdownNow();
+			}
+			
+			if (directory != null) {
+				for (Segment segment : segments) {
+					segment.getOutputFile().delete();
+				}
 				
-//				BufferedImage vectors = RenderEngine.renderVectors(movementVectors, curFrame.getDimension());
-				PixelRaster composite = RenderEngine.renderResult(movementVectors, references, leaveNodes, prevFrame);
-				outStream.addObjectToOutputQueue(new QueueObject(movementVectors, leaveNodes));
+				directory.delete();
+			}
+		}
+	}
+	
+	/**
+	 * <p>Counts the frames of the input. Streams are read once
+	 * without converting the frames, the standard input can't
+	 * be read twice and isn't supported.</p>
+	 * 
+	 * @return Amount of frames within the input
+	 * 
+	 * @throws IllegalArgumentException	when the input is the standard input
+	 */
+	private int countFrames(File input) throws IOException {
+		if (input.getPath().equals("-")) {
+			throw new IllegalArgumentException("Segments can't be read from the standard input");
+		}
+		
+		try (FrameInput frameInput = createInput(input, this.settings)) {
+			if (frameInput instanceof Y4MInput) {
+				this.inputFrameRate = ((Y4MInput)frameInput).getFrameRate();
+			}
+			
+			int frames = frameInput.getFrameCount();
+			
+			if (frames < 0) {
+				for (frames = 0; frameInput.skip(frames); frames++);
+			}
+			
+			return frames;
+		}
+	}
+	
+	/**
+	 * <p>Runs the first pass of a two-pass encoding. Every frame of
+	 * the input is analyzed by the {@link FirstPassAnalyzer} and the
+	 * statistics are written to the stats file.</p>
+	 * 
+	 * @param input	Input of the encoding
+	 */
+	private void analyze(File input) {
+		File statsFile = getStatsFile(input);
+		FrameReader reader = null;
+		
+		long startOfTime = System.currentTimeMillis();
+		boolean verbose = this.settings.isVerbose();
+		this.encodedFrames = 0;
+		this.failed = false;
+		this.outputFile = statsFile;
+		this.inputFrameRate = null;
+		
+		try {
+			FrameInput frameInput = createInput(input, this.settings);
+			
+			if (frameInput instanceof Y4MInput) {
+				this.inputFrameRate = ((Y4MInput)frameInput).getFrameRate();
+			}
+			
+			FirstPassAnalyzer analyzer = new FirstPassAnalyzer(this.settings);
+			analyzer.setExecutor(this.executor);
+			reader = new FrameReader(frameInput, this.settings.getInputPrefetch());
+			
+			for (int i = 0; reader.hasNext(); i++) {
+				checkCancelled();
 				
-				deblocker.deblock(movementVectors, composite, 7, 4, 51);
+				//The analyzer keeps copies, so the frame is released right away
+				PixelRaster frame = reader.next();
+				FrameStatistics stats = analyzer.analyze(frame);
+				reader.release(frame);
 				
-//				ImageIO.write(part[0], "png", new File(output.getAbsolutePath() + "/MB_" + i + ".png"));
-//				ImageIO.write(part[1], "png", new File(output.getAbsolutePath() + "/MBA_" + i + ".png"));
-//				ImageIO.write(vectors, "png", new File(output.getAbsolutePath() + "/V_" + i + ".png"));
-//				ImageIO.write(composite.toBufferedImage(), "png", new File(output.getAbsolutePath() + "/VR_" + i + ".png"));
+				if (stats == null) {
+					if (verbose) {
+						System.out.println("Skip: " + i);
+					}
+					
+					continue;
+				}
 				
-				long end = System.currentTimeMillis();
-				long time = end - start;
-				sumOfMilliSeconds += time;
-				printStatistics(time, sumOfMilliSeconds, i, movementVectors, leaveNodes);
+				this.encodedFrames++;
 				
-				references.add(composite.copy());
-				prevFrame = composite.copy();
-				manageReferences(references);
+				if (verbose) {
+					System.out.println("Frame " + i + ": " + (stats.isKeyframe() ? "Keyframe" : "Changed area: " + stats.getCodedArea() + "px | Max. motion: " + stats.getMaxMotion() + "px"));
+				}
 			}
 			
-			long endOfTime = System.currentTimeMillis();
-			System.out.println("Time used: " + (endOfTime - startOfTime) + "ms");
+			if (analyzer.getStats() == null) {
+				throw new IllegalStateException("No frames to analyze in " + input.getPath());
+			}
 			
-			outStream.finishQueue();
-			references.clear();
+			analyzer.getStats().write(statsFile);
+			this.encodingTime = System.currentTimeMillis() - startOfTime;
 		} catch (Exception e) {
-			outStream.shutdown();
-			e.printStackTrace();
+			this.encodingTime = System.currentTimeMillis() - startOfTime;
+			this.failed = true;
+			
+			if (!isCancelled()) {
+				e.printStackTrace();
+			}
+		} finally {
+			if (reader != null) {
+				reader.close();
+			}
 		}
 	}
 	
-	private static double TOTAL_MSE = 0;
-	private static int TOTAL_MSE_ADDITION_COUNT = 0;
+	/**
+	 * @throws CancellationException	when the encoding was cancelled
+	 */
+	private void checkCancelled() {
+		if (isCancelled()) {
+			throw new CancellationException("Encoding was cancelled");
+		}
+	}
+	
+	/**
+	 * @return Stats file of the settings or YAVC.stats next to the output
+	 */
+	private File getStatsFile(File input) {
+		if (this.settings.getStatsFile() != null) {
+			return this.settings.getStatsFile();
+		}
+		
+		File output = this.settings.getOutputFile() == null ? input.getAbsoluteFile().getParentFile() : this.settings.getOutputFile().getAbsoluteFile();
+		return new File(output.isDirectory() ? output : output.getParentFile(), "YAVC.stats");
+	}
+	
+	/**
+	 * @return Frame rate of the settings, the input or {@link config#DEFAULT_FRAME_RATE}
+	 */
+	public double getFrameRate() {
+		if (this.settings.getFrameRate() > 0) {
+			return this.settings.getFrameRate();
+		}
+		
+		return this.inputFrameRate == null ? config.DEFAULT_FRAME_RATE : EncoderSettings.parseFrameRate(this.inputFrameRate);
+	}
+	
+	/**
+	 * @return Amount of frames coded by the last encoding
+	 */
+	public int getEncodedFrames() {
+		return this.encodedFrames;
+	}
+	
+	/**
+	 * @return Time of the last encoding in milliseconds, including
+	 * reading the input and writing the output
+	 */
+	public long getEncodingTime() {
+		return this.encodingTime;
+	}
+	
+	/**
+	 * @return true if the last encoding was stopped by an error
+	 */
+	public boolean hasFailed() {
+		return this.failed;
+	}
+	
+	/**
+	 * @return File written by the last encoding
+	 */
+	public File getOutputFile() {
+		return this.outputFile;
+	}
+	
+	/**
+	 * @return Frame rate of the last input, e.g. "25:1", or null
+	 * if the input doesn't provide one
+	 */
+	public String getInputFrameRate() {
+		return this.inputFrameRate;
+	}
+	
+	/**
+	 * Creates the input, that fits to the file. "-" reads
+	 * a YUV4MPEG2 stream from the standard input.
+	 * 
+	 * @return Input for the file
+	 * 
+	 * @param input	Directory or file to read from
+	 * @param settings	Settings with the dimension for raw YUV files
+	 * 
+	 * @throws IllegalArgumentException	when a raw YUV file is passed
+	 * without a dimension in the settings
+	 */
+	public static FrameInput createInput(File input, EncoderSettings settings) throws IOException {
+		if (input.getPath().equals("-")) {
+			return new Y4MInput(YUVInput.openStandardInput());
+		} else if (input.isDirectory()) {
+			return new BMPDirectoryInput(input);
+		} else if (input.getName().toLowerCase().endsWith(".y4m")) {
+			return new Y4MInput(input);
+		} else if (settings.getRawInputDimension() == null) {
+			throw new IllegalArgumentException("Raw YUV input " + input.getPath() + " requires a dimension in the settings");
+		}
+		
+		YUVInput raw = new YUVInput(input, settings.getRawInputDimension());
+		raw.setLimitedRange(settings.isLimitedRangeInput());
+		return raw;
+	}
+	
+	private void printRateControlStatistics(SequenceEncoder sequence) {
+		RateController rateController = sequence.getRateController();
+		String line = "- Search window: " + sequence.getSearchWindow() + "px | References: " + sequence.getSearchReferences() + " | QP: " + sequence.getQuantizer();
+		
+		if (rateController.getMode() != RateControlMode.CONSTANT_QP) {
+			line += " | Buffer: " + Math.round(rateController.getBufferFill() * 100 / rateController.getBufferSize()) + "%";
+		}
+		
+		System.out.println(line);
+	}
 	
 	private void printStatistics(long time, long fullTime, int index, ArrayList<Vector> vecs, ArrayList<MacroBlock> diffs) {
 		System.out.println("");
@@ -111,9 +603,9 @@ public class Encoder {
 
 		if (vecs != null) {
 			int vecArea = 0;
-			double averageMSE = (VECTOR_ENGINE.getVectorMSE() / vecs.size());
-			TOTAL_MSE += averageMSE;
-			TOTAL_MSE_ADDITION_COUNT++;
+			double averageMSE = (this.VECTOR_ENGINE.getVectorMSE() / vecs.size());
+			this.totalMSE += averageMSE;
+			this.totalMSEAdditionCount++;
 			
 			for (Vector v : vecs) {
 				vecArea += v.getAppendedBlock().getSquaredSize();
@@ -132,37 +624,16 @@ public class Encoder {
 			System.out.println("- Non-Coded blocks: " + diffs.size() + " | Covered area: " + diffArea + "px");
 		}
 		
-		System.out.println("- Total Avg. MSE of inter prediction: " + (TOTAL_MSE / TOTAL_MSE_ADDITION_COUNT));
+		System.out.println("- Total Avg. MSE of inter prediction: " + (this.totalMSE / this.totalMSEAdditionCount));
 		
 		int usedMemory = (int)Runtime.getRuntime().totalMemory();
 		int memory = usedMemory / 1000000;
 		System.out.println("- Memory usage: " + memory + "MB");
 	}
 	
-	private void manageReferences(ArrayList<?> references) {
-		if (references == null) {
-			return;
-		}
-		
-		if (references.size() > config.MAX_REFERENCES) {
-			references.remove(0);
-		}
-	}
-	
-	private File getAwaitedFile(File parent, int index, String format) {
-		StringBuilder name = new StringBuilder(32);
-		name.append(parent.getAbsolutePath() + "/");
-		
-		if (index < 10) {
-			name.append("000");
-		} else if (index < 100) {
-			name.append("00");
-		} else if (index < 1000) {
-			name.append("0");
-		}
-		
-		name.append(index);
-		name.append(format);
-		return new File(name.toString());
+	private void printKeyframeStatistics(long time, int index, String reason) {
+		System.out.println("");
+		System.out.println("Frame " + index + ":");
+		System.out.println("- Keyframe (" + reason + ") | Time: " + time + "ms");
 	}
 }
@@ -0,0 +1,103 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import app.config;
+import interprediction.SearchStrategy;
+
+/**
+ * <p>The enum {@code EncoderPreset} contains named trade-offs
+ * between the encoding speed and the size of the result. Faster
+ * presets search fewer references in a smaller window and build
+ * coarser quadtrees, so more area has to be coded as difference.</p>
+ * 
+ * <p>{@link #MEDIUM} matches the defaults of the {@link EncoderSettings}.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ * 
+ * @see EncoderSettings#applyPreset(EncoderPreset)
+ */
+
+public enum EncoderPreset {
+	ULTRAFAST(SearchStrategy.DIAMOND, 16, 0, 1, 60),
+	SUPERFAST(SearchStrategy.DIAMOND, 24, 0, 1, 55),
+	VERYFAST(SearchStrategy.HEXAGON, 24, 1, 2, 50),
+	FASTER(SearchStrategy.HEXAGON, 32, 1, 2, 45),
+	FAST(SearchStrategy.HEXAGON, 32, 2, 3, 45),
+	MEDIUM(SearchStrategy.HEXAGON, config.DEFAULT_SEARCH_WINDOW, config.DEFAULT_REFINEMENT_WINDOW, config.MAX_REFERENCES, config.DEFAULT_QUADTREE_THRESHOLD),
+	SLOW(SearchStrategy.HEXAGON, 64, 4, config.MAX_REFERENCES, 40);
+	
+	private SearchStrategy searchStrategy = null;
+	private int searchWindow = 0;
+	private int refinementWindow = 0;
+	private int searchReferences = 0;
+	private int quadtreeThreshold = 0;
+	
+	private EncoderPreset(SearchStrategy searchStrategy, int searchWindow, int refinementWindow, int searchReferences, int quadtreeThreshold) {
+		this.searchStrategy = searchStrategy;
+		this.searchWindow = searchWindow;
+		this.refinementWindow = refinementWindow;
+		this.searchReferences = searchReferences;
+		this.quadtreeThreshold = quadtreeThreshold;
+	}
+	
+	public SearchStrategy getSearchStrategy() {
+		return this.searchStrategy;
+	}
+	
+	public int getSearchWindow() {
+		return this.searchWindow;
+	}
+	
+	public int getRefinementWindow() {
+		return this.refinementWindow;
+	}
+	
+	public int getSearchReferences() {
+		return this.searchReferences;
+	}
+	
+	public int getQuadtreeThreshold() {
+		return this.quadtreeThreshold;
+	}
+	
+	/**
+	 * <p>Finds a preset by its name, ignoring the case.</p>
+	 * 
+	 * @return The preset
+	 * 
+	 * @param name	Name of the preset, e.g. "veryfast"
+	 * 
+	 * @throws IllegalArgumentException	when there is no preset with that name
+	 */
+	public static EncoderPreset fromName(String name) {
+		for (EncoderPreset preset : values()) {
+			if (preset.name().equalsIgnoreCase(name)) {
+				return preset;
+			}
+		}
+		
+		throw new IllegalArgumentException("Unknown preset \"" + name + "\"");
+	}
+}
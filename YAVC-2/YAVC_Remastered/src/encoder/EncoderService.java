@@ -0,0 +1,175 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.io.File;
+import java.util.HashSet;
+
+import utils.WorkScheduler;
+
+/**
+ * <p>The class {@code EncoderService} runs several encodings within
+ * one JVM, e.g. of many short clips. A fixed amount of jobs is encoded
+ * at once, every job with an {@link Encoder} and engines of its own.</p>
+ * 
+ * <p>All jobs share one {@link WorkScheduler} for the quadtree,
+ * difference and vector engines, instead of starting thread pools per
+ * frame. The threads are shared fairly between jobs of the same
+ * priority, tasks of jobs with a higher priority run first. The
+ * same priority also decides, which queued job is started next.
+ * The cosine tables of the {@link DCTEngine} are immutable and
+ * shared by all jobs.</p>
+ * 
+ * <p>The settings of a job mustn't be changed, while it is
+ * queued or running.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class EncoderService implements AutoCloseable {
+	private WorkScheduler jobScheduler = null;
+	private WorkScheduler workScheduler = null;
+	private DCTEngine dctEngine = new DCTEngine();
+	private HashSet<EncodeJob> jobs = new HashSet<EncodeJob>();
+	private boolean closed = false;
+	
+	/**
+	 * <p>Shares one thread per processor between the jobs.</p>
+	 * 
+	 * @param concurrentJobs	Amount of jobs encoded at once
+	 * 
+	 * @throws IllegalArgumentException	when the amount is lower than 1
+	 */
+	public EncoderService(int concurrentJobs) {
+		this(concurrentJobs, Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * @param concurrentJobs	Amount of jobs encoded at once
+	 * @param threads	Threads of the engines, shared by all jobs
+	 * 
+	 * @throws IllegalArgumentException	when an amount is lower than 1
+	 */
+	public EncoderService(int concurrentJobs, int threads) {
+		if (concurrentJobs < 1) {
+			throw new IllegalArgumentException("EncoderService requires at least 1 concurrent job, got " + concurrentJobs);
+		}
+		
+		this.jobScheduler = new WorkScheduler(concurrentJobs, "YAVC_Encode_Job");
+		this.workScheduler = new WorkScheduler(threads, "YAVC_Scheduler");
+	}
+	
+	/**
+	 * <p>Queues an encoding with the default priority.</p>
+	 * 
+	 * @see #submit(File, EncoderSettings, int)
+	 */
+	public EncodeJob submit(File input, EncoderSettings settings) {
+		return submit(input, settings, WorkScheduler.DEFAULT_PRIORITY);
+	}
+	
+	/**
+	 * <p>Queues an encoding. The input and the output are the
+	 * same as for {@link Encoder#encode(File, File)}.</p>
+	 * 
+	 * @return Job of the encoding
+	 * 
+	 * @param input	Input to encode
+	 * @param settings	Settings of the encoding
+	 * @param priority	Priority of the job, higher runs first
+	 * 
+	 * @throws NullPointerException	when the input or the settings are null
+	 * @throws IllegalStateException	when the service is closed
+	 */
+	public EncodeJob submit(File input, EncoderSettings settings, int priority) {
+		if (input == null) {
+			throw new NullPointerException("EncodeJob requires an input");
+		}
+		
+		Encoder encoder = new Encoder(this.dctEngine, settings);
+		encoder.setExecutor(this.workScheduler.createClient(priority));
+		
+		EncodeJob job = new EncodeJob(input, encoder, priority);
+		
+		synchronized (this.jobs) {
+			if (this.closed) {
+				throw new IllegalStateException("EncoderService is closed");
+			}
+			
+			this.jobs.add(job);
+		}
+		
+		this.jobScheduler.createClient(priority).execute(() -> {
+			try {
+				job.run();
+			} finally {
+				synchronized (this.jobs) {
+					this.jobs.remove(job);
+				}
+			}
+		});
+		
+		return job;
+	}
+	
+	/**
+	 * @return Amount of jobs, that are queued or running
+	 */
+	public int getPendingJobs() {
+		synchronized (this.jobs) {
+			return this.jobs.size();
+		}
+	}
+	
+	/**
+	 * <p>Cancels all jobs, waits until the running
+	 * ones stopped and stops the threads. If the waiting
+	 * thread is interrupted, the threads are stopped without
+	 * waiting any further and the interrupt flag is restored.</p>
+	 */
+	@Override
+	public void close() {
+		EncodeJob[] pending = null;
+		
+		synchronized (this.jobs) {
+			this.closed = true;
+			pending = this.jobs.toArray(new EncodeJob[this.jobs.size()]);
+		}
+		
+		for (EncodeJob job : pending) {
+			job.cancel();
+		}
+		
+		try {
+			for (EncodeJob job : pending) {
+				job.await();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		
+		this.jobScheduler.close();
+		this.workScheduler.close();
+	}
+}
@@ -0,0 +1,808 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.awt.Dimension;
+import java.io.File;
+
+import app.config;
+import interprediction.SearchStrategy;
+import utils.TileLayout;
+
+/**
+ * <p>The class {@code EncoderSettings} holds all adjustable
+ * parameters of a single encoding process.</p>
+ * <p>Every value is initialized with the defaults from
+ * {@link app.config} and can be overwritten before the
+ * settings are passed to the {@link Encoder}.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class EncoderSettings {
+	/**
+	 * <p>Maximum amount of frames between two keyframes.</p>
+	 */
+	private int GOPLength = config.DEFAULT_GOP_LENGTH;
+	
+	/**
+	 * <p>Fraction of changed area that triggers a keyframe.
+	 * A value of 0 disables the scene triggered keyframes.</p>
+	 */
+	private double sceneCutThreshold = config.DEFAULT_SCENE_CUT_THRESHOLD;
+	
+	/**
+	 * <p>Luma difference of the source frames, that triggers
+	 * a keyframe. A value of 0 disables the pre-analysis.</p>
+	 */
+	private double sceneChangeThreshold = config.DEFAULT_SCENE_CHANGE_THRESHOLD;
+	
+	/**
+	 * <p>Amount of frames that can wait for the output writer.</p>
+	 */
+	private int outputQueueDepth = config.DEFAULT_OUTPUT_QUEUE_DEPTH;
+	
+	/**
+	 * <p>Amount of input frames, that are read ahead.</p>
+	 */
+	private int inputPrefetch = config.DEFAULT_INPUT_PREFETCH;
+	
+	/**
+	 * <p>Amount of frames, that are analyzed ahead.</p>
+	 */
+	private int analysisDepth = config.DEFAULT_ANALYSIS_DEPTH;
+	
+	/**
+	 * <p>Dimension of raw YUV input, which has no header.</p>
+	 */
+	private Dimension rawInputDimension = null;
+	
+	/**
+	 * <p>Whether raw YUV input is in limited range.</p>
+	 */
+	private boolean limitedRangeInput = false;
+	
+	/**
+	 * <p>Pattern of the motion search.</p>
+	 */
+	private SearchStrategy searchStrategy = SearchStrategy.HEXAGON;
+	
+	/**
+	 * <p>Maximum distance between a block and its match.</p>
+	 */
+	private int searchWindow = config.DEFAULT_SEARCH_WINDOW;
+	
+	/**
+	 * <p>Size of the exhaustive search after the pattern search.</p>
+	 */
+	private int refinementWindow = config.DEFAULT_REFINEMENT_WINDOW;
+	
+	/**
+	 * <p>Amount of the newest references, that are searched.</p>
+	 */
+	private int searchReferences = config.MAX_REFERENCES;
+	
+	/**
+	 * <p>Standard deviation above which a quadtree block is split.</p>
+	 */
+	private int quadtreeThreshold = config.DEFAULT_QUADTREE_THRESHOLD;
+	
+	/**
+	 * <p>Whether the search effort adapts to the lookahead analysis.</p>
+	 */
+	private boolean adaptiveSearch = false;
+	
+	/**
+	 * <p>Whether a GOP may be extended up to a scene change within the lookahead.</p>
+	 */
+	private boolean flexibleGOP = false;
+	
+	/**
+	 * <p>How the quantizer of a frame is chosen.</p>
+	 */
+	private RateControlMode rateControlMode = RateControlMode.CONSTANT_QP;
+	
+	/**
+	 * <p>Quantizer for a constant QP and of the first inter frame.</p>
+	 */
+	private int quantizer = config.DEFAULT_QP;
+	
+	/**
+	 * <p>Bitrates in kbit/s and buffer size in kbit of the rate control.</p>
+	 */
+	private int targetBitrate = 0;
+	private int maxBitrate = 0;
+	private int bufferSize = 0;
+	
+	/**
+	 * <p>Frames per second, 0 for the frame rate of the input.</p>
+	 */
+	private double frameRate = 0;
+	
+	/**
+	 * <p>Range of the input to encode, a frame count of 0 encodes
+	 * all frames from the first frame on.</p>
+	 */
+	private int firstFrame = 0;
+	private int frameCount = 0;
+	
+	/**
+	 * <p>Segments encoded at once, 1 encodes the frames one after another.</p>
+	 */
+	private int segmentWorkers = 1;
+	
+	/**
+	 * <p>Frames of a segment, 0 for the GOP length.</p>
+	 */
+	private int segmentLength = 0;
+	
+	/**
+	 * <p>Columns and rows of tiles within a frame.</p>
+	 */
+	private int tileColumns = 1;
+	private int tileRows = 1;
+	
+	/**
+	 * <p>Pass of a two-pass encoding, 0 for a single pass.</p>
+	 */
+	private int pass = 0;
+	
+	/**
+	 * <p>Statistics of the first pass, null for YAVC.stats next to the output.</p>
+	 */
+	private File statsFile = null;
+	
+	/**
+	 * <p>File to write the result to, null for YAVC.yavcv next to the input.</p>
+	 */
+	private File outputFile = null;
+	
+	/**
+	 * <p>Whether statistics are printed for every frame.</p>
+	 */
+	private boolean verbose = true;
+	
+	/**
+	 * <p>Sets the maximum length of a group of pictures.
+	 * After the provided amount of frames a keyframe is forced,
+	 * unless {@link #setFlexibleGOP(boolean)} is enabled.</p>
+	 * 
+	 * @param length	Amount of frames per GOP
+	 * 
+	 * @throws IllegalArgumentException	when the length is lower than 1
+	 */
+	public void setGOPLength(final int length) {
+		if (length < 1) {
+			throw new IllegalArgumentException("GOP length has to be at least 1, got " + length);
+		}
+		
+		this.GOPLength = length;
+	}
+	
+	/**
+	 * <p>Get the maximum length of a group of pictures.</p>
+	 * 
+	 * @return Amount of frames per GOP
+	 */
+	public int getGOPLength() {
+		return this.GOPLength;
+	}
+	
+	/**
+	 * <p>Sets whether the keyframe at the end of a GOP is postponed,
+	 * if a scene change within the lookahead starts a new GOP anyway.
+	 * A GOP can then exceed the GOP length by up to the analysis depth.
+	 * Disabled by default.</p>
+	 * 
+	 * @param flexible	true to postpone the keyframe to the scene change
+	 */
+	public void setFlexibleGOP(final boolean flexible) {
+		this.flexibleGOP = flexible;
+	}
+	
+	public boolean isFlexibleGOP() {
+		return this.flexibleGOP;
+	}
+	
+	/**
+	 * <p>Sets the mean absolute luma difference (0 - 255) between
+	 * two downscaled source frames, above which the frame is coded
+	 * as keyframe without running the quadtree or motion search.</p>
+	 * 
+	 * @param threshold	Luma difference, 0 disables the pre-analysis
+	 * 
+	 * @throws IllegalArgumentException	when the threshold is negative
+	 * 
+	 * @see SceneChangeDetector
+	 */
+	public void setSceneChangeThreshold(final double threshold) {
+		if (threshold < 0) {
+			throw new IllegalArgumentException("Scene change threshold can't be negative, got " + threshold);
+		}
+		
+		this.sceneChangeThreshold = threshold;
+	}
+	
+	public double getSceneChangeThreshold() {
+		return this.sceneChangeThreshold;
+	}
+	
+	/**
+	 * <p>Sets the fraction of the frame area, that has to change
+	 * in order to insert a keyframe.</p>
+	 * 
+	 * @param threshold	Fraction between 0 and 1, 0 disables the
+	 * scene triggered keyframes
+	 * 
+	 * @throws IllegalArgumentException	when the threshold is out of range
+	 */
+	public void setSceneCutThreshold(final double threshold) {
+		if (threshold < 0 || threshold > 1) {
+			throw new IllegalArgumentException("Scene cut threshold " + threshold + " is not within 0 and 1");
+		}
+		
+		this.sceneCutThreshold = threshold;
+	}
+	
+	/**
+	 * <p>Get the fraction of changed area that triggers a keyframe.</p>
+	 * 
+	 * @return Scene cut threshold
+	 */
+	public double getSceneCutThreshold() {
+		return this.sceneCutThreshold;
+	}
+	
+	/**
+	 * <p>Sets the amount of encoded frames, that can wait for the
+	 * output writer. If the queue is full, the encoder waits until
+	 * the writer has caught up.</p>
+	 * 
+	 * @param depth	Amount of queued frames
+	 * 
+	 * @throws IllegalArgumentException	when the depth is lower than 1
+	 */
+	public void setOutputQueueDepth(final int depth) {
+		if (depth < 1) {
+			throw new IllegalArgumentException("Output queue depth has to be at least 1, got " + depth);
+		}
+		
+		this.outputQueueDepth = depth;
+	}
+	
+	/**
+	 * <p>Get the amount of frames that can wait for the output writer.</p>
+	 * 
+	 * @return Depth of the output queue
+	 */
+	public int getOutputQueueDepth() {
+		return this.outputQueueDepth;
+	}
+	
+	/**
+	 * <p>Sets the amount of input frames, that are read and converted
+	 * in the background, while the current frame is encoded.
+	 * 0 reads every frame when it is needed.</p>
+	 * 
+	 * @param frames	Amount of frames to read ahead
+	 * 
+	 * @throws IllegalArgumentException	when the amount is negative
+	 */
+	public void setInputPrefetch(final int frames) {
+		if (frames < 0) {
+			throw new IllegalArgumentException("Input prefetch can't be negative, got " + frames);
+		}
+		
+		this.inputPrefetch = frames;
+	}
+	
+	/**
+	 * <p>Get the amount of input frames, that are read ahead.</p>
+	 * 
+	 * @return Amount of prefetched frames
+	 */
+	public int getInputPrefetch() {
+		return this.inputPrefetch;
+	}
+	
+	/**
+	 * <p>Sets the amount of frames, whose quadtree is built on a
+	 * separate thread, while the current frame is encoded.
+	 * 0 builds every quadtree, when the frame is encoded.</p>
+	 * 
+	 * @param frames	Amount of frames to analyze ahead
+	 * 
+	 * @throws IllegalArgumentException	when the amount is negative
+	 */
+	public void setAnalysisDepth(final int frames) {
+		if (frames < 0) {
+			throw new IllegalArgumentException("Analysis depth can't be negative, got " + frames);
+		}
+		
+		this.analysisDepth = frames;
+	}
+	
+	/**
+	 * <p>Get the amount of frames, that are analyzed ahead.</p>
+	 * 
+	 * @return Analysis depth
+	 */
+	public int getAnalysisDepth() {
+		return this.analysisDepth;
+	}
+	
+	/**
+	 * <p>Sets the dimension of the frames of a raw YUV 4:2:0 input.
+	 * Y4M input and BMPs provide the dimension themselves.</p>
+	 * 
+	 * @param dim	Width and height of the frames
+	 * 
+	 * @throws IllegalArgumentException	when the width or height is lower than 1
+	 */
+	public void setRawInputDimension(final Dimension dim) {
+		if (dim != null && (dim.width < 1 || dim.height < 1)) {
+			throw new IllegalArgumentException("Invalid frame size " + dim.width + "x" + dim.height);
+		}
+		
+		this.rawInputDimension = dim == null ? null : new Dimension(dim);
+	}
+	
+	/**
+	 * @return Dimension of raw YUV input or null if not set
+	 */
+	public Dimension getRawInputDimension() {
+		return this.rawInputDimension;
+	}
+	
+	/**
+	 * <p>Sets whether raw YUV input is in limited range (Y from 16
+	 * to 235) and has to be expanded. Y4M input uses the range
+	 * of its header.</p>
+	 * 
+	 * @param limited	true for limited range
+	 */
+	public void setLimitedRangeInput(final boolean limited) {
+		this.limitedRangeInput = limited;
+	}
+	
+	public boolean isLimitedRangeInput() {
+		return this.limitedRangeInput;
+	}
+	
+	/**
+	 * <p>Overwrites the motion search and quadtree settings
+	 * with the values of the preset.</p>
+	 * 
+	 * @param preset	Preset to apply
+	 */
+	public void applyPreset(final EncoderPreset preset) {
+		setSearchStrategy(preset.getSearchStrategy());
+		setSearchWindow(preset.getSearchWindow());
+		setRefinementWindow(preset.getRefinementWindow());
+		setSearchReferences(preset.getSearchReferences());
+		setQuadtreeThreshold(preset.getQuadtreeThreshold());
+	}
+	
+	/**
+	 * @param strategy	Pattern of the motion search
+	 */
+	public void setSearchStrategy(final SearchStrategy strategy) {
+		if (strategy == null) {
+			throw new NullPointerException("No search strategy provided");
+		}
+		
+		this.searchStrategy = strategy;
+	}
+	
+	public SearchStrategy getSearchStrategy() {
+		return this.searchStrategy;
+	}
+	
+	/**
+	 * <p>Sets the maximum distance in pixels between a block
+	 * and its match in the reference.</p>
+	 * 
+	 * @param window	Search window
+	 * 
+	 * @throws IllegalArgumentException	when the window is lower than 1
+	 */
+	public void setSearchWindow(final int window) {
+		if (window < 1) {
+			throw new IllegalArgumentException("Search window has to be at least 1, got " + window);
+		}
+		
+		this.searchWindow = window;
+	}
+	
+	public int getSearchWindow() {
+		return this.searchWindow;
+	}
+	
+	/**
+	 * <p>Sets the size of the exhaustive search, that refines
+	 * the result of the pattern search. 0 disables it.</p>
+	 * 
+	 * @param window	Refinement window
+	 * 
+	 * @throws IllegalArgumentException	when the window is negative
+	 */
+	public void setRefinementWindow(final int window) {
+		if (window < 0) {
+			throw new IllegalArgumentException("Refinement window can't be negative, got " + window);
+		}
+		
+		this.refinementWindow = window;
+	}
+	
+	public int getRefinementWindow() {
+		return this.refinementWindow;
+	}
+	
+	/**
+	 * <p>Sets the amount of the newest references, that are
+	 * searched for a match.</p>
+	 * 
+	 * @param references	Amount of references
+	 * 
+	 * @throws IllegalArgumentException	when the amount is not between
+	 * 1 and {@link config#MAX_REFERENCES}
+	 */
+	public void setSearchReferences(final int references) {
+		if (references < 1 || references > config.MAX_REFERENCES) {
+			throw new IllegalArgumentException("Searched references have to be between 1 and " + config.MAX_REFERENCES + ", got " + references);
+		}
+		
+		this.searchReferences = references;
+	}
+	
+	public int getSearchReferences() {
+		return this.searchReferences;
+	}
+	
+	/**
+	 * <p>Sets the standard deviation of a block, above which
+	 * the quadtree splits the block. Higher values result in
+	 * fewer, larger blocks.</p>
+	 * 
+	 * @param threshold	Quadtree threshold
+	 * 
+	 * @throws IllegalArgumentException	when the threshold is lower than 1
+	 */
+	public void setQuadtreeThreshold(final int threshold) {
+		if (threshold < 1) {
+			throw new IllegalArgumentException("Quadtree threshold has to be at least 1, got " + threshold);
+		}
+		
+		this.quadtreeThreshold = threshold;
+	}
+	
+	public int getQuadtreeThreshold() {
+		return this.quadtreeThreshold;
+	}
+	
+	/**
+	 * <p>Sets whether the search window and the amount of references
+	 * adapt to the motion, that the lookahead estimated for a frame.
+	 * The settings are the upper limit in that case. Disabled by
+	 * default.</p>
+	 * 
+	 * @param adaptive	true to adapt the search effort per frame
+	 */
+	public void setAdaptiveSearch(final boolean adaptive) {
+		this.adaptiveSearch = adaptive;
+	}
+	
+	public boolean isAdaptiveSearch() {
+		return this.adaptiveSearch;
+	}
+	
+	/**
+	 * @param mode	How the {@link RateController} chooses the quantizer
+	 * 
+	 * @throws NullPointerException	when no mode is passed
+	 */
+	public void setRateControlMode(final RateControlMode mode) {
+		if (mode == null) {
+			throw new NullPointerException("Rate control mode can't be NULL");
+		}
+		
+		this.rateControlMode = mode;
+	}
+	
+	public RateControlMode getRateControlMode() {
+		return this.rateControlMode;
+	}
+	
+	/**
+	 * <p>Sets the quantizer of all frames with a constant QP. With a
+	 * bitrate it is the quantizer of the first inter frame.</p>
+	 * 
+	 * @param qp	Quantizer, {@link config#DEFAULT_QP} uses the
+	 * quantization tables as they are
+	 * 
+	 * @throws IllegalArgumentException	when the quantizer is out of range
+	 */
+	public void setQuantizer(final int qp) {
+		if (qp < config.MIN_QP || qp > config.MAX_QP) {
+			throw new IllegalArgumentException("QP has to be between " + config.MIN_QP + " and " + config.MAX_QP + ", got " + qp);
+		}
+		
+		this.quantizer = qp;
+	}
+	
+	public int getQuantizer() {
+		return this.quantizer;
+	}
+	
+	/**
+	 * @param bitrate	Average bitrate in kbit/s for CBR and VBR
+	 * 
+	 * @throws IllegalArgumentException	when the bitrate is not positive
+	 */
+	public void setTargetBitrate(final int bitrate) {
+		if (bitrate <= 0) {
+			throw new IllegalArgumentException("Bitrate has to be positive, got " + bitrate);
+		}
+		
+		this.targetBitrate = bitrate;
+	}
+	
+	public int getTargetBitrate() {
+		return this.targetBitrate;
+	}
+	
+	/**
+	 * @param bitrate	Rate in kbit/s, with which the buffer is drained,
+	 * 0 for the target bitrate (CBR) or twice the target bitrate (VBR)
+	 * 
+	 * @throws IllegalArgumentException	when the bitrate is negative
+	 */
+	public void setMaxBitrate(final int bitrate) {
+		if (bitrate < 0) {
+			throw new IllegalArgumentException("Maximum bitrate can't be negative, got " + bitrate);
+		}
+		
+		this.maxBitrate = bitrate;
+	}
+	
+	public int getMaxBitrate() {
+		return this.maxBitrate;
+	}
+	
+	/**
+	 * @param size	Size of the buffer in kbit, 0 for one second
+	 * of the maximum bitrate
+	 * 
+	 * @throws IllegalArgumentException	when the size is negative
+	 */
+	public void setBufferSize(final int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException("Buffer size can't be negative, got " + size);
+		}
+		
+		this.bufferSize = size;
+	}
+	
+	public int getBufferSize() {
+		return this.bufferSize;
+	}
+	
+	/**
+	 * @param rate	Frames per second, 0 to take the frame rate of
+	 * the input or {@link config#DEFAULT_FRAME_RATE}
+	 * 
+	 * @throws IllegalArgumentException	when the frame rate is negative
+	 */
+	public void setFrameRate(final double rate) {
+		if (!(rate >= 0) || Double.isInfinite(rate)) {
+			throw new IllegalArgumentException("Invalid frame rate " + rate);
+		}
+		
+		this.frameRate = rate;
+	}
+	
+	public double getFrameRate() {
+		return this.frameRate;
+	}
+	
+	/**
+	 * <p>Parses a frame rate as decimal number or as fraction
+	 * like in the Y4M header, e.g. "30000:1001".</p>
+	 * 
+	 * @return Frames per second
+	 * 
+	 * @param value	Frame rate to parse
+	 * 
+	 * @throws IllegalArgumentException	when the value is no positive frame rate
+	 */
+	public static double parseFrameRate(final String value) {
+		String[] parts = value.split(":");
+		double rate = 0;
+		
+		try {
+			rate = parts.length == 2 ? Double.parseDouble(parts[0]) / Double.parseDouble(parts[1]) : Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid frame rate \"" + value + "\"");
+		}
+		
+		if (!(rate > 0) || Double.isInfinite(rate)) {
+			throw new IllegalArgumentException("Invalid frame rate \"" + value + "\"");
+		}
+		
+		return rate;
+	}
+	
+	/**
+	 * <p>Limits the encoding to a range of the input. The first
+	 * pass of a two-pass encoding always analyzes the whole input.</p>
+	 * 
+	 * @param firstFrame	Index of the first frame to encode
+	 * @param frameCount	Amount of frames to encode, 0 for all
+	 * frames up to the end of the input
+	 * 
+	 * @throws IllegalArgumentException	when a value is negative
+	 */
+	public void setFrameRange(final int firstFrame, final int frameCount) {
+		if (firstFrame < 0 || frameCount < 0) {
+			throw new IllegalArgumentException("Frame range can't be negative, got " + firstFrame + " and " + frameCount);
+		}
+		
+		this.firstFrame = firstFrame;
+		this.frameCount = frameCount;
+	}
+	
+	public int getFirstFrame() {
+		return this.firstFrame;
+	}
+	
+	public int getFrameCount() {
+		return this.frameCount;
+	}
+	
+	/**
+	 * <p>Sets how many segments are encoded at once. The input is split
+	 * into segments, that start with a keyframe and are encoded
+	 * independently of each other, the results are merged afterwards.</p>
+	 * 
+	 * @param workers	Segments encoded at once, 1 encodes the
+	 * frames one after another
+	 * 
+	 * @throws IllegalArgumentException	when the amount is lower than 1
+	 */
+	public void setSegmentWorkers(final int workers) {
+		if (workers < 1) {
+			throw new IllegalArgumentException("Segment workers have to be at least 1, got " + workers);
+		}
+		
+		this.segmentWorkers = workers;
+	}
+	
+	public int getSegmentWorkers() {
+		return this.segmentWorkers;
+	}
+	
+	/**
+	 * @param frames	Frames of a segment, 0 for the GOP length, so
+	 * the segments start where the GOPs would start anyway
+	 * 
+	 * @throws IllegalArgumentException	when the length is negative
+	 */
+	public void setSegmentLength(final int frames) {
+		if (frames < 0) {
+			throw new IllegalArgumentException("Segment length can't be negative, got " + frames);
+		}
+		
+		this.segmentLength = frames;
+	}
+	
+	public int getSegmentLength() {
+		return this.segmentLength;
+	}
+	
+	/**
+	 * <p>Splits every frame into tiles aligned to the quadtree roots,
+	 * that are stored and decoded independently. Blocks are only
+	 * predicted from their own tile, which costs some efficiency
+	 * at the borders of the tiles.</p>
+	 * 
+	 * @param columns	Tiles per row, at most one per root
+	 * @param rows	Tiles per column, at most one per root
+	 * 
+	 * @throws IllegalArgumentException	when an amount is out of range
+	 * 
+	 * @see utils.TileLayout
+	 */
+	public void setTiles(final int columns, final int rows) {
+		if (columns < 1 || rows < 1 || columns > TileLayout.MAX_TILES_PER_AXIS || rows > TileLayout.MAX_TILES_PER_AXIS) {
+			throw new IllegalArgumentException("Tile columns and rows have to be between 1 and " + TileLayout.MAX_TILES_PER_AXIS + ", got " + columns + "x" + rows);
+		}
+		
+		this.tileColumns = columns;
+		this.tileRows = rows;
+	}
+	
+	public int getTileColumns() {
+		return this.tileColumns;
+	}
+	
+	public int getTileRows() {
+		return this.tileRows;
+	}
+	
+	/**
+	 * <p>Sets the pass of a two-pass encoding. The first pass only
+	 * analyzes the input and writes the {@link FirstPassStats}, the
+	 * second pass plans the bits and the search effort with them.</p>
+	 * 
+	 * @param pass	1 or 2 for two passes, 0 for a single pass
+	 * 
+	 * @throws IllegalArgumentException	when the pass is neither 0, 1 nor 2
+	 */
+	public void setPass(final int pass) {
+		if (pass < 0 || pass > 2) {
+			throw new IllegalArgumentException("Pass has to be 0, 1 or 2, got " + pass);
+		}
+		
+		this.pass = pass;
+	}
+	
+	public int getPass() {
+		return this.pass;
+	}
+	
+	/**
+	 * @param file	Statistics of the first pass, null for
+	 * YAVC.stats next to the output
+	 */
+	public void setStatsFile(final File file) {
+		this.statsFile = file;
+	}
+	
+	public File getStatsFile() {
+		return this.statsFile;
+	}
+	
+	/**
+	 * @param file	File to write the result to, null for
+	 * YAVC.yavcv next to the input
+	 */
+	public void setOutputFile(final File file) {
+		this.outputFile = file;
+	}
+	
+	public File getOutputFile() {
+		return this.outputFile;
+	}
+	
+	/**
+	 * @param verbose	true to print statistics for every frame
+	 */
+	public void setVerbose(final boolean verbose) {
+		this.verbose = verbose;
+	}
+	
+	public boolean isVerbose() {
+		return this.verbose;
+	}
+}
@@ -0,0 +1,181 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.awt.Dimension;
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+
+import interprediction.Vector;
+import interprediction.VectorEngine;
+import quadtree.QuadtreeEngine;
+import utils.MacroBlock;
+import utils.PixelRaster;
+import utils.ReferenceBuffer;
+
+/**
+ * <p>The class {@code FirstPassAnalyzer} runs the first pass of a
+ * two-pass encoding. It uses the same components as the encoder,
+ * but in a reduced mode: the frames are analyzed in half the resolution
+ * with the quadtree of {@link EncoderPreset#ULTRAFAST}, the diamond
+ * search without refinement and only the previous source frame as
+ * reference. Nothing is coded or rendered. The results are scaled
+ * back to the full resolution.</p>
+ * 
+ * <p>The keyframes are placed like in the {@link SequenceEncoder},
+ * except that GOP keyframes aren't postponed, the analyzer doesn't
+ * look ahead. The second pass corrects such differences with the
+ * bits, that are left.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class FirstPassAnalyzer {
+	/**
+	 * Factor, by which the frames are scaled down
+	 */
+	private static final int SCALE = 2;
+	
+	private EncoderSettings settings = null;
+	private LookaheadAnalyzer lookaheadAnalyzer = null;
+	private QuadtreeEngine quadtreeEngine = null;
+	private DifferenceEngine differenceEngine = new DifferenceEngine();
+	private VectorEngine vectorEngine = null;
+	
+	private Dimension dimension = null;
+	private PixelRaster halfFrame = null;
+	private ReferenceBuffer previous = null;
+	private FirstPassStats stats = null;
+	private int frameNumber = 0;
+	private int framesSinceKeyframe = 0;
+	
+	/**
+	 * @param settings	Settings of the second pass
+	 * 
+	 * @throws NullPointerException	when no settings are passed
+	 */
+	public FirstPassAnalyzer(EncoderSettings settings) {
+		if (settings == null) {
+			throw new NullPointerException("FirstPassAnalyzer requires settings");
+		}
+		
+		EncoderPreset preset = EncoderPreset.ULTRAFAST;
+		this.settings = settings;
+		this.lookaheadAnalyzer = SequenceEncoder.createLookaheadAnalyzer(settings);
+		this.quadtreeEngine = new QuadtreeEngine(preset.getQuadtreeThreshold());
+		//The window of the second pass, so the motion it needs is measured
+		this.vectorEngine = new VectorEngine(preset.getSearchStrategy(), Math.max(settings.getSearchWindow() / SCALE, 1), 0, 1);
+	}
+	
+	/**
+	 * @param executor	Executor of the engines, null for
+	 * a thread pool per call
+	 */
+	public void setExecutor(Executor executor) {
+		this.quadtreeEngine.setExecutor(executor);
+		this.differenceEngine.setExecutor(executor);
+		this.vectorEngine.setExecutor(executor);
+	}
+	
+	/**
+	 * <p>Analyzes the next frame of the input.</p>
+	 * 
+	 * @return Statistics of the frame or null if the frame is missing
+	 * 
+	 * @param frame	Next source frame, null if it is missing in the input
+	 * 
+	 * @throws IllegalArgumentException	when the dimension of
+	 * the frame differs from the first frame
+	 */
+	public FrameStatistics analyze(PixelRaster frame) {
+		if (frame == null) {
+			this.frameNumber++;
+			return null;
+		}
+		
+		if (this.dimension != null && !frame.getDimension().equals(this.dimension)) {
+			throw new IllegalArgumentException("Frame " + this.frameNumber + " has the dimension " + frame.getDimension() + ", expected " + this.dimension);
+		}
+		
+		LowResAnalysis lowRes = this.lookaheadAnalyzer.analyze(frame);
+		this.halfFrame = frame.getHalfResolution(this.halfFrame);
+		
+		if (this.stats == null) {
+			this.dimension = frame.getDimension();
+			this.stats = new FirstPassStats(this.dimension);
+			this.previous = new ReferenceBuffer(this.halfFrame.getDimension(), 1);
+			return addKeyframe(lowRes);
+		} else if (lowRes.isSceneChange() || this.framesSinceKeyframe >= this.settings.getGOPLength()) {
+			return addKeyframe(lowRes);
+		}
+		
+		ArrayList<MacroBlock> leaveNodes = this.quadtreeEngine.getLeaveNodes(this.quadtreeEngine.constructQuadtree(this.halfFrame));
+		leaveNodes = this.differenceEngine.computeDifferences(this.previous.getNewest(), leaveNodes);
+		long codedArea = 0;
+		
+		for (MacroBlock block : leaveNodes) {
+			codedArea += block.getSquaredSize() * SCALE * SCALE;
+		}
+		
+		double threshold = this.settings.getSceneCutThreshold();
+		
+		if (threshold > 0 && codedArea / ((double)frame.getWidth() * frame.getHeight()) > threshold) {
+			return addKeyframe(lowRes);
+		}
+		
+		int codedBlocks = leaveNodes.size();
+		int maxMotion = 0;
+		
+		if (codedBlocks > 0) {
+			for (Vector v : this.vectorEngine.computeMovementVectors(leaveNodes, this.previous)) {
+				maxMotion = Math.max(maxMotion, Math.max(Math.abs(v.getSpanX()), Math.abs(v.getSpanY())) * SCALE);
+			}
+		}
+		
+		this.previous.addKeyframe(this.halfFrame);
+		this.framesSinceKeyframe++;
+		
+		boolean clipped = maxMotion + SCALE > this.settings.getSearchWindow();
+		FrameStatistics result = new FrameStatistics(this.frameNumber++, false, lowRes.getIntraCost(), lowRes.getMotionCost(), lowRes.getStaticFraction(), codedArea, codedBlocks, maxMotion, clipped);
+		this.stats.add(result);
+		return result;
+	}
+	
+	/**
+	 * @return Statistics of all frames analyzed so far or null
+	 * if no frame was analyzed
+	 */
+	public FirstPassStats getStats() {
+		return this.stats;
+	}
+	
+	private FrameStatistics addKeyframe(LowResAnalysis lowRes) {
+		this.previous.addKeyframe(this.halfFrame);
+		this.framesSinceKeyframe = 1;
+		
+		FrameStatistics result = new FrameStatistics(this.frameNumber++, true, lowRes.getIntraCost(), lowRes.getMotionCost(), lowRes.getStaticFraction(), 0, 0, 0, false);
+		this.stats.add(result);
+		return result;
+	}
+}
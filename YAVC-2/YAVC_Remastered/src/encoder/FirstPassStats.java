@@ -0,0 +1,199 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.awt.Dimension;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * <p>The class {@code FirstPassStats} holds the {@link FrameStatistics}
+ * of all frames, that the {@link FirstPassAnalyzer} analyzed. They are
+ * stored in a small text file between the passes:</p>
+ * <pre>
+ * YAVC-STATS 1 width height
+ * frame type intraCost motionCost staticFraction codedArea codedBlocks maxMotion clipped
+ * </pre>
+ * <p>The type is K for keyframes and P for inter frames, every
+ * frame has its own line. Frames, that are missing in the input,
+ * have no line.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class FirstPassStats {
+	private static final String MAGIC = "YAVC-STATS";
+	private static final int VERSION = 1;
+	
+	private Dimension dimension = null;
+	private ArrayList<FrameStatistics> frames = new ArrayList<FrameStatistics>();
+	
+	/**
+	 * @param dimension	Dimension of the analyzed frames
+	 * 
+	 * @throws NullPointerException	when no dimension is passed
+	 */
+	public FirstPassStats(Dimension dimension) {
+		if (dimension == null) {
+			throw new NullPointerException("FirstPassStats requires a dimension");
+		}
+		
+		this.dimension = new Dimension(dimension);
+	}
+	
+	/**
+	 * @param stats	Statistics of the next frame
+	 * 
+	 * @throws IllegalArgumentException	when the frame number isn't after the previous frame
+	 */
+	public void add(FrameStatistics stats) {
+		if (stats.getFrameNumber() < this.frames.size()) {
+			throw new IllegalArgumentException("Expected statistics after frame " + (this.frames.size() - 1) + ", got frame " + stats.getFrameNumber());
+		}
+		
+		while (this.frames.size() < stats.getFrameNumber()) {
+			this.frames.add(null);
+		}
+		
+		this.frames.add(stats);
+	}
+	
+	/**
+	 * @return Statistics of the frame or null if the frame is missing
+	 * or the first pass didn't reach it
+	 * 
+	 * @param frameNumber	Position of the frame within the input
+	 */
+	public FrameStatistics get(int frameNumber) {
+		return frameNumber >= 0 && frameNumber < this.frames.size() ? this.frames.get(frameNumber) : null;
+	}
+	
+	/**
+	 * @return Statistics of a range of the frames, the first frame
+	 * of the range has the number 0
+	 * 
+	 * @param firstFrame	Number of the first frame of the range
+	 * @param frameCount	Maximum amount of frames
+	 */
+	public FirstPassStats getRange(int firstFrame, int frameCount) {
+		FirstPassStats range = new FirstPassStats(this.dimension);
+		int end = (int)Math.min((long)firstFrame + frameCount, this.frames.size());
+		
+		for (int i = firstFrame; i < end; i++) {
+			FrameStatistics stats = this.frames.get(i);
+			
+			if (stats != null) {
+				range.add(new FrameStatistics(i - firstFrame, stats.isKeyframe(), stats.getIntraCost(), stats.getMotionCost(), stats.getStaticFraction(),
+						stats.getCodedArea(), stats.getCodedBlocks(), stats.getMaxMotion(), stats.isMotionClipped()));
+			}
+		}
+		
+		return range;
+	}
+	
+	/**
+	 * @return Amount of frames up to the last analyzed frame
+	 */
+	public int size() {
+		return this.frames.size();
+	}
+	
+	public Dimension getDimension() {
+		return new Dimension(this.dimension);
+	}
+	
+	/**
+	 * @param file	File to write the statistics to
+	 */
+	public void write(File file) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.US_ASCII)) {
+			writer.write(MAGIC + " " + VERSION + " " + this.dimension.width + " " + this.dimension.height);
+			writer.newLine();
+			
+			for (FrameStatistics stats : this.frames) {
+				if (stats == null) {
+					continue;
+				}
+				
+				writer.write(String.format(Locale.ROOT, "%d %s %.1f %.1f %.4f %d %d %d %d", stats.getFrameNumber(), stats.isKeyframe() ? "K" : "P",
+						stats.getIntraCost(), stats.getMotionCost(), stats.getStaticFraction(), stats.getCodedArea(), stats.getCodedBlocks(), stats.getMaxMotion(), stats.isMotionClipped() ? 1 : 0));
+				writer.newLine();
+			}
+		}
+	}
+	
+	/**
+	 * @return Statistics stored in the file
+	 * 
+	 * @param file	File written by {@link #write(File)}
+	 * 
+	 * @throws IOException	when the file can't be read or isn't a valid statistics file
+	 */
+	public static FirstPassStats read(File file) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.US_ASCII)) {
+			String header = reader.readLine();
+			String[] parts = header == null ? new String[0] : header.trim().split("\\s+");
+			
+			if (parts.length != 4 || !parts[0].equals(MAGIC)) {
+				throw new IOException(file.getPath() + " is no statistics file of a first pass");
+			}
+			
+			FirstPassStats result = null;
+			
+			try {
+				if (Integer.parseInt(parts[1]) != VERSION) {
+					throw new IOException("Unsupported statistics version " + parts[1] + " in " + file.getPath());
+				}
+				
+				result = new FirstPassStats(new Dimension(Integer.parseInt(parts[2]), Integer.parseInt(parts[3])));
+				String line = null;
+				
+				while ((line = reader.readLine()) != null) {
+					if (line.isBlank()) {
+						continue;
+					}
+					
+					parts = line.trim().split("\\s+");
+					
+					if (parts.length != 9) {
+						throw new IOException("Invalid line \"" + line + "\" in " + file.getPath());
+					}
+					
+					result.add(new FrameStatistics(Integer.parseInt(parts[0]), parts[1].equals("K"), Double.parseDouble(parts[2]), Double.parseDouble(parts[3]),
+							Double.parseDouble(parts[4]), Long.parseLong(parts[5]), Integer.parseInt(parts[6]), Integer.parseInt(parts[7]), parts[8].equals("1")));
+				}
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Invalid statistics in " + file.getPath() + ": " + e.getMessage());
+			}
+			
+			return result;
+		}
+	}
+}
@@ -0,0 +1,319 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.awt.Dimension;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import interprediction.VectorEngine;
+import quadtree.QuadtreeEngine;
+import utils.BMPReader;
+import utils.PixelRaster;
+import utils.QueueObject;
+
+/**
+ * <p>The class {@code FrameEncoder} encodes frames, that are pushed
+ * by the caller, e.g. from a camera or a screen capture. Every coded
+ * frame is passed to an {@link EncodedFrameListener}, nothing is
+ * written to the disk.</p>
+ * 
+ * <p>The frames are copied into a small pool of rasters and coded
+ * on a separate thread. If all rasters are in use, {@code encode}
+ * blocks until the encoder has caught up, so a source, that is
+ * faster than the encoder, is slowed down instead of piling up
+ * frames in memory. The size of the pool is the input prefetch
+ * of the {@link EncoderSettings}.</p>
+ * 
+ * <p>Usage:</p>
+ * <pre>
+ * FrameEncoder encoder = FrameEncoder.open(settings, frame -&gt; send(frame.getPayload()));
+ * encoder.encode(raster, timestamp);
+ * encoder.flush();
+ * encoder.close();
+ * </pre>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class FrameEncoder implements AutoCloseable {
+	private static final PendingFrame END_OF_STREAM = new PendingFrame(-1, 0, null, null);
+	
+	private EncodedFrameListener listener = null;
+	private SequenceEncoder sequence = null;
+	private Thread worker = null;
+	private volatile Throwable failure = null;
+	
+	private BlockingQueue<PendingFrame> pendingFrames = new LinkedBlockingQueue<PendingFrame>();
+	private BlockingQueue<PixelRaster> freeRasters = new LinkedBlockingQueue<PixelRaster>();
+	private int maxRasters = 0;
+	private int createdRasters = 0;
+	
+	private Dimension dim = null;
+	private int frameNumber = 0;
+	private boolean closed = false;
+	
+	private FrameEncoder(EncoderSettings settings, EncodedFrameListener listener) {
+		this.listener = listener;
+		QuadtreeEngine quadtreeEngine = new QuadtreeEngine(settings.getQuadtreeThreshold());
+		VectorEngine vectorEngine = new VectorEngine(settings.getSearchStrategy(), settings.getSearchWindow(), settings.getRefinementWindow(), settings.getSearchReferences());
+		this.sequence = new SequenceEncoder(settings, quadtreeEngine, new DifferenceEngine(), vectorEngine);
+		//One raster is coded, while the others wait
+		this.maxRasters = Math.max(settings.getInputPrefetch(), 1) + 1;
+		
+		this.worker = new Thread(() -> run());
+		this.worker.setName("YAVC_Frame_Encoder");
+		this.worker.setDaemon(true);
+		this.worker.start();
+	}
+	
+	/**
+	 * <p>Opens a new encoder. The first frame defines the dimension
+	 * of the stream and is coded as keyframe.</p>
+	 * 
+	 * @return The encoder
+	 * 
+	 * @param settings	Settings of the encoder
+	 * @param listener	Listener, that receives the coded frames
+	 * 
+	 * @throws NullPointerException	when the settings or the listener is missing
+	 */
+	public static FrameEncoder open(EncoderSettings settings, EncodedFrameListener listener) {
+		if (settings == null) {
+			throw new NullPointerException("FrameEncoder can't run without settings");
+		} else if (listener == null) {
+			throw new NullPointerException("FrameEncoder requires a listener for the coded frames");
+		}
+		
+		return new FrameEncoder(settings, listener);
+	}
+	
+	/**
+	 * @return Dimension of the stream or null before the first frame
+	 */
+	public synchronized Dimension getDimension() {
+		return this.dim;
+	}
+	
+	/**
+	 * <p>Queues a frame for encoding. The frame is copied, so the
+	 * caller can reuse it right after the call.</p>
+	 * 
+	 * @param frame	Frame to encode
+	 * @param timestamp	Timestamp of the frame, it is passed on to
+	 * the {@link EncodedFrame}
+	 * 
+	 * @throws InterruptedException	when the caller is interrupted while
+	 * waiting for a free raster
+	 * @throws IllegalArgumentException	when the dimension differs from
+	 * the first frame
+	 * @throws IllegalStateException	when the encoder is closed or failed
+	 */
+	public synchronized void encode(PixelRaster frame, long timestamp) throws InterruptedException {
+		if (frame == null) {
+			throw new NullPointerException("No frame to encode");
+		}
+		
+		PixelRaster target = acquireRaster(frame.getDimension());
+		target.copyRegion(frame, 0, 0, this.dim.width, this.dim.height);
+		submit(target, timestamp);
+	}
+	
+	/**
+	 * <p>Queues a frame in the planar YUV 4:2:0 (I420) format with
+	 * full range samples. The chroma planes have the size
+	 * ((width + 1) / 2) x ((height + 1) / 2). Frames, that aren't a
+	 * multiple of 4, are padded by repeating the last row and column.</p>
+	 * 
+	 * @param i420	Y, U and V plane of the frame
+	 * @param width	Width of the frame
+	 * @param height	Height of the frame
+	 * @param timestamp	Timestamp of the frame, it is passed on to
+	 * the {@link EncodedFrame}
+	 * 
+	 * @throws InterruptedException	when the caller is interrupted while
+	 * waiting for a free raster
+	 * @throws IllegalArgumentException	when the planes are too small or
+	 * the dimension differs from the first frame
+	 * @throws IllegalStateException	when the encoder is closed or failed
+	 */
+	public synchronized void encode(byte[] i420, int width, int height, long timestamp) throws InterruptedException {
+		int chromaWidth = (width + 1) / 2;
+		int chromaHeight = (height + 1) / 2;
+		int lumaSize = width * height;
+		int chromaSize = chromaWidth * chromaHeight;
+		
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("Invalid frame dimension " + width + "x" + height);
+		} else if (i420.length < lumaSize + 2 * chromaSize) {
+			throw new IllegalArgumentException("A " + width + "x" + height + " frame requires " + (lumaSize + 2 * chromaSize) + " bytes, got " + i420.length);
+		}
+		
+		PixelRaster target = acquireRaster(BMPReader.getPaddedDimension(width, height));
+		target.setPlane(0, i420, 0, width, height, null);
+		target.setPlane(1, i420, lumaSize, chromaWidth, chromaHeight, null);
+		target.setPlane(2, i420, lumaSize + chromaSize, chromaWidth, chromaHeight, null);
+		submit(target, timestamp);
+	}
+	
+	/**
+	 * <p>Waits until all queued frames are passed to the listener.</p>
+	 * 
+	 * @throws InterruptedException	when the caller is interrupted while waiting
+	 * @throws IllegalStateException	when the encoder failed
+	 */
+	public void flush() throws InterruptedException {
+		CountDownLatch done = new CountDownLatch(1);
+		
+		synchronized (this) {
+			if (this.closed) {
+				return;
+			}
+			
+			this.pendingFrames.put(new PendingFrame(-1, 0, null, done));
+		}
+		
+		done.await();
+		checkFailure();
+	}
+	
+	/**
+	 * <p>Codes all queued frames and stops the encoder.</p>
+	 * 
+	 * @throws IllegalStateException	when the encoder failed
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (this.closed) {
+				return;
+			}
+			
+			this.closed = true;
+			this.pendingFrames.add(END_OF_STREAM);
+		}
+		
+		try {
+			this.worker.join();
+		} catch (InterruptedException e) {
+			this.worker.interrupt();
+			Thread.currentThread().interrupt();
+		}
+		
+		checkFailure();
+	}
+	
+	/**
+	 * <p>Takes a free raster from the pool or creates a new one,
+	 * as long as the pool isn't exhausted. Otherwise it waits for
+	 * the encoder to return a raster.</p>
+	 */
+	private PixelRaster acquireRaster(Dimension frameDim) throws InterruptedException {
+		checkFailure();
+		
+		if (this.closed) {
+			throw new IllegalStateException("FrameEncoder is closed");
+		} else if (this.dim == null) {
+			this.dim = frameDim;
+		} else if (!this.dim.equals(frameDim)) {
+			throw new IllegalArgumentException("Frame " + this.frameNumber + " has the dimension " + frameDim + ", expected " + this.dim);
+		}
+		
+		PixelRaster raster = this.freeRasters.poll();
+		
+		if (raster != null) {
+			return raster;
+		} else if (this.createdRasters < this.maxRasters) {
+			this.createdRasters++;
+			return new PixelRaster(this.dim, new double[this.dim.width][this.dim.height], new double[this.dim.width / 2][this.dim.height / 2], new double[this.dim.width / 2][this.dim.height / 2]);
+		}
+		
+		return this.freeRasters.take();
+	}
+	
+	private void submit(PixelRaster raster, long timestamp) throws InterruptedException {
+		this.pendingFrames.put(new PendingFrame(this.frameNumber++, timestamp, raster, null));
+	}
+	
+	private void checkFailure() {
+		if (this.failure != null) {
+			throw new IllegalStateException("FrameEncoder failed", this.failure);
+		}
+	}
+	
+	/**
+	 * <p>Codes the queued frames in order. After a failure the
+	 * remaining frames are dropped, so no caller waits forever
+	 * for a raster or a flush.</p>
+	 */
+	private void run() {
+		try {
+			PendingFrame pending = null;
+			
+			while ((pending = this.pendingFrames.take()) != END_OF_STREAM) {
+				if (pending.flushed != null) {
+					pending.flushed.countDown();
+					continue;
+				}
+				
+				try {
+					if (this.failure == null) {
+						encodeFrame(pending);
+					}
+				} catch (InterruptedException e) {
+					throw e;
+				} catch (Throwable t) {
+					//Errors of the listener are kept as well, the worker has to go on
+					this.failure = t;
+				} finally {
+					this.freeRasters.add(pending.raster);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private void encodeFrame(PendingFrame pending) throws InterruptedException {
+		//The keyframe is serialized right away, so the raster can be reused afterwards
+		QueueObject result = this.sequence.encode(new AnalyzedFrame(pending.frameNumber, pending.raster, null));
+		byte[] payload = FrameSerializer.serialize(result);
+		this.listener.frameEncoded(new EncodedFrame(pending.frameNumber, pending.timestamp, result.isKeyframe(), payload));
+	}
+	
+	private static class PendingFrame {
+		private int frameNumber = 0;
+		private long timestamp = 0;
+		private PixelRaster raster = null;
+		private CountDownLatch flushed = null;
+		
+		private PendingFrame(int frameNumber, long timestamp, PixelRaster raster, CountDownLatch flushed) {
+			this.frameNumber = frameNumber;
+			this.timestamp = timestamp;
+			this.raster = raster;
+			this.flushed = flushed;
+		}
+	}
+}
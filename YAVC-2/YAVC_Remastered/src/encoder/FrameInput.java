@@ -0,0 +1,93 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.io.IOException;
+
+import utils.PixelRaster;
+
+/**
+ * <p>The interface {@code FrameInput} describes a source of
+ * frames for the encoder, e.g. a directory of BMPs or a
+ * raw YUV stream.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ * 
+ * @see encoder.BMPDirectoryInput
+ * @see encoder.YUVInput
+ * @see encoder.Y4MInput
+ */
+
+public interface FrameInput extends AutoCloseable {
+	/**
+	 * @return Amount of frames or -1 if it is unknown until the
+	 * end of the input is reached
+	 */
+	public int getFrameCount();
+	
+	/**
+	 * <p>Tells whether the frames can be read in any order and
+	 * from multiple threads at once. Otherwise the frames have
+	 * to be read one after another.</p>
+	 * 
+	 * @return true if the frames can be read in any order
+	 */
+	public boolean isRandomAccess();
+	
+	/**
+	 * <p>Reads a frame.</p>
+	 * 
+	 * @return The frame or null, if the frame is missing or
+	 * the end of the input is reached
+	 * 
+	 * @param index	Number of the frame
+	 * @param target	PixelRaster to reuse, if the frame has the same
+	 * dimension, null to create a new one
+	 * 
+	 * @throws IOException	when the frame can't be read
+	 */
+	public PixelRaster read(int index, PixelRaster target) throws IOException;
+	
+	/**
+	 * <p>Skips a frame. Inputs, that are not random access, have
+	 * to read over the frame, so it is read like any other frame
+	 * unless the input knows a cheaper way.</p>
+	 * 
+	 * @return false if the end of the input is reached
+	 * 
+	 * @param index	Number of the frame
+	 * 
+	 * @throws IOException	when the frame can't be read
+	 */
+	public default boolean skip(int index) throws IOException {
+		if (isRandomAccess()) {
+			return getFrameCount() < 0 || index < getFrameCount();
+		}
+		
+		return read(index, null) != null;
+	}
+	
+	@Override
+	public void close() throws IOException;
+}
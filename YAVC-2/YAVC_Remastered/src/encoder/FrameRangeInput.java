@@ -0,0 +1,128 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.io.IOException;
+
+import utils.PixelRaster;
+
+/**
+ * <p>The class {@code FrameRangeInput} limits another {@link FrameInput}
+ * to a range of its frames, e.g. a segment of a segment-parallel
+ * encoding. The first frame of the range has the index 0.</p>
+ * 
+ * <p>If the input isn't random access, the frames in front of the
+ * range are skipped, when the first frame is read.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class FrameRangeInput implements FrameInput {
+	private FrameInput input = null;
+	private int firstFrame = 0;
+	private int frameCount = 0;
+	private boolean skipped = false;
+	
+	/**
+	 * @param input	Input to read from
+	 * @param firstFrame	Index of the first frame within the input
+	 * @param frameCount	Maximum amount of frames
+	 * 
+	 * @throws NullPointerException	when no input is passed
+	 * @throws IllegalArgumentException	when the first frame is negative
+	 * or the amount of frames isn't positive
+	 */
+	public FrameRangeInput(FrameInput input, int firstFrame, int frameCount) {
+		if (input == null) {
+			throw new NullPointerException("FrameRangeInput requires an input");
+		} else if (firstFrame < 0) {
+			throw new IllegalArgumentException("First frame can't be negative, got " + firstFrame);
+		} else if (frameCount < 1) {
+			throw new IllegalArgumentException("Frame range requires at least 1 frame, got " + frameCount);
+		}
+		
+		this.input = input;
+		this.firstFrame = firstFrame;
+		this.frameCount = frameCount;
+	}
+	
+	/**
+	 * @return Amount of frames within the range or -1 if
+	 * the amount of frames of the input is unknown
+	 */
+	@Override
+	public int getFrameCount() {
+		int frames = this.input.getFrameCount();
+		return frames < 0 ? -1 : Math.max(Math.min(frames - this.firstFrame, this.frameCount), 0);
+	}
+	
+	@Override
+	public boolean isRandomAccess() {
+		return this.input.isRandomAccess();
+	}
+	
+	@Override
+	public PixelRaster read(int index, PixelRaster target) throws IOException {
+		if (index >= this.frameCount || !skipToRange()) {
+			return null;
+		}
+		
+		return this.input.read(this.firstFrame + index, target);
+	}
+	
+	@Override
+	public boolean skip(int index) throws IOException {
+		if (index >= this.frameCount || !skipToRange()) {
+			return false;
+		}
+		
+		return this.input.skip(this.firstFrame + index);
+	}
+	
+	@Override
+	public void close() throws IOException {
+		this.input.close();
+	}
+	
+	/**
+	 * @return false if the input ends in front of the range
+	 */
+	private boolean skipToRange() throws IOException {
+		if (this.skipped || this.input.isRandomAccess()) {
+			return true;
+		}
+		
+		this.skipped = true;
+		
+		for (int i = 0; i < this.firstFrame; i++) {
+			if (!this.input.skip(i)) {
+				this.firstFrame = i;
+				this.frameCount = 0;
+				return false;
+			}
+		}
+		
+		return true;
+	}
+}
@@ -0,0 +1,242 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import utils.PixelRaster;
+
+/**
+ * <p>The class {@code FrameReader} is the input stage of the
+ * encoder. It reads the frames of a {@link FrameInput} and
+ * converts them to PixelRasters.</p>
+ * 
+ * <p>Up to {@code prefetch} frames are read and converted on
+ * background threads, while the encoder works on the current
+ * frame. Inputs, that are not random access, are read by a
+ * single thread in order. Frames, that are not needed anymore,
+ * can be handed back with {@link #release(PixelRaster)}, the reader
+ * then converts the next frames into them instead of allocating
+ * new PixelRasters.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class FrameReader implements AutoCloseable {
+	private FrameInput input = null;
+	private int prefetch = 0;
+	
+	/**
+	 * Number of the frame, that is returned next
+	 */
+	private int frameNumber = 0;
+	
+	/**
+	 * Number of the frame, that is read next
+	 */
+	private int frameToRead = 0;
+	
+	private ExecutorService readers = null;
+	private ArrayDeque<Future<PixelRaster>> pendingFrames = new ArrayDeque<Future<PixelRaster>>();
+	
+	/**
+	 * PixelRasters, that can be reused for the next frames
+	 */
+	private BlockingQueue<PixelRaster> pool = null;
+	
+	/**
+	 * <p>Creates a reader for the input.</p>
+	 * 
+	 * @param input	Input to read the frames from
+	 * @param prefetch	Amount of frames to read ahead, 0 reads
+	 * every frame when it is requested
+	 * 
+	 * @throws NullPointerException	when the input is null
+	 * @throws IllegalArgumentException	when the prefetch is negative
+	 */
+	public FrameReader(FrameInput input, int prefetch) {
+		if (input == null) {
+			throw new NullPointerException("No input provided");
+		} else if (prefetch < 0) {
+			throw new IllegalArgumentException("Prefetch can't be negative, got " + prefetch);
+		}
+		
+		this.input = input;
+		this.prefetch = prefetch;
+		this.pool = new ArrayBlockingQueue<PixelRaster>(prefetch + 2);
+	}
+	
+	/**
+	 * @return Amount of frames or -1 if unknown
+	 */
+	public int getFrameCount() {
+		return this.input.getFrameCount();
+	}
+	
+	/**
+	 * <p>Checks whether there is another frame. If the amount
+	 * of frames is unknown, the next frame is read for that.</p>
+	 * 
+	 * @return true if {@link #next()} returns another frame
+	 * 
+	 * @throws IOException	when the next frame can't be read
+	 */
+	public boolean hasNext() throws IOException {
+		int frames = this.input.getFrameCount();
+		
+		if (frames >= 0) {
+			return this.frameNumber < frames;
+		}
+		
+		fillPipeline();
+		return await(this.pendingFrames.peekFirst()) != null;
+	}
+	
+	/**
+	 * <p>Get the next frame.</p>
+	 * 
+	 * @return The next frame or null if the frame is missing in the input
+	 * 
+	 * @throws IOException	when the frame can't be read
+	 * @throws NoSuchElementException	when there are no frames left
+	 */
+	public PixelRaster next() throws IOException {
+		if (!hasNext()) {
+			throw new NoSuchElementException("No frames left after frame " + this.frameNumber);
+		}
+		
+		fillPipeline();
+		
+		try {
+			return await(this.pendingFrames.pollFirst());
+		} finally {
+			this.frameNumber++;
+		}
+	}
+	
+	/**
+	 * <p>Hands a frame back to the reader. The frame must not be
+	 * used afterwards, because the next frames might be converted
+	 * into it.</p>
+	 * 
+	 * @param frame	Frame, that is not needed anymore
+	 */
+	public void release(PixelRaster frame) {
+		if (frame != null) {
+			this.pool.offer(frame);
+		}
+	}
+	
+	@Override
+	public void close() {
+		for (Future<PixelRaster> frame : this.pendingFrames) {
+			frame.cancel(true);
+		}
+		
+		this.pendingFrames.clear();
+		this.pool.clear();
+		
+		if (this.readers != null) {
+			this.readers.shutdownNow();
+			this.readers = null;
+		}
+		
+		try {
+			this.input.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * <p>Starts reading the frames up to the prefetch. Without
+	 * prefetch the next frame is read on the calling thread.</p>
+	 */
+	private void fillPipeline() {
+		int frames = this.input.getFrameCount();
+		
+		if (this.prefetch > 0 && this.readers == null) {
+			int threads = this.input.isRandomAccess() ? Math.min(this.prefetch, Runtime.getRuntime().availableProcessors()) : 1;
+			this.readers = Executors.newFixedThreadPool(threads, (runnable) -> {
+				Thread thread = new Thread(runnable, "YAVC_Frame_Reader");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		
+		while (this.pendingFrames.size() <= this.prefetch && (frames < 0 || this.frameToRead < frames)) {
+			int index = this.frameToRead++;
+			FutureTask<PixelRaster> task = new FutureTask<PixelRaster>(() -> readFrame(index));
+			this.pendingFrames.add(task);
+			
+			if (this.readers == null) {
+				task.run();
+			} else {
+				this.readers.execute(task);
+			}
+		}
+	}
+	
+	private PixelRaster await(Future<PixelRaster> frame) throws IOException {
+		try {
+			return frame.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for frame " + this.frameNumber, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException)e.getCause();
+			}
+			
+			throw new IOException("Frame " + this.frameNumber + " can't be read", e.getCause());
+		}
+	}
+	
+	/**
+	 * <p>Reads a single frame, if possible into a pooled PixelRaster.</p>
+	 * 
+	 * @return The frame or null if it is missing
+	 * 
+	 * @param index	Number of the frame
+	 */
+	private PixelRaster readFrame(int index) throws IOException {
+		PixelRaster pooled = this.pool.poll();
+		PixelRaster frame = this.input.read(index, pooled);
+		
+		if (pooled != null && frame != pooled) {
+			this.pool.offer(pooled);
+		}
+		
+		return frame;
+	}
+}
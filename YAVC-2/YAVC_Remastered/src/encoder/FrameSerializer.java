@@ -0,0 +1,263 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.awt.Rectangle;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import app.config;
+import interprediction.Vector;
+import utils.ColorManager;
+import utils.PixelRaster;
+import utils.Protocol;
+import utils.QueueObject;
+import utils.TileLayout;
+
+/**
+ * <p>The class {@code FrameSerializer} converts encoded frames
+ * into the payload, that is stored for every frame in a YAVC
+ * file. The payload has no length prefix, that is added by
+ * the container.</p>
+ * 
+ * <p>Frames with a {@link TileLayout} of more than one tile are
+ * stored as {@link Protocol#TILED_FRAME_START}, the amount of
+ * columns and rows and the offset of every tile within the payload.
+ * Every tile is a keyframe or vectors of its own, the vectors
+ * belong to the tile, which contains the block they are moved to.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class FrameSerializer {
+	/**
+	 * <p>Serializes a keyframe or the vectors of a frame.</p>
+	 * 
+	 * @return Payload of the frame
+	 * 
+	 * @param obj	Frame to serialize
+	 */
+	public static byte[] serialize(QueueObject obj) {
+		if (isTiled(obj)) {
+			return serializeTiles(obj, obj.getTileLayout());
+		} else if (obj.isKeyframe()) {
+			return serializeKeyframe(obj.getKeyframe());
+		}
+		
+		return serializeVectors(obj.getVectors(), obj.getQuantizer());
+	}
+	
+	/**
+	 * <p>Calculates the length of the payload, without serializing
+	 * the frame. The container adds the length prefix on top.</p>
+	 * 
+	 * @return Length of the payload in bytes
+	 * 
+	 * @param obj	Frame to measure
+	 */
+	public static int getPayloadSize(QueueObject obj) {
+		int tiles = isTiled(obj) ? obj.getTileLayout().getTileCount() : 1;
+		int header = tiles > 1 ? Protocol.getTileHeaderLength(tiles) : 0;
+		
+		if (obj.isKeyframe()) {
+			PixelRaster raster = obj.getKeyframe();
+			return header + raster.getWidth() * raster.getHeight() * 3 + tiles;
+		}
+		
+		return header + Protocol.calculateSize(obj.getVectors()) + tiles * getVectorHeaderLength(obj.getQuantizer());
+	}
+	
+	/**
+	 * <p>Stores the frame as RGB colors, column by column.</p>
+	 * 
+	 * @return Payload starting with {@link Protocol#KEYFRAME_START}
+	 * 
+	 * @param raster	Frame to serialize
+	 */
+	public static byte[] serializeKeyframe(PixelRaster raster) {
+		return serializeKeyframe(raster, new Rectangle(raster.getDimension()));
+	}
+	
+	/**
+	 * <p>Stores an area of the frame as RGB colors, column by column.</p>
+	 * 
+	 * @return Payload starting with {@link Protocol#KEYFRAME_START}
+	 * 
+	 * @param raster	Frame to serialize
+	 * @param area	Area of the frame, e.g. a tile
+	 */
+	public static byte[] serializeKeyframe(PixelRaster raster, Rectangle area) {
+		byte[] data = new byte[area.width * area.height * 3 + 1]; //+1 for the KEYFRAME_START byte
+		data[0] = Protocol.KEYFRAME_START;
+		int index = 1;
+		
+		for (int x = area.x; x < area.x + area.width; x++) {
+			for (int y = area.y; y < area.y + area.height; y++) {
+				int rgb = ColorManager.convertYUVToRGB(raster.getYUV(x, y));
+				byte r = (byte)((rgb >> 16) & 0xFF);
+				byte g = (byte)((rgb >> 8) & 0xFF);
+				byte b = (byte)(rgb & 0xFF);
+				data[index] = r;
+				data[index + 1] = g;
+				data[index + 2] = b;
+				index += 3;
+			}
+		}
+		
+		return data;
+	}
+	
+	/**
+	 * <p>Stores the position, span, reference, size and the
+	 * quantized color difference of every vector.</p>
+	 * 
+	 * @return Payload starting with {@link Protocol#VECTOR_START}
+	 * 
+	 * @param vecs	Vectors of the frame
+	 * 
+	 * @throws NullPointerException	when no vectors are passed
+	 */
+	public static byte[] serializeVectors(ArrayList<Vector> vecs) {
+		return serializeVectors(vecs, config.DEFAULT_QP);
+	}
+	
+	/**
+	 * <p>Stores the quantizer of the frame followed by the vectors.
+	 * Frames with the {@link config#DEFAULT_QP} are stored without
+	 * the quantizer, like in files without rate control.</p>
+	 * 
+	 * @return Payload starting with {@link Protocol#VECTOR_START}
+	 * or {@link Protocol#VECTOR_QP_START} and the quantizer
+	 * 
+	 * @param vecs	Vectors of the frame
+	 * @param qp	Quantizer of the vectors
+	 * 
+	 * @throws NullPointerException	when no vectors are passed
+	 */
+	public static byte[] serializeVectors(ArrayList<Vector> vecs, int qp) {
+		if (vecs == null) {
+			throw new NullPointerException("No vectors were passed for writing.");
+		}
+		
+		int currentIndex = getVectorHeaderLength(qp);
+		byte[] data = new byte[Protocol.calculateSize(vecs) + currentIndex];
+		
+		if (qp == config.DEFAULT_QP) {
+			data[0] = Protocol.VECTOR_START;
+		} else {
+			data[0] = Protocol.VECTOR_QP_START;
+			data[1] = (byte)qp;
+		}
+		
+		for (Vector v : vecs) {
+			byte[] posX = Protocol.getPositionBytes(v.getPosition().x);
+			byte[] posY = Protocol.getPositionBytes(v.getPosition().y);
+			byte[] span = Protocol.getVectorSpanBytes(v.getSpanX(), v.getSpanY());
+			byte refAndSize = Protocol.getReferenceAndSizeByte(v.getReference(), v.getSize());
+			byte[][] differences = Protocol.getVectorAbsoluteColorDifferenceBytes(v.getDCTCoefficientsOfAbsoluteColorDifference(), v.getSize());
+			
+			System.arraycopy(posX, 0, data, currentIndex, posX.length);
+			currentIndex += posX.length;
+			System.arraycopy(posY, 0, data, currentIndex, posY.length);
+			currentIndex += posY.length;
+			System.arraycopy(span, 0, data, currentIndex, span.length);
+			currentIndex += span.length;
+			data[currentIndex] = refAndSize;
+			currentIndex += 1;
+			
+			for (int n = 0; n < differences.length; n++) {
+				System.arraycopy(differences[n], 0, data, currentIndex, differences[n].length);
+				currentIndex += differences[n].length;
+			}
+		}
+		
+		return data;
+	}
+	
+	/**
+	 * <p>Serializes every tile on its own and puts the offsets
+	 * of the tiles in front of them.</p>
+	 * 
+	 * @return Payload starting with {@link Protocol#TILED_FRAME_START}
+	 * 
+	 * @param obj	Frame to serialize
+	 * @param tiles	Tiles of the frame
+	 */
+	public static byte[] serializeTiles(QueueObject obj, TileLayout tiles) {
+		int count = tiles.getTileCount();
+		byte[][] parts = new byte[count][];
+		
+		if (obj.isKeyframe()) {
+			for (int i = 0; i < count; i++) {
+				parts[i] = serializeKeyframe(obj.getKeyframe(), tiles.getTile(i));
+			}
+		} else {
+			ArrayList<ArrayList<Vector>> vectorsOfTiles = new ArrayList<ArrayList<Vector>>(count);
+			
+			for (int i = 0; i < count; i++) {
+				vectorsOfTiles.add(new ArrayList<Vector>());
+			}
+			
+			for (Vector v : obj.getVectors()) {
+				int x = v.getPosition().x + v.getSpanX();
+				int y = v.getPosition().y + v.getSpanY();
+				vectorsOfTiles.get(tiles.getTileIndex(x, y)).add(v);
+			}
+			
+			for (int i = 0; i < count; i++) {
+				parts[i] = serializeVectors(vectorsOfTiles.get(i), obj.getQuantizer());
+			}
+		}
+		
+		int length = Protocol.getTileHeaderLength(count);
+		
+		for (byte[] part : parts) {
+			length += part.length;
+		}
+		
+		ByteBuffer data = ByteBuffer.allocate(length);
+		data.put(Protocol.TILED_FRAME_START);
+		data.put((byte)tiles.getColumns());
+		data.put((byte)tiles.getRows());
+		
+		for (int i = 0, offset = Protocol.getTileHeaderLength(count); i < count; i++) {
+			data.putInt(offset);
+			offset += parts[i].length;
+		}
+		
+		for (byte[] part : parts) {
+			data.put(part);
+		}
+		
+		return data.array();
+	}
+	
+	private static boolean isTiled(QueueObject obj) {
+		return obj.getTileLayout() != null && obj.getTileLayout().isTiled();
+	}
+	
+	private static int getVectorHeaderLength(int qp) {
+		return qp == config.DEFAULT_QP ? 1 : Protocol.VECTOR_QP_HEADER_LENGTH;
+	}
+}
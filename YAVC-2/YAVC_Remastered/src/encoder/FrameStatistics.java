@@ -0,0 +1,128 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import utils.Protocol;
+
+/**
+ * <p>The class {@code FrameStatistics} holds the results of the
+ * first pass for a single frame. The second pass plans the bits
+ * and the search effort of the frame with them.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class FrameStatistics {
+	private int frameNumber = 0;
+	private boolean keyframe = false;
+	private double intraCost = 0;
+	private double motionCost = 0;
+	private double staticFraction = 0;
+	private long codedArea = 0;
+	private int codedBlocks = 0;
+	private int maxMotion = 0;
+	private boolean motionClipped = false;
+	
+	/**
+	 * @param frameNumber	Position of the frame within the input
+	 * @param keyframe	Whether the first pass coded the frame as keyframe
+	 * @param intraCost	Intra cost of the {@link LowResAnalysis}
+	 * @param motionCost	Motion cost of the {@link LowResAnalysis}
+	 * @param staticFraction	Fraction of static blocks of the {@link LowResAnalysis}
+	 * @param codedArea	Area in pixels, that differs from the previous frame
+	 * @param codedBlocks	Amount of blocks, that differ from the previous frame
+	 * @param maxMotion	Longest vector of the frame in pixels
+	 * @param motionClipped	Whether a vector reached the border of the search window
+	 */
+	public FrameStatistics(int frameNumber, boolean keyframe, double intraCost, double motionCost, double staticFraction, long codedArea, int codedBlocks, int maxMotion, boolean motionClipped) {
+		this.frameNumber = frameNumber;
+		this.keyframe = keyframe;
+		this.intraCost = intraCost;
+		this.motionCost = motionCost;
+		this.staticFraction = staticFraction;
+		this.codedArea = codedArea;
+		this.codedBlocks = codedBlocks;
+		this.maxMotion = maxMotion;
+		this.motionClipped = motionClipped;
+	}
+	
+	public int getFrameNumber() {
+		return this.frameNumber;
+	}
+	
+	public boolean isKeyframe() {
+		return this.keyframe;
+	}
+	
+	public double getIntraCost() {
+		return this.intraCost;
+	}
+	
+	public double getMotionCost() {
+		return this.motionCost;
+	}
+	
+	public double getStaticFraction() {
+		return this.staticFraction;
+	}
+	
+	/**
+	 * @return Area in pixels, that differs from the previous frame
+	 */
+	public long getCodedArea() {
+		return this.codedArea;
+	}
+	
+	/**
+	 * @return Amount of blocks, that differ from the previous frame
+	 */
+	public int getCodedBlocks() {
+		return this.codedBlocks;
+	}
+	
+	/**
+	 * @return Largest component of all vectors in pixels
+	 */
+	public int getMaxMotion() {
+		return this.maxMotion;
+	}
+	
+	/**
+	 * @return true if the motion might exceed the search window of the first pass
+	 */
+	public boolean isMotionClipped() {
+		return this.motionClipped;
+	}
+	
+	/**
+	 * <p>Estimates the size of the frame at the default quantizer.
+	 * Every coded block is stored as vector with the luma and both
+	 * chroma planes, that have a quarter of the area.</p>
+	 * 
+	 * @return Estimated size of an inter frame in bytes
+	 */
+	public double getEstimatedSize() {
+		return this.codedArea * 1.5 + this.codedBlocks * (double)Protocol.VECTOR_HEADER_LENGTH;
+	}
+}
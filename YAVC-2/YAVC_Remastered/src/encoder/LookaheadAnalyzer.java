@@ -0,0 +1,192 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.awt.Dimension;
+
+import utils.PixelRaster;
+
+/**
+ * <p>The class {@code LookaheadAnalyzer} estimates the costs and the
+ * motion of source frames on their downscaled luma, long before the
+ * frames are encoded. The results allow the encoder to decide the
+ * frame type and the effort of the motion search with knowledge of
+ * the upcoming frames.</p>
+ * 
+ * <p>Every frame is compared with the previous one, so the frames
+ * have to be passed in order. Apart from the downscaling, every
+ * search position only touches 1/64 of the samples of a frame.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ * 
+ * @see LowResAnalysis
+ */
+
+public class LookaheadAnalyzer {
+	private static final int FACTOR = SceneChangeDetector.DOWNSCALE_FACTOR;
+	
+	/**
+	 * Edge length of a block in downscaled samples
+	 */
+	private static final int BLOCK = LowResAnalysis.BLOCK_SIZE / FACTOR;
+	
+	/**
+	 * Mean absolute luma difference, below which a block is static
+	 */
+	private static final double STATIC_THRESHOLD = 1.0;
+	
+	private SceneChangeDetector sceneDetector = null;
+	private int searchRange = 0;
+	
+	private Dimension previousDimension = null;
+	private double[] previousLuma = null;
+	private double[] currentLuma = null;
+	
+	/**
+	 * @param sceneDetector	Detector for scene changes
+	 * @param searchWindow	Search window of the encoder in pixels, the
+	 * low resolution search covers the same distance
+	 */
+	public LookaheadAnalyzer(SceneChangeDetector sceneDetector, int searchWindow) {
+		if (sceneDetector == null) {
+			throw new NullPointerException("LookaheadAnalyzer requires a SceneChangeDetector");
+		}
+		
+		this.sceneDetector = sceneDetector;
+		this.searchRange = Math.max((searchWindow + FACTOR - 1) / FACTOR, 1);
+	}
+	
+	/**
+	 * <p>Analyzes the frame and remembers it for the next frame.</p>
+	 * 
+	 * @return Analysis of the frame
+	 * 
+	 * @param frame	Next source frame
+	 */
+	public LowResAnalysis analyze(PixelRaster frame) {
+		Dimension dim = frame.getDimension();
+		int width = (dim.width + FACTOR - 1) / FACTOR;
+		int height = (dim.height + FACTOR - 1) / FACTOR;
+		int blocksX = (width + BLOCK - 1) / BLOCK;
+		int blocksY = (height + BLOCK - 1) / BLOCK;
+		
+		this.currentLuma = frame.getDownscaledLuma(FACTOR, this.currentLuma);
+		boolean hasPrevious = dim.equals(this.previousDimension);
+		LowResAnalysis result = new LowResAnalysis(blocksX, blocksY, hasPrevious);
+		result.setSceneChange(this.sceneDetector.isSceneChange(this.currentLuma, dim));
+		
+		for (int by = 0; by < blocksY; by++) {
+			for (int bx = 0; bx < blocksX; bx++) {
+				int x0 = bx * BLOCK, y0 = by * BLOCK;
+				int x1 = Math.min(x0 + BLOCK, width), y1 = Math.min(y0 + BLOCK, height);
+				int samples = (x1 - x0) * (y1 - y0);
+				double intraCost = computeIntraCost(x0, y0, x1, y1, width, samples);
+				
+				if (!hasPrevious) {
+					result.setBlock(by * blocksX + bx, intraCost, intraCost, 0, false);
+					continue;
+				}
+				
+				double zeroCost = computeSAD(x0, y0, x1, y1, 0, 0, width);
+				double bestCost = zeroCost;
+				int bestMotion = 0;
+				
+				for (int dy = -this.searchRange; dy <= this.searchRange; dy++) {
+					if (y0 + dy < 0 || y1 + dy > height) {
+						continue;
+					}
+					
+					for (int dx = -this.searchRange; dx <= this.searchRange; dx++) {
+						if (x0 + dx < 0 || x1 + dx > width || (dx == 0 && dy == 0)) {
+							continue;
+						}
+						
+						double cost = computeSAD(x0, y0, x1, y1, dx, dy, width);
+						
+						if (cost < bestCost) {
+							bestCost = cost;
+							bestMotion = Math.max(Math.abs(dx), Math.abs(dy));
+						}
+					}
+				}
+				
+				if (bestMotion == this.searchRange) {
+					result.setMotionClipped(true);
+				}
+				
+				boolean isStatic = zeroCost / samples < STATIC_THRESHOLD;
+				result.setBlock(by * blocksX + bx, intraCost, bestCost, bestMotion * FACTOR, isStatic);
+			}
+		}
+		
+		double[] luma = this.previousLuma;
+		this.previousLuma = this.currentLuma;
+		this.currentLuma = luma;
+		this.previousDimension = dim;
+		return result;
+	}
+	
+	/**
+	 * <p>Sum of the absolute deviations from the mean of the block.</p>
+	 */
+	private double computeIntraCost(int x0, int y0, int x1, int y1, int width, int samples) {
+		double mean = 0;
+		
+		for (int y = y0; y < y1; y++) {
+			for (int x = x0; x < x1; x++) {
+				mean += this.currentLuma[y * width + x];
+			}
+		}
+		
+		mean /= samples;
+		double cost = 0;
+		
+		for (int y = y0; y < y1; y++) {
+			for (int x = x0; x < x1; x++) {
+				cost += Math.abs(this.currentLuma[y * width + x] - mean);
+			}
+		}
+		
+		return cost;
+	}
+	
+	/**
+	 * <p>Sum of the absolute differences between the block and
+	 * the block moved by (dx, dy) in the previous frame.</p>
+	 */
+	private double computeSAD(int x0, int y0, int x1, int y1, int dx, int dy, int width) {
+		double sad = 0;
+		
+		for (int y = y0; y < y1; y++) {
+			int row = y * width;
+			int previousRow = (y + dy) * width + dx;
+			
+			for (int x = x0; x < x1; x++) {
+				sad += Math.abs(this.currentLuma[row + x] - this.previousLuma[previousRow + x]);
+			}
+		}
+		
+		return sad;
+	}
+}
@@ -0,0 +1,191 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+/**
+ * <p>The class {@code LowResAnalysis} is the result of the cheap
+ * analysis of a source frame by the {@link LookaheadAnalyzer}.
+ * The frame is split into blocks of {@link #BLOCK_SIZE} pixels,
+ * for every block the costs and the motion are estimated on the
+ * downscaled luma.</p>
+ * 
+ * <ul><li>Intra cost: texture of the block, what a keyframe has to code
+ * <li>Motion cost: remaining difference after the best low resolution
+ * match in the previous frame
+ * <li>Static: the block didn't change since the previous frame
+ * </ul>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class LowResAnalysis {
+	/**
+	 * Edge length of an analyzed block in pixels of the source frame
+	 */
+	public static final int BLOCK_SIZE = 32;
+	
+	private boolean sceneChange = false;
+	private boolean hasPrevious = false;
+	private int blocksX = 0;
+	private int blocksY = 0;
+	
+	private double[] intraCosts = null;
+	private double[] motionCosts = null;
+	private int[] motion = null;
+	private boolean[] staticBlocks = null;
+	private boolean motionClipped = false;
+	
+	LowResAnalysis(int blocksX, int blocksY, boolean hasPrevious) {
+		this.blocksX = blocksX;
+		this.blocksY = blocksY;
+		this.hasPrevious = hasPrevious;
+		this.intraCosts = new double[blocksX * blocksY];
+		this.motionCosts = new double[blocksX * blocksY];
+		this.motion = new int[blocksX * blocksY];
+		this.staticBlocks = new boolean[blocksX * blocksY];
+	}
+	
+	void setBlock(int index, double intraCost, double motionCost, int motion, boolean isStatic) {
+		this.intraCosts[index] = intraCost;
+		this.motionCosts[index] = motionCost;
+		this.motion[index] = motion;
+		this.staticBlocks[index] = isStatic;
+	}
+	
+	void setSceneChange(boolean sceneChange) {
+		this.sceneChange = sceneChange;
+	}
+	
+	void setMotionClipped(boolean clipped) {
+		this.motionClipped = clipped;
+	}
+	
+	/**
+	 * @return true if the frame starts a new scene
+	 */
+	public boolean isSceneChange() {
+		return this.sceneChange;
+	}
+	
+	/**
+	 * @return true if the frame was compared with a previous frame,
+	 * otherwise there are no motion costs and no static blocks
+	 */
+	public boolean hasPrevious() {
+		return this.hasPrevious;
+	}
+	
+	public int getBlocksX() {
+		return this.blocksX;
+	}
+	
+	public int getBlocksY() {
+		return this.blocksY;
+	}
+	
+	/**
+	 * @return Sum of the intra costs of all blocks
+	 */
+	public double getIntraCost() {
+		return sum(this.intraCosts);
+	}
+	
+	/**
+	 * @return Sum of the motion costs of all blocks, for the first
+	 * frame the intra cost
+	 */
+	public double getMotionCost() {
+		return this.hasPrevious ? sum(this.motionCosts) : getIntraCost();
+	}
+	
+	public double getIntraCost(int blockX, int blockY) {
+		return this.intraCosts[blockY * this.blocksX + blockX];
+	}
+	
+	public double getMotionCost(int blockX, int blockY) {
+		return this.motionCosts[blockY * this.blocksX + blockX];
+	}
+	
+	/**
+	 * @return Length of the estimated motion of the block in pixels
+	 * along the larger axis
+	 */
+	public int getMotion(int blockX, int blockY) {
+		return this.motion[blockY * this.blocksX + blockX];
+	}
+	
+	/**
+	 * @return true if the block didn't change since the previous frame
+	 */
+	public boolean isStatic(int blockX, int blockY) {
+		return this.staticBlocks[blockY * this.blocksX + blockX];
+	}
+	
+	/**
+	 * @return Fraction of the blocks, that didn't change
+	 */
+	public double getStaticFraction() {
+		int count = 0;
+		
+		for (boolean isStatic : this.staticBlocks) {
+			if (isStatic) {
+				count++;
+			}
+		}
+		
+		return (double)count / this.staticBlocks.length;
+	}
+	
+	/**
+	 * @return Largest estimated motion of all blocks in pixels
+	 */
+	public int getMaxMotion() {
+		int max = 0;
+		
+		for (int m : this.motion) {
+			max = Math.max(max, m);
+		}
+		
+		return max;
+	}
+	
+	/**
+	 * @return true if the motion of a block reached the limit
+	 * of the low resolution search, so the real motion might
+	 * be larger
+	 */
+	public boolean isMotionClipped() {
+		return this.motionClipped;
+	}
+	
+	private double sum(double[] values) {
+		double sum = 0;
+		
+		for (double v : values) {
+			sum += v;
+		}
+		
+		return sum;
+	}
+}
@@ -3,201 +3,380 @@ package encoder;
 import java.awt.Dimension;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
-import interprediction.Vector;
-import utils.ColorManager;
-import utils.PixelRaster;
+import app.config;
 import utils.Protocol;
 import utils.QueueObject;
 
+/*
+ * Layout of a YAVC file:
+ * HEADER:	WIDTH ⊥ HEIGHT ⊥ NUMBER_OF_FRAMES ⊥ TRAILER_OFFSET
+ * FRAMES:	(LENGTH_OF_FRAME ⊥ FRAME) * NUMBER_OF_FRAMES
+ * TRAILER:	NUMBER_OF_FRAMES ⊥ FRAME_OFFSET * NUMBER_OF_FRAMES
+ * 			⊥ NUMBER_OF_KEYFRAMES ⊥ (FRAME_NUMBER ⊥ FRAME_OFFSET) * NUMBER_OF_KEYFRAMES
+ * 
+ * The frames are streamed once to the file, the trailer is appended
+ * at the end and the header gets patched with the number of frames and
+ * the position of the trailer. A TRAILER_OFFSET of 0 marks an unfinished
+ * file, which can still be read sequentially due to the length prefixes.
+ * All offsets are absolute and point to the LENGTH_OF_FRAME of a frame.
+ */
 public class OutputStream {
 	private File OUTPUT_FILE = null;
-	private File TEMP_OUTPUT_FILE = null;
-	private boolean canWrite = false;
-	private boolean finishQueue = false;
-	private ConcurrentLinkedQueue<QueueObject> QUEUE = new ConcurrentLinkedQueue<QueueObject>();
+	private Dimension FRAME_DIM = null;
+	private FileChannel channel = null;
+	private Thread writer = null;
+	private volatile boolean aborted = false;
 	
-	private ArrayList<Integer> indexesOfEachPart = new ArrayList<Integer>();
+	/**
+	 * Cause, that terminated the writer thread, null while the
+	 * writer is fine.
+	 */
+	private volatile Throwable failure = null;
+	
+	/**
+	 * Bounded hand-off between the encoder and the writer thread.
+	 * If the writer falls behind, the encoder blocks on the full
+	 * queue instead of piling up frames in memory.
+	 */
+	private BlockingQueue<QueueObject> QUEUE = null;
+	
+	/**
+	 * Marks the end of the stream within the queue.
+	 */
+	private static final QueueObject END_OF_STREAM = new QueueObject(null, null);
+	
+	/**
+	 * Time in milliseconds, a producer waits for a free slot,
+	 * before it checks the state of the writer again.
+	 */
+	private static final long OFFER_TIMEOUT = 100;
+	
+	private ArrayList<Long> frameOffsets = new ArrayList<Long>();
+	private ArrayList<Integer> keyframeNumbers = new ArrayList<Integer>();
+	private ArrayList<Long> keyframeOffsets = new ArrayList<Long>();
+	private ByteBuffer lengthPrefix = ByteBuffer.allocate(Protocol.SIZE_OF_INT);
 	
 	public OutputStream(File file) {
-		try {
-			File out = new File(file.getAbsolutePath() + "/YAVC.yavcv");
-			out.createNewFile();
-			
-			File tempOut = new File(file.getAbsolutePath() + "/YAVC_TEMP.yavcv");
-			tempOut.createNewFile();
-			
-			this.OUTPUT_FILE = out;
-			this.TEMP_OUTPUT_FILE = tempOut;
-		} catch (IOException e) {
-			e.printStackTrace();
+		this(file, config.DEFAULT_OUTPUT_QUEUE_DEPTH);
+	}
+	
+	/**
+	 * @param file	File to write to, if it is a directory the
+	 * result is written to YAVC.yavcv within
+	 * @param queueDepth	Amount of frames, that can wait for the writer
+	 */
+	public OutputStream(File file, int queueDepth) {
+		if (queueDepth < 1) {
+			throw new IllegalArgumentException("Queue depth has to be at least 1, got " + queueDepth);
 		}
+		
+		this.QUEUE = new ArrayBlockingQueue<QueueObject>(queueDepth);
+		this.OUTPUT_FILE = resolve(file);
+	}
+	
+	/**
+	 * @return The file, that is written for the passed file or directory
+	 * 
+	 * @param file	File to write to, if it is a directory the
+	 * result is written to YAVC.yavcv within
+	 */
+	public static File resolve(File file) {
+		return file.isDirectory() ? new File(file.getAbsolutePath() + "/YAVC.yavcv") : file;
+	}
+	
+	/**
+	 * @return File, that is written
+	 */
+	public File getOutputFile() {
+		return this.OUTPUT_FILE;
 	}
 	
+	/**
+	 * @throws IllegalStateException	when the stream is not active
+	 */
 	public void writeMetadata(Dimension dim, int filesCount) {
-		try {
-			byte[] data = new byte[Protocol.META_DATA_LEN];//4 Bytes per integer.
-			byte[] width = Protocol.getIntBytes(dim.width);
-			byte[] height = Protocol.getIntBytes(dim.height);
-			byte[] numberOfFrames = Protocol.getIntBytes(filesCount);
-			writeBytesToByteArray(width, data, 0);
-			writeBytesToByteArray(height, data, 4);
-			writeBytesToByteArray(numberOfFrames, data, 8);
-			Files.write(Path.of(this.OUTPUT_FILE.getAbsolutePath()), data, StandardOpenOption.TRUNCATE_EXISTING);
-		} catch (IOException e) {
-			e.printStackTrace();
+		if (this.channel == null) {
+			throw new IllegalStateException("Output stream is not active");
 		}
+		
+		this.FRAME_DIM = dim;
+		writeHeader(dim.width, dim.height, filesCount, 0);
 	}
 	
-	public void writeStartFrame(PixelRaster raster) {
-		byte[] data = new byte[raster.getWidth() * raster.getHeight() * 3];
-		int index = 0;
-		
-		for (int x = 0; x < raster.getWidth(); x++) {
-			for (int y = 0; y < raster.getHeight(); y++) {
-				int rgb = ColorManager.convertYUVToRGB(raster.getYUV(x, y));
-				byte r = (byte)((rgb >> 16) & 0xFF);
-				byte g = (byte)((rgb >> 8) & 0xFF);
-				byte b = (byte)(rgb & 0xFF);
-				data[index] = r;
-				data[index + 1] = g;
-				data[index + 2] = b;
-				index += 3;
-			}
-		}
+	private void writeHeader(int width, int height, int frames, long trailerOffset) {
+		ByteBuffer header = ByteBuffer.allocate(Protocol.META_DATA_LEN);
+		header.putInt(width);
+		header.putInt(height);
+		header.putInt(frames);
+		header.putLong(trailerOffset);
+		header.flip();
 		
 		try {
-			Files.write(Path.of(this.TEMP_OUTPUT_FILE.getAbsolutePath()), data, StandardOpenOption.TRUNCATE_EXISTING);
-			this.indexesOfEachPart.add(data.length);
+			while (header.hasRemaining()) {
+				this.channel.write(header, header.position());
+			}
 		} catch (IOException e) {
-			e.printStackTrace();
+			throw new UncheckedIOException(e);
 		}
 	}
 	
-	private void writeVectors(File file, ArrayList<Vector> vecs) {
-		int size = Protocol.calculateSize(vecs) + 1; //+1 for the VECTOR_START byte
-		int currentIndex = 1;
-		byte[] data = new byte[size];
-		data[0] = Protocol.VECTOR_START;
-		
-		if (vecs == null) {
-			throw new NullPointerException("No vectors were passed for writing.");
-		}
-		
-		for (Vector v : vecs) {
-			byte[] posX = Protocol.getPositionBytes(v.getPosition().x);
-			byte[] posY = Protocol.getPositionBytes(v.getPosition().y);
-			byte[] span = Protocol.getVectorSpanBytes(v.getSpanX(), v.getSpanY());
-			byte refAndSize = Protocol.getReferenceAndSizeByte(v.getReference(), v.getSize());
-			byte[][] differences = Protocol.getVectorAbsoluteColorDifferenceBytes(v.getDCTCoefficientsOfAbsoluteColorDifference(), v.getSize());
+	private void writeKeyframe(QueueObject obj) {
+		long offset = writePart(FrameSerializer.serialize(obj));
+		this.keyframeNumbers.add(this.frameOffsets.size() - 1);
+		this.keyframeOffsets.add(offset);
+	}
+	
+	private void writeVectors(QueueObject obj) {
+		writePart(FrameSerializer.serialize(obj));
+	}
+	
+	/**
+	 * Writes the length prefix and the frame with a single
+	 * gathering write to the channel. The frame is only indexed
+	 * after it is written completely, so the trailer never points
+	 * to a frame, that failed.
+	 * 
+	 * @return Offset of the frame
+	 * 
+	 * @throws UncheckedIOException	when the frame can't be written
+	 */
+	private long writePart(byte[] data) {
+		try {
+			long offset = this.channel.position();
+			this.lengthPrefix.clear();
+			this.lengthPrefix.putInt(data.length);
+			this.lengthPrefix.flip();
 			
-			writeBytesToByteArray(posX, data, currentIndex);
-			currentIndex += posX.length;
-			writeBytesToByteArray(posY, data, currentIndex);
-			currentIndex += posY.length;
-			writeBytesToByteArray(span, data, currentIndex);
-			currentIndex += span.length;
-			data[currentIndex] = refAndSize;
-			currentIndex += 1;
+			ByteBuffer[] part = new ByteBuffer[] {this.lengthPrefix, ByteBuffer.wrap(data)};
 			
-			for (int n = 0; n < differences.length; n++) {
-				writeBytesToByteArray(differences[n], data, currentIndex);
-				currentIndex += differences[n].length;
+			while (part[1].hasRemaining()) {
+				this.channel.write(part);
 			}
-		}
-
-		try {
-			Files.write(Path.of(file.getAbsolutePath()), data, StandardOpenOption.APPEND);
-			this.indexesOfEachPart.add(data.length);
+			
+			this.frameOffsets.add(offset);
+			return offset;
 		} catch (IOException e) {
-			e.printStackTrace();
+			throw new UncheckedIOException(e);
 		}
 	}
 	
-	private void writeBytesToByteArray(byte[] bytes, byte[] arr, int index) {
-		for (int i = 0; i < bytes.length; i++) {
-			arr[index++] = bytes[i];
+	/**
+	 * Hands the object over to the writer thread. If the queue
+	 * is full, the call blocks until the writer has caught up.
+	 * 
+	 * @param obj	Frame to write
+	 * 
+	 * @throws InterruptedException	when the encoder is interrupted while waiting
+	 * @throws IllegalStateException	when the stream is already closed or the writer failed
+	 */
+	public void addObjectToOutputQueue(QueueObject obj) throws InterruptedException {
+		if (this.writer == null) {
+			throw new IllegalStateException("Output stream is not active");
 		}
+		
+		//Re-check the writer while waiting, a dead writer never frees a slot
+		do {
+			checkWriter();
+		} while (!this.QUEUE.offer(obj, OFFER_TIMEOUT, TimeUnit.MILLISECONDS));
 	}
-
-	public void addObjectToOutputQueue(QueueObject obj) {
-		this.QUEUE.add(obj);
+	
+	/**
+	 * @throws IllegalStateException	when the writer failed or is not running anymore
+	 */
+	private void checkWriter() {
+		if (this.failure != null) {
+			throw new IllegalStateException("Output stream failed", this.failure);
+		} else if (!this.writer.isAlive()) {
+			throw new IllegalStateException("Output stream is not active");
+		}
 	}
 	
+	/**
+	 * Opens the output file and starts the writer thread. The file
+	 * is only created or truncated here, so a job, that fails before,
+	 * leaves an existing file untouched.
+	 * 
+	 * @throws UncheckedIOException	when the output file can't be opened
+	 * @throws IllegalStateException	when the stream is already active
+	 */
 	public void activate() {
-		if (this.OUTPUT_FILE == null) {
-			System.err.println("No output defined!");
-			System.exit(0);
+		if (this.writer != null) {
+			throw new IllegalStateException("Output stream is already active");
 		}
 		
-		this.canWrite = true;
+		try {
+			this.channel = openChannel(this.OUTPUT_FILE);
+			this.channel.position(Protocol.META_DATA_LEN);
+		} catch (IOException e) {
+			closeChannel();
+			throw new UncheckedIOException("Can't open the output " + this.OUTPUT_FILE.getPath(), e);
+		}
 		
-		Thread writer = new Thread(() -> {
-			while (canWrite) {
-				if (QUEUE.size() == 0) {
-					if (finishQueue) {
-						break;
+		this.writer = new Thread(() -> {
+			try {
+				QueueObject obj = null;
+				
+				while ((obj = this.QUEUE.take()) != END_OF_STREAM) {
+					if (this.aborted) {
+						continue;
+					} else if (obj.isKeyframe()) {
+						writeKeyframe(obj);
+					} else {
+						writeVectors(obj);
 					}
-					
-					try {
-						Thread.sleep(50);
-					} catch (InterruptedException e) {
-						e.printStackTrace();
-					}
-				} else {
-					QueueObject obj = this.QUEUE.poll();
-					writeVectors(this.TEMP_OUTPUT_FILE, obj.getVectors());
 				}
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			} catch (Throwable t) {
+				fail(t);
 			}
 			
-			writeLens();
-			transferVectors();
+			try {
+				writeTrailer();
+			} catch (Throwable t) {
+				fail(t);
+			} finally {
+				closeChannel();
+			}
 		});
 		
-		writer.setName("YAVC_Frame_Output_Stream");
-		writer.start();
+		this.writer.setName("YAVC_Frame_Output_Stream");
+		this.writer.start();
 	}
 	
-	private void writeLens() {
-		byte[] data = new byte[this.indexesOfEachPart.size() * Protocol.SIZE_OF_INT + Protocol.SIZE_OF_INT];
-		int currentIndex = 0;
-		
-		byte[] lenOfIndexes = Protocol.getIntBytes(this.indexesOfEachPart.size());
-		writeBytesToByteArray(lenOfIndexes, data, currentIndex);
-		currentIndex += Protocol.SIZE_OF_INT;
-		
-		for (int i : this.indexesOfEachPart) {
-			byte[] index = Protocol.getIntBytes(i);
-			writeBytesToByteArray(index, data, currentIndex);
-			currentIndex += Protocol.SIZE_OF_INT;
+	/**
+	 * @return Channel to write the file to
+	 * 
+	 * @param file	Resolved output file
+	 */
+	FileChannel openChannel(File file) throws IOException {
+		return FileChannel.open(Path.of(file.getAbsolutePath()), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+	}
+	
+	private void closeChannel() {
+		if (this.channel == null) {
+			return;
 		}
 		
 		try {
-			Files.write(Path.of(this.OUTPUT_FILE.getAbsolutePath()), data, StandardOpenOption.APPEND);
+			this.channel.close();
 		} catch (IOException e) {
-			e.printStackTrace();
+			fail(new UncheckedIOException(e));
 		}
 	}
 	
-	private void transferVectors() {
+	/**
+	 * Records the cause of a failure of the writer, the first
+	 * cause is kept and later ones are suppressed by it.
+	 */
+	private void fail(Throwable t) {
+		if (this.failure == null) {
+			this.failure = t;
+		} else if (this.failure != t) {
+			this.failure.addSuppressed(t);
+		}
+		
+		//Wakes up producers, that wait for a free slot
+		this.QUEUE.clear();
+	}
+	
+	private void writeTrailer() {
+		int frames = this.frameOffsets.size();
+		int keyframes = this.keyframeNumbers.size();
+		ByteBuffer trailer = ByteBuffer.allocate(Protocol.SIZE_OF_INT + frames * Protocol.SIZE_OF_LONG
+												+ Protocol.SIZE_OF_INT + keyframes * Protocol.KEYFRAME_INDEX_ENTRY_LEN);
+		trailer.putInt(frames);
+		
+		for (long offset : this.frameOffsets) {
+			trailer.putLong(offset);
+		}
+		
+		trailer.putInt(keyframes);
+		
+		for (int i = 0; i < keyframes; i++) {
+			trailer.putInt(this.keyframeNumbers.get(i));
+			trailer.putLong(this.keyframeOffsets.get(i));
+		}
+		
+		trailer.flip();
+		
 		try {
-			Files.write(Path.of(this.OUTPUT_FILE.getAbsolutePath()), Files.readAllBytes(Path.of(this.TEMP_OUTPUT_FILE.getAbsolutePath())), StandardOpenOption.APPEND);
-			this.TEMP_OUTPUT_FILE.delete();
+			long trailerOffset = this.channel.position();
+			
+			while (trailer.hasRemaining()) {
+				this.channel.write(trailer);
+			}
+			
+			Dimension dim = this.FRAME_DIM == null ? new Dimension(0, 0) : this.FRAME_DIM;
+			writeHeader(dim.width, dim.height, frames, trailerOffset);
 		} catch (IOException e) {
-			e.printStackTrace();
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Writes all remaining frames, finishes the file and waits
+	 * for the writer thread to terminate.
+	 * 
+	 * @throws IllegalStateException	when the writer failed, the file
+	 * then only contains the frames up to the failure
+	 */
+	public void close() {
+		finish(false);
+		
+		if (this.failure != null) {
+			throw new IllegalStateException("Output stream failed", this.failure);
 		}
 	}
 	
-	public void shutdown() {
-		this.canWrite = false;
+	/**
+	 * Drops all frames, that are not yet written, finishes the file
+	 * with the frames written so far and waits for the writer
+	 * thread to terminate.
+	 */
+	public void abort() {
+		finish(true);
+	}
+	
+	/**
+	 * @return Cause, that terminated the writer thread, or null
+	 */
+	public Throwable getFailure() {
+		return this.failure;
 	}
 	
-	public void finishQueue() {
-		this.finishQueue = true;
+	private void finish(boolean abort) {
+		if (this.writer == null) {
+			return;
+		}
+		
+		if (abort) {
+			this.aborted = true;
+			this.QUEUE.clear();
+		}
+		
+		try {
+			//A writer, that died, doesn't take the end of the stream anymore
+			while (!this.QUEUE.offer(END_OF_STREAM, OFFER_TIMEOUT, TimeUnit.MILLISECONDS)) {
+				if (!this.writer.isAlive()) {
+					break;
+				}
+			}
+			
+			this.writer.join();
+		} catch (InterruptedException e) {
+			this.writer.interrupt();
+			Thread.currentThread().interrupt();
+		}
 	}
 }
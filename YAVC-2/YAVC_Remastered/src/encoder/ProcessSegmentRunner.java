@@ -0,0 +1,107 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>The class {@code ProcessSegmentRunner} encodes every segment
+ * in a worker process of its own, e.g. a separate JVM. The command
+ * of the worker is completed with the options of the segment:</p>
+ * <pre>
+ * command --frames FIRST:COUNT [--stats FILE] -q -o SEGMENT_FILE INPUT
+ * </pre>
+ * <p>The standard output of the workers is discarded, errors
+ * are passed through.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class ProcessSegmentRunner implements SegmentRunner {
+	private List<String> command = null;
+	
+	/**
+	 * @param command	Command, that starts an encode of the command
+	 * line with all options of the encoding, e.g. "java -cp ... app.Main
+	 * encode --preset fast"
+	 * 
+	 * @throws IllegalArgumentException	when the command is empty
+	 */
+	public ProcessSegmentRunner(List<String> command) {
+		if (command == null || command.isEmpty()) {
+			throw new IllegalArgumentException("ProcessSegmentRunner requires a command");
+		}
+		
+		this.command = new ArrayList<String>(command);
+	}
+	
+	/**
+	 * @return Command, that starts a JVM with the class path of the
+	 * running JVM and the command line of YAVC
+	 */
+	public static List<String> getJavaCommand() {
+		ArrayList<String> command = new ArrayList<String>();
+		command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add("app.Main");
+		return command;
+	}
+	
+	@Override
+	public void encode(File input, Segment segment) throws IOException, InterruptedException {
+		ArrayList<String> args = new ArrayList<String>(this.command);
+		args.add("--frames");
+		args.add(segment.getFirstFrame() + ":" + segment.getFrameCount());
+		
+		if (segment.getStatsFile() != null) {
+			args.add("--stats");
+			args.add(segment.getStatsFile().getPath());
+		}
+		
+		args.add("-q");
+		args.add("-o");
+		args.add(segment.getOutputFile().getPath());
+		args.add(input.getPath());
+		
+		ProcessBuilder builder = new ProcessBuilder(args);
+		builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+		builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+		Process process = builder.start();
+		
+		try {
+			int exitCode = process.waitFor();
+			
+			if (exitCode != 0) {
+				throw new IOException("Worker of " + segment + " exited with code " + exitCode);
+			}
+		} finally {
+			//Only stops the worker, if it is still running after an interrupt
+			process.destroy();
+		}
+	}
+}
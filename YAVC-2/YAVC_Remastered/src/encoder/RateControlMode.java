@@ -0,0 +1,53 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+/**
+ * <p>The enum {@code RateControlMode} selects how the
+ * {@link RateController} chooses the quantizer of a frame.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public enum RateControlMode {
+	/**
+	 * <p>Every frame is coded with the same quantizer, the
+	 * size of the output depends on the content.</p>
+	 */
+	CONSTANT_QP,
+	
+	/**
+	 * <p>Constant bitrate: every inter frame gets the same share of
+	 * the target bitrate and the buffer drains with the target
+	 * bitrate.</p>
+	 */
+	CBR,
+	
+	/**
+	 * <p>Variable bitrate: complex frames get more bits than simple
+	 * ones, the average stays at the target bitrate and the peaks
+	 * are limited by the maximum bitrate and the buffer.</p>
+	 */
+	VBR
+}
@@ -0,0 +1,355 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import app.config;
+
+/**
+ * <p>The class {@code RateController} chooses the quantizer of
+ * every inter frame, so the output meets a target bitrate. The
+ * quantizer scales the quantization tables as well as the skip
+ * thresholds of the {@link DifferenceEngine}, which decide how
+ * much area is coded at all.</p>
+ * 
+ * <p>The size of every coded frame is fed back into the controller.
+ * It keeps a model of the bits per complexity at the default
+ * quantizer, the complexity is the motion cost of the
+ * {@link LowResAnalysis}. From the model and the bits planned
+ * for the frame the quantizer is derived.</p>
+ * 
+ * <p>The planned bits are limited by a buffer model (VBV): the
+ * buffer is filled with every frame and drained with the maximum
+ * bitrate. A frame must not overflow the buffer, otherwise a
+ * decoder, that receives the stream with the maximum bitrate,
+ * would run dry.</p>
+ * 
+ * <p><strong>NOTE:</strong><br> Keyframes are stored uncompressed,
+ * their size doesn't depend on the quantizer. Their share of the
+ * bitrate is estimated from the keyframes so far and the frames up
+ * to the end of the current GOP, only the rest is planned for the
+ * inter frames.</p>
+ * 
+ * <p>With the {@link FirstPassStats} of a two-pass encoding the
+ * keyframes and the complexity of all frames are known in advance.
+ * The bits, that are left, minus the upcoming keyframes are then
+ * distributed over the remaining inter frames by their estimated
+ * size, the complexity of the model is that estimated size.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class RateController {
+	/**
+	 * Largest change of the quantizer from one inter frame to the next
+	 */
+	private static final int MAX_QP_STEP = 4;
+	
+	/**
+	 * Exponent of the quantizer scale in the bit model. The vectors are
+	 * stored with a fixed size, so only the skipped area depends on the
+	 * quantizer: 32 times the step roughly halves the inter frames.
+	 */
+	private static final double RATE_EXPONENT = 0.3;
+	
+	/**
+	 * Weight of the newest frame in the averaged model and complexity
+	 */
+	private static final double MODEL_WEIGHT = 0.5;
+	
+	/**
+	 * How strongly VBR follows the complexity, 0 distributes the bits
+	 * evenly and 1 proportional to the complexity
+	 */
+	private static final double VBR_COMPLEXITY_WEIGHT = 0.6;
+	
+	/**
+	 * Maximum bitrate of VBR relative to the target, if none is set
+	 */
+	private static final double VBR_PEAK_FACTOR = 2.0;
+	
+	/**
+	 * Smallest amount of bits planned for a frame relative to its share
+	 */
+	private static final double MIN_PLANNED_FRACTION = 0.1;
+	
+	private RateControlMode mode = RateControlMode.CONSTANT_QP;
+	private int constantQP = config.DEFAULT_QP;
+	private double bitsPerFrame = 0;
+	private double peakBitsPerFrame = 0;
+	private double bufferSize = 0;
+	private int correctionFrames = 1;
+	private int gopLength = 1;
+	
+	private double bufferFill = 0;
+	private int bufferOverflows = 0;
+	private long frames = 0;
+	private long keyframes = 0;
+	private long framesSinceKeyframe = 0;
+	private double keyframeBits = 0;
+	private double interFrameBits = 0;
+	private double plannedInterFrameBits = 0;
+	private double bitsPerComplexity = 0;
+	private double averageComplexity = 0;
+	private double complexity = 0;
+	private int lastQP = config.DEFAULT_QP;
+	
+	private FirstPassStats firstPass = null;
+	private double[] remainingWeights = null;
+	private int[] remainingKeyframes = null;
+	private int firstPassFrames = 0;
+	
+	/**
+	 * @param mode	How the quantizer is chosen
+	 * @param qp	Quantizer of {@link RateControlMode#CONSTANT_QP} and the
+	 * first inter frame of the other modes
+	 * @param frameRate	Frames per second
+	 * @param gopLength	Maximum amount of frames between two keyframes
+	 * @param targetBitrate	Average bitrate in kbit/s, unused for a constant quantizer
+	 * @param maxBitrate	Rate in kbit/s, with which the buffer is drained, 0 for the
+	 * target bitrate (CBR) or twice the target bitrate (VBR)
+	 * @param bufferSize	Size of the buffer in kbit, 0 for one second of the maximum bitrate
+	 * 
+	 * @throws NullPointerException	when no mode is passed
+	 * @throws IllegalArgumentException	when the quantizer is out of range,
+	 * the frame rate or GOP length isn't positive or a bitrate is missing
+	 */
+	public RateController(RateControlMode mode, int qp, double frameRate, int gopLength, int targetBitrate, int maxBitrate, int bufferSize) {
+		if (mode == null) {
+			throw new NullPointerException("RateController requires a RateControlMode");
+		} else if (qp < config.MIN_QP || qp > config.MAX_QP) {
+			throw new IllegalArgumentException("QP has to be between " + config.MIN_QP + " and " + config.MAX_QP + ", got " + qp);
+		} else if (!(frameRate > 0)) {
+			throw new IllegalArgumentException("Frame rate has to be positive, got " + frameRate);
+		} else if (gopLength < 1) {
+			throw new IllegalArgumentException("GOP length has to be at least 1, got " + gopLength);
+		} else if (mode != RateControlMode.CONSTANT_QP && targetBitrate <= 0) {
+			throw new IllegalArgumentException(mode + " requires a target bitrate, got " + targetBitrate);
+		} else if (maxBitrate < 0 || bufferSize < 0) {
+			throw new IllegalArgumentException("Maximum bitrate and buffer size can't be negative, got " + maxBitrate + " and " + bufferSize);
+		}
+		
+		this.mode = mode;
+		this.constantQP = qp;
+		this.lastQP = qp;
+		this.gopLength = gopLength;
+		this.bitsPerFrame = targetBitrate * 1000.0 / frameRate;
+		
+		double peakBitrate = maxBitrate > 0 ? maxBitrate : (mode == RateControlMode.VBR ? targetBitrate * VBR_PEAK_FACTOR : targetBitrate);
+		this.peakBitsPerFrame = peakBitrate * 1000.0 / frameRate;
+		this.bufferSize = bufferSize > 0 ? bufferSize * 1000.0 : peakBitrate * 1000.0;
+		//Deviations are corrected within one second
+		this.correctionFrames = Math.max((int)Math.round(frameRate), 1);
+	}
+	
+	/**
+	 * @return Controller with the rate control of the settings
+	 * 
+	 * @param settings	Settings of the encoder
+	 * @param frameRate	Frames per second of the input
+	 */
+	public static RateController create(EncoderSettings settings, double frameRate) {
+		return new RateController(settings.getRateControlMode(), settings.getQuantizer(), frameRate, settings.getGOPLength(), settings.getTargetBitrate(), settings.getMaxBitrate(), settings.getBufferSize());
+	}
+	
+	/**
+	 * <p>Plans the bits with the statistics of a first pass. They
+	 * have to cover all frames, that are coded afterwards.</p>
+	 * 
+	 * @param stats	Statistics of the first pass, null for a single pass
+	 */
+	public void setFirstPassStats(FirstPassStats stats) {
+		this.firstPass = stats;
+		
+		if (stats == null) {
+			this.remainingWeights = null;
+			this.remainingKeyframes = null;
+			return;
+		}
+		
+		int frames = stats.size();
+		this.firstPassFrames = 0;
+		this.remainingWeights = new double[frames + 1];
+		this.remainingKeyframes = new int[frames + 1];
+		
+		for (int i = frames - 1; i >= 0; i--) {
+			FrameStatistics frame = stats.get(i);
+			boolean inter = frame != null && !frame.isKeyframe();
+			this.remainingWeights[i] = this.remainingWeights[i + 1] + (inter ? getWeight(frame.getEstimatedSize()) : 0);
+			this.remainingKeyframes[i] = this.remainingKeyframes[i + 1] + (frame != null && frame.isKeyframe() ? 1 : 0);
+			this.firstPassFrames += frame == null ? 0 : 1;
+		}
+	}
+	
+	/**
+	 * <p>Chooses the quantizer of the next inter frame.</p>
+	 * 
+	 * @return Quantizer of the frame
+	 * 
+	 * @param frameNumber	Position of the frame within the input
+	 * @param complexity	Motion cost of the frame, replaced by the
+	 * estimated size of the first pass
+	 */
+	public int chooseQuantizer(int frameNumber, double complexity) {
+		FrameStatistics stats = this.firstPass == null ? null : this.firstPass.get(frameNumber);
+		this.complexity = stats == null ? complexity : stats.getEstimatedSize();
+		
+		if (this.mode == RateControlMode.CONSTANT_QP) {
+			return this.constantQP;
+		} else if (this.bitsPerComplexity <= 0) {
+			//Without a coded inter frame there is no model yet
+			return this.lastQP;
+		}
+		
+		double planned = stats == null ? getPlannedBits(this.complexity) : getPlannedBits(frameNumber);
+		planned = Math.min(planned, this.bufferSize - this.bufferFill + this.peakBitsPerFrame);
+		planned = Math.max(planned, this.bitsPerFrame * MIN_PLANNED_FRACTION);
+		double scale = Math.pow(this.bitsPerComplexity * (this.complexity + 1) / planned, 1 / RATE_EXPONENT);
+		int qp = config.DEFAULT_QP + (int)Math.round(config.QP_PER_DOUBLING * Math.log(scale) / Math.log(2));
+		qp = Math.max(this.lastQP - MAX_QP_STEP, Math.min(this.lastQP + MAX_QP_STEP, qp));
+		return Math.max(config.MIN_QP, Math.min(config.MAX_QP, qp));
+	}
+	
+	/**
+	 * <p>Feeds the size of a coded inter frame back into the
+	 * model and the buffer.</p>
+	 * 
+	 * @param qp	Quantizer, the frame was coded with
+	 * @param bytes	Size of the frame in the output
+	 */
+	public void interFrameCoded(int qp, int bytes) {
+		double complexity = this.complexity;
+		double bits = bytes * 8.0;
+		double measured = bits * Math.pow(DCTEngine.getQuantizerScale(qp), RATE_EXPONENT) / (complexity + 1);
+		this.bitsPerComplexity = this.bitsPerComplexity <= 0 ? measured : mix(this.bitsPerComplexity, measured);
+		this.averageComplexity = this.averageComplexity <= 0 ? complexity + 1 : mix(this.averageComplexity, complexity + 1);
+		this.lastQP = qp;
+		this.interFrameBits += bits;
+		this.plannedInterFrameBits += getInterFrameBudget();
+		account(bits);
+	}
+	
+	/**
+	 * <p>Accounts a keyframe in the buffer. The size of a keyframe
+	 * doesn't depend on the quantizer, so the model is unchanged.</p>
+	 * 
+	 * @param bytes	Size of the keyframe in the output
+	 */
+	public void keyframeCoded(int bytes) {
+		this.keyframes++;
+		this.keyframeBits += bytes * 8.0;
+		this.framesSinceKeyframe = 0;
+		account(bytes * 8.0);
+	}
+	
+	/**
+	 * @return Bits in the buffer after the last frame
+	 */
+	public double getBufferFill() {
+		return this.bufferFill;
+	}
+	
+	/**
+	 * @return Size of the buffer in bits
+	 */
+	public double getBufferSize() {
+		return this.bufferSize;
+	}
+	
+	/**
+	 * @return How often a frame didn't fit into the buffer
+	 */
+	public int getBufferOverflows() {
+		return this.bufferOverflows;
+	}
+	
+	public RateControlMode getMode() {
+		return this.mode;
+	}
+	
+	/**
+	 * <p>Returns the bits planned for the next inter frame. VBR
+	 * distributes the bits by the complexity, CBR gives every inter
+	 * frame the same share. Both correct the deviation of the inter
+	 * frames so far from their budget.</p>
+	 */
+	private double getPlannedBits(double complexity) {
+		double planned = getInterFrameBudget();
+		
+		if (this.mode == RateControlMode.VBR) {
+			planned *= Math.pow((complexity + 1) / this.averageComplexity, VBR_COMPLEXITY_WEIGHT);
+		}
+		
+		return planned - (this.interFrameBits - this.plannedInterFrameBits) / this.correctionFrames;
+	}
+	
+	/**
+	 * <p>Returns the bits planned for the inter frame by the first
+	 * pass. The bits, that are left for the whole input, minus the
+	 * upcoming keyframes are shared by the remaining inter frames,
+	 * so every deviation is corrected until the end.</p>
+	 */
+	private double getPlannedBits(int frameNumber) {
+		double remainingBits = this.bitsPerFrame * this.firstPassFrames - this.keyframeBits - this.interFrameBits;
+		double keyframeSize = this.keyframes > 0 ? this.keyframeBits / this.keyframes : 0;
+		double interFrameBits = remainingBits - keyframeSize * this.remainingKeyframes[frameNumber + 1];
+		//The first pass might have coded the frame as keyframe
+		double weight = getWeight(this.complexity);
+		return interFrameBits * weight / (this.remainingWeights[frameNumber + 1] + weight);
+	}
+	
+	/**
+	 * <p>Share of an inter frame with the estimated size in a two-pass
+	 * encoding. VBR follows the size, CBR treats all frames alike.</p>
+	 */
+	private double getWeight(double estimatedSize) {
+		return this.mode == RateControlMode.VBR ? Math.pow(estimatedSize + 1, VBR_COMPLEXITY_WEIGHT) : 1;
+	}
+	
+	/**
+	 * <p>Returns the average bits of an inter frame, that remain
+	 * after the share of the keyframes.</p>
+	 */
+	private double getInterFrameBudget() {
+		//The current GOP lasts at least until its end
+		double period = this.frames + Math.max(this.gopLength - this.framesSinceKeyframe, 0);
+		double interFrameShare = Math.max(1 - this.keyframes / period, 1 / period);
+		double budget = (this.bitsPerFrame - this.keyframeBits / period) / interFrameShare;
+		return Math.max(budget, this.bitsPerFrame * MIN_PLANNED_FRACTION);
+	}
+	
+	private void account(double bits) {
+		this.frames++;
+		this.framesSinceKeyframe++;
+		this.bufferFill = Math.max(this.bufferFill + bits - this.peakBitsPerFrame, 0);
+		
+		if (this.bufferFill > this.bufferSize) {
+			this.bufferOverflows++;
+			this.bufferFill = this.bufferSize;
+		}
+	}
+	
+	private double mix(double average, double value) {
+		return average * (1 - MODEL_WEIGHT) + value * MODEL_WEIGHT;
+	}
+}
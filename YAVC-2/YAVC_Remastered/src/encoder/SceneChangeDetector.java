@@ -0,0 +1,199 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.awt.Dimension;
+import java.util.Arrays;
+
+import utils.PixelRaster;
+
+/**
+ * <p>The class {@code SceneChangeDetector} detects hard cuts
+ * between two source frames, before any quadtree or motion
+ * search is computed for the frame.</p>
+ * 
+ * <p>Both frames are downscaled to the mean luma of 8x8 blocks.
+ * A cut is detected, when the mean absolute difference of the
+ * downscaled frames exceeds the threshold and the luma histograms
+ * differ as well. The histogram stays similar on fast motion, so
+ * pans and zooms aren't mistaken as cuts.</p>
+ * 
+ * <p>The detector compares every frame with the previous one,
+ * so the frames have to be passed in order.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class SceneChangeDetector {
+	/**
+	 * Edge length of the blocks, that are reduced to their mean luma
+	 */
+	public static final int DOWNSCALE_FACTOR = 8;
+	private static final int HISTOGRAM_BINS = 32;
+	
+	/**
+	 * Fraction of the histogram, that has to move into other bins
+	 */
+	private static final double HISTOGRAM_THRESHOLD = 0.3;
+	
+	private double threshold = 0;
+	
+	private Dimension previousDimension = null;
+	private double[] previousLuma = null;
+	private double[] currentLuma = null;
+	private int[] previousHistogram = new int[HISTOGRAM_BINS];
+	private int[] currentHistogram = new int[HISTOGRAM_BINS];
+	
+	private double lastDifference = 0;
+	private double lastHistogramDifference = 0;
+	
+	/**
+	 * @param threshold	Mean absolute luma difference of the
+	 * downscaled frames, above which a cut is detected, 0 disables
+	 * the detection
+	 * 
+	 * @throws IllegalArgumentException	when the threshold is negative
+	 */
+	public SceneChangeDetector(double threshold) {
+		if (threshold < 0) {
+			throw new IllegalArgumentException("Scene change threshold can't be negative, got " + threshold);
+		}
+		
+		this.threshold = threshold;
+	}
+	
+	/**
+	 * <p>Compares the frame with the previous frame and
+	 * remembers it for the next comparison.</p>
+	 * 
+	 * @return true if the frame starts a new scene, the
+	 * first frame never does
+	 * 
+	 * @param frame	Next source frame
+	 */
+	public boolean isSceneChange(PixelRaster frame) {
+		if (this.threshold <= 0) {
+			return false;
+		}
+		
+		this.currentLuma = frame.getDownscaledLuma(DOWNSCALE_FACTOR, this.currentLuma);
+		return compare(frame.getDimension());
+	}
+	
+	/**
+	 * <p>Same as {@link #isSceneChange(PixelRaster)} for a frame,
+	 * that is already downscaled with {@link PixelRaster#getDownscaledLuma(int, double[])}
+	 * and {@link #DOWNSCALE_FACTOR}.</p>
+	 * 
+	 * @return true if the frame starts a new scene
+	 * 
+	 * @param downscaledLuma	Downscaled luma of the frame, it is copied
+	 * @param dim	Dimension of the original frame
+	 */
+	public boolean isSceneChange(double[] downscaledLuma, Dimension dim) {
+		if (this.threshold <= 0) {
+			return false;
+		}
+		
+		int samples = getDownscaledSize(dim);
+		
+		if (this.currentLuma == null || this.currentLuma.length < samples) {
+			this.currentLuma = new double[samples];
+		}
+		
+		System.arraycopy(downscaledLuma, 0, this.currentLuma, 0, samples);
+		return compare(dim);
+	}
+	
+	/**
+	 * @return Amount of samples of a downscaled frame
+	 * 
+	 * @param dim	Dimension of the original frame
+	 */
+	public static int getDownscaledSize(Dimension dim) {
+		return ((dim.width + DOWNSCALE_FACTOR - 1) / DOWNSCALE_FACTOR) * ((dim.height + DOWNSCALE_FACTOR - 1) / DOWNSCALE_FACTOR);
+	}
+	
+	private boolean compare(Dimension dim) {
+		int samples = getDownscaledSize(dim);
+		computeHistogram(this.currentLuma, samples, this.currentHistogram);
+		
+		boolean comparable = dim.equals(this.previousDimension);
+		boolean sceneChange = false;
+		
+		if (comparable) {
+			double difference = 0;
+			
+			for (int i = 0; i < samples; i++) {
+				difference += Math.abs(this.currentLuma[i] - this.previousLuma[i]);
+			}
+			
+			int movedSamples = 0;
+			
+			for (int i = 0; i < HISTOGRAM_BINS; i++) {
+				movedSamples += Math.abs(this.currentHistogram[i] - this.previousHistogram[i]);
+			}
+			
+			this.lastDifference = difference / samples;
+			//Every moved sample is counted in the old and the new bin
+			this.lastHistogramDifference = movedSamples / (2.0 * samples);
+			sceneChange = this.lastDifference > this.threshold && this.lastHistogramDifference > HISTOGRAM_THRESHOLD;
+		} else {
+			this.lastDifference = 0;
+			this.lastHistogramDifference = 0;
+		}
+		
+		double[] luma = this.previousLuma;
+		this.previousLuma = this.currentLuma;
+		this.currentLuma = luma;
+		int[] histogram = this.previousHistogram;
+		this.previousHistogram = this.currentHistogram;
+		this.currentHistogram = histogram;
+		this.previousDimension = dim;
+		return sceneChange;
+	}
+	
+	/**
+	 * @return Mean absolute luma difference of the last comparison
+	 */
+	public double getLastDifference() {
+		return this.lastDifference;
+	}
+	
+	/**
+	 * @return Fraction of the histogram, that changed in the last comparison
+	 */
+	public double getLastHistogramDifference() {
+		return this.lastHistogramDifference;
+	}
+	
+	private void computeHistogram(double[] luma, int samples, int[] histogram) {
+		Arrays.fill(histogram, 0);
+		
+		for (int i = 0; i < samples; i++) {
+			int bin = (int)(luma[i] * HISTOGRAM_BINS / 256);
+			histogram[Math.max(0, Math.min(HISTOGRAM_BINS - 1, bin))]++;
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.io.File;
+
+/**
+ * <p>The class {@code Segment} describes a part of the input,
+ * that is encoded independently of the other parts in a
+ * segment-parallel encoding. Every segment starts with a
+ * keyframe and is written to its own YAVC file.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class Segment {
+	private int index = 0;
+	private int firstFrame = 0;
+	private int frameCount = 0;
+	private File outputFile = null;
+	private File statsFile = null;
+	
+	/**
+	 * @param index	Position of the segment within the output
+	 * @param firstFrame	Index of the first frame within the input
+	 * @param frameCount	Amount of frames of the segment
+	 * @param outputFile	File to write the segment to
+	 * @param statsFile	Statistics of the first pass for the second
+	 * pass of a two-pass encoding, otherwise null
+	 * 
+	 * @throws NullPointerException	when no output file is passed
+	 * @throws IllegalArgumentException	when the first frame is negative
+	 * or the amount of frames isn't positive
+	 */
+	public Segment(int index, int firstFrame, int frameCount, File outputFile, File statsFile) {
+		if (outputFile == null) {
+			throw new NullPointerException("Segment requires an output file");
+		} else if (firstFrame < 0 || frameCount < 1) {
+			throw new IllegalArgumentException("Invalid segment of " + frameCount + " frames from frame " + firstFrame);
+		}
+		
+		this.index = index;
+		this.firstFrame = firstFrame;
+		this.frameCount = frameCount;
+		this.outputFile = outputFile;
+		this.statsFile = statsFile;
+	}
+	
+	public int getIndex() {
+		return this.index;
+	}
+	
+	public int getFirstFrame() {
+		return this.firstFrame;
+	}
+	
+	public int getFrameCount() {
+		return this.frameCount;
+	}
+	
+	public File getOutputFile() {
+		return this.outputFile;
+	}
+	
+	/**
+	 * @return Statistics of the first pass or null for a single pass
+	 */
+	public File getStatsFile() {
+		return this.statsFile;
+	}
+	
+	@Override
+	public String toString() {
+		return "Segment " + this.index + " (frames " + this.firstFrame + " to " + (this.firstFrame + this.frameCount - 1) + ")";
+	}
+}
@@ -0,0 +1,175 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.awt.Dimension;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import utils.Protocol;
+
+/**
+ * <p>The class {@code SegmentMerger} concatenates the YAVC files of
+ * the segments of a segment-parallel encoding. The frames are copied
+ * as they are, only the index in the trailer is merged: the offsets
+ * are moved by the position of the segment within the result and
+ * the frame numbers of the keyframes by the frames in front of it.</p>
+ * 
+ * <p>Every segment starts with a keyframe, so the result can be
+ * decoded like a file, that was encoded in one piece. The layout
+ * is described at the {@link OutputStream}.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class SegmentMerger {
+	private SegmentMerger() {
+	}
+	
+	/**
+	 * <p>Merges the segments in the passed order. Segments
+	 * without any frame are left out.</p>
+	 * 
+	 * @return Amount of frames of the result
+	 * 
+	 * @param segments	Finished YAVC files of the segments
+	 * @param output	File to write the result to
+	 * 
+	 * @throws IOException	when a segment can't be read or is unfinished
+	 * @throws IllegalArgumentException	when the segments have different dimensions
+	 */
+	public static int merge(List<File> segments, File output) throws IOException {
+		Dimension dim = null;
+		ArrayList<Long> frameOffsets = new ArrayList<Long>();
+		ArrayList<Integer> keyframeNumbers = new ArrayList<Integer>();
+		ArrayList<Long> keyframeOffsets = new ArrayList<Long>();
+		
+		try (FileChannel out = FileChannel.open(output.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			out.position(Protocol.META_DATA_LEN);
+			
+			for (File segment : segments) {
+				try (FileChannel in = FileChannel.open(segment.toPath(), StandardOpenOption.READ)) {
+					ByteBuffer header = read(in, 0, Protocol.META_DATA_LEN, segment);
+					Dimension segmentDim = new Dimension(header.getInt(), header.getInt());
+					int frames = header.getInt();
+					long trailerOffset = header.getLong();
+					
+					if (trailerOffset < Protocol.META_DATA_LEN) {
+						throw new IOException(segment.getPath() + " is unfinished");
+					} else if (frames == 0) {
+						continue;
+					} else if (dim == null) {
+						dim = segmentDim;
+					} else if (!dim.equals(segmentDim)) {
+						throw new IllegalArgumentException(segment.getPath() + " has the dimension " + segmentDim + ", expected " + dim);
+					}
+					
+					ByteBuffer trailer = read(in, trailerOffset, (int)(in.size() - trailerOffset), segment);
+					long shift = out.position() - Protocol.META_DATA_LEN;
+					int firstFrame = frameOffsets.size();
+					int indexedFrames = trailer.getInt();
+					
+					for (int i = 0; i < indexedFrames; i++) {
+						frameOffsets.add(trailer.getLong() + shift);
+					}
+					
+					int keyframes = trailer.getInt();
+					
+					for (int i = 0; i < keyframes; i++) {
+						keyframeNumbers.add(trailer.getInt() + firstFrame);
+						keyframeOffsets.add(trailer.getLong() + shift);
+					}
+					
+					copy(in, Protocol.META_DATA_LEN, trailerOffset - Protocol.META_DATA_LEN, out);
+				}
+			}
+			
+			long trailerOffset = out.position();
+			int frames = frameOffsets.size();
+			int keyframes = keyframeNumbers.size();
+			ByteBuffer trailer = ByteBuffer.allocate(Protocol.SIZE_OF_INT + frames * Protocol.SIZE_OF_LONG
+													+ Protocol.SIZE_OF_INT + keyframes * Protocol.KEYFRAME_INDEX_ENTRY_LEN);
+			trailer.putInt(frames);
+			
+			for (long offset : frameOffsets) {
+				trailer.putLong(offset);
+			}
+			
+			trailer.putInt(keyframes);
+			
+			for (int i = 0; i < keyframes; i++) {
+				trailer.putInt(keyframeNumbers.get(i));
+				trailer.putLong(keyframeOffsets.get(i));
+			}
+			
+			write(out, trailer.flip(), trailerOffset);
+			
+			ByteBuffer header = ByteBuffer.allocate(Protocol.META_DATA_LEN);
+			dim = dim == null ? new Dimension(0, 0) : dim;
+			header.putInt(dim.width);
+			header.putInt(dim.height);
+			header.putInt(frames);
+			header.putLong(trailerOffset);
+			write(out, header.flip(), 0);
+			return frames;
+		}
+	}
+	
+	private static ByteBuffer read(FileChannel in, long position, int length, File file) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		
+		while (buffer.hasRemaining()) {
+			if (in.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException(file.getPath() + " ends within the header or trailer");
+			}
+		}
+		
+		return buffer.flip();
+	}
+	
+	private static void write(FileChannel out, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			out.write(buffer, position + buffer.position());
+		}
+	}
+	
+	private static void copy(FileChannel in, long position, long length, FileChannel out) throws IOException {
+		long copied = 0;
+		
+		while (copied < length) {
+			long n = in.transferTo(position + copied, length - copied, out);
+			
+			if (n <= 0) {
+				throw new IOException("Segment ends within its frames");
+			}
+			
+			copied += n;
+		}
+	}
+}
@@ -0,0 +1,52 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * <p>The interface {@code SegmentRunner} encodes a single
+ * {@link Segment} of a segment-parallel encoding. The
+ * {@link Encoder} calls it from several threads at once,
+ * one segment per call.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ * 
+ * @see encoder.ProcessSegmentRunner
+ */
+
+public interface SegmentRunner {
+	/**
+	 * <p>Encodes the frames of the segment and writes them
+	 * to the output file of the segment.</p>
+	 * 
+	 * @param input	Input of the whole encoding
+	 * @param segment	Segment to encode
+	 * 
+	 * @throws IOException	when the segment couldn't be encoded
+	 * @throws InterruptedException	when the encoding is stopped
+	 */
+	public void encode(File input, Segment segment) throws IOException, InterruptedException;
+}
@@ -0,0 +1,209 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.function.ToIntFunction;
+
+/**
+ * <p>The class {@code SegmentWorker} connects to a
+ * {@link SocketSegmentRunner} and encodes the segments, that it
+ * gets, until the coordinator has no further jobs. Every job is
+ * run as command line:</p>
+ * <pre>
+ * encode OPTIONS --frames FIRST:COUNT [--stats FILE] -q -o SEGMENT_FILE INPUT
+ * </pre>
+ * <p>The segment file is a temporary file of the worker, that is
+ * sent to the coordinator and deleted afterwards.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class SegmentWorker {
+	/**
+	 * Milliseconds between two attempts to reach the coordinator
+	 */
+	private static final int CONNECT_INTERVAL = 500;
+	
+	private String host = null;
+	private int port = 0;
+	private String token = null;
+	private ToIntFunction<String[]> command = null;
+	
+	/**
+	 * @param host	Host of the coordinator
+	 * @param port	Port of the coordinator
+	 * @param token	Token of the coordinator
+	 * @param command	Runs a command line and returns its exit code
+	 * 
+	 * @throws NullPointerException	when the host, the token or the command is null
+	 * @throws IllegalArgumentException	when the port is out of range
+	 */
+	public SegmentWorker(String host, int port, String token, ToIntFunction<String[]> command) {
+		if (host == null) {
+			throw new NullPointerException("SegmentWorker requires a host");
+		} else if (token == null) {
+			throw new NullPointerException("SegmentWorker requires the token of the coordinator");
+		} else if (command == null) {
+			throw new NullPointerException("SegmentWorker requires a command");
+		} else if (port < 1 || port > 65535) {
+			throw new IllegalArgumentException("Port " + port + " is out of range");
+		}
+		
+		this.host = host;
+		this.port = port;
+		this.token = token;
+		this.command = command;
+	}
+	
+	/**
+	 * <p>Encodes segments until the coordinator ends the
+	 * connection.</p>
+	 * 
+	 * @param connectTimeout	Milliseconds, that the worker tries
+	 * to reach the coordinator, e.g. while it is starting
+	 * @return Amount of encoded segments
+	 * 
+	 * @throws IOException	when the coordinator can't be reached
+	 * or the connection breaks during a job
+	 * @throws InterruptedException	when the worker is stopped while
+	 * waiting for the coordinator
+	 */
+	public int run(long connectTimeout) throws IOException, InterruptedException {
+		int segments = 0;
+		
+		try (Socket socket = connect(connectTimeout)) {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			out.writeUTF(SocketSegmentRunner.WORKER_GREETING);
+			out.writeInt(SocketSegmentRunner.PROTOCOL_VERSION);
+			out.writeUTF(this.token);
+			out.flush();
+			
+			while (true) {
+				byte message = 0;
+				
+				try {
+					message = in.readByte();
+				} catch (EOFException e) {
+					//The coordinator quit without an END
+					return segments;
+				}
+				
+				if (message == SocketSegmentRunner.END) {
+					return segments;
+				} else if (message != SocketSegmentRunner.JOB) {
+					throw new IOException("Unknown message " + message);
+				}
+				
+				runJob(in, out);
+				segments++;
+			}
+		}
+	}
+	
+	private Socket connect(long timeout) throws IOException, InterruptedException {
+		long deadline = System.currentTimeMillis() + timeout;
+		
+		while (true) {
+			try {
+				return new Socket(this.host, this.port);
+			} catch (ConnectException e) {
+				if (System.currentTimeMillis() >= deadline) {
+					throw e;
+				}
+				
+				Thread.sleep(CONNECT_INTERVAL);
+			}
+		}
+	}
+	
+	private void runJob(DataInputStream in, DataOutputStream out) throws IOException {
+		int index = in.readInt();
+		int firstFrame = in.readInt();
+		int frameCount = in.readInt();
+		String input = in.readUTF();
+		String statsFile = in.readUTF();
+		int options = in.readInt();
+		
+		ArrayList<String> args = new ArrayList<String>();
+		args.add("encode");
+		
+		for (int i = 0; i < options; i++) {
+			args.add(in.readUTF());
+		}
+		
+		File outputFile = File.createTempFile("YAVC_segment_" + index + "_", ".yavcv");
+		
+		try {
+			args.add("--frames");
+			args.add(firstFrame + ":" + frameCount);
+			
+			if (!statsFile.isEmpty()) {
+				args.add("--stats");
+				args.add(statsFile);
+			}
+			
+			args.add("-q");
+			args.add("-o");
+			args.add(outputFile.getPath());
+			args.add(input);
+			
+			int exitCode = 0;
+			
+			try {
+				exitCode = this.command.applyAsInt(args.toArray(new String[args.size()]));
+			} catch (RuntimeException e) {
+				//The coordinator retries the segment, so the worker stays available
+				e.printStackTrace();
+				exitCode = -1;
+			}
+			
+			out.writeInt(exitCode);
+			
+			if (exitCode == 0) {
+				out.writeLong(outputFile.length());
+				
+				try (InputStream file = new FileInputStream(outputFile)) {
+					file.transferTo(out);
+				}
+			}
+			
+			out.flush();
+		} finally {
+			outputFile.delete();
+		}
+	}
+}
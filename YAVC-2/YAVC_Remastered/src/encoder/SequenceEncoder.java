@@ -0,0 +1,410 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.util.ArrayList;
+
+import app.config;
+import interprediction.Vector;
+import interprediction.VectorEngine;
+import quadtree.QuadtreeEngine;
+import utils.Deblocker;
+import utils.MacroBlock;
+import utils.PixelRaster;
+import utils.QueueObject;
+import utils.ReferenceBuffer;
+import utils.RenderEngine;
+import utils.TileLayout;
+
+/**
+ * <p>The class {@code SequenceEncoder} codes a sequence of frames
+ * one after another. It keeps the references of the current group
+ * of pictures and decides, whether a frame is coded as keyframe
+ * or with inter-prediction.</p>
+ * 
+ * <p>A keyframe is inserted at the end of every GOP and on scene
+ * changes. Scene changes are detected in two steps: the cheap
+ * {@link LowResAnalysis} compares the source frames before any
+ * block is analyzed. If it misses a change, the area, that
+ * differs from the reconstructed previous frame, is checked
+ * before the motion search.</p>
+ * 
+ * <p>The lookahead of a frame can influence the decisions, both
+ * are disabled by default:</p>
+ * <ul><li>With a flexible GOP the keyframe at the end of a GOP is
+ * postponed, if a scene change within the lookahead starts a new GOP
+ * anyway. A GOP can then exceed its length by up to the analysis depth.
+ * <li>With the adaptive search the search window shrinks to the
+ * estimated motion of the frame and mostly static frames only
+ * search the newest reference.
+ * </ul>
+ * 
+ * <p>In the second pass of a two-pass encoding the motion, that the
+ * {@link FirstPassAnalyzer} measured in full resolution, replaces
+ * the estimate of the lookahead for the search window.</p>
+ * 
+ * <p>The quantizer of every inter frame comes from the
+ * {@link RateController}. It scales the quantization of the
+ * differences and the skip thresholds, the size of the coded
+ * frame is fed back into the controller.</p>
+ * 
+ * <p>With more than one tile in the settings, the blocks are only
+ * predicted from their own tile and the frames carry the
+ * {@link TileLayout}, so the tiles are stored independently.</p>
+ * 
+ * <p>It doesn't know where the frames come from or where the
+ * results go to, so it is shared by the file based {@link Encoder}
+ * and the push based {@link FrameEncoder}.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class SequenceEncoder {
+	/**
+	 * Pixels in front of a vector, that are changed by the deblocker
+	 */
+	private static final int DEBLOCKING_MARGIN = 3;
+	
+	/**
+	 * Smallest search window of the adaptive search
+	 */
+	private static final int MIN_SEARCH_WINDOW = 16;
+	
+	/**
+	 * Pixels added to the estimated motion, since the low resolution
+	 * search is only accurate to {@link SceneChangeDetector#DOWNSCALE_FACTOR} pixels
+	 */
+	private static final int MOTION_MARGIN = 2 * SceneChangeDetector.DOWNSCALE_FACTOR;
+	
+	/**
+	 * Pixels added to the motion of the first pass, whose larger
+	 * blocks might move less than the blocks of the second pass
+	 */
+	private static final int FIRST_PASS_MOTION_MARGIN = 8;
+	
+	/**
+	 * Fraction of static blocks, above which only the newest reference is searched
+	 */
+	private static final double STATIC_FRAME_FRACTION = 0.95;
+	
+	private EncoderSettings settings = null;
+	private QuadtreeEngine quadtreeEngine = null;
+	private DifferenceEngine differenceEngine = null;
+	private VectorEngine vectorEngine = null;
+	private Deblocker deblocker = new Deblocker();
+	
+	/**
+	 * Only used for frames, that weren't analyzed ahead
+	 */
+	private LookaheadAnalyzer lookaheadAnalyzer = null;
+	private RateController rateController = null;
+	private FirstPassStats firstPass = null;
+	
+	private ReferenceBuffer references = null;
+	
+	/**
+	 * Tiles of the frames, created with the first frame
+	 */
+	private TileLayout tileLayout = null;
+	private int framesSinceKeyframe = 0;
+	private String keyframeReason = null;
+	private int searchWindow = 0;
+	private int searchReferences = 0;
+	private int quantizer = config.DEFAULT_QP;
+	
+	/**
+	 * <p>Creates a sequence encoder, whose rate control assumes the
+	 * frame rate of the settings or {@link config#DEFAULT_FRAME_RATE}.</p>
+	 */
+	public SequenceEncoder(EncoderSettings settings, QuadtreeEngine quadtreeEngine, DifferenceEngine differenceEngine, VectorEngine vectorEngine) {
+		this(settings, quadtreeEngine, differenceEngine, vectorEngine, RateController.create(settings, settings.getFrameRate() > 0 ? settings.getFrameRate() : config.DEFAULT_FRAME_RATE));
+	}
+	
+	public SequenceEncoder(EncoderSettings settings, QuadtreeEngine quadtreeEngine, DifferenceEngine differenceEngine, VectorEngine vectorEngine, RateController rateController) {
+		if (settings == null) {
+			throw new NullPointerException("SequenceEncoder can't run without settings");
+		} else if (quadtreeEngine == null || differenceEngine == null || vectorEngine == null) {
+			throw new NullPointerException("SequenceEncoder requires a QuadtreeEngine, DifferenceEngine and VectorEngine");
+		} else if (rateController == null) {
+			throw new NullPointerException("SequenceEncoder requires a RateController");
+		}
+		
+		this.settings = settings;
+		this.quadtreeEngine = quadtreeEngine;
+		this.differenceEngine = differenceEngine;
+		this.vectorEngine = vectorEngine;
+		this.lookaheadAnalyzer = createLookaheadAnalyzer(settings);
+		this.rateController = rateController;
+	}
+	
+	/**
+	 * @return Analyzer for the low resolution analysis with
+	 * the thresholds of the settings
+	 * 
+	 * @param settings	Settings of the encoder
+	 */
+	public static LookaheadAnalyzer createLookaheadAnalyzer(EncoderSettings settings) {
+		return new LookaheadAnalyzer(new SceneChangeDetector(settings.getSceneChangeThreshold()), settings.getSearchWindow());
+	}
+	
+	/**
+	 * @return Dimension of the sequence or null before the first frame
+	 */
+	public Dimension getDimension() {
+		return this.references == null ? null : this.references.getDimension();
+	}
+	
+	/**
+	 * @return Why the last frame was coded as keyframe or null
+	 * if it was coded with inter-prediction
+	 */
+	public String getKeyframeReason() {
+		return this.keyframeReason;
+	}
+	
+	/**
+	 * @return Search window used for the last inter frame
+	 */
+	public int getSearchWindow() {
+		return this.searchWindow;
+	}
+	
+	/**
+	 * @return Amount of references searched for the last inter frame
+	 */
+	public int getSearchReferences() {
+		return this.searchReferences;
+	}
+	
+	/**
+	 * @return Quantizer of the last inter frame
+	 */
+	public int getQuantizer() {
+		return this.quantizer;
+	}
+	
+	public RateController getRateController() {
+		return this.rateController;
+	}
+	
+	/**
+	 * <p>Passes the statistics of a first pass to the search
+	 * and the {@link RateController}.</p>
+	 * 
+	 * @param stats	Statistics of the first pass, null for a single pass
+	 */
+	public void setFirstPassStats(FirstPassStats stats) {
+		this.firstPass = stats;
+		this.rateController.setFirstPassStats(stats);
+	}
+	
+	/**
+	 * <p>Codes the next frame of the sequence. The first frame
+	 * of the sequence and every frame at the end of a GOP or
+	 * after a scene cut is coded as keyframe.</p>
+	 * <p>A keyframe result holds the passed frame, so the frame
+	 * must not be reused until the result is written.</p>
+	 * 
+	 * @return The coded frame
+	 * 
+	 * @param analyzed	Frame to code, if the low resolution analysis
+	 * or quadtree is missing it runs on the calling thread
+	 * 
+	 * @throws IllegalArgumentException	when the dimension of
+	 * the frame differs from the sequence
+	 */
+	public QueueObject encode(AnalyzedFrame analyzed) throws InterruptedException {
+		PixelRaster frame = analyzed.getFrame();
+		//Has to run for every frame, the next frame is compared with this one
+		LowResAnalysis lowRes = analyzed.hasLowResAnalysis() ? analyzed.getLowResAnalysis() : this.lookaheadAnalyzer.analyze(frame);
+		
+		if (this.references == null) {
+			this.tileLayout = new TileLayout(frame.getDimension(), this.settings.getTileColumns(), this.settings.getTileRows());
+			this.vectorEngine.setTileLayout(this.tileLayout);
+			this.references = new ReferenceBuffer(frame.getDimension(), config.MAX_REFERENCES);
+			return encodeKeyframe(analyzed, "First frame");
+		} else if (!frame.getDimension().equals(this.references.getDimension())) {
+			throw new IllegalArgumentException("Frame " + analyzed.getFrameNumber() + " has the dimension " + frame.getDimension() + ", expected " + this.references.getDimension());
+		} else if (lowRes.isSceneChange()) {
+			return encodeKeyframe(analyzed, "Scene change");
+		} else if (this.framesSinceKeyframe >= this.settings.getGOPLength()
+			&& !(this.settings.isFlexibleGOP() && isSceneChangeAhead(analyzed))) {
+			return encodeKeyframe(analyzed, "GOP");
+		}
+		
+		ArrayList<MacroBlock> leaveNodes = analyzed.getLeaveNodes();
+		
+		if (leaveNodes == null) {
+			leaveNodes = this.quadtreeEngine.getLeaveNodes(this.quadtreeEngine.constructQuadtree(frame));
+		}
+		
+		//The skip thresholds grow with the squared quantization step, like the error of the quantization
+		double complexity = lowRes.getMotionCost();
+		this.quantizer = this.rateController.chooseQuantizer(analyzed.getFrameNumber(), complexity);
+		double scale = DCTEngine.getQuantizerScale(this.quantizer);
+		leaveNodes = this.differenceEngine.computeDifferences(this.references.getNewest(), leaveNodes, scale * scale);
+		
+		if (isSceneCut(leaveNodes, frame)) {
+			return encodeKeyframe(analyzed, "Changed area");
+		}
+		
+		chooseSearchEffort(lowRes, this.firstPass == null ? null : this.firstPass.get(analyzed.getFrameNumber()));
+		ArrayList<Vector> movementVectors = this.vectorEngine.computeMovementVectors(leaveNodes, this.references, this.searchWindow, this.searchReferences, this.quantizer);
+		
+		PixelRaster composite = this.references.beginFrame();
+		markChangedAreas(movementVectors, leaveNodes);
+		RenderEngine.renderResult(movementVectors, this.references, leaveNodes, composite);
+		this.deblocker.deblock(movementVectors, composite, 7, 4, 51);
+		this.references.commitFrame();
+		
+		this.keyframeReason = null;
+		this.framesSinceKeyframe++;
+		
+		QueueObject result = new QueueObject(movementVectors, leaveNodes);
+		result.setQuantizer(this.quantizer);
+		result.setTileLayout(this.tileLayout);
+		this.rateController.interFrameCoded(this.quantizer, FrameSerializer.getPayloadSize(result));
+		return result;
+	}
+	
+	/**
+	 * <p>Starts a new group of pictures with the provided frame.
+	 * All previous references are dropped, so no frame after the
+	 * keyframe refers to a frame before it.</p>
+	 * 
+	 * @return The keyframe
+	 * 
+	 * @param analyzed	Frame to code as keyframe
+	 * @param reason	Why the frame is coded as keyframe
+	 */
+	private QueueObject encodeKeyframe(AnalyzedFrame analyzed, String reason) {
+		analyzed.discardAnalysis();
+		this.references.addKeyframe(analyzed.getFrame());
+		this.keyframeReason = reason;
+		this.framesSinceKeyframe = 1;
+		
+		QueueObject result = new QueueObject(analyzed.getFrame());
+		result.setTileLayout(this.tileLayout);
+		this.rateController.keyframeCoded(FrameSerializer.getPayloadSize(result));
+		return result;
+	}
+	
+	/**
+	 * @return true if a frame within the lookahead starts a new scene
+	 * 
+	 * @param analyzed	Frame with the lookahead
+	 */
+	private boolean isSceneChangeAhead(AnalyzedFrame analyzed) throws InterruptedException {
+		for (AnalyzedFrame upcoming : analyzed.getLookahead()) {
+			if (upcoming.isSceneChange()) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * <p>Chooses the search window and the amount of references for
+	 * the frame. Without the adaptive search or a previous frame
+	 * the values of the settings are used.</p>
+	 * 
+	 * @param lowRes	Low resolution analysis of the frame
+	 * @param stats	Statistics of the first pass or null
+	 */
+	private void chooseSearchEffort(LowResAnalysis lowRes, FrameStatistics stats) {
+		this.searchWindow = this.settings.getSearchWindow();
+		this.searchReferences = this.settings.getSearchReferences();
+		
+		if (!this.settings.isAdaptiveSearch() || !lowRes.hasPrevious()) {
+			return;
+		}
+		
+		if (stats != null && !stats.isKeyframe()) {
+			if (!stats.isMotionClipped()) {
+				int window = Math.max(stats.getMaxMotion() + FIRST_PASS_MOTION_MARGIN, MIN_SEARCH_WINDOW);
+				this.searchWindow = Math.min(window, this.searchWindow);
+			}
+		} else if (!lowRes.isMotionClipped()) {
+			//A clipped motion might be larger than the estimate
+			int window = Math.max(lowRes.getMaxMotion() + MOTION_MARGIN, MIN_SEARCH_WINDOW);
+			this.searchWindow = Math.min(window, this.searchWindow);
+		}
+		
+		//Older references only pay off for moving content
+		if (lowRes.getMaxMotion() == 0 && lowRes.getStaticFraction() >= STATIC_FRAME_FRACTION) {
+			this.searchReferences = 1;
+		}
+	}
+	
+	/**
+	 * <p>Reports all areas, that are written while rendering
+	 * the composite. The deblocker filters up to 3 pixels in
+	 * front of every vector, so that margin is included.</p>
+	 * 
+	 * @param vecs	Vectors of the frame
+	 * @param diffs	Non-coded blocks of the frame
+	 */
+	private void markChangedAreas(ArrayList<Vector> vecs, ArrayList<MacroBlock> diffs) {
+		for (MacroBlock block : diffs) {
+			Point pos = block.getPosition();
+			this.references.markChanged(pos.x, pos.y, block.getSize(), block.getSize());
+		}
+		
+		for (Vector v : vecs) {
+			Point pos = v.getPosition();
+			int size = v.getSize() + DEBLOCKING_MARGIN;
+			this.references.markChanged(pos.x + v.getSpanX() - DEBLOCKING_MARGIN, pos.y + v.getSpanY() - DEBLOCKING_MARGIN, size, size);
+		}
+	}
+	
+	/**
+	 * <p>Checks whether the changed area of the frame exceeds
+	 * the scene cut threshold. In that case inter-prediction
+	 * would hardly find any matches and a keyframe is cheaper.</p>
+	 * 
+	 * @return true if the frame should be coded as keyframe
+	 * 
+	 * @param differences	Blocks that differ from the previous frame
+	 * @param frame	Current frame
+	 */
+	private boolean isSceneCut(ArrayList<MacroBlock> differences, PixelRaster frame) {
+		double threshold = this.settings.getSceneCutThreshold();
+		
+		if (threshold <= 0) {
+			return false;
+		}
+		
+		long changedArea = 0;
+		
+		for (MacroBlock b : differences) {
+			changedArea += b.getSquaredSize();
+		}
+		
+		double frameArea = (double)frame.getWidth() * frame.getHeight();
+		return changedArea / frameArea > threshold;
+	}
+}
@@ -0,0 +1,405 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>The class {@code SocketSegmentRunner} is the coordinator of a
+ * distributed encoding. {@link SegmentWorker}s connect to its port,
+ * every segment is handed to an idle worker as job and the worker
+ * sends the encoded segment back. The input and the stats file have
+ * to be readable by the workers under the same path, e.g. on a
+ * shared directory.</p>
+ * 
+ * <p>The coordinator listens on the loopback address, unless another
+ * address is passed. Every worker has to send the token of the
+ * coordinator, otherwise it is rejected. A worker has
+ * {@link #HANDSHAKE_TIMEOUT} milliseconds for its greeting.</p>
+ * 
+ * <p>Protocol, all values in the format of {@link DataOutputStream}:</p>
+ * <pre>
+ * Worker:	"YAVC-WORKER" ⊥ VERSION ⊥ TOKEN
+ * Job:		JOB ⊥ SEGMENT ⊥ FIRST_FRAME ⊥ FRAME_COUNT ⊥ INPUT ⊥ STATS_FILE
+ * 		⊥ NUMBER_OF_OPTIONS ⊥ OPTION * NUMBER_OF_OPTIONS
+ * Result:	EXIT_CODE ⊥ LENGTH ⊥ SEGMENT_FILE
+ * End:		END
+ * </pre>
+ * <p>The options are the ones of the command line, an empty stats
+ * file stands for none. The segment file follows only an exit code
+ * of 0.</p>
+ * 
+ * <p>If a worker fails, its connection breaks or it doesn't answer
+ * within the job timeout, the segment is handed to the next idle
+ * worker, up to {@link #MAX_ATTEMPTS} times. A worker, whose
+ * connection broke or timed out, gets no further jobs.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class SocketSegmentRunner implements SegmentRunner, AutoCloseable {
+	static final String WORKER_GREETING = "YAVC-WORKER";
+	static final int PROTOCOL_VERSION = 2;
+	static final byte JOB = 1;
+	static final byte END = 0;
+	
+	/**
+	 * How often a segment is handed to a worker, before the encoding fails
+	 */
+	public static final int MAX_ATTEMPTS = 3;
+	
+	/**
+	 * Seconds, that a segment waits for an idle worker
+	 */
+	private static final int WORKER_TIMEOUT = 300;
+	
+	/**
+	 * Milliseconds, that a connected worker has for its greeting
+	 */
+	public static final int HANDSHAKE_TIMEOUT = 10000;
+	
+	/**
+	 * Default seconds, that a worker has for a single segment
+	 */
+	public static final int DEFAULT_JOB_TIMEOUT = 1800;
+	
+	private ServerSocket server = null;
+	private Thread acceptor = null;
+	private List<String> options = null;
+	private String token = null;
+	private int jobTimeout = 0;
+	private BlockingQueue<WorkerConnection> idleWorkers = new LinkedBlockingQueue<WorkerConnection>();
+	private ArrayList<WorkerConnection> workers = new ArrayList<WorkerConnection>();
+	private volatile boolean closed = false;
+	
+	/**
+	 * <p>Opens the port on the loopback address with a random token
+	 * and accepts workers until the runner is closed.</p>
+	 * 
+	 * @param port	Port to listen on, 0 for any free port
+	 * @param options	Options of the command line, that the workers
+	 * encode the segments with
+	 * 
+	 * @throws IOException	when the port can't be opened
+	 */
+	public SocketSegmentRunner(int port, List<String> options) throws IOException {
+		this(null, port, null, DEFAULT_JOB_TIMEOUT, options);
+	}
+	
+	/**
+	 * <p>Opens the port and accepts workers until the runner is closed.</p>
+	 * 
+	 * @param address	Address to listen on, null for the loopback address
+	 * @param port	Port to listen on, 0 for any free port
+	 * @param token	Token, that the workers have to send, null for a random one
+	 * @param jobTimeout	Seconds, that a worker has for a segment
+	 * @param options	Options of the command line, that the workers
+	 * encode the segments with
+	 * 
+	 * @throws IOException	when the port can't be opened
+	 * @throws IllegalArgumentException	when the token is empty or the
+	 * job timeout is lower than 1
+	 */
+	public SocketSegmentRunner(InetAddress address, int port, String token, int jobTimeout, List<String> options) throws IOException {
+		if (token != null && token.isEmpty()) {
+			throw new IllegalArgumentException("The token can't be empty");
+		} else if (jobTimeout < 1) {
+			throw new IllegalArgumentException("Job timeout has to be at least 1s, got " + jobTimeout);
+		}
+		
+		this.options = new ArrayList<String>(options);
+		this.token = token == null ? createToken() : token;
+		this.jobTimeout = jobTimeout;
+		this.server = new ServerSocket(port, 0, address == null ? InetAddress.getLoopbackAddress() : address);
+		this.acceptor = new Thread(this::acceptWorkers, "YAVC_Coordinator");
+		this.acceptor.setDaemon(true);
+		this.acceptor.start();
+	}
+	
+	private static String createToken() {
+		byte[] bytes = new byte[18];
+		new SecureRandom().nextBytes(bytes);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+	
+	/**
+	 * @return Port, that the workers connect to
+	 */
+	public int getPort() {
+		return this.server.getLocalPort();
+	}
+	
+	/**
+	 * @return Address, that the workers connect to
+	 */
+	public InetAddress getAddress() {
+		return this.server.getInetAddress();
+	}
+	
+	/**
+	 * @return Token, that the workers have to send
+	 */
+	public String getToken() {
+		return this.token;
+	}
+	
+	@Override
+	public void encode(File input, Segment segment) throws IOException, InterruptedException {
+		String failure = null;
+		
+		for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+			WorkerConnection worker = this.idleWorkers.poll(WORKER_TIMEOUT, TimeUnit.SECONDS);
+			
+			if (worker == null) {
+				throw new IOException("No worker available for " + segment + " within " + WORKER_TIMEOUT + "s");
+			}
+			
+			try {
+				int exitCode = worker.run(input, segment, this.options, (int)Math.min(this.jobTimeout * 1000L, Integer.MAX_VALUE));
+				this.idleWorkers.add(worker);
+				
+				if (exitCode == 0) {
+					return;
+				}
+				
+				failure = worker + " exited with code " + exitCode;
+			} catch (IOException e) {
+				worker.close();
+				failure = worker + " failed: " + e;
+			}
+			
+			System.err.println(segment + ", attempt " + attempt + " of " + MAX_ATTEMPTS + ": " + failure);
+		}
+		
+		throw new IOException(segment + " failed " + MAX_ATTEMPTS + " times, last: " + failure);
+	}
+	
+	/**
+	 * <p>Stops accepting workers and tells all connected
+	 * workers, that there are no further jobs.</p>
+	 */
+	@Override
+	public void close() {
+		try {
+			this.server.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		
+		synchronized (this.workers) {
+			this.closed = true;
+			
+			for (WorkerConnection worker : this.workers) {
+				worker.end();
+			}
+		}
+	}
+	
+	private void acceptWorkers() {
+		while (!this.closed) {
+			try {
+				Socket socket = this.server.accept();
+				
+				//A silent connection must not keep the acceptor from the next worker
+				Thread handshake = new Thread(() -> addWorker(socket), "YAVC_Handshake");
+				handshake.setDaemon(true);
+				handshake.start();
+			} catch (SocketException e) {
+				//The server socket was closed
+				return;
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	private void addWorker(Socket socket) {
+		try {
+			WorkerConnection worker = new WorkerConnection(socket, this.token);
+			
+			synchronized (this.workers) {
+				if (this.closed) {
+					worker.end();
+					return;
+				}
+				
+				this.workers.add(worker);
+			}
+			
+			this.idleWorkers.add(worker);
+		} catch (IOException e) {
+			System.err.println("Rejected worker " + socket.getRemoteSocketAddress() + ": " + e.getMessage());
+			
+			try {
+				socket.close();
+			} catch (IOException e1) {
+				e1.printStackTrace();
+			}
+		}
+	}
+	
+	/**
+	 * <p>Connection to a single worker.</p>
+	 */
+	private static class WorkerConnection {
+		private Socket socket = null;
+		private DataInputStream in = null;
+		private DataOutputStream out = null;
+		
+		/**
+		 * @throws IOException	when the greeting isn't complete within the
+		 * {@link SocketSegmentRunner#HANDSHAKE_TIMEOUT} or the token is wrong
+		 */
+		WorkerConnection(Socket socket, String token) throws IOException {
+			this.socket = socket;
+			this.socket.setKeepAlive(true);
+			this.socket.setSoTimeout(HANDSHAKE_TIMEOUT);
+			this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			
+			if (!WORKER_GREETING.equals(this.in.readUTF())) {
+				throw new IOException("No YAVC worker");
+			}
+			
+			int version = this.in.readInt();
+			
+			if (version != PROTOCOL_VERSION) {
+				throw new IOException("Unsupported protocol version " + version);
+			}
+			
+			//Compared in constant time, so the token can't be guessed byte by byte
+			byte[] expected = token.getBytes(StandardCharsets.UTF_8);
+			byte[] received = this.in.readUTF().getBytes(StandardCharsets.UTF_8);
+			
+			if (!MessageDigest.isEqual(expected, received)) {
+				throw new IOException("Wrong token");
+			}
+		}
+		
+		/**
+		 * @return Exit code of the worker, on 0 the segment
+		 * was written to its output file
+		 * 
+		 * @param timeout	Milliseconds, that the worker has for the segment
+		 * 
+		 * @throws java.net.SocketTimeoutException	when the worker doesn't
+		 * answer within the timeout
+		 */
+		int run(File input, Segment segment, List<String> options, int timeout) throws IOException {
+			this.socket.setSoTimeout(timeout);
+			this.out.writeByte(JOB);
+			this.out.writeInt(segment.getIndex());
+			this.out.writeInt(segment.getFirstFrame());
+			this.out.writeInt(segment.getFrameCount());
+			this.out.writeUTF(input.getAbsolutePath());
+			this.out.writeUTF(segment.getStatsFile() == null ? "" : segment.getStatsFile().getAbsolutePath());
+			this.out.writeInt(options.size());
+			
+			for (String option : options) {
+				this.out.writeUTF(option);
+			}
+			
+			this.out.flush();
+			int exitCode = this.in.readInt();
+			
+			if (exitCode != 0) {
+				return exitCode;
+			}
+			
+			long length = this.in.readLong();
+			
+			try (OutputStream file = new FileOutputStream(segment.getOutputFile())) {
+				copy(this.in, file, length);
+			}
+			
+			return exitCode;
+		}
+		
+		void end() {
+			try {
+				this.out.writeByte(END);
+				this.out.flush();
+			} catch (IOException e) {
+				//The worker is gone already
+			}
+			
+			close();
+		}
+		
+		void close() {
+			try {
+				this.socket.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		
+		@Override
+		public String toString() {
+			return "Worker " + this.socket.getRemoteSocketAddress();
+		}
+	}
+	
+	/**
+	 * <p>Copies exactly the passed amount of bytes.</p>
+	 * 
+	 * @throws IOException	when the stream ends before
+	 */
+	static void copy(InputStream in, OutputStream out, long length) throws IOException {
+		byte[] buffer = new byte[1 << 16];
+		long remaining = length;
+		
+		while (remaining > 0) {
+			int n = in.read(buffer, 0, (int)Math.min(buffer.length, remaining));
+			
+			if (n < 0) {
+				throw new IOException("Connection closed with " + remaining + " of " + length + " bytes missing");
+			}
+			
+			out.write(buffer, 0, n);
+			remaining -= n;
+		}
+	}
+}
@@ -0,0 +1,194 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.awt.Dimension;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * <p>The class {@code Y4MInput} reads a YUV4MPEG2 stream. The
+ * stream header provides the dimension and color range, every
+ * frame starts with a "FRAME" line followed by the planes like
+ * in {@link YUVInput}.</p>
+ * 
+ * <p>Only 8 bit 4:2:0 streams are supported. The chroma siting and
+ * interlacing are ignored, limited range is assumed unless the
+ * header contains XCOLORRANGE=FULL.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class Y4MInput extends YUVInput {
+	private static final String SIGNATURE = "YUV4MPEG2";
+	private static final String FRAME_HEADER = "FRAME";
+	
+	/**
+	 * 8 bit 4:2:0 colorspaces, that only differ in the chroma siting
+	 */
+	private static final Set<String> SUPPORTED_COLORSPACES = Set.of("420", "420jpeg", "420paldv", "420mpeg2");
+	
+	/**
+	 * Longest accepted header line
+	 */
+	private static final int MAX_LINE_LENGTH = 1024;
+	
+	private String frameRate = null;
+	
+	/**
+	 * Buffer for reading the header lines byte by byte
+	 */
+	private ByteBuffer single = ByteBuffer.allocate(1);
+	
+	/**
+	 * <p>Reads the stream header from the provided channel.</p>
+	 * 
+	 * @param channel	Channel to read from
+	 * 
+	 * @throws IOException	when the header is invalid or not supported
+	 */
+	public Y4MInput(ReadableByteChannel channel) throws IOException {
+		super(channel);
+		readStreamHeader();
+	}
+	
+	/**
+	 * <p>Reads the stream header from the provided file or named pipe.</p>
+	 * 
+	 * @param file	File to read from
+	 * 
+	 * @throws IOException	when the header is invalid or not supported
+	 */
+	public Y4MInput(File file) throws IOException {
+		this(openFile(file));
+	}
+	
+	/**
+	 * @return Frame rate of the stream as written in the header,
+	 * e.g. "30000:1001", or null if not provided
+	 */
+	public String getFrameRate() {
+		return this.frameRate;
+	}
+	
+	private void readStreamHeader() throws IOException {
+		String header = readLine();
+		
+		if (header == null || !header.startsWith(SIGNATURE)) {
+			throw new IOException("Stream is not a YUV4MPEG2 stream");
+		}
+		
+		int width = 0, height = 0;
+		boolean limited = true;
+		
+		for (String param : header.substring(SIGNATURE.length()).trim().split(" +")) {
+			if (param.isEmpty()) {
+				continue;
+			}
+			
+			String value = param.substring(1);
+			
+			switch (param.charAt(0)) {
+				case 'W':
+					width = Integer.parseInt(value);
+					break;
+				case 'H':
+					height = Integer.parseInt(value);
+					break;
+				case 'F':
+					this.frameRate = value;
+					break;
+				case 'C':
+					if (!SUPPORTED_COLORSPACES.contains(value)) {
+						throw new IOException("Colorspace " + value + " is not supported, only 8 bit 4:2:0 like 420jpeg");
+					}
+					
+					break;
+				case 'X':
+					if (value.equals("COLORRANGE=FULL")) {
+						limited = false;
+					}
+					
+					break;
+			}
+		}
+		
+		if (width <= 0 || height <= 0) {
+			throw new IOException("YUV4MPEG2 header without valid frame size: " + header);
+		}
+		
+		setDimension(new Dimension(width, height));
+		setLimitedRange(limited);
+	}
+	
+	/**
+	 * <p>Reads the "FRAME" line in front of every frame. Frame parameters are ignored.</p>
+	 * 
+	 * @return false at the end of the stream
+	 * 
+	 * @throws IOException	when the line is no frame header
+	 */
+	@Override
+	protected boolean beginFrame() throws IOException {
+		String line = readLine();
+		
+		if (line == null) {
+			return false;
+		} else if (!line.startsWith(FRAME_HEADER)) {
+			throw new IOException("Expected a frame header, got \"" + line + "\"");
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * @return The next line without the line break or null at the end of the stream
+	 */
+	private String readLine() throws IOException {
+		byte[] line = new byte[MAX_LINE_LENGTH];
+		int length = 0;
+		
+		while (true) {
+			this.single.clear();
+			
+			if (readFully(this.single) == 0) {
+				if (length == 0) {
+					return null;
+				}
+				
+				throw new IOException("Stream ends within a header line");
+			} else if (this.single.get(0) == '\n') {
+				return new String(line, 0, length, StandardCharsets.US_ASCII);
+			} else if (length == MAX_LINE_LENGTH) {
+				throw new IOException("Header line is longer than " + MAX_LINE_LENGTH + " bytes");
+			}
+			
+			line[length++] = this.single.get(0);
+		}
+	}
+}
@@ -0,0 +1,265 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package encoder;
+
+import java.awt.Dimension;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import utils.BMPReader;
+import utils.PixelRaster;
+
+/**
+ * <p>The class {@code YUVInput} reads raw planar YUV 4:2:0 (I420)
+ * frames from a file, a named pipe or the standard input. Every
+ * frame consists of the full Y plane followed by the subsampled
+ * U and V planes, each in row order with 8 bits per sample.</p>
+ * 
+ * <p>The planes are copied into the PixelRaster as they are, there
+ * is no conversion to RGB. The samples are expected in full range,
+ * limited range input is expanded with {@link #setLimitedRange(boolean)}.
+ * Frames with a width or height, that is not a multiple of 4, are padded.</p>
+ * 
+ * <p>The frames can only be read one after another.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class YUVInput implements FrameInput {
+	private ReadableByteChannel channel = null;
+	private Dimension dim = null;
+	private double[] lumaLevels = null;
+	private double[] chromaLevels = null;
+	
+	/**
+	 * Buffer for one frame, reused for every frame.
+	 */
+	private ByteBuffer frameBuffer = null;
+	
+	/**
+	 * <p>Reads the frames from the provided channel.</p>
+	 * 
+	 * @param channel	Channel to read from
+	 * @param dim	Dimension of the frames
+	 * 
+	 * @throws NullPointerException	when the channel or dimension is null
+	 */
+	public YUVInput(ReadableByteChannel channel, Dimension dim) {
+		this(channel);
+		
+		if (dim == null) {
+			throw new NullPointerException("Raw YUV input requires the dimension of the frames");
+		}
+		
+		setDimension(dim);
+	}
+	
+	/**
+	 * <p>Reads the frames from the provided file or named pipe.</p>
+	 * 
+	 * @param file	File to read from
+	 * @param dim	Dimension of the frames
+	 */
+	public YUVInput(File file, Dimension dim) throws IOException {
+		this(openFile(file), dim);
+	}
+	
+	/**
+	 * <p>Reads the frames from the provided channel, the
+	 * dimension has to be set by the subclass.</p>
+	 * 
+	 * @param channel	Channel to read from
+	 */
+	protected YUVInput(ReadableByteChannel channel) {
+		if (channel == null) {
+			throw new NullPointerException("YUVInput can't read from a NULL channel");
+		}
+		
+		this.channel = channel;
+	}
+	
+	/**
+	 * <p>Opens a channel on the standard input.</p>
+	 * 
+	 * @return Channel on the standard input
+	 */
+	public static ReadableByteChannel openStandardInput() {
+		return new FileInputStream(FileDescriptor.in).getChannel();
+	}
+	
+	protected static ReadableByteChannel openFile(File file) throws IOException {
+		return FileChannel.open(Path.of(file.getAbsolutePath()), StandardOpenOption.READ);
+	}
+	
+	protected void setDimension(Dimension dim) {
+		if (dim.width <= 0 || dim.height <= 0) {
+			throw new IllegalArgumentException("Invalid frame size " + dim.width + "x" + dim.height);
+		}
+		
+		this.dim = new Dimension(dim);
+		int chromaSize = ((dim.width + 1) / 2) * ((dim.height + 1) / 2);
+		this.frameBuffer = ByteBuffer.allocate(dim.width * dim.height + 2 * chromaSize);
+	}
+	
+	/**
+	 * <p>Sets whether the samples are in limited range (Y from 16 to 235,
+	 * U and V from 16 to 240) and have to be expanded to full range.
+	 * Samples outside the limited range are clamped to 0 and 255.</p>
+	 * 
+	 * @param limited	true for limited range input
+	 */
+	public void setLimitedRange(boolean limited) {
+		if (!limited) {
+			this.lumaLevels = null;
+			this.chromaLevels = null;
+			return;
+		}
+		
+		this.lumaLevels = new double[256];
+		this.chromaLevels = new double[256];
+		
+		for (int i = 0; i < 256; i++) {
+			this.lumaLevels[i] = Math.min(Math.max((i - 16) * 255.0 / 219.0, 0), 255);
+			this.chromaLevels[i] = Math.min(Math.max((i - 128) * 255.0 / 224.0 + 128, 0), 255);
+		}
+	}
+	
+	/**
+	 * @return -1, the amount of frames is unknown until the end of the stream
+	 */
+	@Override
+	public int getFrameCount() {
+		return -1;
+	}
+	
+	@Override
+	public boolean isRandomAccess() {
+		return false;
+	}
+	
+	/**
+	 * <p>Reads the next frame of the stream, the index is ignored.</p>
+	 * 
+	 * @return The frame or null at the end of the stream
+	 * 
+	 * @throws IOException	when the stream ends within a frame
+	 */
+	@Override
+	public synchronized PixelRaster read(int index, PixelRaster target) throws IOException {
+		if (!beginFrame()) {
+			return null;
+		}
+		
+		this.frameBuffer.clear();
+		int read = readFully(this.frameBuffer);
+		
+		if (read == 0) {
+			return null;
+		} else if (this.frameBuffer.hasRemaining()) {
+			throw new IOException("Stream ends within frame " + index + " (" + read + " of " + this.frameBuffer.capacity() + " bytes)");
+		}
+		
+		Dimension padded = BMPReader.getPaddedDimension(this.dim.width, this.dim.height);
+		
+		if (target == null || !target.getDimension().equals(padded)) {
+			target = new PixelRaster(padded, new double[padded.width][padded.height], new double[padded.width / 2][padded.height / 2], new double[padded.width / 2][padded.height / 2]);
+		}
+		
+		byte[] data = this.frameBuffer.array();
+		int chromaWidth = (this.dim.width + 1) / 2;
+		int chromaHeight = (this.dim.height + 1) / 2;
+		int offset = this.dim.width * this.dim.height;
+		target.setPlane(0, data, 0, this.dim.width, this.dim.height, this.lumaLevels);
+		target.setPlane(1, data, offset, chromaWidth, chromaHeight, this.chromaLevels);
+		target.setPlane(2, data, offset + chromaWidth * chromaHeight, chromaWidth, chromaHeight, this.chromaLevels);
+		return target;
+	}
+	
+	/**
+	 * <p>Reads over the next frame without converting it.</p>
+	 * 
+	 * @return false at the end of the stream
+	 * 
+	 * @throws IOException	when the stream ends within a frame
+	 */
+	@Override
+	public synchronized boolean skip(int index) throws IOException {
+		if (!beginFrame()) {
+			return false;
+		}
+		
+		this.frameBuffer.clear();
+		int read = readFully(this.frameBuffer);
+		
+		if (read == 0) {
+			return false;
+		} else if (this.frameBuffer.hasRemaining()) {
+			throw new IOException("Stream ends within frame " + index + " (" + read + " of " + this.frameBuffer.capacity() + " bytes)");
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * <p>Called before every frame, e.g. to read the frame header.</p>
+	 * 
+	 * @return false if the end of the stream is reached
+	 */
+	protected boolean beginFrame() throws IOException {
+		return true;
+	}
+	
+	/**
+	 * <p>Reads until the buffer is full or the stream ends.</p>
+	 * 
+	 * @return Amount of bytes read
+	 */
+	protected int readFully(ByteBuffer data) throws IOException {
+		int read = 0;
+		
+		while (data.hasRemaining()) {
+			int n = this.channel.read(data);
+			
+			if (n < 0) {
+				break;
+			}
+			
+			read += n;
+		}
+		
+		return read;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+}
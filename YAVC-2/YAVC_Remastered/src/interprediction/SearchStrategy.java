@@ -0,0 +1,48 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package interprediction;
+
+/**
+ * <p>The enum {@code SearchStrategy} selects the pattern, the
+ * {@link VectorEngine} uses to find the best match of a block
+ * within the search window.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public enum SearchStrategy {
+	/**
+	 * <p>Large diamond steps of 2 pixels until the center is the
+	 * best match, followed by a small diamond of 1 pixel. Checks
+	 * the fewest points, but gets stuck on complex motion.</p>
+	 */
+	DIAMOND,
+	
+	/**
+	 * <p>Hexagons with a shrinking radius, followed by the 8
+	 * surrounding points. Slower, but more robust on larger
+	 * movements.</p>
+	 */
+	HEXAGON
+}
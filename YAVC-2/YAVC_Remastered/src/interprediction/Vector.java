@@ -24,6 +24,7 @@ package interprediction;
 import java.awt.Point;
 import java.util.ArrayList;
 
+import app.config;
 import encoder.DCTEngine;
 import utils.MacroBlock;
 
@@ -92,6 +93,12 @@ public class Vector {
 	private ArrayList<double[][][]> AbsoluteColorDifferenceDCTCoefficients = null;
 	private boolean invokedDCTOfDifferences = false;
 	
+	/**
+	 * Quantizer of the DCT coefficients, it is the same for all
+	 * vectors of a frame
+	 */
+	private int quantizer = config.DEFAULT_QP;
+	
 	/**
 	 * <p>Initializes the vector for further processing</p>
 	 * 
@@ -233,6 +240,20 @@ public class Vector {
 		return this.reference;
 	}
 	
+	/**
+	 * <p>Sets the quantizer of the DCT coefficients. It has to be
+	 * set before the differences are set or reconstructed.</p>
+	 * 
+	 * @param qp	Quantizer of the frame
+	 */
+	public void setQuantizer(final int qp) {
+		this.quantizer = qp;
+	}
+	
+	public int getQuantizer() {
+		return this.quantizer;
+	}
+	
 	/**
 	 * <p>Sets the AbsoluteColorDifferenceDCTCoefficients to the
 	 * prepared list, that is provided by the parameters.</p>
@@ -271,7 +292,7 @@ public class Vector {
 	 * @param diffs	The prepared list to set
 	 */
 	public void setAbsoluteDifferences(final double[][][] YUVDifference) {
-		this.AbsoluteColorDifferenceDCTCoefficients = DCT_ENGINE.computeDCTOfVectorColorDifference(YUVDifference, this.size);
+		this.AbsoluteColorDifferenceDCTCoefficients = DCT_ENGINE.computeDCTOfVectorColorDifference(YUVDifference, this.size, this.quantizer);
 		this.invokedDCTOfDifferences = true;
 	}
 	
@@ -302,10 +323,10 @@ public class Vector {
 		}
 		
 		if (allowModificationToOriginalData) {
-			return DCT_ENGINE.computeIDCTOfVectorColorDifference(this.AbsoluteColorDifferenceDCTCoefficients, this.size);
+			return DCT_ENGINE.computeIDCTOfVectorColorDifference(this.AbsoluteColorDifferenceDCTCoefficients, this.size, this.quantizer);
 		}
 		
-		return DCT_ENGINE.computeIDCTOfVectorColorDifference(cloneAbsoluteColorDifference(), this.size);
+		return DCT_ENGINE.computeIDCTOfVectorColorDifference(cloneAbsoluteColorDifference(), this.size, this.quantizer);
 	}
 	
 	/**
@@ -23,22 +23,28 @@ package interprediction;
 
 import java.awt.Dimension;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 
 import app.config;
 import utils.MacroBlock;
 import utils.PixelRaster;
+import utils.ReferenceBuffer;
+import utils.TileLayout;
 
 /**
  * <p>The class {@code VectorEngine} contains all functions
  * for the inter-prediction process in the YAVC video compressor.</p>
- * <p>First hexagonal search is executed followed by exhaustive search.</p>
+ * <p>First a pattern search (hexagon or diamond) is executed followed
+ * by exhaustive search.</p>
  * 
  * <p><strong>Performance warning:</strong><br> Even though this process is
  * multithreaded, it might impact the overall performance due to increasing
@@ -66,10 +72,83 @@ public class VectorEngine {
 	 */
 	private double TOTAL_MSE = 0;
 	
+	private SearchStrategy searchStrategy = SearchStrategy.HEXAGON;
+	
+	/**
+	 * <p>Maximum distance between a block and its match.</p>
+	 */
+	private int searchWindow = config.DEFAULT_SEARCH_WINDOW;
+	
+	/**
+	 * <p>Size of the exhaustive search after the pattern search.</p>
+	 */
+	private int refinementWindow = config.DEFAULT_REFINEMENT_WINDOW;
+	
+	/**
+	 * <p>Amount of the newest references, that are searched.</p>
+	 */
+	private int searchReferences = config.MAX_REFERENCES;
+	
+	/**
+	 * <p>Executor of the search tasks, null for a thread pool per call.</p>
+	 */
+	private Executor executor = null;
+	
+	/**
+	 * <p>Tiles, whose blocks are only predicted from the same tile
+	 * of the references, null if the frame isn't split.</p>
+	 */
+	private TileLayout tileLayout = null;
+	
 	public VectorEngine() {
 		initHexagonValues();
 	}
 	
+	/**
+	 * @param searchStrategy	Pattern for the search of a match
+	 * @param searchWindow	Maximum distance between a block and its match
+	 * @param refinementWindow	Size of the exhaustive search around the
+	 * block, 0 disables it
+	 * @param searchReferences	Amount of the newest references to search
+	 * 
+	 * @throws IllegalArgumentException	when a value is out of range
+	 */
+	public VectorEngine(SearchStrategy searchStrategy, int searchWindow, int refinementWindow, int searchReferences) {
+		if (searchStrategy == null) {
+			throw new NullPointerException("VectorEngine requires a SearchStrategy");
+		} else if (searchWindow < 1) {
+			throw new IllegalArgumentException("Search window has to be at least 1, got " + searchWindow);
+		} else if (refinementWindow < 0) {
+			throw new IllegalArgumentException("Refinement window can't be negative, got " + refinementWindow);
+		} else if (searchReferences < 1 || searchReferences > config.MAX_REFERENCES) {
+			throw new IllegalArgumentException("Searched references have to be between 1 and " + config.MAX_REFERENCES + ", got " + searchReferences);
+		}
+		
+		this.searchStrategy = searchStrategy;
+		this.searchWindow = searchWindow;
+		this.refinementWindow = refinementWindow;
+		this.searchReferences = searchReferences;
+		initHexagonValues();
+	}
+	
+	/**
+	 * @param executor	Executor of the tasks, e.g. a client of a shared
+	 * {@link utils.WorkScheduler}, null for a thread pool per call
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+	
+	/**
+	 * <p>Restricts the matches of a block to the tile, the block lies
+	 * in, so every tile can be decoded without the other tiles.</p>
+	 * 
+	 * @param tileLayout	Tiles of the frame, null for no restriction
+	 */
+	public void setTileLayout(TileLayout tileLayout) {
+		this.tileLayout = tileLayout == null || !tileLayout.isTiled() ? null : tileLayout;
+	}
+	
 	private void initHexagonValues() {
 		for (int i = 0; i < 6; i++) {
 			double rad = this.PI_RAD * (i + 1);
@@ -95,8 +174,52 @@ public class VectorEngine {
 	 * 
 	 * @see utils.Vector
 	 */
-	public ArrayList<Vector> computeMovementVectors(final ArrayList<MacroBlock> blocksToInterpredict, final ArrayList<PixelRaster> refs) {
-		if (blocksToInterpredict == null || blocksToInterpredict.size() == 0) {
+	public ArrayList<Vector> computeMovementVectors(final ArrayList<MacroBlock> blocksToInterpredict, final ReferenceBuffer refs) {
+		return computeMovementVectors(blocksToInterpredict, refs, this.searchWindow, this.searchReferences);
+	}
+	
+	/**
+	 * <p>Calculates all movement vectors with a search window and amount
+	 * of references, that differ from the configured ones, e.g. to
+	 * adapt the effort to the motion of a single frame.</p>
+	 * 
+	 * @return An ArrayList filled with all movement vectors.
+	 * 
+	 * @param blocksToInterpredict	MacroBlocks to search a match for
+	 * @param refs	Reference frames that are allowed to use during the search
+	 * @param searchWindow	Maximum distance between a block and its match
+	 * @param searchReferences	Amount of the newest references to search
+	 * 
+	 * @throws NullPointerException	When no MacroBlocks are passed for prediction or
+	 * if no references to refer to are available
+	 * @throws IllegalArgumentException	when the window or the amount of
+	 * references is lower than 1
+	 */
+	public ArrayList<Vector> computeMovementVectors(final ArrayList<MacroBlock> blocksToInterpredict, final ReferenceBuffer refs, final int searchWindow, final int searchReferences) {
+		return computeMovementVectors(blocksToInterpredict, refs, searchWindow, searchReferences, config.DEFAULT_QP);
+	}
+	
+	/**
+	 * <p>Calculates all movement vectors and quantifies their
+	 * differences with the provided quantizer.</p>
+	 * 
+	 * @return An ArrayList filled with all movement vectors.
+	 * 
+	 * @param blocksToInterpredict	MacroBlocks to search a match for
+	 * @param refs	Reference frames that are allowed to use during the search
+	 * @param searchWindow	Maximum distance between a block and its match
+	 * @param searchReferences	Amount of the newest references to search
+	 * @param qp	Quantizer of the frame
+	 * 
+	 * @throws NullPointerException	When no MacroBlocks are passed for prediction or
+	 * if no references to refer to are available
+	 * @throws IllegalArgumentException	when the window or the amount of
+	 * references is lower than 1
+	 */
+	public ArrayList<Vector> computeMovementVectors(final ArrayList<MacroBlock> blocksToInterpredict, final ReferenceBuffer refs, final int searchWindow, final int searchReferences, final int qp) {
+		if (searchWindow < 1 || searchReferences < 1) {
+			throw new IllegalArgumentException("Search window and references have to be at least 1, got " + searchWindow + " and " + searchReferences);
+		} else if (blocksToInterpredict == null || blocksToInterpredict.size() == 0) {
 			throw new NullPointerException("No blocks to inter-predict");
 		} else if (refs == null || refs.size() == 0) {
 			throw new NullPointerException("No reference frame to refere to");
@@ -107,7 +230,8 @@ public class VectorEngine {
 		ArrayList<Vector> vecs = new ArrayList<Vector>(blocksToInterpredict.size());
 		ArrayList<Future<Vector[]>> futureVecs = new ArrayList<Future<Vector[]>>(blocksToInterpredict.size());
 		ArrayList<MacroBlock> blocksToRemove = new ArrayList<MacroBlock>();
-		ExecutorService executor = Executors.newWorkStealingPool();
+		ExecutorService pool = this.executor == null ? Executors.newWorkStealingPool() : null;
+		Executor executor = pool == null ? this.executor : pool;
 		
 		for (int i = 0, c = 0, n = 0; i < blocksToInterpredict.size(); i++) {
 			n += blocksToInterpredict.get(i).getSquaredSize();
@@ -117,10 +241,12 @@ public class VectorEngine {
 				continue;
 			}
 			
-			Callable<Vector[]> searchTask = createVectorSearchTask(refs, blocksToInterpredict, c, i);
-			futureVecs.add(executor.submit(searchTask));
+			//The chunk ends after the current block, otherwise the last block is never searched
+			FutureTask<Vector[]> searchTask = new FutureTask<Vector[]>(createVectorSearchTask(refs, blocksToInterpredict, c, i + 1, searchWindow, searchReferences, qp));
+			executor.execute(searchTask);
+			futureVecs.add(searchTask);
 			n = 0;
-			c = i;
+			c = i + 1;
 		}
 
 		for (Future<Vector[]> fvec : futureVecs) {
@@ -142,12 +268,14 @@ public class VectorEngine {
 			}
 		}
 		
-		executor.shutdown();
-		
-		try {
-			while (!executor.awaitTermination(20, TimeUnit.MICROSECONDS));
-		} catch (Exception e) {
-			e.printStackTrace();
+		if (pool != null) {
+			pool.shutdown();
+			
+			try {
+				while (!pool.awaitTermination(20, TimeUnit.MICROSECONDS));
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
 		}
 		
 		blocksToInterpredict.removeAll(blocksToRemove);
@@ -156,15 +284,20 @@ public class VectorEngine {
 	
 	/**
 	 * <p>Creates a task for searching a MacroBlock in the provided references.</p>
-	 * <p>The task first gets the best matching MacroBlock using {@link #getBestMatchingMacroBlock(PixelRaster, MacroBlock, int)}
+	 * <p>The task first gets the best matching MacroBlock using {@link #getBestMatchingMacroBlock(PixelRaster, MacroBlock, int, int, Rectangle)}
 	 * and finally evaluates the results with {@link #evaluateBestGuess(MacroBlock[])}.</p>
 	 * 
 	 * @return Executable task for searching a block in all provided references
 	 * 
 	 * @param refs	Reference frames
 	 * @param blockToBeSearched	MacroBlock that should be searched
+	 * @param start	Index of the first block to search
+	 * @param stop	Index after the last block to search
+	 * @param searchWindow	Maximum distance between a block and its match
+	 * @param searchReferences	Amount of the newest references to search
+	 * @param qp	Quantizer of the frame
 	 */
-	private Callable<Vector[]> createVectorSearchTask(final ArrayList<PixelRaster> refs, ArrayList<MacroBlock> blocksToBeSearched, int start, int stop) {
+	private Callable<Vector[]> createVectorSearchTask(final ReferenceBuffer refs, ArrayList<MacroBlock> blocksToBeSearched, int start, int stop, int searchWindow, int searchReferences, int qp) {
 		Callable<Vector[]> task = () -> {
 			int maxSize = refs.size();
 			int length = stop - start;
@@ -179,15 +312,17 @@ public class VectorEngine {
 				}
 				
 				MacroBlock block = blocksToBeSearched.get(i);
+				Rectangle area = getPredictionArea(block);
 				canidate = 0;
 				
-				for (int n = 0; n < maxSize && n <= config.MAX_REFERENCES; n++) {
-					MacroBlock bestMatch = getBestMatchingMacroBlock(refs.get(n), block, n);
+				//Only the newest references are searched, index 0 is the oldest one
+				for (int n = Math.max(maxSize - searchReferences, 0); n < maxSize && n <= config.MAX_REFERENCES; n++) {
+					MacroBlock bestMatch = getBestMatchingMacroBlock(refs.get(n), block, n, searchWindow, area);
 					canidates[canidate++] = bestMatch;
 				}
 				
 				MacroBlock best = evaluateBestGuess(canidates);
-				Vector vec = constructMovementVector(refs, best, block);
+				Vector vec = constructMovementVector(refs, best, block, qp);
 				vecs[vectorIndex++] = vec;
 			}
 			
@@ -208,11 +343,15 @@ public class VectorEngine {
 	 * @param ref	Reference to search the best match in
 	 * @param blockToBeSearched	MaccroBlock that should be matched
 	 * @param referenceNumber	Number of the reference frame
+	 * @param searchWindow	Maximum distance between the block and its match
+	 * @param area	Area, the match has to lie in, null for the whole frame
 	 */
-	private MacroBlock getBestMatchingMacroBlock(final PixelRaster ref, MacroBlock blockToBeSearched, final int referenceNumber) {
+	private MacroBlock getBestMatchingMacroBlock(final PixelRaster ref, MacroBlock blockToBeSearched, final int referenceNumber, final int searchWindow, final Rectangle area) {
 		double[][][] cache = null;
-		MacroBlock bestMatch = computeHexagonSearch(ref, blockToBeSearched, cache);
-		bestMatch = computeExhaustiveSearch(blockToBeSearched, bestMatch, ref, cache);
+		MacroBlock bestMatch = this.searchStrategy == SearchStrategy.DIAMOND
+			? computeDiamondSearch(ref, blockToBeSearched, cache, searchWindow, area)
+			: computeHexagonSearch(ref, blockToBeSearched, cache, searchWindow, area);
+		bestMatch = computeExhaustiveSearch(blockToBeSearched, bestMatch, ref, cache, area);
 		
 		if (bestMatch != null) {
 			bestMatch.setReference(config.MAX_REFERENCES - referenceNumber);
@@ -231,10 +370,11 @@ public class VectorEngine {
 	 * @param refs	Reference frames
 	 * @param bestMatch	Best matching MacroBlock
 	 * @param blockToBeSearched	MacroBlock that was searched at the beginning
+	 * @param qp	Quantizer of the frame
 	 * 
 	 * @see utils.Vector
 	 */
-	private Vector constructMovementVector(final ArrayList<PixelRaster> refs, MacroBlock bestMatch, MacroBlock blockToBeSearched) {
+	private Vector constructMovementVector(final ReferenceBuffer refs, MacroBlock bestMatch, MacroBlock blockToBeSearched, int qp) {
 		Vector vec = null;
 		
 		if (bestMatch != null) {
@@ -252,6 +392,7 @@ public class VectorEngine {
 			vec.setReference(bestMatch.getReference());
 			vec.setSpanX(blockToBeSearched.getPosition().x - bestMatch.getPosition().x);
 			vec.setSpanY(blockToBeSearched.getPosition().y - bestMatch.getPosition().y);
+			vec.setQuantizer(qp);
 			vec.setAbsoluteDifferences(absoluteColorDifference);
 		}
 		
@@ -300,13 +441,14 @@ public class VectorEngine {
 	 * @param ref				Reference image.
 	 * @param blockToBeSearched	MacroBlock for which a match should be searched.
 	 * @param cache				Cache for color values.
+	 * @param searchWindow		Maximum distance between the block and its match.
+	 * @param area				Area, the match has to lie in, null for the whole frame.
 	 */
-	private MacroBlock computeHexagonSearch(PixelRaster ref, MacroBlock blockToBeSearched, double[][][] cache) {
+	private MacroBlock computeHexagonSearch(PixelRaster ref, MacroBlock blockToBeSearched, double[][][] cache, int searchWindow, Rectangle area) {
 		double lowestMSE = Double.MAX_VALUE;
 		int radius = 4;
-		int searchWindow = 48;
 		int size = blockToBeSearched.getSize();
-		int sumOfAllPoints = 2304; //All possible points to search
+		int sumOfAllPoints = searchWindow * searchWindow; //All possible points to search
 		Dimension dim = ref.getDimension();
 		HashSet<Point> searchedPoints = new HashSet<Point>(sumOfAllPoints);
 		
@@ -322,7 +464,8 @@ public class VectorEngine {
 			
 			for (Point p : searchPoints) {
 				if (searchedPoints.contains(p)
-					|| !isHexagonPointInSearchWindow(blockPos, searchWindow, p, dim)) {
+					|| !isHexagonPointInSearchWindow(blockPos, searchWindow, p, dim)
+					|| !isInPredictionArea(p, size, area)) {
 					continue;
 				}
 				
@@ -349,7 +492,8 @@ public class VectorEngine {
 		
 		for (Point p : searchPoints) {
 			if (searchedPoints.contains(p)
-				|| !isHexagonPointInSearchWindow(blockPos, searchWindow, p, dim)) {
+				|| !isHexagonPointInSearchWindow(blockPos, searchWindow, p, dim)
+				|| !isInPredictionArea(p, size, area)) {
 				continue;
 			}
 			
@@ -369,6 +513,103 @@ public class VectorEngine {
 		return mostEqualBlock;
 	}
 	
+	/**
+	 * <p>Computes the diamond search for a MacroBlock with one reference:<br>
+	 * <ol>
+	 * <li>Check the center and the eight points of a large diamond with a radius of 2.
+	 * <li>If a point of the diamond is better than the center, move the center there
+	 * and repeat step 1.
+	 * <li>Check the four points of a small diamond around the center >> best match.
+	 * </ol>
+	 * 
+	 * @return Best match in the reference image
+	 * 
+	 * @param ref				Reference image.
+	 * @param blockToBeSearched	MacroBlock for which a match should be searched.
+	 * @param cache				Cache for color values.
+	 * @param searchWindow		Maximum distance between the block and its match.
+	 * @param area				Area, the match has to lie in, null for the whole frame.
+	 */
+	private MacroBlock computeDiamondSearch(PixelRaster ref, MacroBlock blockToBeSearched, double[][][] cache, int searchWindow, Rectangle area) {
+		double lowestMSE = Double.MAX_VALUE;
+		int size = blockToBeSearched.getSize();
+		Dimension dim = ref.getDimension();
+		HashSet<Point> searchedPoints = new HashSet<Point>();
+		
+		Point blockPos = blockToBeSearched.getPosition();
+		Point centerPoint = blockPos;
+		Point bestPos = blockPos;
+		MacroBlock mostEqualBlock = null;
+		boolean largeDiamond = true;
+		
+		while (true) {
+			for (Point p : getDiamondPoints(centerPoint, largeDiamond)) {
+				if (searchedPoints.contains(p)
+					|| !isHexagonPointInSearchWindow(blockPos, searchWindow, p, dim)
+					|| !isInPredictionArea(p, size, area)) {
+					continue;
+				}
+				
+				searchedPoints.add(p);
+				cache = ref.getPixelBlock(p, size, cache);
+				double MSE = getMSEOfColors(cache, blockToBeSearched.getColors(), size, true);
+				
+				if (MSE < lowestMSE) {
+					lowestMSE = MSE;
+					bestPos = p;
+					mostEqualBlock = new MacroBlock(p, size, cache);
+				}
+			}
+			
+			if (!largeDiamond) {
+				break;
+			} else if (bestPos.equals(centerPoint)) {
+				largeDiamond = false;
+				continue;
+			}
+			
+			centerPoint = bestPos;
+		}
+		
+		if (mostEqualBlock != null) {
+			mostEqualBlock.setMSE(lowestMSE);
+		}
+		
+		return mostEqualBlock;
+	}
+	
+	/**
+	 * <p>Get the center and the points of a diamond.</p>
+	 * 
+	 * @return Array of points
+	 * 
+	 * @param center	Center of the diamond
+	 * @param large	true for the large diamond with a radius of 2,
+	 * false for the small diamond with a radius of 1
+	 */
+	private Point[] getDiamondPoints(Point center, boolean large) {
+		if (!large) {
+			return new Point[] {
+				new Point(center.x + 1, center.y),
+				new Point(center.x - 1, center.y),
+				new Point(center.x, center.y + 1),
+				new Point(center.x, center.y - 1)
+			};
+		}
+		
+		return new Point[] {
+			center,
+			new Point(center.x + 2, center.y),
+			new Point(center.x - 2, center.y),
+			new Point(center.x, center.y + 2),
+			new Point(center.x, center.y - 2),
+			new Point(center.x + 1, center.y + 1),
+			new Point(center.x - 1, center.y - 1),
+			new Point(center.x - 1, center.y + 1),
+			new Point(center.x + 1, center.y - 1)
+		};
+	}
+	
 	/**
 	 * <p>Get the edge points of the smallest possible hexagon.</p>
 	 * <p>Basically this gets all points around the center position
@@ -422,6 +663,37 @@ public class VectorEngine {
 		return true;
 	}
 	
+	/**
+	 * @return Area, the matches of the block have to lie in,
+	 * null if the frame isn't split into tiles
+	 */
+	private Rectangle getPredictionArea(MacroBlock block) {
+		if (this.tileLayout == null) {
+			return null;
+		}
+		
+		Point pos = block.getPosition();
+		return this.tileLayout.getPredictionArea(this.tileLayout.getTileIndex(pos.x, pos.y));
+	}
+	
+	/**
+	 * @return true if the whole block at the position lies within
+	 * the area or there is no area
+	 * 
+	 * @param pos	Position of the block
+	 * @param size	Size of the block
+	 * @param area	Area of the tile, null for the whole frame
+	 */
+	private boolean isInPredictionArea(final Point pos, int size, final Rectangle area) {
+		if (area == null) {
+			return true;
+		}
+		
+		return pos.x >= area.x && pos.y >= area.y
+			&& pos.x + size <= area.x + (long)area.width
+			&& pos.y + size <= area.y + (long)area.height;
+	}
+	
 	/**
 	 * <p>Computes the exhaustive search algorithm for a MacroBlock, the steps are as followed:<br>
 	 * <ol>
@@ -436,13 +708,14 @@ public class VectorEngine {
 	 * @param blockToBeSearched	MacroBlock for which a match should be searched
 	 * @param bestMatchTillNow	Best matching MacroBlock from the previous hexagonal search
 	 * @param cache				Cache for storing color values.
+	 * @param area				Area, the match has to lie in, null for the whole frame.
 	 */
-	private MacroBlock computeExhaustiveSearch(MacroBlock blockToSearch, MacroBlock bestMatchTillNow, PixelRaster ref, double[][][] cache) {
+	private MacroBlock computeExhaustiveSearch(MacroBlock blockToSearch, MacroBlock bestMatchTillNow, PixelRaster ref, double[][][] cache, Rectangle area) {
 		if (bestMatchTillNow == null) {
 			return null;
 		}
 		
-		int searchWindow = 2;
+		int searchWindow = this.refinementWindow;
 		int size = blockToSearch.getSize();
 		double lowestMSE = bestMatchTillNow.getMSE();
 		Dimension dim = ref.getDimension();
@@ -457,6 +730,8 @@ public class VectorEngine {
 			for (int x = pos.x - searchWindow; x < pos.x + searchWindow; x++) {
 				if (x < 0 || x >= dim.width) {
 					continue;
+				} else if (area != null && !isInPredictionArea(new Point(x, y), size, area)) {
+					continue;
 				}
 				
 				cache = ref.getPixelBlock(new Point(x, y), size, cache);
@@ -29,4 +29,8 @@ along with this program.  If not, see <https://www.gnu.org/licenses/>.
 module YAVC_Remastered {
 	requires java.desktop;
 	requires org.junit.jupiter.api;
+	
+	exports decoder;
+	exports encoder;
+	exports utils;
 }
\ No newline at end of file
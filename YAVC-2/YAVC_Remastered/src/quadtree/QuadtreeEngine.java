@@ -25,11 +25,14 @@ import java.awt.Dimension;
 import java.awt.Point;
 import java.util.ArrayList;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 
+import app.config;
 import utils.MacroBlock;
 import utils.MeanStructure;
 import utils.PixelRaster;
@@ -62,6 +65,41 @@ import utils.PixelRaster;
 public class QuadtreeEngine {
 	private final int MAX_SIZE = 128;
 	
+	/**
+	 * <p>Standard deviation of a block, above which the block is split.</p>
+	 */
+	private int errorThreshold = config.DEFAULT_QUADTREE_THRESHOLD;
+	
+	/**
+	 * <p>Executor of the tasks, null for a thread pool per call.</p>
+	 */
+	private Executor executor = null;
+	
+	public QuadtreeEngine() {
+	}
+	
+	/**
+	 * @param errorThreshold	Standard deviation of a block, above which the
+	 * block is split. Higher values result in fewer and larger blocks.
+	 * 
+	 * @throws IllegalArgumentException	when the threshold is lower than 1
+	 */
+	public QuadtreeEngine(int errorThreshold) {
+		if (errorThreshold < 1) {
+			throw new IllegalArgumentException("Quadtree threshold has to be at least 1, got " + errorThreshold);
+		}
+		
+		this.errorThreshold = errorThreshold;
+	}
+	
+	/**
+	 * @param executor	Executor of the tasks, e.g. a client of a shared
+	 * {@link utils.WorkScheduler}, null for a thread pool per call
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+	
 	/**
 	 * Entry point of the quadtree construction.
 	 * The image is split into 128x128 blocks, that are processed
@@ -93,20 +131,22 @@ public class QuadtreeEngine {
 		ArrayList<MacroBlock> roots = new ArrayList<MacroBlock>();
 		
 		try {
-			final int errorThreshold = 45;
+			final int errorThreshold = this.errorThreshold;
 			int currentOrderNumber = 0;
 			int width = currentFrame.getWidth();
 			int height = currentFrame.getHeight();
 			int threads = Runtime.getRuntime().availableProcessors();
 			
 			ArrayList<Future<MacroBlock>> futureRoots = new ArrayList<Future<MacroBlock>>();
-			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			ExecutorService pool = this.executor == null ? Executors.newFixedThreadPool(threads) : null;
+			Executor executor = pool == null ? this.executor : pool;
 			
 			for (int x = 0; x < width; x += this.MAX_SIZE) {
 				for (int y = 0; y < height; y += this.MAX_SIZE) {
 					final int currentOrder = currentOrderNumber++;
-					Callable<MacroBlock> task = createQuadtreeConstructionTask(new Point(x, y), currentFrame, errorThreshold, currentOrder);
-					futureRoots.add(executor.submit(task));
+					FutureTask<MacroBlock> task = new FutureTask<MacroBlock>(createQuadtreeConstructionTask(new Point(x, y), currentFrame, errorThreshold, currentOrder));
+					executor.execute(task);
+					futureRoots.add(task);
 				}
 			}
 			
@@ -122,8 +162,10 @@ public class QuadtreeEngine {
 				}
 			}
 			
-			executor.shutdown();
-			while (!executor.awaitTermination(10, TimeUnit.MICROSECONDS));
+			if (pool != null) {
+				pool.shutdown();
+				while (!pool.awaitTermination(10, TimeUnit.MICROSECONDS));
+			}
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -184,14 +226,16 @@ public class QuadtreeEngine {
 		ArrayList<MacroBlock> leaveNodes = new ArrayList<MacroBlock>();
 		ArrayList<Future<ArrayList<MacroBlock>>> futureLeavesList = new ArrayList<Future<ArrayList<MacroBlock>>>();
 		int threads = Runtime.getRuntime().availableProcessors();
-		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		ExecutorService pool = this.executor == null ? Executors.newFixedThreadPool(threads) : null;
+		Executor executor = pool == null ? this.executor : pool;
 
 		for (MacroBlock root : roots) {
-			Callable<ArrayList<MacroBlock>> task = () -> {
+			FutureTask<ArrayList<MacroBlock>> task = new FutureTask<ArrayList<MacroBlock>>(() -> {
 				return getLeaves(root);
-			};
+			});
 			
-			futureLeavesList.add(executor.submit(task));
+			executor.execute(task);
+			futureLeavesList.add(task);
 		}
 		
 		for (Future<ArrayList<MacroBlock>> flist : futureLeavesList) {
@@ -203,7 +247,10 @@ public class QuadtreeEngine {
 			}
 		}
 		
-		executor.shutdown();
+		if (pool != null) {
+			pool.shutdown();
+		}
+		
 		return leaveNodes;
 	}
 	
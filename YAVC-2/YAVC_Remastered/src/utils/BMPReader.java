@@ -0,0 +1,191 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package utils;
+
+import java.awt.Dimension;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>The class {@code BMPReader} reads uncompressed 24 and 32 bit
+ * BMPs directly into the Y, U and V components of a PixelRaster.
+ * The file is memory-mapped and converted row by row, there is no
+ * BufferedImage and no temporary array in between.</p>
+ * 
+ * <p>The chroma is the average of the 2x2 pixels it belongs to,
+ * computed in the same pass as the luma. If the width or height
+ * is not a multiple of 4, the frame is padded by repeating the last
+ * column and row instead of rescaling it.</p>
+ * 
+ * <p>The conversion uses the Rec. 601 (ITU-T T.871) conversion like
+ * {@link ColorManager#convertRGBToYUV(int)}.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class BMPReader {
+	private static final int FILE_HEADER_LEN = 14;
+	private static final int INFO_HEADER_MIN_LEN = 40;
+	private static final int BI_RGB = 0;
+	private static final int BI_BITFIELDS = 3;
+	
+	/**
+	 * <p>Reads a BMP into a PixelRaster.</p>
+	 * 
+	 * @return The frame or null if the BMP is not supported,
+	 * e.g. compressed or with a color palette
+	 * 
+	 * @param file	BMP file to read
+	 * @param target	PixelRaster to reuse, if it has the padded
+	 * dimension of the BMP, null to create a new one
+	 * 
+	 * @throws IOException	when the file can't be read
+	 */
+	public static PixelRaster read(File file, PixelRaster target) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			data.order(ByteOrder.LITTLE_ENDIAN);
+			
+			if (data.limit() < FILE_HEADER_LEN + INFO_HEADER_MIN_LEN
+				|| data.get(0) != 'B' || data.get(1) != 'M'
+				|| data.getInt(14) < INFO_HEADER_MIN_LEN) {
+				return null;
+			}
+			
+			int pixelOffset = data.getInt(10);
+			int width = data.getInt(18);
+			int height = data.getInt(22);
+			int bitCount = data.getShort(28);
+			int compression = data.getInt(30);
+			boolean bottomUp = height > 0;
+			height = Math.abs(height);
+			
+			if (width <= 0 || height == 0 || (bitCount != 24 && bitCount != 32)) {
+				return null;
+			} else if (compression == BI_BITFIELDS) {
+				//Only the default masks can be read without unpacking every channel
+				if (bitCount != 32 || data.getInt(54) != 0x00FF0000
+					|| data.getInt(58) != 0x0000FF00 || data.getInt(62) != 0x000000FF) {
+					return null;
+				}
+			} else if (compression != BI_RGB) {
+				return null;
+			}
+			
+			int pixelStride = bitCount / 8;
+			int rowStride = ((bitCount * width + 31) / 32) * 4;
+			
+			if ((long)pixelOffset + (long)rowStride * height > data.limit()) {
+				throw new IOException(file.getAbsolutePath() + " is truncated");
+			}
+			
+			return convert(data, pixelOffset, width, height, rowStride, pixelStride, bottomUp, true, target);
+		}
+	}
+	
+	/**
+	 * <p>Converts interleaved 8 bit RGB data into a PixelRaster,
+	 * e.g. the pixels of a BMP or a raw RGB frame.</p>
+	 * 
+	 * @return The converted frame
+	 * 
+	 * @param data	Buffer with the pixels
+	 * @param offset	Position of the first row in the buffer
+	 * @param width	Width of the image
+	 * @param height	Height of the image
+	 * @param rowStride	Bytes from one row to the next
+	 * @param pixelStride	Bytes from one pixel to the next, at least 3
+	 * @param bottomUp	true if the first row in the buffer is the bottom row
+	 * @param bgr	true if the channels are ordered blue, green, red,
+	 * false for red, green, blue
+	 * @param target	PixelRaster to reuse, if it has the padded
+	 * dimension, null to create a new one
+	 * 
+	 * @throws IllegalArgumentException	when the pixel stride is smaller than 3
+	 */
+	public static PixelRaster convert(ByteBuffer data, int offset, int width, int height, int rowStride,
+			int pixelStride, boolean bottomUp, boolean bgr, PixelRaster target) {
+		if (pixelStride < 3) {
+			throw new IllegalArgumentException("At least 3 bytes per pixel are required, got " + pixelStride);
+		}
+		
+		Dimension dim = getPaddedDimension(width, height);
+		
+		if (target == null || !target.getDimension().equals(dim)) {
+			target = new PixelRaster(dim, new double[dim.width][dim.height], new double[dim.width / 2][dim.height / 2], new double[dim.width / 2][dim.height / 2]);
+		}
+		
+		int redOffset = bgr ? 2 : 0;
+		int blueOffset = bgr ? 0 : 2;
+		
+		for (int y = 0; y < dim.height; y += 2) {
+			int row0 = rowStart(offset, Math.min(y, height - 1), height, rowStride, bottomUp);
+			int row1 = rowStart(offset, Math.min(y + 1, height - 1), height, rowStride, bottomUp);
+			
+			for (int x = 0; x < dim.width; x += 2) {
+				int col0 = Math.min(x, width - 1) * pixelStride;
+				int col1 = Math.min(x + 1, width - 1) * pixelStride;
+				int sumR = 0, sumG = 0, sumB = 0;
+				
+				for (int i = 0; i < 4; i++) {
+					int pos = ((i & 2) == 0 ? row0 : row1) + ((i & 1) == 0 ? col0 : col1);
+					int r = data.get(pos + redOffset) & 0xFF;
+					int g = data.get(pos + 1) & 0xFF;
+					int b = data.get(pos + blueOffset) & 0xFF;
+					target.setLuma(x + (i & 1), y + (i >> 1), 0.299 * r + 0.587 * g + 0.114 * b);
+					sumR += r;
+					sumG += g;
+					sumB += b;
+				}
+				
+				double r = sumR / 4.0, g = sumG / 4.0, b = sumB / 4.0;
+				double U = 128 - 0.168736 * r - 0.331264 * g + 0.5 * b;
+				double V = 128 + 0.5 * r - 0.418688 * g - 0.081312 * b;
+				target.setChroma(x, y, U, V);
+			}
+		}
+		
+		return target;
+	}
+	
+	/**
+	 * @return Dimension rounded up to the next multiple of 4
+	 * 
+	 * @param width	Width of the image
+	 * @param height	Height of the image
+	 */
+	public static Dimension getPaddedDimension(int width, int height) {
+		return new Dimension((width + 3) & ~3, (height + 3) & ~3);
+	}
+	
+	private static int rowStart(int offset, int y, int height, int rowStride, boolean bottomUp) {
+		int row = bottomUp ? height - 1 - y : y;
+		return offset + row * rowStride;
+	}
+}
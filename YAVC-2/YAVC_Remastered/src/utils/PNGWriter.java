@@ -0,0 +1,205 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * <p>The class {@code PNGWriter} is a minimal PNG encoder for
+ * 8 bit RGB images. Compared to ImageIO it skips the conversion
+ * to a BufferedImage and allows to choose the deflate level, so
+ * a fast level can be used, when the images are only for debugging.</p>
+ * 
+ * <p>Every row is stored with the "Sub" filter, which works
+ * well for natural images and is cheap to compute.</p>
+ * 
+ * <p>The class is not thread safe, every thread needs its
+ * own instance.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class PNGWriter {
+	private static final byte[] SIGNATURE = {(byte)0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+	private static final int BYTES_PER_PIXEL = 3;
+	private static final int FILTER_SUB = 1;
+	
+	private Deflater deflater = null;
+	private CRC32 crc = new CRC32();
+	private byte[] row = null;
+	
+	/**
+	 * <p>Creates a PNGWriter with the default deflate level.</p>
+	 */
+	public PNGWriter() {
+		this(Deflater.DEFAULT_COMPRESSION);
+	}
+	
+	/**
+	 * <p>Creates a PNGWriter with the desired deflate level.</p>
+	 * 
+	 * @param level	Deflate level from 0 (no compression) to 9 (best
+	 * compression) or -1 for the default level
+	 * 
+	 * @throws IllegalArgumentException	when the level is out of range
+	 */
+	public PNGWriter(int level) {
+		if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+			throw new IllegalArgumentException("Deflate level " + level + " is out of range (-1 to 9)");
+		}
+		
+		this.deflater = new Deflater(level);
+	}
+	
+	/**
+	 * <p>Writes the image to a file.</p>
+	 * 
+	 * @param rgb	Colors row by row, the alpha is ignored
+	 * @param width	Width of the image
+	 * @param height	Height of the image
+	 * @param file	File to write to
+	 */
+	public void write(int[] rgb, int width, int height, File file) throws IOException {
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+			write(rgb, width, height, out);
+		}
+	}
+	
+	/**
+	 * <p>Writes the image to a stream. The stream is not closed.</p>
+	 * 
+	 * @param rgb	Colors row by row, the alpha is ignored
+	 * @param width	Width of the image
+	 * @param height	Height of the image
+	 * @param out	Stream to write to
+	 * 
+	 * @throws IllegalArgumentException	when the colors don't fit to the size
+	 */
+	public void write(int[] rgb, int width, int height, OutputStream out) throws IOException {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("Invalid image size " + width + "x" + height);
+		} else if (rgb.length < width * height) {
+			throw new IllegalArgumentException("Expected " + (width * height) + " colors, got " + rgb.length);
+		}
+		
+		out.write(SIGNATURE);
+		
+		byte[] header = new byte[13];
+		putInt(header, 0, width);
+		putInt(header, 4, height);
+		header[8] = 8; //Bit depth
+		header[9] = 2; //Color type RGB
+		writeChunk(out, "IHDR", header, header.length);
+		
+		ChunkBuffer data = new ChunkBuffer();
+		this.deflater.reset();
+		
+		try (DeflaterOutputStream deflate = new DeflaterOutputStream(data, this.deflater, 1 << 16)) {
+			int rowLength = width * BYTES_PER_PIXEL + 1;
+			
+			if (this.row == null || this.row.length != rowLength) {
+				this.row = new byte[rowLength];
+			}
+			
+			for (int y = 0; y < height; y++) {
+				filterRow(rgb, y * width, width);
+				deflate.write(this.row);
+			}
+		}
+		
+		writeChunk(out, "IDAT", data.getBuffer(), data.size());
+		writeChunk(out, "IEND", new byte[0], 0);
+	}
+	
+	/**
+	 * <p>Writes the row into the row buffer and applies the
+	 * "Sub" filter, where every byte stores the difference to the
+	 * same component of the pixel to its left.</p>
+	 * 
+	 * @param rgb	Colors of the image
+	 * @param start	Index of the first pixel of the row
+	 * @param width	Width of the image
+	 */
+	private void filterRow(int[] rgb, int start, int width) {
+		byte[] row = this.row;
+		row[0] = FILTER_SUB;
+		int prev = 0;
+		
+		for (int x = 0, index = 1; x < width; x++) {
+			int color = rgb[start + x];
+			row[index++] = (byte)((color >> 16) - (prev >> 16));
+			row[index++] = (byte)((color >> 8) - (prev >> 8));
+			row[index++] = (byte)(color - prev);
+			prev = color;
+		}
+	}
+	
+	/**
+	 * <p>Writes a chunk with its length and CRC.</p>
+	 */
+	private void writeChunk(OutputStream out, String type, byte[] data, int length) throws IOException {
+		byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+		byte[] buffer = new byte[4];
+		putInt(buffer, 0, length);
+		out.write(buffer);
+		out.write(typeBytes);
+		out.write(data, 0, length);
+		
+		this.crc.reset();
+		this.crc.update(typeBytes);
+		this.crc.update(data, 0, length);
+		putInt(buffer, 0, (int)this.crc.getValue());
+		out.write(buffer);
+	}
+	
+	private static void putInt(byte[] buffer, int offset, int value) {
+		buffer[offset] = (byte)(value >>> 24);
+		buffer[offset + 1] = (byte)(value >>> 16);
+		buffer[offset + 2] = (byte)(value >>> 8);
+		buffer[offset + 3] = (byte)value;
+	}
+	
+	/**
+	 * <p>Collects the compressed data, so the length of the
+	 * IDAT chunk is known, without copying the buffer.</p>
+	 */
+	private static class ChunkBuffer extends ByteArrayOutputStream {
+		public ChunkBuffer() {
+			super(1 << 16);
+		}
+		
+		public byte[] getBuffer() {
+			return super.buf;
+		}
+	}
+}
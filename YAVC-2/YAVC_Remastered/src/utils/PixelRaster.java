@@ -28,6 +28,7 @@ import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferByte;
 import java.awt.image.DataBufferInt;
+import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -92,7 +93,41 @@ public class PixelRaster {
 		this.Y = new double[img.getWidth()][img.getHeight()];
 		this.U = new double[img.getWidth() / 2][img.getHeight() / 2];
 		this.V = new double[img.getWidth() / 2][img.getHeight() / 2];
+		processImage(img);
+	}
+	
+	/**
+	 * <p>Overwrites the PixelRaster with the data of a BufferedImage,
+	 * without allocating new components. This allows to reuse
+	 * PixelRasters for multiple frames. The image is resized the
+	 * same way as in {@link #PixelRaster(BufferedImage)}.</p>
+	 * 
+	 * @param img	Image to load
+	 * 
+	 * @throws NullPointerException	if the BufferedImage is null
+	 * @throws IllegalArgumentException	when the dimension of the image doesn't
+	 * fit to the PixelRaster or the DataBuffer is not supported
+	 */
+	public void load(BufferedImage img) {
+		if (img == null) {
+			throw new NullPointerException("Can't load NULL image");
+		}
+		
+		img = scaleToNearest4Divisor(img);
 		
+		if (img.getWidth() != this.dim.width || img.getHeight() != this.dim.height) {
+			throw new IllegalArgumentException("Image with " + img.getWidth() + "x" + img.getHeight() + " doesn't fit into " + this.dim.width + "x" + this.dim.height);
+		}
+		
+		processImage(img);
+	}
+	
+	/**
+	 * <p>Converts the data of the image into the components.</p>
+	 * 
+	 * @param img	Image with the dimension of the PixelRaster
+	 */
+	private void processImage(BufferedImage img) {
 		if (img.getRaster().getDataBuffer() instanceof DataBufferInt) {
 			int temp[] = ((DataBufferInt)img.getRaster().getDataBuffer()).getData();
 			processIntBuffer(temp);
@@ -319,6 +354,84 @@ public class PixelRaster {
 		return new double[] {this.Y[x][y], this.U[subSX][subSY], this.V[subSX][subSY]};
 	}
 	
+	/**
+	 * <p>Get the mean luma of every factor x factor block, row
+	 * by row. The blocks at the right and bottom edge cover the
+	 * remaining pixels only.</p>
+	 * 
+	 * @return Array with ((width + factor - 1) / factor) x
+	 * ((height + factor - 1) / factor) means
+	 * 
+	 * @param factor	Edge length of the blocks
+	 * @param target	Array to write the means to, if null
+	 * or too small a new array is created
+	 */
+	public double[] getDownscaledLuma(final int factor, double[] target) {
+		int width = (this.dim.width + factor - 1) / factor;
+		int height = (this.dim.height + factor - 1) / factor;
+		double[] means = target == null || target.length < width * height ? new double[width * height] : target;
+		Arrays.fill(means, 0, width * height, 0);
+		
+		for (int x = 0; x < this.dim.width; x++) {
+			double[] column = this.Y[x];
+			int blockX = x / factor;
+			
+			for (int y = 0; y < this.dim.height; y++) {
+				means[(y / factor) * width + blockX] += column[y];
+			}
+		}
+		
+		for (int by = 0; by < height; by++) {
+			int rows = Math.min(factor, this.dim.height - by * factor);
+			
+			for (int bx = 0; bx < width; bx++) {
+				int cols = Math.min(factor, this.dim.width - bx * factor);
+				means[by * width + bx] /= rows * cols;
+			}
+		}
+		
+		return means;
+	}
+	
+	/**
+	 * <p>Get the frame in half the width and height. Every sample
+	 * is the mean of 2x2 samples, an odd last column or row of
+	 * the frame is dropped.</p>
+	 * 
+	 * @return Frame in half the resolution
+	 * 
+	 * @param target	Raster to write the result to, if null or
+	 * of another dimension a new raster is created
+	 * 
+	 * @throws IllegalArgumentException	when the frame is smaller than 2x2 pixels
+	 */
+	public PixelRaster getHalfResolution(PixelRaster target) {
+		Dimension half = new Dimension(this.dim.width / 2, this.dim.height / 2);
+		
+		if (half.width <= 0 || half.height <= 0) {
+			throw new IllegalArgumentException("Can't halve a frame of " + this.dim);
+		} else if (target == null || !half.equals(target.dim)) {
+			target = new PixelRaster(half, new double[half.width][half.height], new double[half.width / 2][half.height / 2], new double[half.width / 2][half.height / 2]);
+		}
+		
+		halvePlane(this.Y, target.Y, half.width, half.height);
+		halvePlane(this.U, target.U, half.width / 2, half.height / 2);
+		halvePlane(this.V, target.V, half.width / 2, half.height / 2);
+		return target;
+	}
+	
+	private void halvePlane(final double[][] source, final double[][] target, final int width, final int height) {
+		for (int x = 0; x < width; x++) {
+			double[] left = source[2 * x];
+			double[] right = source[2 * x + 1];
+			double[] column = target[x];
+			
+			for (int y = 0; y < height; y++) {
+				column[y] = (left[2 * y] + left[2 * y + 1] + right[2 * y] + right[2 * y + 1]) * 0.25;
+			}
+		}
+	}
+	
 	/**
 	 * <p>Sets the desired YUV color at the
 	 * desired position. The YUV color should have
@@ -563,6 +676,218 @@ public class PixelRaster {
 		return res;
 	}
 	
+	/**
+	 * <p>Writes a part of a pixel block into the PixelRaster.
+	 * The block has to be ordered like the result of
+	 * {@link #getPixelBlock(Point, int, double[][][])}, full
+	 * luma and 4:2:0 chroma.</p>
+	 * 
+	 * <p>Only the area from (fromX, fromY) inclusive to (toX, toY)
+	 * exclusive within the block is written. Since the columns of the
+	 * block and the PixelRaster are both continuous, the area is copied
+	 * column by column without touching every single pixel.</p>
+	 * 
+	 * @param position	Position of the block in the PixelRaster,
+	 * has to be a multiple of 2
+	 * @param colors	Colors of the block
+	 * @param fromX	First column of the block to write
+	 * @param toX	End of the columns to write (exclusive)
+	 * @param fromY	First row of the block to write
+	 * @param toY	End of the rows to write (exclusive)
+	 * 
+	 * @throws ArrayIndexOutOfBoundsException	when the area is
+	 * not within the raster
+	 */
+	public void setPixelBlock(final Point position, final double[][][] colors, final int fromX, final int toX, final int fromY, final int toY) {
+		if (toX <= fromX || toY <= fromY) {
+			return;
+		} else if (position.x + fromX < 0 || position.x + toX > this.dim.width) {
+			throw new ArrayIndexOutOfBoundsException("(X) " + (position.x + fromX) + " to " + (position.x + toX) + " is out of bounds!");
+		} else if (position.y + fromY < 0 || position.y + toY > this.dim.height) {
+			throw new ArrayIndexOutOfBoundsException("(Y) " + (position.y + fromY) + " to " + (position.y + toY) + " is out of bounds!");
+		}
+		
+		int lengthY = toY - fromY;
+		
+		for (int x = fromX; x < toX; x++) {
+			System.arraycopy(colors[0][x], fromY, this.Y[position.x + x], position.y + fromY, lengthY);
+		}
+		
+		int halfPosX = position.x / 2;
+		int halfPosY = position.y / 2;
+		int halfFromY = fromY / 2;
+		int halfLengthY = (toY - 1) / 2 - halfFromY + 1;
+		
+		for (int x = fromX / 2; x <= (toX - 1) / 2; x++) {
+			System.arraycopy(colors[1][x], halfFromY, this.U[halfPosX + x], halfPosY + halfFromY, halfLengthY);
+			System.arraycopy(colors[2][x], halfFromY, this.V[halfPosX + x], halfPosY + halfFromY, halfLengthY);
+		}
+	}
+	
+	/**
+	 * <p>Copies an area of another PixelRaster with the same
+	 * dimension into this PixelRaster. The area is clipped to
+	 * the raster.</p>
+	 * 
+	 * @param source	PixelRaster to copy from
+	 * @param x	First column of the area, has to be a multiple of 2
+	 * @param y	First row of the area, has to be a multiple of 2
+	 * @param width	Width of the area
+	 * @param height	Height of the area
+	 * 
+	 * @throws IllegalArgumentException	when the dimensions don't match
+	 */
+	public void copyRegion(final PixelRaster source, final int x, final int y, final int width, final int height) {
+		if (!this.dim.equals(source.dim)) {
+			throw new IllegalArgumentException("Can't copy from " + source.dim + " to " + this.dim);
+		}
+		
+		int fromX = Math.max(x, 0), toX = Math.min(x + width, this.dim.width);
+		int fromY = Math.max(y, 0), toY = Math.min(y + height, this.dim.height);
+		
+		if (toX <= fromX || toY <= fromY) {
+			return;
+		}
+		
+		for (int col = fromX; col < toX; col++) {
+			System.arraycopy(source.Y[col], fromY, this.Y[col], fromY, toY - fromY);
+		}
+		
+		int halfFromY = fromY / 2;
+		int halfLengthY = Math.min((toY + 1) / 2, this.dim.height / 2) - halfFromY;
+		int halfToX = Math.min((toX + 1) / 2, this.dim.width / 2);
+		
+		for (int col = fromX / 2; col < halfToX; col++) {
+			System.arraycopy(source.U[col], halfFromY, this.U[col], halfFromY, halfLengthY);
+			System.arraycopy(source.V[col], halfFromY, this.V[col], halfFromY, halfLengthY);
+		}
+	}
+	
+	/**
+	 * <p>Writes one component of the PixelRaster as 8 bit samples
+	 * in row order into the target, like a plane of a planar
+	 * YUV 4:2:0 (I420) image. The values are rounded and
+	 * clipped to 0 - 255.</p>
+	 * 
+	 * @return Amount of bytes written
+	 * 
+	 * @param component	0 = Y, 1 = U, 2 = V
+	 * @param target	Array to write the samples to
+	 * @param offset	Position of the first sample in the target
+	 * 
+	 * @throws IllegalArgumentException	when the component is unknown
+	 */
+	public int getPlane(final int component, final byte[] target, final int offset) {
+		double[][] plane = null;
+		int width = this.dim.width;
+		int height = this.dim.height;
+		
+		switch (component) {
+			case 0:
+				plane = this.Y;
+				break;
+			case 1:
+				plane = this.U;
+				width /= 2;
+				height /= 2;
+				break;
+			case 2:
+				plane = this.V;
+				width /= 2;
+				height /= 2;
+				break;
+			default:
+				throw new IllegalArgumentException("Component " + component + " is not supported (0 = Y, 1 = U, 2 = V)");
+		}
+		
+		for (int y = 0, index = offset; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				long sample = Math.round(plane[x][y]);
+				target[index++] = (byte)(sample < 0 ? 0 : sample > 255 ? 255 : sample);
+			}
+		}
+		
+		return width * height;
+	}
+	
+	/**
+	 * <p>Converts the PixelRaster to RGB and writes the
+	 * colors row by row into the target. The colors have
+	 * the same format as in {@link ColorManager#convertYUVToRGB(double[])}.</p>
+	 * 
+	 * @return Array with the RGB colors
+	 * 
+	 * @param target	Array to write the colors to, if null
+	 * or too small a new array is created
+	 */
+	public int[] getRGB(int[] target) {
+		int width = this.dim.width;
+		int size = width * this.dim.height;
+		int[] rgb = target == null || target.length < size ? new int[size] : target;
+		
+		IntStream.range(0, this.dim.height).parallel().forEach(y -> {
+			double[] YUV = new double[3];
+			
+			for (int x = 0, index = y * width; x < width; x++) {
+				YUV[0] = this.Y[x][y];
+				YUV[1] = this.U[x / 2][y / 2];
+				YUV[2] = this.V[x / 2][y / 2];
+				rgb[index++] = ColorManager.convertYUVToRGB(YUV);
+			}
+		});
+		
+		return rgb;
+	}
+	
+	/**
+	 * <p>Overwrites one component with 8 bit samples in row
+	 * order, like a plane of a planar YUV 4:2:0 (I420) image.
+	 * If the plane is smaller than the component, the last
+	 * column and row are repeated.</p>
+	 * 
+	 * @param component	0 = Y, 1 = U, 2 = V
+	 * @param source	Array with the samples
+	 * @param offset	Position of the first sample in the source
+	 * @param width	Width of the plane
+	 * @param height	Height of the plane
+	 * @param levels	Value for every 8 bit sample, e.g. to expand
+	 * limited range samples, null to use the samples as they are
+	 * 
+	 * @throws IllegalArgumentException	when the component is unknown
+	 */
+	public void setPlane(final int component, final byte[] source, final int offset, final int width, final int height, final double[] levels) {
+		double[][] plane = null;
+		int targetWidth = this.dim.width;
+		int targetHeight = this.dim.height;
+		
+		switch (component) {
+			case 0:
+				plane = this.Y;
+				break;
+			case 1:
+				plane = this.U;
+				targetWidth /= 2;
+				targetHeight /= 2;
+				break;
+			case 2:
+				plane = this.V;
+				targetWidth /= 2;
+				targetHeight /= 2;
+				break;
+			default:
+				throw new IllegalArgumentException("Component " + component + " is not supported (0 = Y, 1 = U, 2 = V)");
+		}
+		
+		for (int y = 0; y < targetHeight; y++) {
+			int row = offset + Math.min(y, height - 1) * width;
+			
+			for (int x = 0; x < targetWidth; x++) {
+				int sample = source[row + Math.min(x, width - 1)] & 0xFF;
+				plane[x][y] = levels == null ? sample : levels[sample];
+			}
+		}
+	}
+	
 	/**
 	 * <p>Get an array of 2D arrays.</p>
 	 * 
@@ -7,9 +7,31 @@ import interprediction.Vector;
 public class Protocol {
 	public static final int VECTOR_HEADER_LENGTH = 7;
 	public static final byte VECTOR_START = (byte)0x01;
+	public static final byte KEYFRAME_START = (byte)0x02;
+	
+	//Vectors of a frame, whose quantizer is stored in the following byte
+	public static final byte VECTOR_QP_START = (byte)0x03;
+	public static final int VECTOR_QP_HEADER_LENGTH = 2;
+	
+	//Frame split into tiles: COLUMNS ⊥ ROWS ⊥ TILE_OFFSET * TILES ⊥ TILE * TILES
+	//Every tile is a keyframe or vectors of its own, the offsets are ints from the start of the frame
+	public static final byte TILED_FRAME_START = (byte)0x04;
 	
 	public static final int SIZE_OF_INT = 4;
-	public static final int META_DATA_LEN = 3 * SIZE_OF_INT;
+	public static final int SIZE_OF_LONG = 8;
+	public static final int META_DATA_LEN = 3 * SIZE_OF_INT + SIZE_OF_LONG;
+	
+	//Frame number followed by the byte offset of the keyframe
+	public static final int KEYFRAME_INDEX_ENTRY_LEN = SIZE_OF_INT + SIZE_OF_LONG;
+	
+	/**
+	 * @return Length of the header of a tiled frame
+	 * 
+	 * @param tiles	Amount of tiles
+	 */
+	public static int getTileHeaderLength(int tiles) {
+		return 3 + tiles * SIZE_OF_INT;
+	}
 	
 	public static byte getDCTCoeffByte(double coeff) {
 		byte result = (byte)((int)Math.abs(coeff) & 0x7F);
@@ -229,6 +251,26 @@ public class Protocol {
 		return num;
 	}
 	
+	public static byte[] getLongBytes(long number) {
+		byte[] arr = new byte[SIZE_OF_LONG];
+		
+		for (int i = 0; i < SIZE_OF_LONG; i++) {
+			arr[i] = (byte)((number >> (56 - i * 8)) & 0xFF);
+		}
+		
+		return arr;
+	}
+	
+	public static long getLongFromBytes(byte[] data, int offset) {
+		long num = 0;
+		
+		for (int i = 0; i < SIZE_OF_LONG; i++) {
+			num = (num << 8) | (data[offset + i] & 0xFF);
+		}
+		
+		return num;
+	}
+	
 	public static byte[][] splitArrayEvenly(byte[] data, int sizeOfChunk) {
 		int estimatedLen = data.length / sizeOfChunk;
 		byte[][] arr = new byte[estimatedLen][];
@@ -2,17 +2,25 @@ package utils;
 
 import java.util.ArrayList;
 
+import app.config;
 import interprediction.Vector;
 
 public class QueueObject {
 	private ArrayList<Vector> Vectors = null;
 	private ArrayList<MacroBlock> Differences = null;
+	private PixelRaster Keyframe = null;
+	private int Quantizer = config.DEFAULT_QP;
+	private TileLayout Tiles = null;
 	
 	public QueueObject(ArrayList<Vector> vecs, ArrayList<MacroBlock> diffs) {
 		this.Vectors = vecs;
 		this.Differences = diffs;
 	}
 	
+	public QueueObject(PixelRaster keyframe) {
+		this.Keyframe = keyframe;
+	}
+	
 	public ArrayList<Vector> getVectors() {
 		return this.Vectors;
 	}
@@ -20,4 +28,31 @@ public class QueueObject {
 	public ArrayList<MacroBlock> getDifferences() {
 		return this.Differences;
 	}
+	
+	public PixelRaster getKeyframe() {
+		return this.Keyframe;
+	}
+	
+	public void setQuantizer(int qp) {
+		this.Quantizer = qp;
+	}
+	
+	public int getQuantizer() {
+		return this.Quantizer;
+	}
+	
+	/**
+	 * @param layout	Tiles, the frame is stored in, null for a single tile
+	 */
+	public void setTileLayout(TileLayout layout) {
+		this.Tiles = layout;
+	}
+	
+	public TileLayout getTileLayout() {
+		return this.Tiles;
+	}
+	
+	public boolean isKeyframe() {
+		return this.Keyframe != null;
+	}
 }
@@ -0,0 +1,299 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package utils;
+
+import java.awt.Dimension;
+
+/**
+ * <p>The class {@code ReferenceBuffer} manages the reference
+ * frames of the encoder and decoder. It is a fixed ring of
+ * reusable PixelRasters, so no frame has to be allocated or
+ * copied as a whole, after the ring is filled.</p>
+ * 
+ * <p>The references are indexed like a list: 0 is the oldest
+ * reference and {@link #size()} - 1 the newest, which is the
+ * previous frame.</p>
+ * 
+ * <p>A new frame is reconstructed into a slot of the ring:
+ * {@link #beginFrame()} returns the next free slot with the content
+ * of the previous frame, every area the caller writes to has to be
+ * reported with {@link #markChanged(int, int, int, int)} and
+ * {@link #commitFrame()} makes the slot the newest reference.</p>
+ * 
+ * <p>The slot is brought up to date tile by tile: the buffer remembers,
+ * in which frame each tile changed last and only copies the tiles,
+ * that changed since the slot was written the last time. Static
+ * areas are never copied.</p>
+ * 
+ * <p>A frame stays valid until {@code references + retainedFrames}
+ * further frames are committed. This allows the decoder to hand
+ * the frames to an output stage, without copying them.</p>
+ * 
+ * <p>The class is not thread safe.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class ReferenceBuffer {
+	/**
+	 * Width and height of the tiles the changes are tracked in
+	 */
+	public static final int TILE_SIZE = 32;
+	
+	private Dimension dim = null;
+	private int references = 0;
+	
+	private PixelRaster[] slots = null;
+	
+	/**
+	 * Number of the frame, that is stored in the slot, -1 if the slot is empty
+	 */
+	private long[] slotVersions = null;
+	
+	/**
+	 * Number of the frame, in which the tile changed last
+	 */
+	private long[] tileVersions = null;
+	private int tilesX = 0;
+	private int tilesY = 0;
+	
+	/**
+	 * Number of the frame, that is committed next
+	 */
+	private long version = 0;
+	
+	/**
+	 * Slot, that is written next
+	 */
+	private int writeSlot = 0;
+	private int size = 0;
+	private boolean frameOpen = false;
+	
+	/**
+	 * <p>Creates a buffer, where every frame is only valid
+	 * as long as it is a reference.</p>
+	 * 
+	 * @param dim	Dimension of the frames
+	 * @param references	Maximum amount of references
+	 */
+	public ReferenceBuffer(Dimension dim, int references) {
+		this(dim, references, 0);
+	}
+	
+	/**
+	 * <p>Creates a buffer, that keeps additional frames
+	 * after they are no references anymore.</p>
+	 * 
+	 * @param dim	Dimension of the frames
+	 * @param references	Maximum amount of references
+	 * @param retainedFrames	Amount of frames, that are not overwritten
+	 * after they are dropped as reference
+	 * 
+	 * @throws NullPointerException	when the dimension is null
+	 * @throws IllegalArgumentException	when the references are smaller than 1
+	 * or the retained frames are negative
+	 */
+	public ReferenceBuffer(Dimension dim, int references, int retainedFrames) {
+		if (dim == null) {
+			throw new NullPointerException("ReferenceBuffer requires a dimension");
+		} else if (references < 1) {
+			throw new IllegalArgumentException("At least one reference is required, got " + references);
+		} else if (retainedFrames < 0) {
+			throw new IllegalArgumentException("Retained frames can't be negative, got " + retainedFrames);
+		}
+		
+		this.dim = new Dimension(dim);
+		this.references = references;
+		this.slots = new PixelRaster[references + retainedFrames + 1];
+		this.slotVersions = new long[this.slots.length];
+		this.tilesX = (dim.width + TILE_SIZE - 1) / TILE_SIZE;
+		this.tilesY = (dim.height + TILE_SIZE - 1) / TILE_SIZE;
+		this.tileVersions = new long[this.tilesX * this.tilesY];
+		
+		for (int i = 0; i < this.slotVersions.length; i++) {
+			this.slotVersions[i] = -1;
+		}
+	}
+	
+	/**
+	 * @return Amount of references
+	 */
+	public int size() {
+		return this.size;
+	}
+	
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+	
+	public Dimension getDimension() {
+		return new Dimension(this.dim);
+	}
+	
+	/**
+	 * <p>Get a reference frame.</p>
+	 * 
+	 * @return Reference frame
+	 * 
+	 * @param index	Index of the reference, 0 is the oldest
+	 * 
+	 * @throws IndexOutOfBoundsException	when there is no such reference
+	 */
+	public PixelRaster get(int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Reference " + index + " is out of bounds for " + this.size + " references");
+		}
+		
+		return this.slots[slotOfReference(index)];
+	}
+	
+	/**
+	 * @return Newest reference, which is the previous frame
+	 * 
+	 * @throws IndexOutOfBoundsException	when there are no references
+	 */
+	public PixelRaster getNewest() {
+		return get(this.size - 1);
+	}
+	
+	/**
+	 * <p>Drops all references, e.g. before a keyframe.</p>
+	 */
+	public void clear() {
+		this.size = 0;
+		this.frameOpen = false;
+	}
+	
+	/**
+	 * <p>Returns the next free slot with the content of the
+	 * newest reference. The slot is no reference, until
+	 * {@link #commitFrame()} is called.</p>
+	 * 
+	 * @return Frame to reconstruct the next frame into
+	 * 
+	 * @throws IllegalStateException	when there is no reference
+	 * to start from
+	 */
+	public PixelRaster beginFrame() {
+		if (this.size == 0) {
+			throw new IllegalStateException("No reference to reconstruct the frame from");
+		}
+		
+		PixelRaster target = getSlot(this.writeSlot);
+		PixelRaster newest = getNewest();
+		long slotVersion = this.slotVersions[this.writeSlot];
+		
+		for (int tileY = 0; tileY < this.tilesY; tileY++) {
+			for (int tileX = 0; tileX < this.tilesX; tileX++) {
+				if (this.tileVersions[tileY * this.tilesX + tileX] > slotVersion) {
+					target.copyRegion(newest, tileX * TILE_SIZE, tileY * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+				}
+			}
+		}
+		
+		this.frameOpen = true;
+		return target;
+	}
+	
+	/**
+	 * <p>Reports an area of the frame returned by {@link #beginFrame()},
+	 * that is written or might be written. The area is clipped to the frame.</p>
+	 * 
+	 * @param x	First column of the area
+	 * @param y	First row of the area
+	 * @param width	Width of the area
+	 * @param height	Height of the area
+	 */
+	public void markChanged(int x, int y, int width, int height) {
+		int fromX = Math.max(x, 0) / TILE_SIZE;
+		int fromY = Math.max(y, 0) / TILE_SIZE;
+		int toX = Math.min((x + width - 1) / TILE_SIZE, this.tilesX - 1);
+		int toY = Math.min((y + height - 1) / TILE_SIZE, this.tilesY - 1);
+		
+		for (int tileY = fromY; tileY <= toY; tileY++) {
+			for (int tileX = fromX; tileX <= toX; tileX++) {
+				this.tileVersions[tileY * this.tilesX + tileX] = this.version;
+			}
+		}
+	}
+	
+	/**
+	 * <p>Makes the frame returned by {@link #beginFrame()} the newest
+	 * reference and drops the oldest reference, if there are too many.</p>
+	 * 
+	 * @return The committed frame
+	 * 
+	 * @throws IllegalStateException	when no frame was started
+	 */
+	public PixelRaster commitFrame() {
+		if (!this.frameOpen) {
+			throw new IllegalStateException("No frame to commit, call beginFrame() first");
+		}
+		
+		PixelRaster frame = this.slots[this.writeSlot];
+		this.slotVersions[this.writeSlot] = this.version++;
+		this.writeSlot = (this.writeSlot + 1) % this.slots.length;
+		this.size = Math.min(this.size + 1, this.references);
+		this.frameOpen = false;
+		return frame;
+	}
+	
+	/**
+	 * <p>Drops all references and stores the keyframe as the only
+	 * reference. The keyframe is copied, so the caller keeps
+	 * ownership of the passed frame.</p>
+	 * 
+	 * @return The stored copy of the keyframe
+	 * 
+	 * @param keyframe	Keyframe to store
+	 * 
+	 * @throws IllegalArgumentException	when the dimension doesn't match
+	 */
+	public PixelRaster addKeyframe(PixelRaster keyframe) {
+		if (!this.dim.equals(keyframe.getDimension())) {
+			throw new IllegalArgumentException("Keyframe has " + keyframe.getDimension() + ", expected " + this.dim);
+		}
+		
+		clear();
+		PixelRaster target = getSlot(this.writeSlot);
+		target.copyRegion(keyframe, 0, 0, this.dim.width, this.dim.height);
+		markChanged(0, 0, this.dim.width, this.dim.height);
+		this.frameOpen = true;
+		return commitFrame();
+	}
+	
+	private int slotOfReference(int index) {
+		int length = this.slots.length;
+		return ((this.writeSlot - this.size + index) % length + length) % length;
+	}
+	
+	private PixelRaster getSlot(int slot) {
+		if (this.slots[slot] == null) {
+			int width = this.dim.width, height = this.dim.height;
+			this.slots[slot] = new PixelRaster(this.dim, new double[width][height], new double[width / 2][height / 2], new double[width / 2][height / 2]);
+		}
+		
+		return this.slots[slot];
+	}
+}
@@ -14,9 +14,20 @@ import app.config;
 import interprediction.Vector;
 
 public class RenderEngine {
-	public static PixelRaster renderResult(ArrayList<Vector> vecs, ArrayList<PixelRaster> refs, ArrayList<MacroBlock> diffs, PixelRaster prevFrame) {
-		PixelRaster render = prevFrame.copy();
-		Dimension dim = prevFrame.getDimension();
+	/**
+	 * <p>Renders the non-coded blocks and the vectors into the render.
+	 * The render has to contain the previous frame, e.g. the frame
+	 * returned by {@link ReferenceBuffer#beginFrame()}.</p>
+	 * 
+	 * @return The render
+	 * 
+	 * @param vecs	Vectors of the frame
+	 * @param refs	Reference frames the vectors refer to
+	 * @param diffs	Blocks, that are not coded with a vector
+	 * @param render	Frame to render into
+	 */
+	public static PixelRaster renderResult(ArrayList<Vector> vecs, ReferenceBuffer refs, ArrayList<MacroBlock> diffs, PixelRaster render) {
+		Dimension dim = render.getDimension();
 		ExecutorService executor = Executors.newCachedThreadPool();
 		
 		try {
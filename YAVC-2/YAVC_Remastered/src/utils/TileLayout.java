@@ -0,0 +1,201 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package utils;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+
+/**
+ * <p>The class {@code TileLayout} splits a frame into a grid of
+ * rectangular tiles, whose borders are aligned to the 128x128 roots
+ * of the quadtree. So every block of the quadtree lies within
+ * exactly one tile.</p>
+ * 
+ * <p>The roots are distributed evenly, a layout with {@code columns}
+ * columns starts column {@code i} at root {@code i * rootsX / columns}.
+ * Rows are split the same way. Encoder and decoder derive the same
+ * layout from the dimension and the amount of columns and rows, only
+ * these two amounts are stored within the bitstream.</p>
+ * 
+ * <p>Tiles are indexed row by row, from left to right.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class TileLayout {
+	/**
+	 * Size of the roots, that the tiles are aligned to
+	 */
+	public static final int ROOT_SIZE = 128;
+	
+	/**
+	 * Maximum amount of columns and rows, each is stored in a byte
+	 */
+	public static final int MAX_TILES_PER_AXIS = 0xFF;
+	
+	private Dimension dim = null;
+	private int columns = 0;
+	private int rows = 0;
+	private int[] columnStarts = null;
+	private int[] rowStarts = null;
+	
+	/**
+	 * @param dim	Dimension of the frames
+	 * @param columns	Amount of tile columns
+	 * @param rows	Amount of tile rows
+	 * 
+	 * @throws IllegalArgumentException	when there are fewer than 1 or
+	 * more columns or rows than roots
+	 */
+	public TileLayout(Dimension dim, int columns, int rows) {
+		if (dim == null) {
+			throw new NullPointerException("TileLayout requires a dimension");
+		}
+		
+		int rootsX = getRoots(dim.width);
+		int rootsY = getRoots(dim.height);
+		
+		if (columns < 1 || columns > Math.min(rootsX, MAX_TILES_PER_AXIS)) {
+			throw new IllegalArgumentException("Tile columns have to be between 1 and " + Math.min(rootsX, MAX_TILES_PER_AXIS) + " for a width of " + dim.width + ", got " + columns);
+		} else if (rows < 1 || rows > Math.min(rootsY, MAX_TILES_PER_AXIS)) {
+			throw new IllegalArgumentException("Tile rows have to be between 1 and " + Math.min(rootsY, MAX_TILES_PER_AXIS) + " for a height of " + dim.height + ", got " + rows);
+		}
+		
+		this.dim = new Dimension(dim);
+		this.columns = columns;
+		this.rows = rows;
+		this.columnStarts = getStarts(rootsX, columns, dim.width);
+		this.rowStarts = getStarts(rootsY, rows, dim.height);
+	}
+	
+	/**
+	 * @return Amount of roots, that cover the length
+	 */
+	public static int getRoots(int length) {
+		return (length + ROOT_SIZE - 1) / ROOT_SIZE;
+	}
+	
+	/**
+	 * @return Start of every tile in pixels, followed by the length
+	 */
+	private static int[] getStarts(int roots, int tiles, int length) {
+		int[] starts = new int[tiles + 1];
+		
+		for (int i = 0; i < tiles; i++) {
+			starts[i] = (i * roots / tiles) * ROOT_SIZE;
+		}
+		
+		starts[tiles] = length;
+		return starts;
+	}
+	
+	public int getColumns() {
+		return this.columns;
+	}
+	
+	public int getRows() {
+		return this.rows;
+	}
+	
+	public int getTileCount() {
+		return this.columns * this.rows;
+	}
+	
+	public Dimension getDimension() {
+		return new Dimension(this.dim);
+	}
+	
+	/**
+	 * @return true if the frame is split into more than one tile
+	 */
+	public boolean isTiled() {
+		return getTileCount() > 1;
+	}
+	
+	/**
+	 * @return Area of the tile within the frame
+	 * 
+	 * @param index	Index of the tile
+	 * 
+	 * @throws IllegalArgumentException	when the index is out of range
+	 */
+	public Rectangle getTile(int index) {
+		if (index < 0 || index >= getTileCount()) {
+			throw new IllegalArgumentException("Tile " + index + " is not within 0 and " + (getTileCount() - 1));
+		}
+		
+		int column = index % this.columns;
+		int row = index / this.columns;
+		int x = this.columnStarts[column];
+		int y = this.rowStarts[row];
+		return new Rectangle(x, y, this.columnStarts[column + 1] - x, this.rowStarts[row + 1] - y);
+	}
+	
+	/**
+	 * @return Index of the tile, that contains the position. Positions
+	 * outside of the frame belong to the nearest tile.
+	 */
+	public int getTileIndex(int x, int y) {
+		return getIndex(this.rowStarts, this.rows, y) * this.columns + getIndex(this.columnStarts, this.columns, x);
+	}
+	
+	private static int getIndex(int[] starts, int tiles, int position) {
+		int index = 0;
+		
+		while (index < tiles - 1 && position >= starts[index + 1]) {
+			index++;
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * <p>Returns the area, a block of the tile may be predicted from.
+	 * Tiles at the right or bottom border of the frame are open towards
+	 * that border, because the blocks of the quadtree can reach beyond
+	 * the frame there.</p>
+	 * 
+	 * @return Area for the motion compensation of the tile
+	 * 
+	 * @param index	Index of the tile
+	 */
+	public Rectangle getPredictionArea(int index) {
+		Rectangle tile = getTile(index);
+		
+		if (index % this.columns == this.columns - 1) {
+			tile.width = Integer.MAX_VALUE - tile.x;
+		}
+		
+		if (index / this.columns == this.rows - 1) {
+			tile.height = Integer.MAX_VALUE - tile.y;
+		}
+		
+		return tile;
+	}
+	
+	@Override
+	public String toString() {
+		return this.columns + "x" + this.rows + " tiles";
+	}
+}
@@ -0,0 +1,178 @@
+/////////////////////////////////////////////////////////////
+///////////////////////    LICENSE    ///////////////////////
+/////////////////////////////////////////////////////////////
+/*
+The YAVC video / frame compressor compresses frames.
+Copyright (C) 2024  Lukas Nian En Lampl
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+
+package utils;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>The class {@code WorkScheduler} is a thread pool, that is shared
+ * by several jobs, e.g. concurrent encodings. Every job submits its
+ * tasks through a {@link Client} of its own.</p>
+ * 
+ * <p>Tasks of a client with a higher priority run first. Clients with
+ * the same priority share the threads fairly: every task of a client
+ * gets a round, one after the last task of the client, but at least
+ * one after the round, that is currently running. So a job, which
+ * submits many tasks at once, can't delay the tasks of another job
+ * by more than one round per task (start-time fair queuing).</p>
+ * 
+ * <p>Tasks shouldn't wait for other tasks of the same scheduler,
+ * since all threads might be waiting then.</p>
+ * 
+ * @author Lukas Lampl
+ * @since 17.0
+ * @version 1.0 18 Oct 2026
+ */
+
+public class WorkScheduler implements AutoCloseable {
+	public static final int DEFAULT_PRIORITY = 0;
+	
+	private ThreadPoolExecutor executor = null;
+	private AtomicLong sequence = new AtomicLong();
+	
+	/**
+	 * Round of the last task, that was started
+	 */
+	private long currentRound = 0;
+	
+	/**
+	 * @param threads	Amount of threads
+	 * @param name	Name of the threads
+	 * 
+	 * @throws IllegalArgumentException	when there is no thread
+	 */
+	public WorkScheduler(int threads, String name) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("WorkScheduler requires at least 1 thread, got " + threads);
+		}
+		
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<Runnable>(), (runnable) -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		//Otherwise the first tasks would bypass the queue and its order
+		this.executor.prestartAllCoreThreads();
+	}
+	
+	/**
+	 * @param priority	Priority of the tasks, higher runs first
+	 * @return Executor, that submits the tasks of a single job
+	 */
+	public Client createClient(int priority) {
+		return new Client(priority);
+	}
+	
+	/**
+	 * @return Amount of threads
+	 */
+	public int getThreads() {
+		return this.executor.getCorePoolSize();
+	}
+	
+	/**
+	 * <p>Accepts no further tasks, the threads stop, once
+	 * the queued tasks are done.</p>
+	 */
+	@Override
+	public void close() {
+		this.executor.shutdown();
+	}
+	
+	private synchronized long nextRound(Client client) {
+		client.round = Math.max(client.round, this.currentRound) + 1;
+		return client.round;
+	}
+	
+	private synchronized void started(long round) {
+		this.currentRound = Math.max(this.currentRound, round);
+	}
+	
+	/**
+	 * <p>Submits the tasks of a single job with its priority.</p>
+	 */
+	public class Client implements Executor {
+		private int priority = DEFAULT_PRIORITY;
+		
+		/**
+		 * Round of the last task, guarded by the scheduler
+		 */
+		private long round = 0;
+		
+		private Client(int priority) {
+			this.priority = priority;
+		}
+		
+		/**
+		 * @throws java.util.concurrent.RejectedExecutionException	when
+		 * the scheduler is closed
+		 */
+		@Override
+		public void execute(Runnable task) {
+			if (task == null) {
+				throw new NullPointerException("No task to execute");
+			}
+			
+			executor.execute(new ScheduledTask(task, this.priority, nextRound(this), sequence.getAndIncrement()));
+		}
+		
+		public int getPriority() {
+			return this.priority;
+		}
+	}
+	
+	private class ScheduledTask implements Runnable, Comparable<ScheduledTask> {
+		private Runnable task = null;
+		private int priority = 0;
+		private long round = 0;
+		private long sequence = 0;
+		
+		ScheduledTask(Runnable task, int priority, long round, long sequence) {
+			this.task = task;
+			this.priority = priority;
+			this.round = round;
+			this.sequence = sequence;
+		}
+		
+		@Override
+		public void run() {
+			started(this.round);
+			this.task.run();
+		}
+		
+		@Override
+		public int compareTo(ScheduledTask other) {
+			if (this.priority != other.priority) {
+				return Integer.compare(other.priority, this.priority);
+			} else if (this.round != other.round) {
+				return Long.compare(this.round, other.round);
+			}
+			
+			return Long.compare(this.sequence, other.sequence);
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package decoder;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import app.config;
+import encoder.FrameSerializer;
+import interprediction.Vector;
+import utils.PixelRaster;
+import utils.Protocol;
+import utils.QueueObject;
+import utils.TileLayout;
+
+public class TestInputProcessor {
+	private static final Dimension DIM = new Dimension(300, 200);
+	
+	@Test
+	public void testTiledKeyframeRoundTrip() {
+		PixelRaster frame = createFrame(DIM);
+		QueueObject tiled = new QueueObject(frame);
+		tiled.setTileLayout(new TileLayout(DIM, 3, 2));
+		
+		InputProcessor processor = createProcessor();
+		
+		try {
+			ByteBuffer content = ByteBuffer.wrap(FrameSerializer.serialize(tiled));
+			assertTrue(processor.isKeyframe(content));
+			
+			PixelRaster expected = processor.parseFrame(ByteBuffer.wrap(FrameSerializer.serialize(new QueueObject(frame)))).getKeyframe();
+			PixelRaster result = processor.parseFrame(content).getKeyframe();
+			assertArrayEquals(expected.getRGB(null), result.getRGB(null));
+		} finally {
+			processor.shutdown();
+		}
+	}
+	
+	@Test
+	public void testTiledVectorsRoundTrip() {
+		ArrayList<Vector> vecs = new ArrayList<Vector>();
+		Point[] positions = {new Point(0, 0), new Point(132, 4), new Point(256, 128), new Point(8, 192)};
+		
+		for (Point pos : positions) {
+			Vector vec = new Vector(pos, 4);
+			vec.setSpanX(4);
+			vec.setSpanY(-4);
+			vec.setReference(config.MAX_REFERENCES);
+			vec.setAbsoluteDifferences(new double[4][4][4]);
+			vecs.add(vec);
+		}
+		
+		QueueObject obj = new QueueObject(vecs, null);
+		obj.setTileLayout(new TileLayout(DIM, 3, 2));
+		InputProcessor processor = createProcessor();
+		
+		try {
+			ParsedFrame frame = processor.parseFrame(ByteBuffer.wrap(FrameSerializer.serialize(obj)));
+			assertEquals(vecs.size(), frame.getVectors().size());
+			
+			for (Vector vec : frame.getVectors()) {
+				boolean found = false;
+				
+				for (Point pos : positions) {
+					found |= pos.equals(vec.getPosition());
+				}
+				
+				assertTrue(found, "Unexpected vector at " + vec.getPosition());
+				assertEquals(4, vec.getSpanX());
+				assertEquals(-4, vec.getSpanY());
+			}
+		} finally {
+			processor.shutdown();
+		}
+	}
+	
+	@Test
+	public void testTileOffsetOutOfTheFrame() {
+		QueueObject obj = new QueueObject(new ArrayList<Vector>(), null);
+		obj.setTileLayout(new TileLayout(DIM, 3, 2));
+		byte[] data = FrameSerializer.serialize(obj);
+		
+		//The second tile starts behind the end of the frame
+		ByteBuffer.wrap(data).putInt(3 + Protocol.SIZE_OF_INT, data.length + 1);
+		InputProcessor processor = createProcessor();
+		
+		try {
+			assertThrows(IllegalArgumentException.class, () -> processor.parseFrame(ByteBuffer.wrap(data)));
+		} finally {
+			processor.shutdown();
+		}
+	}
+	
+	@Test
+	public void testRegionOnlyDecodesIntersectingTiles() {
+		PixelRaster frame = createFrame(DIM);
+		TileLayout layout = new TileLayout(DIM, 3, 2);
+		QueueObject tiled = new QueueObject(frame);
+		tiled.setTileLayout(layout);
+		
+		InputProcessor processor = createProcessor();
+		processor.setRegion(new Rectangle(0, 0, 16, 16));
+		
+		try {
+			PixelRaster result = processor.parseFrame(ByteBuffer.wrap(FrameSerializer.serialize(tiled))).getKeyframe();
+			Rectangle first = layout.getTile(0);
+			Rectangle last = layout.getTile(layout.getTileCount() - 1);
+			int[] rgb = result.getRGB(null);
+			int[] expected = frame.getRGB(null);
+			
+			assertEquals(expected[first.y * DIM.width + first.x], rgb[first.y * DIM.width + first.x]);
+			
+			//Tiles outside of the region stay black
+			assertEquals(0, rgb[last.y * DIM.width + last.x] & 0xFFFFFF);
+		} finally {
+			processor.shutdown();
+		}
+	}
+	
+	private InputProcessor createProcessor() {
+		ByteBuffer metadata = ByteBuffer.allocate(Protocol.META_DATA_LEN);
+		metadata.putInt(DIM.width);
+		metadata.putInt(DIM.height);
+		metadata.putInt(1);
+		metadata.putLong(0);
+		metadata.flip();
+		
+		InputProcessor processor = new InputProcessor();
+		processor.proessMetadata(metadata);
+		return processor;
+	}
+	
+	private PixelRaster createFrame(Dimension dim) {
+		BufferedImage img = new BufferedImage(dim.width, dim.height, BufferedImage.TYPE_INT_ARGB);
+		
+		for (int x = 0; x < dim.width; x++) {
+			for (int y = 0; y < dim.height; y++) {
+				img.setRGB(x, y, 0xFF000000 | (x % 256) << 16 | (y % 256) << 8 | ((x + y) % 256));
+			}
+		}
+		
+		return new PixelRaster(img);
+	}
+}
@@ -0,0 +1,42 @@
+package decoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import app.config;
+import interprediction.Vector;
+import utils.PixelRaster;
+import utils.ReferenceBuffer;
+
+public class TestReconstructionEngine {
+	@Test
+	public void testFailureIsPropagated() {
+		Dimension dim = new Dimension(64, 64);
+		ReferenceBuffer refs = new ReferenceBuffer(dim, config.MAX_REFERENCES);
+		refs.addKeyframe(new PixelRaster(dim, new double[64][64], new double[32][32], new double[32][32]));
+		
+		//Refers to the fourth reference, while the buffer only holds one
+		Vector vec = new Vector(new Point(0, 0), 16);
+		vec.setReference(1);
+		ArrayList<Vector> vecs = new ArrayList<Vector>();
+		vecs.add(vec);
+		ArrayList<double[][][]> differences = new ArrayList<double[][][]>();
+		differences.add(new double[4][16][16]);
+		
+		ReconstructionEngine engine = new ReconstructionEngine();
+		
+		try {
+			PixelRaster render = refs.beginFrame();
+			IllegalStateException e = assertThrows(IllegalStateException.class, () -> engine.reconstruct(vecs, differences, refs, render));
+			assertEquals(IndexOutOfBoundsException.class, e.getCause().getClass());
+		} finally {
+			engine.shutdown();
+		}
+	}
+}
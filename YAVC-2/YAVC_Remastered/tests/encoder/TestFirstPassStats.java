@@ -0,0 +1,95 @@
+package encoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.Dimension;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+
+public class TestFirstPassStats {
+	@Test
+	public void testWriteAndRead() throws IOException {
+		FirstPassStats stats = createStats();
+		File file = createTempFile();
+		stats.write(file);
+		
+		FirstPassStats read = FirstPassStats.read(file);
+		assertEquals(new Dimension(320, 240), read.getDimension());
+		assertEquals(stats.size(), read.size());
+		
+		for (int i = 0; i < stats.size(); i++) {
+			if (stats.get(i) == null) {
+				assertNull(read.get(i));
+			} else {
+				assertEqualStatistics(stats.get(i), read.get(i), i);
+			}
+		}
+	}
+	
+	@Test
+	public void testRangeIsRenumbered() {
+		FirstPassStats stats = createStats();
+		FirstPassStats range = stats.getRange(2, 3);
+		
+		assertEquals(3, range.size());
+		assertEquals(stats.getDimension(), range.getDimension());
+		assertEqualStatistics(stats.get(2), range.get(0), 0);
+		
+		//The missing frame stays missing
+		assertNull(range.get(1));
+		assertEqualStatistics(stats.get(4), range.get(2), 2);
+		
+		//A range beyond the analyzed frames is cut off
+		assertEquals(1, stats.getRange(4, Integer.MAX_VALUE).size());
+		assertEquals(0, stats.getRange(10, 5).size());
+	}
+	
+	@Test
+	public void testInvalidFileIsRejected() throws IOException {
+		File file = createTempFile();
+		
+		Files.writeString(file.toPath(), "YAVC-STATS 2 320 240\n");
+		assertThrows(IOException.class, () -> FirstPassStats.read(file));
+		
+		Files.writeString(file.toPath(), "YAVC-STATS 1 320 240\n0 K 1.0 0.0\n");
+		assertThrows(IOException.class, () -> FirstPassStats.read(file));
+		
+		Files.writeString(file.toPath(), "YAVC-STATS 1 320 240\n1 P 1.0 2.0 0.5 10 2 4 0\n0 K 1.0 0.0 0.0 0 0 0 0\n");
+		assertThrows(IOException.class, () -> FirstPassStats.read(file));
+	}
+	
+	/**
+	 * Statistics of five frames, where the frame 3 is missing
+	 */
+	private FirstPassStats createStats() {
+		FirstPassStats stats = new FirstPassStats(new Dimension(320, 240));
+		stats.add(new FrameStatistics(0, true, 1500.5, 0, 0, 76800, 300, 0, false));
+		stats.add(new FrameStatistics(1, false, 1400.5, 320.5, 0.75, 1024, 16, 12, false));
+		stats.add(new FrameStatistics(2, false, 1300.5, 900.5, 0.1234, 4096, 64, 32, true));
+		stats.add(new FrameStatistics(4, true, 1600.5, 0, 0, 76800, 300, 0, false));
+		return stats;
+	}
+	
+	private void assertEqualStatistics(FrameStatistics expected, FrameStatistics actual, int frameNumber) {
+		assertEquals(frameNumber, actual.getFrameNumber());
+		assertEquals(expected.isKeyframe(), actual.isKeyframe());
+		assertEquals(expected.getIntraCost(), actual.getIntraCost());
+		assertEquals(expected.getMotionCost(), actual.getMotionCost());
+		assertEquals(expected.getStaticFraction(), actual.getStaticFraction());
+		assertEquals(expected.getCodedArea(), actual.getCodedArea());
+		assertEquals(expected.getCodedBlocks(), actual.getCodedBlocks());
+		assertEquals(expected.getMaxMotion(), actual.getMaxMotion());
+		assertEquals(expected.isMotionClipped(), actual.isMotionClipped());
+	}
+	
+	private File createTempFile() throws IOException {
+		File file = File.createTempFile("YAVC_stats", ".txt");
+		file.deleteOnExit();
+		return file;
+	}
+}
@@ -0,0 +1,54 @@
+package encoder;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import utils.PixelRaster;
+
+public class TestFrameEncoder {
+	@Test
+	public void testErrorOfListenerDoesNotBlockCaller() {
+		EncoderSettings settings = new EncoderSettings();
+		settings.setInputPrefetch(1);
+		
+		FrameEncoder encoder = FrameEncoder.open(settings, frame -> {
+			throw new AssertionError("Listener failed");
+		});
+		
+		PixelRaster frame = createFrame(new Dimension(64, 64));
+		
+		assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+			//More frames than rasters, a dead worker would never return one
+			IllegalStateException e = assertThrows(IllegalStateException.class, () -> {
+				for (int i = 0; i < 8; i++) {
+					encoder.encode(frame, i);
+				}
+				
+				encoder.flush();
+			});
+			
+			assertInstanceOf(AssertionError.class, e.getCause());
+			assertThrows(IllegalStateException.class, () -> encoder.flush());
+			assertThrows(IllegalStateException.class, () -> encoder.close());
+		});
+	}
+	
+	private PixelRaster createFrame(Dimension dim) {
+		BufferedImage img = new BufferedImage(dim.width, dim.height, BufferedImage.TYPE_INT_ARGB);
+		
+		for (int x = 0; x < dim.width; x++) {
+			for (int y = 0; y < dim.height; y++) {
+				img.setRGB(x, y, 0xFF000000 | (x % 256) << 16 | (y % 256) << 8 | ((x + y) % 256));
+			}
+		}
+		
+		return new PixelRaster(img);
+	}
+}
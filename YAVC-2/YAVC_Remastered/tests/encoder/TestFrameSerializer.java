@@ -0,0 +1,94 @@
+package encoder;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import app.config;
+import interprediction.Vector;
+import utils.PixelRaster;
+import utils.Protocol;
+import utils.QueueObject;
+import utils.TileLayout;
+
+public class TestFrameSerializer {
+	@Test
+	public void testTileHeaderOfKeyframe() {
+		PixelRaster frame = createFrame(new Dimension(300, 200));
+		TileLayout layout = new TileLayout(frame.getDimension(), 3, 2);
+		QueueObject obj = new QueueObject(frame);
+		obj.setTileLayout(layout);
+		
+		byte[] data = FrameSerializer.serialize(obj);
+		assertEquals(FrameSerializer.getPayloadSize(obj), data.length);
+		
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		assertEquals(Protocol.TILED_FRAME_START, buffer.get(0));
+		assertEquals(3, buffer.get(1) & 0xFF);
+		assertEquals(2, buffer.get(2) & 0xFF);
+		
+		int offset = Protocol.getTileHeaderLength(layout.getTileCount());
+		
+		for (int i = 0; i < layout.getTileCount(); i++) {
+			assertEquals(offset, buffer.getInt(3 + i * Protocol.SIZE_OF_INT));
+			
+			//Every tile is a keyframe of its own
+			byte[] tile = FrameSerializer.serializeKeyframe(frame, layout.getTile(i));
+			assertArrayEquals(tile, Arrays.copyOfRange(data, offset, offset + tile.length));
+			offset += tile.length;
+		}
+		
+		assertEquals(data.length, offset);
+	}
+	
+	@Test
+	public void testTileHeaderOfVectors() {
+		Dimension dim = new Dimension(300, 200);
+		TileLayout layout = new TileLayout(dim, 3, 2);
+		ArrayList<Vector> vecs = new ArrayList<Vector>();
+		
+		//One vector, that is moved into the last tile
+		Vector vec = new Vector(new Point(256, 128), 4);
+		vec.setSpanX(4);
+		vec.setSpanY(4);
+		vec.setReference(config.MAX_REFERENCES);
+		vec.setAbsoluteDifferences(new double[4][4][4]);
+		vecs.add(vec);
+		
+		QueueObject obj = new QueueObject(vecs, null);
+		obj.setTileLayout(layout);
+		
+		byte[] data = FrameSerializer.serialize(obj);
+		assertEquals(FrameSerializer.getPayloadSize(obj), data.length);
+		
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		int count = layout.getTileCount();
+		
+		for (int i = 0; i < count; i++) {
+			int start = buffer.getInt(3 + i * Protocol.SIZE_OF_INT);
+			int end = i + 1 < count ? buffer.getInt(3 + (i + 1) * Protocol.SIZE_OF_INT) : data.length;
+			byte[] expected = FrameSerializer.serializeVectors(i == count - 1 ? vecs : new ArrayList<Vector>());
+			assertArrayEquals(expected, Arrays.copyOfRange(data, start, end));
+		}
+	}
+	
+	private PixelRaster createFrame(Dimension dim) {
+		BufferedImage img = new BufferedImage(dim.width, dim.height, BufferedImage.TYPE_INT_ARGB);
+		
+		for (int x = 0; x < dim.width; x++) {
+			for (int y = 0; y < dim.height; y++) {
+				img.setRGB(x, y, 0xFF000000 | (x % 256) << 16 | (y % 256) << 8 | ((x + y) % 256));
+			}
+		}
+		
+		return new PixelRaster(img);
+	}
+}
@@ -0,0 +1,253 @@
+package encoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.awt.Dimension;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import interprediction.Vector;
+import utils.Protocol;
+import utils.QueueObject;
+
+public class TestOutputStream {
+	@Test
+	public void testFailingSerializerDoesNotBlockFinish() throws IOException {
+		File file = File.createTempFile("YAVC_output", ".yavcv");
+		file.deleteOnExit();
+		
+		OutputStream out = new OutputStream(file, 1);
+		out.activate();
+		out.writeMetadata(new Dimension(16, 16), 8);
+		
+		assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+			//Frames without vectors make the serializer throw
+			assertThrows(IllegalStateException.class, () -> {
+				for (int i = 0; i < 8; i++) {
+					out.addObjectToOutputQueue(new QueueObject(null, null));
+				}
+			});
+			
+			assertThrows(IllegalStateException.class, () -> out.close());
+		});
+		
+		assertNotNull(out.getFailure());
+	}
+	
+	@Test
+	public void testFailingSerializerDoesNotBlockAbort() throws IOException {
+		File file = File.createTempFile("YAVC_output", ".yavcv");
+		file.deleteOnExit();
+		
+		OutputStream out = new OutputStream(file, 1);
+		out.activate();
+		out.writeMetadata(new Dimension(16, 16), 1);
+		
+		assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+			try {
+				out.addObjectToOutputQueue(new QueueObject(null, null));
+			} catch (IllegalStateException e) {
+				//The writer may fail before the frame is handed over
+			}
+			
+			out.abort();
+		});
+	}
+	
+	@Test
+	public void testUnopenableOutputThrows() throws IOException {
+		File dir = Files.createTempDirectory("YAVC_output").toFile();
+		dir.deleteOnExit();
+		
+		OutputStream out = new OutputStream(new File(dir, "missing/out.yavcv"), 1);
+		assertThrows(UncheckedIOException.class, () -> out.activate());
+		out.abort();
+	}
+	
+	@Test
+	public void testInactiveStreamKeepsExistingFile() throws IOException {
+		File file = File.createTempFile("YAVC_output", ".yavcv");
+		file.deleteOnExit();
+		Files.write(file.toPath(), new byte[] {1, 2, 3});
+		
+		OutputStream out = new OutputStream(file, 1);
+		out.abort();
+		
+		assertEquals(3, file.length());
+	}
+	
+	@Test
+	public void testFailingWriteIsReported() throws IOException {
+		File file = File.createTempFile("YAVC_output", ".yavcv");
+		file.deleteOnExit();
+		
+		//The first frame is written, the second one fails
+		MemoryChannel channel = new MemoryChannel(1);
+		OutputStream out = new OutputStream(file, 1) {
+			@Override
+			FileChannel openChannel(File file) {
+				return channel;
+			}
+		};
+		
+		out.activate();
+		out.writeMetadata(new Dimension(16, 16), 3);
+		
+		assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+			assertThrows(IllegalStateException.class, () -> {
+				for (int i = 0; i < 3; i++) {
+					out.addObjectToOutputQueue(new QueueObject(new ArrayList<Vector>(), null));
+				}
+				
+				out.close();
+			});
+		});
+		
+		assertInstanceOf(UncheckedIOException.class, out.getFailure());
+		assertFalse(channel.isOpen());
+		
+		//The trailer only contains the frame, that was written completely
+		ByteBuffer data = channel.getData();
+		int trailerOffset = (int)data.getLong(3 * Protocol.SIZE_OF_INT);
+		assertEquals(1, data.getInt(2 * Protocol.SIZE_OF_INT));
+		assertEquals(1, data.getInt(trailerOffset));
+		assertEquals(Protocol.META_DATA_LEN, data.getLong(trailerOffset + Protocol.SIZE_OF_INT));
+	}
+	
+	/**
+	 * Channel, that keeps the file in memory and fails
+	 * after a given amount of gathering writes.
+	 */
+	private static class MemoryChannel extends FileChannel {
+		private byte[] data = new byte[0];
+		private long position = 0;
+		private int writesLeft = 0;
+		
+		private MemoryChannel(int writesLeft) {
+			this.writesLeft = writesLeft;
+		}
+		
+		private ByteBuffer getData() {
+			return ByteBuffer.wrap(this.data);
+		}
+		
+		@Override
+		public int write(ByteBuffer src, long position) {
+			int length = src.remaining();
+			
+			if (position + length > this.data.length) {
+				this.data = Arrays.copyOf(this.data, (int)position + length);
+			}
+			
+			src.get(this.data, (int)position, length);
+			return length;
+		}
+		
+		@Override
+		public int write(ByteBuffer src) {
+			int length = write(src, this.position);
+			this.position += length;
+			return length;
+		}
+		
+		@Override
+		public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+			if (this.writesLeft-- <= 0) {
+				throw new IOException("No space left on device");
+			}
+			
+			long written = 0;
+			
+			for (int i = offset; i < offset + length; i++) {
+				written += write(srcs[i]);
+			}
+			
+			return written;
+		}
+		
+		@Override
+		public long position() {
+			return this.position;
+		}
+		
+		@Override
+		public FileChannel position(long newPosition) {
+			this.position = newPosition;
+			return this;
+		}
+		
+		@Override
+		public long size() {
+			return this.data.length;
+		}
+		
+		@Override
+		public int read(ByteBuffer dst) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public long read(ByteBuffer[] dsts, int offset, int length) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public int read(ByteBuffer dst, long position) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public FileChannel truncate(long size) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public void force(boolean metaData) {}
+		
+		@Override
+		public long transferTo(long position, long count, WritableByteChannel target) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public long transferFrom(ReadableByteChannel src, long position, long count) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public MappedByteBuffer map(MapMode mode, long position, long size) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public FileLock lock(long position, long size, boolean shared) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public FileLock tryLock(long position, long size, boolean shared) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		protected void implCloseChannel() {}
+	}
+}
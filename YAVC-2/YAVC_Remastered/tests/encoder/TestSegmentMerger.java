@@ -0,0 +1,133 @@
+package encoder;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import interprediction.Vector;
+import utils.PixelRaster;
+import utils.Protocol;
+import utils.QueueObject;
+
+public class TestSegmentMerger {
+	private static final Dimension DIM = new Dimension(16, 16);
+	
+	@Test
+	public void testMergeMovesIndexes() throws IOException, InterruptedException {
+		File first = writeSegment(2);
+		File empty = writeSegment(0);
+		File last = writeSegment(3);
+		File output = createTempFile();
+		
+		int frames = SegmentMerger.merge(List.of(first, empty, last), output);
+		assertEquals(5, frames);
+		
+		ByteBuffer merged = ByteBuffer.wrap(Files.readAllBytes(output.toPath()));
+		assertEquals(DIM.width, merged.getInt(0));
+		assertEquals(DIM.height, merged.getInt(Protocol.SIZE_OF_INT));
+		assertEquals(5, merged.getInt(2 * Protocol.SIZE_OF_INT));
+		
+		ByteBuffer firstData = ByteBuffer.wrap(Files.readAllBytes(first.toPath()));
+		ByteBuffer lastData = ByteBuffer.wrap(Files.readAllBytes(last.toPath()));
+		long[] firstOffsets = getFrameOffsets(firstData);
+		long[] lastOffsets = getFrameOffsets(lastData);
+		long[] mergedOffsets = getFrameOffsets(merged);
+		assertEquals(5, mergedOffsets.length);
+		
+		//The frames of the last segment follow the frames of the first one
+		long shift = getTrailerOffset(firstData) - Protocol.META_DATA_LEN;
+		
+		for (int i = 0; i < 5; i++) {
+			ByteBuffer source = i < 2 ? firstData : lastData;
+			long offset = i < 2 ? firstOffsets[i] : lastOffsets[i - 2];
+			assertEquals(offset + (i < 2 ? 0 : shift), mergedOffsets[i]);
+			assertArrayEquals(getFrame(source, offset), getFrame(merged, mergedOffsets[i]));
+		}
+		
+		//Every segment starts with a keyframe
+		ByteBuffer trailer = merged.position((int)getTrailerOffset(merged) + Protocol.SIZE_OF_INT + 5 * Protocol.SIZE_OF_LONG);
+		assertEquals(2, trailer.getInt());
+		assertEquals(0, trailer.getInt());
+		assertEquals(mergedOffsets[0], trailer.getLong());
+		assertEquals(2, trailer.getInt());
+		assertEquals(mergedOffsets[2], trailer.getLong());
+	}
+	
+	@Test
+	public void testMergeOfEmptySegments() throws IOException, InterruptedException {
+		File output = createTempFile();
+		
+		assertEquals(0, SegmentMerger.merge(List.of(writeSegment(0)), output));
+		
+		ByteBuffer merged = ByteBuffer.wrap(Files.readAllBytes(output.toPath()));
+		assertEquals(0, merged.getInt(2 * Protocol.SIZE_OF_INT));
+		assertEquals(0, getFrameOffsets(merged).length);
+	}
+	
+	/**
+	 * Writes a segment, that starts with a keyframe
+	 * followed by frames without any vector.
+	 */
+	private File writeSegment(int frames) throws IOException, InterruptedException {
+		File file = createTempFile();
+		OutputStream out = new OutputStream(file, 1);
+		out.activate();
+		out.writeMetadata(DIM, frames);
+		
+		for (int i = 0; i < frames; i++) {
+			out.addObjectToOutputQueue(i == 0 ? new QueueObject(createFrame(file.hashCode())) : new QueueObject(new ArrayList<Vector>(), null));
+		}
+		
+		out.close();
+		return file;
+	}
+	
+	private File createTempFile() throws IOException {
+		File file = File.createTempFile("YAVC_segment", ".yavcv");
+		file.deleteOnExit();
+		return file;
+	}
+	
+	private long getTrailerOffset(ByteBuffer data) {
+		return data.getLong(3 * Protocol.SIZE_OF_INT);
+	}
+	
+	private long[] getFrameOffsets(ByteBuffer data) {
+		int trailer = (int)getTrailerOffset(data);
+		long[] offsets = new long[data.getInt(trailer)];
+		
+		for (int i = 0; i < offsets.length; i++) {
+			offsets[i] = data.getLong(trailer + Protocol.SIZE_OF_INT + i * Protocol.SIZE_OF_LONG);
+		}
+		
+		return offsets;
+	}
+	
+	private byte[] getFrame(ByteBuffer data, long offset) {
+		int start = (int)offset + Protocol.SIZE_OF_INT;
+		return Arrays.copyOfRange(data.array(), start, start + data.getInt((int)offset));
+	}
+	
+	private PixelRaster createFrame(int seed) {
+		BufferedImage img = new BufferedImage(DIM.width, DIM.height, BufferedImage.TYPE_INT_ARGB);
+		
+		for (int x = 0; x < DIM.width; x++) {
+			for (int y = 0; y < DIM.height; y++) {
+				img.setRGB(x, y, 0xFF000000 | ((seed + x * 31 + y) & 0xFFFFFF));
+			}
+		}
+		
+		return new PixelRaster(img);
+	}
+}
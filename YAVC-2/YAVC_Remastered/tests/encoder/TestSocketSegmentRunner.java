@@ -0,0 +1,72 @@
+package encoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TestSocketSegmentRunner {
+	@Test
+	public void testListensOnLoopback() throws Exception {
+		try (SocketSegmentRunner runner = new SocketSegmentRunner(0, List.of())) {
+			assertTrue(runner.getAddress().isLoopbackAddress());
+			assertTrue(runner.getToken().length() > 0);
+		}
+	}
+	
+	@Test
+	public void testWrongTokenIsRejected() throws Exception {
+		try (SocketSegmentRunner runner = new SocketSegmentRunner(null, 0, "secret", 1, List.of());
+			Socket socket = new Socket(InetAddress.getLoopbackAddress(), runner.getPort())) {
+			DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+			out.writeUTF(SocketSegmentRunner.WORKER_GREETING);
+			out.writeInt(SocketSegmentRunner.PROTOCOL_VERSION);
+			out.writeUTF("guess");
+			out.flush();
+			
+			socket.setSoTimeout(5000);
+			assertEquals(-1, socket.getInputStream().read());
+		}
+	}
+	
+	@Test
+	public void testHungWorkerIsReplaced() throws Exception {
+		File output = File.createTempFile("YAVC_segment", ".yavcv");
+		output.deleteOnExit();
+		
+		try (SocketSegmentRunner runner = new SocketSegmentRunner(null, 0, "secret", 1, List.of());
+			Socket hung = new Socket(InetAddress.getLoopbackAddress(), runner.getPort())) {
+			DataOutputStream out = new DataOutputStream(hung.getOutputStream());
+			out.writeUTF(SocketSegmentRunner.WORKER_GREETING);
+			out.writeInt(SocketSegmentRunner.PROTOCOL_VERSION);
+			out.writeUTF("secret");
+			out.flush();
+			
+			Thread worker = new Thread(() -> {
+				try {
+					//The second worker only connects, after the hung one got the job
+					new DataInputStream(hung.getInputStream()).readByte();
+					new SegmentWorker("localhost", runner.getPort(), "secret", (args) -> 0).run(5000);
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			});
+			
+			worker.setDaemon(true);
+			worker.start();
+			
+			assertTimeoutPreemptively(Duration.ofSeconds(30), () -> runner.encode(new File("input.y4m"), new Segment(0, 0, 1, output, null)));
+			assertEquals(0, Files.size(output.toPath()));
+		}
+	}
+}
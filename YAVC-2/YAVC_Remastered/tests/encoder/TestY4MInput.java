@@ -0,0 +1,73 @@
+package encoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Dimension;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import utils.PixelRaster;
+
+public class TestY4MInput {
+	@Test
+	public void testSupportedColorspaces() throws IOException {
+		String[] colorspaces = {"420", "420jpeg", "420paldv", "420mpeg2"};
+		
+		for (String colorspace : colorspaces) {
+			try (Y4MInput input = open("YUV4MPEG2 W8 H4 F25:1 C" + colorspace + "\n", new byte[0])) {
+				assertEquals("25:1", input.getFrameRate());
+			}
+		}
+	}
+	
+	@Test
+	public void testUnsupportedColorspaces() {
+		String[] colorspaces = {"420p10", "420p12", "422", "444", "mono"};
+		
+		for (String colorspace : colorspaces) {
+			assertThrows(IOException.class, () -> open("YUV4MPEG2 W8 H4 C" + colorspace + "\n", new byte[0]));
+		}
+	}
+	
+	@Test
+	public void testLimitedRangeIsClamped() throws IOException {
+		//Y of 0 and 255, U and V of 0 and 255 in a 4x4 frame
+		byte[] frame = new byte[16 + 4 + 4];
+		
+		for (int i = 0; i < frame.length; i++) {
+			frame[i] = (byte)(i % 2 == 0 ? 0 : 255);
+		}
+		
+		try (Y4MInput input = open("YUV4MPEG2 W4 H4\n", frame)) {
+			PixelRaster raster = input.read(0, null);
+			assertEquals(new Dimension(4, 4), raster.getDimension());
+			
+			for (int x = 0; x < 4; x++) {
+				for (int y = 0; y < 4; y++) {
+					for (double value : raster.getYUV(x, y)) {
+						assertTrue(value >= 0 && value <= 255, "Sample " + value + " is out of range");
+					}
+				}
+			}
+		}
+	}
+	
+	private Y4MInput open(String header, byte[] frame) throws IOException {
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		stream.write(header.getBytes(StandardCharsets.US_ASCII));
+		
+		if (frame.length > 0) {
+			stream.write("FRAME\n".getBytes(StandardCharsets.US_ASCII));
+			stream.write(frame);
+		}
+		
+		return new Y4MInput(Channels.newChannel(new ByteArrayInputStream(stream.toByteArray())));
+	}
+}
@@ -0,0 +1,61 @@
+package interprediction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import utils.MacroBlock;
+import utils.PixelRaster;
+import utils.ReferenceBuffer;
+
+public class TestVectorEngine {
+	@Test
+	public void testEveryBlockIsSearched() {
+		Dimension dim = new Dimension(64, 64);
+		PixelRaster frame = createFrame(dim);
+		ReferenceBuffer refs = new ReferenceBuffer(dim, 1);
+		refs.addKeyframe(frame);
+		
+		//A single block, the last block of a chunk and more than one chunk
+		int[] blockCounts = {1, 4, 16};
+		
+		for (int count : blockCounts) {
+			ArrayList<MacroBlock> blocks = new ArrayList<MacroBlock>(count);
+			
+			for (int i = 0; i < count; i++) {
+				Point pos = new Point((i % 4) * 16, (i / 4) * 16);
+				blocks.add(new MacroBlock(pos, 16, frame.getPixelBlock(pos, 16, null)));
+			}
+			
+			ArrayList<Vector> vecs = new VectorEngine().computeMovementVectors(blocks, refs, 8, 1);
+			assertEquals(count, vecs.size());
+			assertTrue(blocks.isEmpty());
+		}
+	}
+	
+	private PixelRaster createFrame(Dimension dim) {
+		double[][] Y = new double[dim.width][dim.height];
+		double[][] U = new double[dim.width / 2][dim.height / 2];
+		double[][] V = new double[dim.width / 2][dim.height / 2];
+		
+		for (int x = 0; x < dim.width; x++) {
+			for (int y = 0; y < dim.height; y++) {
+				Y[x][y] = (x * 7 + y * 13) % 256;
+			}
+		}
+		
+		for (int x = 0; x < dim.width / 2; x++) {
+			for (int y = 0; y < dim.height / 2; y++) {
+				U[x][y] = (x * 3) % 256;
+				V[x][y] = (y * 5) % 256;
+			}
+		}
+		
+		return new PixelRaster(dim, Y, U, V);
+	}
+}
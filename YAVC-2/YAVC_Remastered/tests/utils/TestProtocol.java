@@ -15,4 +15,15 @@ public class TestProtocol {
 			assertEquals(pos, reversePos);
 		}
 	}
+	
+	@Test
+	public void testLongBytes() {
+		long[] numbers = {0, 1, 255, 4096, Integer.MAX_VALUE, 3L * Integer.MAX_VALUE, Long.MAX_VALUE};
+		
+		for (long num : numbers) {
+			byte[] numBytes = Protocol.getLongBytes(num);
+			long reverseNum = Protocol.getLongFromBytes(numBytes, 0);
+			assertEquals(num, reverseNum);
+		}
+	}
 }
@@ -0,0 +1,87 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.Dimension;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class TestReferenceBuffer {
+	private static final Dimension DIM = new Dimension(64, 64);
+	
+	@Test
+	public void testOnlyChangedTilesAreCopied() {
+		ReferenceBuffer buffer = new ReferenceBuffer(DIM, 2);
+		PixelRaster keyframe = buffer.addKeyframe(createFrame(10));
+		
+		PixelRaster first = buffer.beginFrame();
+		first.setLuma(0, 0, 20);
+		buffer.markChanged(0, 0, 8, 8);
+		buffer.commitFrame();
+		
+		//The slot was never written, so every tile is copied
+		PixelRaster second = buffer.beginFrame();
+		assertEquals(20, second.getYUV(0, 0)[0]);
+		assertEquals(10, second.getYUV(40, 40)[0]);
+		second.setLuma(40, 40, 30);
+		buffer.markChanged(40, 40, 1, 1);
+		buffer.commitFrame();
+		
+		assertEquals(2, buffer.size());
+		assertSame(first, buffer.get(0));
+		assertSame(second, buffer.getNewest());
+		
+		//The slot of the keyframe is reused, a static tile keeps its content
+		keyframe.setLuma(40, 0, 99);
+		PixelRaster third = buffer.beginFrame();
+		assertSame(keyframe, third);
+		assertEquals(20, third.getYUV(0, 0)[0]);
+		assertEquals(30, third.getYUV(40, 40)[0]);
+		assertEquals(99, third.getYUV(40, 0)[0]);
+	}
+	
+	@Test
+	public void testRetainedFrameIsNotOverwritten() {
+		ReferenceBuffer buffer = new ReferenceBuffer(DIM, 1, 1);
+		PixelRaster keyframe = buffer.addKeyframe(createFrame(10));
+		
+		PixelRaster frame = buffer.beginFrame();
+		frame.setLuma(0, 0, 20);
+		buffer.markChanged(0, 0, 1, 1);
+		buffer.commitFrame();
+		
+		//The keyframe is no reference anymore, but still retained
+		assertEquals(1, buffer.size());
+		buffer.beginFrame();
+		buffer.commitFrame();
+		assertEquals(10, keyframe.getYUV(0, 0)[0]);
+		
+		//Only the next frame reuses the slot of the keyframe
+		assertSame(keyframe, buffer.beginFrame());
+		assertEquals(20, keyframe.getYUV(0, 0)[0]);
+	}
+	
+	@Test
+	public void testBeginWithoutReference() {
+		ReferenceBuffer buffer = new ReferenceBuffer(DIM, 1);
+		assertThrows(IllegalStateException.class, () -> buffer.beginFrame());
+		
+		buffer.addKeyframe(createFrame(10));
+		buffer.clear();
+		assertThrows(IllegalStateException.class, () -> buffer.beginFrame());
+		assertThrows(IllegalStateException.class, () -> buffer.commitFrame());
+	}
+	
+	private PixelRaster createFrame(double luma) {
+		double[][] Y = new double[DIM.width][DIM.height];
+		
+		for (double[] column : Y) {
+			Arrays.fill(column, luma);
+		}
+		
+		return new PixelRaster(DIM, Y, new double[DIM.width / 2][DIM.height / 2], new double[DIM.width / 2][DIM.height / 2]);
+	}
+}
@@ -0,0 +1,72 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+
+import org.junit.jupiter.api.Test;
+
+public class TestTileLayout {
+	@Test
+	public void testTilesCoverTheFrame() {
+		//None of the dimensions is a multiple of the root size
+		Dimension[] dims = {new Dimension(300, 200), new Dimension(644, 360), new Dimension(1284, 724)};
+		
+		for (Dimension dim : dims) {
+			int rootsX = TileLayout.getRoots(dim.width);
+			int rootsY = TileLayout.getRoots(dim.height);
+			
+			for (int columns = 1; columns <= rootsX; columns++) {
+				for (int rows = 1; rows <= rootsY; rows++) {
+					TileLayout layout = new TileLayout(dim, columns, rows);
+					int area = 0;
+					
+					for (int i = 0; i < layout.getTileCount(); i++) {
+						Rectangle tile = layout.getTile(i);
+						assertFalse(tile.isEmpty());
+						assertEquals(0, tile.x % TileLayout.ROOT_SIZE);
+						assertEquals(0, tile.y % TileLayout.ROOT_SIZE);
+						assertTrue(new Rectangle(dim).contains(tile));
+						area += tile.width * tile.height;
+						
+						//Every corner of the tile belongs to the tile
+						assertEquals(i, layout.getTileIndex(tile.x, tile.y));
+						assertEquals(i, layout.getTileIndex(tile.x + tile.width - 1, tile.y + tile.height - 1));
+					}
+					
+					assertEquals(dim.width * dim.height, area);
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testPositionsOutsideTheFrame() {
+		TileLayout layout = new TileLayout(new Dimension(300, 200), 3, 2);
+		assertEquals(0, layout.getTileIndex(-4, -4));
+		assertEquals(5, layout.getTileIndex(300, 200));
+		assertEquals(5, layout.getTileIndex(400, 300));
+	}
+	
+	@Test
+	public void testPredictionArea() {
+		TileLayout layout = new TileLayout(new Dimension(300, 200), 3, 2);
+		assertEquals(layout.getTile(0), layout.getPredictionArea(0));
+		
+		//The last tile is open towards the right and bottom border
+		Rectangle last = layout.getPredictionArea(5);
+		assertTrue(last.contains(299 + 64, 199 + 64));
+	}
+	
+	@Test
+	public void testInvalidLayouts() {
+		Dimension dim = new Dimension(300, 200);
+		assertThrows(IllegalArgumentException.class, () -> new TileLayout(dim, 0, 1));
+		assertThrows(IllegalArgumentException.class, () -> new TileLayout(dim, 4, 1));
+		assertThrows(IllegalArgumentException.class, () -> new TileLayout(dim, 1, 3));
+	}
+}